@@ -0,0 +1,108 @@
+package com.learn.spring.learnspring.config.async;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.request.async.SecurityContextCallableProcessingInterceptor;
+import org.springframework.security.web.context.request.async.WebAsyncManagerIntegrationFilter;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * # 비동기 컨텍스트 전파 비용
+ * - 할당량은 gc.alloc.rate.norm, 지연은 AverageTime/SampleTime(p0.99)으로 본다
+ *   - ./gradlew jmh -PjmhIncludes=AsyncContextPropagationBenchmark
+ *
+ * # 동기 요청(대부분의 요청)
+ * - filterPerRequest: 이전 방식. WebAsyncManagerIntegrationFilter가 요청마다 WebAsyncManager를 만들고 인터셉터를 등록
+ * - lazy: 필터 없이 체인만. ContextPropagatingAsyncInterceptor는 비동기로 넘어가지 않으면 호출되지 않는다
+ *
+ * # Callable 한 번(비동기로 넘어간 요청)
+ * - securityInterceptor: SecurityContextCallableProcessingInterceptor 생성 + before/pre/post
+ * - propagatingInterceptor: 공유 인스턴스로 security, mdc, locale 스냅샷 + before/pre/post
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AsyncContextPropagationBenchmark {
+    private static final Callable<Object> TASK = () -> "result";
+
+    private WebAsyncManagerIntegrationFilter integrationFilter;
+    private ContextPropagatingAsyncInterceptor propagatingInterceptor;
+    private SecurityContext context;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        integrationFilter = new WebAsyncManagerIntegrationFilter();
+        propagatingInterceptor = new ContextPropagatingAsyncInterceptor(List.of(
+                ContextAccessors.security(), ContextAccessors.mdc(), ContextAccessors.locale()));
+        context = new SecurityContextImpl(new UsernamePasswordAuthenticationToken(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+        SecurityContextHolder.setContext(context);
+        request = new MockHttpServletRequest("GET", "/home");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void filterPerRequest(Blackhole blackhole) throws IOException, ServletException {
+        // WebAsyncUtils가 요청 속성에 WebAsyncManager를 두므로 매번 새 요청처럼 지운다
+        request.clearAttributes();
+        integrationFilter.doFilter(request, response, chain(blackhole));
+    }
+
+    @Benchmark
+    public void lazy(Blackhole blackhole) throws IOException, ServletException {
+        request.clearAttributes();
+        chain(blackhole).doFilter(request, response);
+    }
+
+    @Benchmark
+    public void securityInterceptor(Blackhole blackhole) throws Exception {
+        request.clearAttributes();
+        NativeWebRequest webRequest = new ServletWebRequest(request, response);
+        SecurityContextCallableProcessingInterceptor interceptor = new SecurityContextCallableProcessingInterceptor();
+        interceptor.beforeConcurrentHandling(webRequest, TASK);
+        interceptor.preProcess(webRequest, TASK);
+        blackhole.consume(TASK.call());
+        interceptor.postProcess(webRequest, TASK, null);
+        // 작업 스레드에서 비워진 컨텍스트를 다음 반복을 위해 되돌린다
+        SecurityContextHolder.setContext(context);
+    }
+
+    @Benchmark
+    public void propagatingInterceptor(Blackhole blackhole) throws Exception {
+        request.clearAttributes();
+        NativeWebRequest webRequest = new ServletWebRequest(request, response);
+        propagatingInterceptor.beforeConcurrentHandling(webRequest, TASK);
+        propagatingInterceptor.preProcess(webRequest, TASK);
+        blackhole.consume(TASK.call());
+        propagatingInterceptor.postProcess(webRequest, TASK, null);
+        SecurityContextHolder.setContext(context);
+    }
+
+    private static FilterChain chain(Blackhole blackhole) {
+        return (request, response) -> blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
@@ -0,0 +1,108 @@
+package com.learn.spring.learnspring.config.log;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+/**
+ * # 로그 한 줄 인코딩 비용
+ * - 이벤트는 한 번만 만들고 재사용한다. getFormattedMessage()는 이벤트 안에 캐시되므로 측정값은 레이아웃/인코더 자체 비용이다
+ * - layoutToBytes: CustomLogbackLayout을 LayoutWrappingEncoder로 쓸 때처럼 String을 만들고 UTF-8 byte[]로 바꾼다
+ * - encoderToStream: CustomLogbackConsoleAppender 경로. gc.alloc.rate.norm이 0에 가까워야 한다
+ * - structuredJson/structuredBinary: StructuredLogEncoder. MDC 두 개 포함
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CustomLogbackLayoutBenchmark {
+    private CustomLogbackLayout layout;
+    private CustomLogbackEncoder encoder;
+    private StructuredLogEncoder jsonEncoder;
+    private StructuredLogEncoder binaryEncoder;
+    private LoggingEvent event;
+    private OutputStream out;
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = new LoggerContext();
+        Logger logger = context.getLogger("com.learn.spring.learnspring.service.clickhouse.TestTableIngestionService");
+        layout = new CustomLogbackLayout();
+        layout.setContext(context);
+        layout.start();
+        encoder = new CustomLogbackEncoder();
+        encoder.setContext(context);
+        encoder.start();
+        jsonEncoder = structuredEncoder(context, "json");
+        binaryEncoder = structuredEncoder(context, "binary");
+        event = new LoggingEvent(Logger.class.getName(), logger, Level.INFO,
+                "Sent {} bytes to test_db.test_table", null, new Object[]{1_048_576});
+        event.setThreadName("http-nio-8080-exec-1");
+        event.setMDCPropertyMap(Map.of("requestId", "3f9a0c1b2d4e5f60", "principal", "admin"));
+        event.getFormattedMessage();
+    }
+
+    @Setup
+    public void setUpStream(Blackhole blackhole) {
+        out = new OutputStream() {
+            @Override
+            public void write(int b) {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                blackhole.consume(b);
+                blackhole.consume(len);
+            }
+        };
+    }
+
+    @Benchmark
+    public String doLayout() {
+        return layout.doLayout(event);
+    }
+
+    @Benchmark
+    public byte[] layoutToBytes() {
+        return layout.doLayout(event).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void encoderToStream() throws IOException {
+        encoder.encodeTo(event, out);
+    }
+
+    @Benchmark
+    public void structuredJson() throws IOException {
+        jsonEncoder.encodeToBuffer(event).writeTo(out);
+    }
+
+    @Benchmark
+    public void structuredBinary() throws IOException {
+        binaryEncoder.encodeToBuffer(event).writeTo(out);
+    }
+
+    private static StructuredLogEncoder structuredEncoder(LoggerContext context, String format) {
+        StructuredLogEncoder structuredEncoder = new StructuredLogEncoder();
+        structuredEncoder.setContext(context);
+        structuredEncoder.setFormat(format);
+        structuredEncoder.start();
+        return structuredEncoder;
+    }
+}
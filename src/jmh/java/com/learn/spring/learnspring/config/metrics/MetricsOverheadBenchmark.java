@@ -0,0 +1,154 @@
+package com.learn.spring.learnspring.config.metrics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+/**
+ * # 계측 비용
+ * - 운영과 같은 PrometheusMeterRegistry에 기록한다
+ * - filterChain*: 아무 일도 하지 않는 필터 filters개를 통과하는 비용. timed는 모든 필터를 TimedFilter로 감싼다
+ *   - timedWithHistograms: learnspring.metrics.security-filter.histograms=true 일 때. HDR Recorder에도 기록한다
+ * - repository*: 빈 메서드 하나 호출. timed는 RepositoryMetricsInterceptor를 붙인 CGLIB 프록시
+ *   - proxied: 아무 일도 하지 않는 인터셉터를 붙인 같은 프록시. timed - proxied가 타이머 자체의 비용이다
+ *
+ * # 예산
+ * - 비용은 대부분 System.nanoTime이다. 기준선을 만든 VM에서는 한 번에 50 ns 안팎이라 측정값을 그 기준으로 본다
+ * - (filterChainTimed - filterChainBaseline) / filters: 필터당 200 ns 이하(기준선 약 160 ns = nanoTime 두 번 + LongAdder 두 번), 추가 할당 0 B/op
+ * - repositoryTimed - repositoryProxied: 호출당 250 ns 이하(기준선 약 210 ns = nanoTime 두 번 + Timer.record), 추가 할당 0 B/op
+ * - 예산을 넘는 변경은 ./gradlew jmhCompare 기준선(src/jmh/baseline/results.json) 비교에서 드러난다
+ *   - ./gradlew jmh -PjmhIncludes=MetricsOverheadBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsOverheadBenchmark {
+    /** 기본 보안 체인의 필터 수 정도 */
+    @Param({"1", "12"})
+    private int filters;
+
+    private List<Filter> baselineFilters;
+    private List<Filter> timedFilters;
+    private List<Filter> histogramFilters;
+    private SampleRepository repository;
+    private SampleRepository proxiedRepository;
+    private SampleRepository timedRepository;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        MeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        baselineFilters = new ArrayList<>();
+        for (int i = 0; i < filters; i++) {
+            baselineFilters.add(new PassThroughFilter());
+        }
+        timedFilters = new ArrayList<>(baselineFilters);
+        SecurityFilterMetricsPostProcessor.wrap(timedFilters, registry);
+        histogramFilters = new ArrayList<>(baselineFilters);
+        SecurityFilterMetricsPostProcessor.wrap(histogramFilters, registry, new FilterLatencyHistograms(2), "0: any request");
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", registry);
+        repository = new SampleRepository();
+        ProxyFactory passThrough = new ProxyFactory(repository);
+        passThrough.setProxyTargetClass(true);
+        passThrough.addAdvice((MethodInterceptor) MethodInvocation::proceed);
+        proxiedRepository = (SampleRepository) passThrough.getProxy();
+        ProxyFactory proxyFactory = new ProxyFactory(repository);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new RepositoryMetricsInterceptor(beanFactory.getBeanProvider(MeterRegistry.class), "repository.invocations"));
+        timedRepository = (SampleRepository) proxyFactory.getProxy();
+
+        request = new MockHttpServletRequest("GET", "/");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void filterChainBaseline() throws IOException, ServletException {
+        new Chain(baselineFilters).doFilter(request, response);
+    }
+
+    @Benchmark
+    public void filterChainTimed() throws IOException, ServletException {
+        new Chain(timedFilters).doFilter(request, response);
+    }
+
+    @Benchmark
+    public void filterChainTimedWithHistograms() throws IOException, ServletException {
+        new Chain(histogramFilters).doFilter(request, response);
+    }
+
+    @Benchmark
+    public int repositoryBaseline() {
+        return repository.find(filters);
+    }
+
+    @Benchmark
+    public int repositoryProxied() {
+        return proxiedRepository.find(filters);
+    }
+
+    @Benchmark
+    public int repositoryTimed() {
+        return timedRepository.find(filters);
+    }
+
+    /**
+     * FilterChainProxy.VirtualFilterChain과 같은 방식으로 목록을 차례로 실행한다
+     */
+    private static final class Chain implements FilterChain {
+        private final List<Filter> filters;
+        private int position;
+
+        Chain(List<Filter> filters) {
+            this.filters = filters;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+            if (position < filters.size()) {
+                filters.get(position++).doFilter(request, response, this);
+            }
+        }
+    }
+
+    private static final class PassThroughFilter implements Filter {
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            chain.doFilter(request, response);
+        }
+    }
+
+    public static class SampleRepository {
+        public int find(int id) {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.learn.spring.learnspring.config.resources;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+/**
+ * # 정적 자원 한 건을 보내는 비용
+ * - resourceHttpRequestHandler: 기존 구성(ResourceHttpRequestHandler, setCachePeriod(300)). 요청마다 파일을 찾고 읽는다
+ * - staticResourceHandler: StaticResourceHandler. small은 메모리의 gzip 바이트, large(1MB)는 파일에서 transferTo
+ * - 응답은 MockHttpServletResponse 메모리 버퍼라서 sendfile은 재지 않는다(소켓이 있어야 한다)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StaticResourceHandlerBenchmark {
+    @Param({"small", "large"})
+    private String asset;
+
+    private Path root;
+    private String path;
+    private ResourceHttpRequestHandler resourceHttpRequestHandler;
+    private StaticResourceHandler staticResourceHandler;
+
+    @Setup
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("static-resources");
+        String css = "body { margin: 0; padding: 0; }\n";
+        Files.write(root.resolve("small.css"), css.repeat(100).getBytes(StandardCharsets.UTF_8));
+        Files.write(root.resolve("large.css"), css.repeat(32768).getBytes(StandardCharsets.UTF_8));
+        path = asset + ".css";
+
+        resourceHttpRequestHandler = new ResourceHttpRequestHandler();
+        resourceHttpRequestHandler.setLocations(Collections.singletonList(new FileSystemResource(root.toString() + "/")));
+        resourceHttpRequestHandler.setCacheSeconds(300);
+        resourceHttpRequestHandler.setServletContext(new MockServletContext());
+        resourceHttpRequestHandler.afterPropertiesSet();
+
+        StaticResourceProperties properties = new StaticResourceProperties();
+        properties.setLocations(Collections.singletonList(root.toUri().toString()));
+        StaticAssetCatalog catalog = new StaticAssetCatalog(properties, new DefaultResourceLoader());
+        catalog.precompute();
+        staticResourceHandler = new StaticResourceHandler(catalog, properties);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse resourceHttpRequestHandler() throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        resourceHttpRequestHandler.handleRequest(request(), response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse staticResourceHandler() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        staticResourceHandler.handleRequest(request(), response);
+        return response;
+    }
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/resources/" + path);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, path);
+        request.addHeader("Accept-Encoding", "gzip, deflate, br");
+        return request;
+    }
+}
@@ -0,0 +1,89 @@
+package com.learn.spring.learnspring.config.security;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.Cookie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+
+/**
+ * # loadContext + saveContext 한 번 비용
+ * - session: 세션에 SecurityContext가 있는 요청. MockHttpSession은 해시맵 조회라 Tomcat 세션 관리자(ConcurrentHashMap, 만료 처리)보다 싸다
+ * - tokenCached: 같은 토큰이 반복되는 경우(검증 캐시 hit)
+ * - tokenUncached: 검증 캐시를 끈 경우(크기 0). 매번 Base64 디코딩 + HMAC 검증
+ * - 인증이 바뀌지 않은 요청이므로 saveContext는 양쪽 모두 아무것도 쓰지 않는다
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SecurityContextRepositoryBenchmark {
+    private HttpSessionSecurityContextRepository sessionRepository;
+    private TokenSecurityContextRepository cachedTokenRepository;
+    private TokenSecurityContextRepository uncachedTokenRepository;
+    private MockHttpServletRequest sessionRequest;
+    private MockHttpServletRequest tokenRequest;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        SecurityContext context = new SecurityContextImpl(new UsernamePasswordAuthenticationToken(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER")));
+
+        sessionRepository = new HttpSessionSecurityContextRepository();
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, context);
+        sessionRequest = new MockHttpServletRequest();
+        sessionRequest.setSession(session);
+
+        TokenSecurityContextProperties properties = new TokenSecurityContextProperties();
+        properties.setSecret(Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes()));
+        cachedTokenRepository = new TokenSecurityContextRepository(properties);
+        TokenSecurityContextProperties uncached = new TokenSecurityContextProperties();
+        uncached.setSecret(properties.getSecret());
+        uncached.setVerificationCacheSize(0);
+        uncachedTokenRepository = new TokenSecurityContextRepository(uncached);
+
+        tokenRequest = new MockHttpServletRequest();
+        tokenRequest.setCookies(new Cookie(properties.getCookieName(), cachedTokenRepository.issue(context.getAuthentication())));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public SecurityContext session() {
+        return loadAndSave(sessionRepository, sessionRequest);
+    }
+
+    @Benchmark
+    public SecurityContext tokenCached() {
+        return loadAndSave(cachedTokenRepository, tokenRequest);
+    }
+
+    @Benchmark
+    public SecurityContext tokenUncached() {
+        return loadAndSave(uncachedTokenRepository, tokenRequest);
+    }
+
+    private SecurityContext loadAndSave(SecurityContextRepository repository, MockHttpServletRequest request) {
+        HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+        SecurityContext context = repository.loadContext(holder);
+        repository.saveContext(context, holder.getRequest(), holder.getResponse());
+        return context;
+    }
+}
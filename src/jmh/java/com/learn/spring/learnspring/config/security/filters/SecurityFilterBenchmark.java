@@ -0,0 +1,91 @@
+package com.learn.spring.learnspring.config.security.filters;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.header.writers.CacheControlHeadersWriter;
+import org.springframework.security.web.header.writers.HstsHeaderWriter;
+import org.springframework.security.web.header.writers.XContentTypeOptionsHeaderWriter;
+import org.springframework.security.web.header.writers.XXssProtectionHeaderWriter;
+import org.springframework.security.web.header.writers.frameoptions.XFrameOptionsHeaderWriter;
+
+/**
+ * # 보안 필터 한 번 통과 비용
+ * - 서블릿 컨테이너 없이 Mock 요청/응답으로 필터만 실행한다
+ * - 요청/응답 객체는 재사용하고 매번 reset() 하므로, 측정값은 필터가 만드는 래퍼와 헤더 쓰기 비용이다
+ *
+ * # securityContextPersistence
+ * - 세션에 인증된 SecurityContext가 있는 요청. loadContext → chain → saveContext
+ *
+ * # headerWriter
+ * - HeadersConfigurer 기본 구성과 같은 HeaderWriter 목록. HSTS는 secure 요청에서만 쓰이므로 https 요청으로 실행
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SecurityFilterBenchmark {
+    private CustomSecurityContextPersistenceFilter persistenceFilter;
+    private CustomHeaderWriterFilter headerWriterFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        persistenceFilter = new CustomSecurityContextPersistenceFilter();
+        headerWriterFilter = new CustomHeaderWriterFilter(List.of(
+                new XContentTypeOptionsHeaderWriter(),
+                new XXssProtectionHeaderWriter(),
+                new CacheControlHeadersWriter(),
+                new HstsHeaderWriter(),
+                new XFrameOptionsHeaderWriter()));
+
+        SecurityContext context = new SecurityContextImpl(new UsernamePasswordAuthenticationToken(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, context);
+
+        request = new MockHttpServletRequest("GET", "/api/export/test-table");
+        request.setScheme("https");
+        request.setSecure(true);
+        request.setSession(session);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void securityContextPersistence(Blackhole blackhole) throws IOException, ServletException {
+        response.reset();
+        persistenceFilter.doFilter(request, response, chain(blackhole));
+    }
+
+    @Benchmark
+    public void headerWriter(Blackhole blackhole) throws IOException, ServletException {
+        response.reset();
+        headerWriterFilter.doFilter(request, response, chain(blackhole));
+        blackhole.consume(response.getHeader("X-Frame-Options"));
+    }
+
+    private static FilterChain chain(Blackhole blackhole) {
+        return (request, response) -> blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
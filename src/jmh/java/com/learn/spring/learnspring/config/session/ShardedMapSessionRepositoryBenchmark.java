@@ -0,0 +1,176 @@
+package com.learn.spring.learnspring.config.session;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.MapSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * # 세션 저장소
+ * - 세션 sessions개(기본 100만)가 살아 있는 상태에서 잰다. 세션마다 로그인한 SecurityContext와 문자열 속성 하나
+ * - store
+ *   - map: spring-session MapSessionRepository(ConcurrentHashMap). 비교 기준
+ *   - heap, offheap: ShardedMapSessionRepository. learnspring.session.off-heap.enabled 값
+ * - findById: 세션 조회(요청마다 SessionRepositoryFilter가 한 번)
+ * - saveTouched: 조회 + lastAccessedTime만 바꿔서 저장(대부분의 요청)
+ * - saveChanged: 조회 + 속성 하나를 바꿔서 저장
+ * - expiryTick: 시계를 1초 넘기고 만료 처리. 만료된 만큼 새 세션을 넣어 세션 수를 유지한다
+ *   - map은 Tomcat StandardManager.processExpires처럼 모든 세션을 훑는다. heap, offheap은 TimerWheel
+ *   - 세션 만료 시간은 30분 ~ 하루에 고르게 흩어 두었다. tick마다 평균 십여 개가 만료된다
+ * - ./gradlew jmh -PjmhIncludes=ShardedMapSessionRepositoryBenchmark
+ *   - 채우는 데(@Setup) 수 초가 걸리고 힙을 많이 쓴다. 힙, direct 메모리 한도는 @Fork에서 올린다
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:MaxDirectMemorySize=3g"})
+public class ShardedMapSessionRepositoryBenchmark {
+    private static final long DAY_SECONDS = Duration.ofDays(1).getSeconds();
+    private static final long MIN_INACTIVE_SECONDS = Duration.ofMinutes(30).getSeconds();
+
+    @Param({"1000000"})
+    private int sessions;
+
+    @Param({"map", "heap", "offheap"})
+    private String store;
+
+    /** MapSessionRepository.findById는 Instant.now()로 만료를 보므로 현재 시각에서 시작한다 */
+    private final MutableClock clock = new MutableClock(Instant.now());
+    private SessionRepository<Session> repository;
+    private ShardedMapSessionRepository sharded;
+    /** map 모드에서 훑을 MapSessionRepository의 맵 */
+    private Map<String, Session> mapSessions;
+    private String[] ids;
+    private long seed = 0x9E3779B97F4A7C15L;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        if ("map".equals(store)) {
+            mapSessions = new ConcurrentHashMap<>(sessions * 2);
+            repository = (SessionRepository<Session>) (SessionRepository<?>) new MapSessionRepository(mapSessions);
+        } else {
+            SessionStoreProperties properties = new SessionStoreProperties();
+            properties.getOffHeap().setEnabled("offheap".equals(store));
+            properties.getOffHeap().setMaxSize(DataSize.ofGigabytes(2));
+            sharded = new ShardedMapSessionRepository(properties, clock, getClass().getClassLoader());
+            repository = (SessionRepository<Session>) (SessionRepository<?>) sharded;
+        }
+        ids = new String[sessions];
+        for (int i = 0; i < sessions; i++) {
+            ids[i] = createSession("user-" + i);
+        }
+    }
+
+    @Benchmark
+    public Session findById() {
+        return repository.findById(ids[nextIndex()]);
+    }
+
+    @Benchmark
+    public Session saveTouched() {
+        Session session = repository.findById(ids[nextIndex()]);
+        session.setLastAccessedTime(clock.instant());
+        repository.save(session);
+        return session;
+    }
+
+    @Benchmark
+    public Session saveChanged() {
+        Session session = repository.findById(ids[nextIndex()]);
+        session.setLastAccessedTime(clock.instant());
+        session.setAttribute("lastPage", "/page/" + (seed & 0xFF));
+        repository.save(session);
+        return session;
+    }
+
+    @Benchmark
+    public int expiryTick() {
+        clock.advance(Duration.ofSeconds(1));
+        int expired;
+        if (sharded != null) {
+            expired = sharded.expireSessions();
+        } else {
+            long now = clock.millis();
+            int before = mapSessions.size();
+            mapSessions.values().removeIf(session -> session.getLastAccessedTime().plus(session.getMaxInactiveInterval()).toEpochMilli() < now);
+            expired = before - mapSessions.size();
+        }
+        for (int i = 0; i < expired; i++) {
+            ids[nextIndex()] = createSession("user-" + seed);
+        }
+        return expired;
+    }
+
+    private String createSession(String username) {
+        Session session = repository.createSession();
+        session.setLastAccessedTime(clock.instant());
+        session.setMaxInactiveInterval(Duration.ofSeconds(MIN_INACTIVE_SECONDS + Long.remainderUnsigned(nextRandom(), DAY_SECONDS)));
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.createAuthorityList("ROLE_USER"))));
+        session.setAttribute("lastPage", "/");
+        repository.save(session);
+        return session.getId();
+    }
+
+    private int nextIndex() {
+        return (int) Long.remainderUnsigned(nextRandom(), ids.length);
+    }
+
+    /** xorshift64. 세션 순서와 상관없이 흩어서 읽는다 */
+    private long nextRandom() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return seed;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
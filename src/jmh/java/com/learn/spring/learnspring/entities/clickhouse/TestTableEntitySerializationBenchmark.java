@@ -0,0 +1,79 @@
+package com.learn.spring.learnspring.entities.clickhouse;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideDecimal;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * # TestTableEntity 목록 JSON 직렬화 비용
+ * - TestTableRepository.findById() 결과를 그대로 응답으로 내보내는 경우
+ * - rows: 한 응답에 담기는 엔티티 수
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TestTableEntitySerializationBenchmark {
+    @Param({"1", "100"})
+    private int rows;
+
+    private ObjectMapper objectMapper;
+    private List<TestTableEntity> entities;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        entities = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            entities.add(row(i));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(entities);
+    }
+
+    private static TestTableEntity row(int i) {
+        TestTableEntity entity = new TestTableEntity();
+        entity.setId(1);
+        entity.setCInt16(i & 0x7FFF);
+        entity.setCInt32(i);
+        entity.setCInt64((long) i << 20);
+        entity.setCInt128(WideInteger.parse("170141183460469231731687303715884105727", 128));
+        entity.setCInt256(WideInteger.of(-i, 256));
+        entity.setCFloat32(i / 3f);
+        entity.setCFloat64(i / 7d);
+        entity.setCDecimal329(new BigDecimal("0.9999"));
+        entity.setCDecimal6418(new BigDecimal("0.999999999"));
+        entity.setCDecimal12838(WideDecimal.parse("0.99999999999999", 38, 128));
+        entity.setCDecimal25676(WideDecimal.parse("0.99999999999999999999", 76, 256));
+        entity.setCString("string " + i);
+        entity.setCFixedstring("fs");
+        LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 0, 0).plusSeconds(i);
+        entity.setCDate(dateTime);
+        entity.setCDate32(dateTime);
+        entity.setCDatetime(dateTime);
+        entity.setCDatetime64(dateTime);
+        entity.setCArrayInt8(Arrays.asList((short) 1, (short) 2, (short) 3));
+        entity.setCArrayInt16(Arrays.asList(100, 1000, 10000));
+        entity.setCArrayString(Arrays.asList("test", "string", "array"));
+        return entity;
+    }
+}
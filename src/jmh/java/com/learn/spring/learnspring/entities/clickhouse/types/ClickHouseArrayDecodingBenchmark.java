@@ -0,0 +1,83 @@
+package com.learn.spring.learnspring.entities.clickhouse.types;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.spring.learnspring.entities.clickhouse.types.ClickHouseArrayType.Element;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * # Array(Int16) 값 하나를 List로 읽는 비용
+ * - json*: 기존 매핑(@Type(type = "json")). JsonType은 컬럼 값을 문자열로 받아 Jackson으로 List<Integer>를 만든다
+ * - array*: ClickHouseArrayType. 드라이버가 준 short[]를 IntArrayList로 옮긴다
+ * - *Copy: dirty checking 스냅샷(deepCopy). JsonType은 직렬화 후 다시 파싱한다
+ * - 할당량은 -prof gc의 gc.alloc.rate.norm으로 비교한다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClickHouseArrayDecodingBenchmark {
+    private static final TypeReference<List<Integer>> INT_LIST = new TypeReference<>() {
+    };
+
+    @Param({"3", "64", "1024"})
+    private int length;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ClickHouseArrayType arrayType = new ClickHouseArrayType();
+    private String json;
+    private short[] driverArray;
+    private List<Integer> jsonList;
+    private List<?> decodedList;
+
+    @Setup
+    public void setUp() throws JsonProcessingException, SQLException {
+        Properties parameters = new Properties();
+        parameters.setProperty(ClickHouseArrayType.ELEMENT, Element.INT16.name());
+        arrayType.setParameterValues(parameters);
+
+        Random random = new Random(42);
+        driverArray = new short[length];
+        for (int i = 0; i < length; i++) {
+            driverArray[i] = (short) random.nextInt(Short.MAX_VALUE);
+        }
+        decodedList = ClickHouseArrayType.decode(Element.INT16, driverArray);
+        json = objectMapper.writeValueAsString(decodedList);
+        jsonList = objectMapper.readValue(json, INT_LIST);
+    }
+
+    @Benchmark
+    public List<Integer> jsonDecode() throws JsonProcessingException {
+        return objectMapper.readValue(json, INT_LIST);
+    }
+
+    @Benchmark
+    public List<?> arrayDecode() throws SQLException {
+        // 드라이버는 행마다 새 배열을 준다
+        return ClickHouseArrayType.decode(Element.INT16, driverArray.clone());
+    }
+
+    @Benchmark
+    public List<Integer> jsonCopy() throws JsonProcessingException {
+        return objectMapper.readValue(objectMapper.writeValueAsString(jsonList), INT_LIST);
+    }
+
+    @Benchmark
+    public Object arrayCopy() {
+        return arrayType.deepCopy(decodedList);
+    }
+}
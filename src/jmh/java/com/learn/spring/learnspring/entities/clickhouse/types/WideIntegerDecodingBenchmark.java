@@ -0,0 +1,134 @@
+package com.learn.spring.learnspring.entities.clickhouse.types;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.learn.spring.learnspring.repository.clickhouse.rowbinary.ClickHouseRowBinaryBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * # Int128/Int256/Decimal256 값 읽기, 쓰기 비용
+ * - bigDecimal*: 기존 매핑(BigDecimal 필드). wide*: WideInteger, WideDecimal
+ * - *FromString: JSONEachRow처럼 문자열로 온 값(TestTableJsonRowMapper)
+ * - *FromBigInteger: clickhouse-jdbc가 getObject()로 주는 BigInteger(BigDecimalType은 getBigDecimal()로 한 번 더 바꾼다)
+ * - rowBinary*: TestTableRowBinaryEncoder가 RowBinary로 쓰는 비용
+ * - 값 하나당 시간(OperationsPerInvocation = VALUES)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WideIntegerDecodingBenchmark {
+    private static final int VALUES = 1024;
+
+    /**
+     * int128, int256: 정수. decimal256: Decimal(76,76)
+     */
+    @Param({"int128", "int256", "decimal256"})
+    private String column;
+
+    private int bits;
+    private int scale;
+    private String[] strings;
+    private BigInteger[] bigIntegers;
+    private BigDecimal[] bigDecimals;
+    private WideInteger[] wideIntegers;
+    private WideDecimal[] wideDecimals;
+    private ClickHouseRowBinaryBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        bits = "int128".equals(column) ? 128 : 256;
+        scale = "decimal256".equals(column) ? 76 : 0;
+        Random random = new Random(42);
+        strings = new String[VALUES];
+        bigIntegers = new BigInteger[VALUES];
+        bigDecimals = new BigDecimal[VALUES];
+        wideIntegers = new WideInteger[VALUES];
+        wideDecimals = new WideDecimal[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            // Decimal(76,76)은 |값| < 1 이므로 unscaled 값이 76자리(약 252비트) 이하
+            BigInteger unscaled = new BigInteger(scale > 0 ? 250 : bits - 1, random);
+            if (random.nextBoolean()) {
+                unscaled = unscaled.negate();
+            }
+            bigIntegers[i] = unscaled;
+            bigDecimals[i] = new BigDecimal(unscaled, scale);
+            strings[i] = bigDecimals[i].toPlainString();
+            wideIntegers[i] = WideInteger.fromBigInteger(unscaled, bits);
+            wideDecimals[i] = WideDecimal.of(wideIntegers[i], scale);
+        }
+        buffer = new ClickHouseRowBinaryBuffer(VALUES * 32);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void bigDecimalFromString(Blackhole blackhole) {
+        for (String value : strings) {
+            blackhole.consume(new BigDecimal(value));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void wideFromString(Blackhole blackhole) {
+        for (String value : strings) {
+            blackhole.consume(scale > 0 ? WideDecimal.parse(value, scale, bits) : WideInteger.parse(value, bits));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void bigDecimalFromBigInteger(Blackhole blackhole) {
+        for (BigInteger value : bigIntegers) {
+            blackhole.consume(new BigDecimal(value, scale));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void wideFromBigInteger(Blackhole blackhole) {
+        for (BigInteger value : bigIntegers) {
+            blackhole.consume(WideInteger.fromBigInteger(value, bits));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public int rowBinaryFromBigDecimal() {
+        buffer.reset();
+        for (BigDecimal value : bigDecimals) {
+            if (scale > 0) {
+                buffer.writeDecimal(value, scale, bits >> 3);
+            } else {
+                buffer.writeBigInteger(value.toBigIntegerExact(), bits >> 3);
+            }
+        }
+        return buffer.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public int rowBinaryFromWide() {
+        buffer.reset();
+        for (int i = 0; i < VALUES; i++) {
+            if (scale > 0) {
+                buffer.writeDecimal(wideDecimals[i], scale, bits >> 3);
+            } else {
+                buffer.writeWideInteger(wideIntegers[i], bits >> 3);
+            }
+        }
+        return buffer.size();
+    }
+}
@@ -0,0 +1,40 @@
+package com.learn.spring.learnspring.errors.api;
+
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpStatus;
+
+/**
+ * # CommonApiError JSON 직렬화 비용
+ * - CommonApiError 생성자가 패키지 범위라서 같은 패키지에 둔다
+ * - ObjectMapper는 RestConfig와 같이 기본 설정 + 등록된 모듈(jsr310 등)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CommonApiErrorSerializationBenchmark {
+    private ObjectMapper objectMapper;
+    private CommonApiError error;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        error = new CommonApiError(HttpStatus.BAD_REQUEST, "Malformed JSON request",
+                new IllegalArgumentException("Unexpected character ('}' (code 125))"));
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(error);
+    }
+}
@@ -4,15 +4,20 @@ import com.clickhouse.client.config.ClickHouseClientOption;
 import com.clickhouse.jdbc.ClickHouseDataSource;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernateSettings;
 import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
@@ -35,6 +40,8 @@ import java.util.Properties;
 )
 @RequiredArgsConstructor
 public class ClickhouseDataSourceConfig {
+    private static final String PREFIX = "spring.datasource.clickhouse1";
+
     @Value("${spring.datasource.clickhouse1.driver-class-name}")
     private String driverClassName;
     @Value("${spring.datasource.clickhouse1.url}")
@@ -47,6 +54,8 @@ public class ClickhouseDataSourceConfig {
     private String password;
     private final JpaProperties jpaProperties;
     private final HibernateProperties hibernateProperties;
+    private final Environment environment;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
     /**
      * https://github.com/ClickHouse/clickhouse-jdbc/blob/d6bcbe412d4c7310bba7dc4b0334140b04614004/clickhouse-jdbc/src/test/java/com/clickhouse/jdbc/JdbcIntegrationTest.java#L106
      * @return
@@ -58,16 +67,36 @@ public class ClickhouseDataSourceConfig {
         properties.setProperty(ClickHouseClientOption.CLIENT_NAME.getKey(), username);
         properties.setProperty("user", username);
         properties.setProperty("password", password);
+        // spring.datasource.clickhouse1.options.* -> ClickHouseClientOption (ex: socket-timeout, compress, max-threads-per-client)
+        DataSourcePoolSupport.putClickHouseOptions(properties, DataSourcePoolSupport.bindOptions(environment, PREFIX));
 
         return new ClickHouseDataSource(url, properties);
     }
 
+    /**
+     * # spring.datasource.clickhouse1.hikari
+     * - maximum-pool-size, minimum-idle, idle-timeout, max-lifetime, connection-timeout,
+     *   leak-detection-threshold, validation-timeout, connection-test-query 등 HikariConfig 속성 바인딩
+     */
+    @Bean
+    @ConfigurationProperties(prefix = PREFIX + ".hikari")
+    public HikariConfig clickhouseHikariConfig() {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setPoolName("clickhouseDataSourcePool");
+        return hikariConfig;
+    }
+
+    /**
+     * # @Primary
+     * - postgres1DataSource가 추가되어 DataSource 타입 빈이 둘이므로, 타입으로만 주입받는 곳(SecurityConfig 등)은 기존처럼 ClickHouse 풀을 받는다
+     */
+    @Primary
     @Bean(name = "clickhouseDataSource")
     public DataSource clickhouseDataSource() throws SQLException {
-        HikariConfig hikariConfig = new HikariConfig();
+        HikariConfig hikariConfig = clickhouseHikariConfig();
         hikariConfig.setDataSource(getClickhouseDataSource());
-        hikariConfig.setPoolName("clickhouseDataSourcePool");
         hikariConfig.setDriverClassName(driverClassName);
+        DataSourcePoolSupport.instrument(hikariConfig, meterRegistry);
 
         return new HikariDataSource(hikariConfig);
     }
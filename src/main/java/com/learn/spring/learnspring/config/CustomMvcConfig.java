@@ -1,15 +1,28 @@
 package com.learn.spring.learnspring.config;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.spring.learnspring.config.async.ContextAccessor;
+import com.learn.spring.learnspring.config.async.ContextAccessors;
+import com.learn.spring.learnspring.config.async.ContextPropagatingAsyncInterceptor;
+import com.learn.spring.learnspring.config.async.WebAsyncManagerIntegrationFilterRemover;
+import com.learn.spring.learnspring.config.metrics.TimedGroovyMarkupView;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.UrlBasedViewResolverRegistration;
 import org.springframework.web.servlet.config.annotation.ViewResolverRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -34,26 +47,14 @@ import org.springframework.web.servlet.view.groovy.GroovyMarkupViewResolver;
 @EnableWebMvc
 public class CustomMvcConfig {
 
-    /** # Resource 설정 관련 config */
+    /**
+     * # Resource 설정 관련 config
+     * - /resources/** 정적 자원은 ResourceHandlerRegistry 대신 StaticResourceConfig(StaticResourceHandler)가 제공한다
+     *   - 해시가 붙은 URL은 1년 immutable 캐시, 해시 없는 URL은 ETag 재검증
+     *   - gzip/br 압축본, 작은 자원은 메모리에서, 큰 자원은 sendfile로
+     */
     @Configuration
     protected static class ResourceConfig implements WebMvcConfigurer {
-        @Override
-        public void addResourceHandlers(ResourceHandlerRegistry registry) {
-            /**
-             * URL 경로 패턴(/resources/**)의 정적 자원 제공하기 위해 호출되어야 하는 ResourceHandler가 생성되어 반환된다
-             */
-            ResourceHandlerRegistration rhr = registry.addResourceHandler("/resources/**");
-            /**
-             * /resources 경로 하위 "/" 또는 "/META-INF/public-web-resources/" 정적 자원 제공하도록 위치 추가
-             */
-            rhr.addResourceLocations("/", "classpath:/META-INF/public-web-resources/");
-            /**
-             * 0이면 캐싱하지 않음. 1 이상인 경우 해당 초만큼 캐싱
-             */
-            rhr.setCachePeriod(300);
-        }
-
-
         /**
      * 전역 CORS 구성
      * https://docs.spring.io/spring/docs/5.2.2.RELEASE/spring-framework-reference/web.html#mvc-cors-global
@@ -96,14 +97,94 @@ public class CustomMvcConfig {
              * 2. 또는 return "{PATH/TO/VIEW}";을 사용하면 {PATH/TO/VIEW}에 해당하는 뷰를 classpath:templates/ 하위에서 찾아서 리졸브한다
              */
             UrlBasedViewResolverRegistration registration = registry.groovy();
+            // 렌더링 시간 view.render{view} (MetricsConfig 참조)
+            registration.viewClass(TimedGroovyMarkupView.class);
+        }
+    }
+
+    /**
+     * # 비동기 요청(Callable, DeferredResult, StreamingResponseBody) 처리 config 클래스
+     * - @EnableWebMvc 사용 시 spring.mvc.async.* 설정이 적용되지 않으므로 여기서 직접 구성
+     * - TaskExecutor 지정하지 않으면 SimpleAsyncTaskExecutor가 요청마다 스레드를 새로 만든다
+     * - learnspring.threads.virtual=true 이면 풀 대신 작업마다 가상 스레드(VirtualThreadConfig 참조)
+     *
+     * # 컨텍스트 전파
+     * - learnspring.mvc.async.propagate(security, mdc, locale)와 ContextAccessor 빈을 비동기 작업 스레드로 옮긴다
+     * - 인터셉터는 한 번만 등록되고, 비동기 처리가 실제로 시작될 때만 값을 찍는다(ContextPropagatingAsyncInterceptor)
+     */
+    @Configuration
+    protected static class AsyncConfig implements WebMvcConfigurer {
+        @Value("${learnspring.mvc.async.request-timeout-ms:30000}")
+        private long requestTimeoutMillis;
+        @Value("${learnspring.mvc.async.core-pool-size:8}")
+        private int corePoolSize;
+        @Value("${learnspring.mvc.async.max-pool-size:32}")
+        private int maxPoolSize;
+        @Value("${learnspring.mvc.async.queue-capacity:100}")
+        private int queueCapacity;
+        @Value("${learnspring.threads.virtual:false}")
+        private boolean virtualThreads;
+        @Value("${learnspring.mvc.async.propagate:security,mdc,locale}")
+        private List<String> propagate;
+        @Autowired
+        private ObjectProvider<ContextAccessor> contextAccessors;
+
+        /**
+         * - static: BeanPostProcessor는 다른 빈보다 먼저 만들어져야 한다
+         */
+        @Bean
+        public static WebAsyncManagerIntegrationFilterRemover webAsyncManagerIntegrationFilterRemover() {
+            return new WebAsyncManagerIntegrationFilterRemover();
+        }
+
+        @Bean
+        public ContextPropagatingAsyncInterceptor contextPropagatingAsyncInterceptor() {
+            List<ContextAccessor> accessors = propagate.stream()
+                    .map(String::trim)
+                    .filter(name -> !name.isEmpty())
+                    .map(ContextAccessors::named)
+                    .collect(Collectors.toCollection(ArrayList::new));
+            contextAccessors.orderedStream().forEach(accessors::add);
+            return new ContextPropagatingAsyncInterceptor(accessors);
+        }
+
+        @Bean
+        public AsyncTaskExecutor mvcAsyncTaskExecutor() {
+            if (virtualThreads) {
+                return VirtualThreads.taskExecutor("mvc-async-vt-");
+            }
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setThreadNamePrefix("mvc-async-");
+            executor.setCorePoolSize(corePoolSize);
+            executor.setMaxPoolSize(maxPoolSize);
+            executor.setQueueCapacity(queueCapacity);
+            return executor;
+        }
+
+        /**
+         * # requestTimeoutMillis
+         * - 모든 비동기 요청의 기본 타임아웃. -1이면 타임아웃 없음
+         * - 스트리밍 내보내기(TestTableExportController)만 learnspring.clickhouse.export.timeout-ms로 따로 정한다
+         */
+        @Override
+        public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+            configurer.setTaskExecutor(mvcAsyncTaskExecutor());
+            configurer.setDefaultTimeout(requestTimeoutMillis);
+            configurer.registerCallableInterceptors(contextPropagatingAsyncInterceptor());
+            configurer.registerDeferredResultInterceptors(contextPropagatingAsyncInterceptor());
         }
     }
 
     /**
      * # REST 관련 config 클래스
+     * - @EnableWebMvc이면 WebMvcConfigurationSupport가 Jackson2ObjectMapperBuilder로 따로 만든 ObjectMapper를 쓴다
+     *   - spring.jackson.* 설정과 Module 빈이 적용된 자동 구성 ObjectMapper로 바꿔 끼운다
     */
     @Configuration
     protected static class RestConfig implements WebMvcConfigurer {
+        @Autowired
+        private ObjectMapper objectMapper;
+
         /**
          * # configureMessageConverters
          * - 요청 또는 응답의 바디를 읽고 쓰는 데 사용하는 HttpMessageConverters 컨버터 구성
@@ -127,8 +208,16 @@ public class CustomMvcConfig {
              * - 타입 있는 빈 또는 타입 없는 HashMap 인스턴스에 바인드할 때 사용
              * - application/json, application/*+json with UTF-8 지원하며, supportedMediaTypes 속성을 오버라이딩 해서 바꿀 수 있다
              * - 기본 생성자는 Jackson2ObjectMapperBuilder 빌더가 제공하는 기본 구성을 사용한다
+             * - 목록 끝에 추가하면 앞의 기본 컨버터가 먼저 JSON을 처리하므로, 기본 컨버터 자리에서 바꿔 끼운다
              */
-            converters.add(new MappingJackson2HttpMessageConverter());
+            MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter(objectMapper);
+            for (int i = 0; i < converters.size(); i++) {
+                if (converters.get(i) instanceof MappingJackson2HttpMessageConverter) {
+                    converters.set(i, converter);
+                    return;
+                }
+            }
+            converters.add(converter);
         }
     }
 
@@ -0,0 +1,69 @@
+package com.learn.spring.learnspring.config;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import com.clickhouse.client.config.ClickHouseClientOption;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * # DataSourcePoolSupport
+ * - ClickhouseDataSourceConfig, PostgresDataSourceConfig에서 공통으로 쓰는 커넥션 풀 구성 도우미
+ *
+ * # 풀 설정
+ * - spring.datasource.{name}.hikari.* 는 각 config의 @ConfigurationProperties HikariConfig 빈에 바인딩된다
+ * - spring.datasource.hikari.* 는 DataSourceAutoConfiguration용이라 직접 만든 풀에는 적용되지 않는다
+ */
+final class DataSourcePoolSupport {
+    private DataSourcePoolSupport() {
+    }
+
+    /**
+     * spring.datasource.{name}.options 아래의 key-value. 없으면 빈 Map
+     */
+    static Map<String, String> bindOptions(Environment environment, String prefix) {
+        return Binder.get(environment)
+                .bind(prefix + ".options", Bindable.mapOf(String.class, String.class))
+                .orElse(Collections.emptyMap());
+    }
+
+    /**
+     * # ClickHouseClientOption 전달
+     * - yaml 키는 kebab-case(socket-timeout) 또는 옵션 키(socket_timeout), enum 이름(SOCKET_TIMEOUT) 모두 허용
+     * - 알 수 없는 키는 오타일 가능성이 높으므로 기동 시점에 실패시킨다
+     */
+    static void putClickHouseOptions(Properties properties, Map<String, String> options) {
+        options.forEach((key, value) -> properties.setProperty(resolveClickHouseOption(key).getKey(), value));
+    }
+
+    private static ClickHouseClientOption resolveClickHouseOption(String key) {
+        String normalized = key.replace('-', '_').toLowerCase(Locale.ROOT);
+        for (ClickHouseClientOption option : ClickHouseClientOption.values()) {
+            if (option.getKey().equals(normalized) || option.name().toLowerCase(Locale.ROOT).equals(normalized)) {
+                return option;
+            }
+        }
+        throw new IllegalArgumentException("Unknown ClickHouseClientOption: " + key);
+    }
+
+    /**
+     * # 풀 메트릭
+     * - hikaricp.connections.active / idle / pending / max / min 게이지
+     * - hikaricp.connections.acquire 타이머(커넥션 획득 대기 시간), usage, creation, timeout
+     * - 태그 pool={poolName}
+     * - 풀이 시작된 후에는 metricsTrackerFactory를 바꿀 수 없으므로 HikariDataSource 생성 전에 설정해야 한다
+     */
+    static void instrument(HikariConfig hikariConfig, ObjectProvider<MeterRegistry> meterRegistry) {
+        meterRegistry.ifAvailable(registry -> hikariConfig.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+    }
+}
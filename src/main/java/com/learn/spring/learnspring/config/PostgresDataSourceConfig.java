@@ -0,0 +1,63 @@
+package com.learn.spring.learnspring.config;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * # PostgresDataSourceConfig
+ * - spring.datasource.postgres1 커넥션 풀
+ * - JPA 엔티티 매니저는 없고 JDBC로 직접 사용한다
+ * - 풀은 첫 getConnection() 때 시작되므로 PostgreSQL이 없어도 애플리케이션은 기동된다
+ */
+@Configuration
+@RequiredArgsConstructor
+public class PostgresDataSourceConfig {
+    private static final String PREFIX = "spring.datasource.postgres1";
+
+    @Value("${spring.datasource.postgres1.driver-class-name}")
+    private String driverClassName;
+    @Value("${spring.datasource.postgres1.url}")
+    private String url;
+    @Value("${spring.datasource.postgres1.username}")
+    private String username;
+    @Value("${spring.datasource.postgres1.password}")
+    private String password;
+    private final Environment environment;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Bean
+    @ConfigurationProperties(prefix = PREFIX + ".hikari")
+    public HikariConfig postgres1HikariConfig() {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setPoolName("postgres1DataSourcePool");
+        return hikariConfig;
+    }
+
+    @Bean(name = "postgres1DataSource")
+    public DataSource postgres1DataSource() {
+        HikariConfig hikariConfig = postgres1HikariConfig();
+        hikariConfig.setDriverClassName(driverClassName);
+        hikariConfig.setJdbcUrl(url);
+        hikariConfig.setUsername(username);
+        hikariConfig.setPassword(password);
+        // PGSimpleDataSource 속성(ex: reWriteBatchedInserts, socketTimeout) 전달
+        DataSourcePoolSupport.bindOptions(environment, PREFIX).forEach(hikariConfig::addDataSourceProperty);
+        DataSourcePoolSupport.instrument(hikariConfig, meterRegistry);
+
+        HikariDataSource dataSource = new HikariDataSource();
+        hikariConfig.copyStateTo(dataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,62 @@
+package com.learn.spring.learnspring.config;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * # 가상 스레드 실행 모드(learnspring.threads.virtual=true)
+ * - JDBC(ClickHouse/PostgreSQL), OkHttp 호출을 기다리는 동안 플랫폼 스레드를 붙잡지 않도록 요청 처리를 가상 스레드에서 실행한다
+ * - 기본값(false)에서는 이 구성이 로드되지 않고 Tomcat 스레드 풀, ThreadPoolTaskExecutor를 그대로 쓴다
+ *
+ * # 적용 범위
+ * - Tomcat 요청 처리: 커넥터 executor를 요청마다 가상 스레드를 만드는 Executor로 바꾼다(server.tomcat.threads.* 무시)
+ * - WebAsyncManager(Callable, StreamingResponseBody): CustomMvcConfig.AsyncConfig.mvcAsyncTaskExecutor()가 같은 속성으로 전환
+ * - @Async: 이 구성에서만 @EnableAsync. DelegatingSecurityContextAsyncTaskExecutor로 호출한 스레드의 SecurityContext를 넘긴다
+ *
+ * # SecurityContext 전파
+ * - SecurityContextHolder는 ThreadLocal 전략 그대로. 가상 스레드도 작업마다 새 스레드이므로 값이 섞이지 않는다
+ * - MVC 비동기 작업은 ContextPropagatingAsyncInterceptor(CustomMvcConfig.AsyncConfig)가
+ *   작업 스레드에서 SecurityContext, MDC 등을 설정/정리하므로 executor가 바뀌어도 그대로 동작한다
+ */
+@Configuration
+@EnableAsync
+@ConditionalOnProperty(name = "learnspring.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig implements AsyncConfigurer {
+    @Value("${learnspring.threads.pinned-threshold:20ms}")
+    private Duration pinnedThreshold;
+
+    public VirtualThreadConfig() {
+        if (!VirtualThreads.isSupported()) {
+            throw new IllegalStateException("learnspring.threads.virtual=true requires virtual threads (Java 21+), running on Java "
+                    + Runtime.version().feature());
+        }
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer() {
+        return factory -> factory.addProtocolHandlerCustomizers(
+                protocolHandler -> protocolHandler.setExecutor(VirtualThreads.executor("http-vt-")));
+    }
+
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry registry) {
+        return new VirtualThreadPinningMonitor(pinnedThreshold, registry);
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return new DelegatingSecurityContextAsyncTaskExecutor(VirtualThreads.taskExecutor("async-vt-"));
+    }
+}
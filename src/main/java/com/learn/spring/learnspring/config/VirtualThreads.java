@@ -0,0 +1,77 @@
+package com.learn.spring.learnspring.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * # VirtualThreads
+ * - 컴파일 대상은 Java 15이므로 Thread.ofVirtual()(JDK 21)은 리플렉션으로 찾는다
+ * - JDK 19/20에서 --enable-preview 없이 실행하면 ofVirtual()이 UnsupportedOperationException을 던지므로 지원하지 않는 것으로 본다
+ *
+ * # 주의
+ * - 가상 스레드는 작업마다 새로 만들어지므로 ThreadLocal 캐시(CustomLogbackEncoder 버퍼, TokenSecurityContextRepository Mac 등)는 요청마다 새로 만들어진다
+ * - synchronized 안에서 블로킹하면 캐리어 스레드가 고정(pinning)된다. VirtualThreadPinningMonitor로 확인
+ */
+public final class VirtualThreads {
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            ofVirtual.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+    }
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @param prefix 스레드 이름 접두사. 뒤에 0부터 증가하는 번호가 붙는다
+     */
+    public static ThreadFactory threadFactory(String prefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads are not available on Java " + Runtime.version().feature()
+                    + " (requires 21+, or 19/20 with --enable-preview)");
+        }
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create a virtual thread factory", e);
+        }
+    }
+
+    /**
+     * 작업마다 가상 스레드 하나. 풀 크기 제한이 없으므로 동시성은 커넥션 풀 등 하위 자원이 제한한다
+     */
+    public static Executor executor(String prefix) {
+        ThreadFactory threadFactory = threadFactory(prefix);
+        return command -> threadFactory.newThread(command).start();
+    }
+
+    public static AsyncTaskExecutor taskExecutor(String prefix) {
+        return new TaskExecutorAdapter(executor(prefix));
+    }
+}
@@ -0,0 +1,22 @@
+package com.learn.spring.learnspring.config.async;
+
+/**
+ * # ContextAccessor
+ * - 요청 스레드의 ThreadLocal 값 하나를 비동기 작업 스레드로 옮기는 방법
+ * - capture()는 요청 스레드에서, restore()/reset()은 작업 스레드에서 짝지어 호출된다
+ * - 기본 구현은 ContextAccessors 참조. 빈으로 등록하면 ContextPropagatingAsyncInterceptor가 함께 옮긴다
+ */
+public interface ContextAccessor {
+    /**
+     * @return 옮길 값. 옮길 것이 없으면 null
+     */
+    Object capture();
+
+    /**
+     * @param value capture()가 돌려준 값
+     * @return reset()에 넘길 작업 스레드의 이전 값
+     */
+    Object restore(Object value);
+
+    void reset(Object previous);
+}
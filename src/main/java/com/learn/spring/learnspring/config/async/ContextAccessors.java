@@ -0,0 +1,140 @@
+package com.learn.spring.learnspring.config.async;
+
+import java.util.Map;
+
+import org.slf4j.MDC;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * # ContextAccessors
+ * - learnspring.mvc.async.propagate 값으로 고르는 기본 ContextAccessor
+ *   - security: SecurityContextHolder
+ *   - mdc: MDC 전체(MdcLoggingFilter의 requestId, principal 포함)
+ *   - locale: LocaleContextHolder
+ * - of(ThreadLocal): 그 밖의 ThreadLocal을 빈으로 등록할 때
+ */
+public final class ContextAccessors {
+    private ContextAccessors() {
+    }
+
+    public static ContextAccessor named(String name) {
+        switch (name) {
+            case "security":
+                return security();
+            case "mdc":
+                return mdc();
+            case "locale":
+                return locale();
+            default:
+                throw new IllegalArgumentException("Unknown learnspring.mvc.async.propagate entry: " + name
+                        + " (expected security, mdc or locale)");
+        }
+    }
+
+    /**
+     * SecurityContextCallableProcessingInterceptor와 같이 작업이 끝나면 비운다
+     */
+    public static ContextAccessor security() {
+        return new ContextAccessor() {
+            @Override
+            public Object capture() {
+                return SecurityContextHolder.getContext();
+            }
+
+            @Override
+            public Object restore(Object value) {
+                SecurityContextHolder.setContext((SecurityContext) value);
+                return null;
+            }
+
+            @Override
+            public void reset(Object previous) {
+                SecurityContextHolder.clearContext();
+            }
+        };
+    }
+
+    public static ContextAccessor mdc() {
+        return new ContextAccessor() {
+            @Override
+            public Object capture() {
+                return MDC.getCopyOfContextMap();
+            }
+
+            @Override
+            public Object restore(Object value) {
+                Map<String, String> previous = MDC.getCopyOfContextMap();
+                reset(value);
+                return previous;
+            }
+
+            /**
+             * MDC가 비어 있으면 getCopyOfContextMap()은 null이다. logback의 setContextMap(null)은 NPE라서 clear()로 바꾼다
+             */
+            @Override
+            @SuppressWarnings("unchecked")
+            public void reset(Object previous) {
+                if (previous == null) {
+                    MDC.clear();
+                } else {
+                    MDC.setContextMap((Map<String, String>) previous);
+                }
+            }
+        };
+    }
+
+    public static ContextAccessor locale() {
+        return new ContextAccessor() {
+            @Override
+            public Object capture() {
+                return LocaleContextHolder.getLocaleContext();
+            }
+
+            @Override
+            public Object restore(Object value) {
+                LocaleContext previous = LocaleContextHolder.getLocaleContext();
+                LocaleContextHolder.setLocaleContext((LocaleContext) value);
+                return previous;
+            }
+
+            @Override
+            public void reset(Object previous) {
+                LocaleContextHolder.setLocaleContext((LocaleContext) previous);
+            }
+        };
+    }
+
+    public static <T> ContextAccessor of(ThreadLocal<T> threadLocal) {
+        return new ContextAccessor() {
+            @Override
+            public Object capture() {
+                return threadLocal.get();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object restore(Object value) {
+                T previous = threadLocal.get();
+                set((T) value);
+                return previous;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void reset(Object previous) {
+                set((T) previous);
+            }
+
+            private void set(T value) {
+                if (value == null) {
+                    threadLocal.remove();
+                } else {
+                    threadLocal.set(value);
+                }
+            }
+        };
+    }
+}
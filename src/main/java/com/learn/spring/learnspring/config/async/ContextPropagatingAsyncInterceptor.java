@@ -0,0 +1,65 @@
+package com.learn.spring.learnspring.config.async;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+
+/**
+ * # ContextPropagatingAsyncInterceptor
+ * - WebAsyncManagerIntegrationFilter처럼 요청마다 인터셉터를 만들어 등록하지 않고,
+ *   AsyncSupportConfigurer에 한 번 등록한 인스턴스를 모든 요청이 같이 쓴다
+ * - 동기 요청에서는 아무 일도 하지 않는다. 핸들러가 Callable(StreamingResponseBody, WebAsyncTask 포함),
+ *   DeferredResult, 리액티브 타입을 돌려줘서 비동기 처리가 시작될 때만 ContextSnapshot을 만든다
+ *
+ * # Callable
+ * - 작업 스레드에서 preProcess()가 스냅샷 값을 넣고 postProcess()가 되돌린다
+ *
+ * # DeferredResult, 리액티브 반환값(ReactiveTypeHandler가 DeferredResult/ResponseBodyEmitter로 바꾼다)
+ * - 스냅샷만 요청 속성에 둔다. 결과를 채우는 쪽에서 ContextSnapshot.of(request).wrap()으로 쓴다
+ */
+public class ContextPropagatingAsyncInterceptor implements CallableProcessingInterceptor, DeferredResultProcessingInterceptor {
+    private static final String PREVIOUS_ATTRIBUTE = ContextPropagatingAsyncInterceptor.class.getName() + ".previous";
+
+    private final ContextAccessor[] accessors;
+
+    public ContextPropagatingAsyncInterceptor(List<ContextAccessor> accessors) {
+        this.accessors = accessors.toArray(new ContextAccessor[0]);
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        capture(request);
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        ContextSnapshot snapshot = ContextSnapshot.of(request);
+        if (snapshot != null) {
+            request.setAttribute(PREVIOUS_ATTRIBUTE, snapshot.restore(), RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        ContextSnapshot snapshot = ContextSnapshot.of(request);
+        Object[] previous = (Object[]) request.getAttribute(PREVIOUS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (snapshot != null && previous != null) {
+            request.removeAttribute(PREVIOUS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            snapshot.reset(previous);
+        }
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, DeferredResult<T> deferredResult) {
+        capture(request);
+    }
+
+    private void capture(NativeWebRequest request) {
+        request.setAttribute(ContextSnapshot.ATTRIBUTE, ContextSnapshot.capture(accessors), RequestAttributes.SCOPE_REQUEST);
+    }
+}
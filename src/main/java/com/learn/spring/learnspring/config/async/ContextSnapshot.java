@@ -0,0 +1,82 @@
+package com.learn.spring.learnspring.config.async;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * # ContextSnapshot
+ * - 요청 스레드에서 찍은 ContextAccessor 값들
+ * - 요청이 실제로 비동기로 넘어갈 때(ContextPropagatingAsyncInterceptor.beforeConcurrentHandling) 한 번만 만들어진다
+ *
+ * # DeferredResult, 리액티브 반환값
+ * - 결과를 채우는 스레드는 애플리케이션이 고르므로 자동으로 옮길 수 없다
+ * - of(request)로 꺼낸 스냅샷의 wrap()으로 감싸서 넘긴다
+ *   - 예: executor.execute(ContextSnapshot.of(request).wrap(() -> deferredResult.setResult(load())))
+ */
+public final class ContextSnapshot {
+    static final String ATTRIBUTE = ContextSnapshot.class.getName();
+
+    private final ContextAccessor[] accessors;
+    private final Object[] values;
+
+    private ContextSnapshot(ContextAccessor[] accessors, Object[] values) {
+        this.accessors = accessors;
+        this.values = values;
+    }
+
+    static ContextSnapshot capture(ContextAccessor[] accessors) {
+        Object[] values = new Object[accessors.length];
+        for (int i = 0; i < accessors.length; i++) {
+            values[i] = accessors[i].capture();
+        }
+        return new ContextSnapshot(accessors, values);
+    }
+
+    /**
+     * @return 비동기 처리가 시작된 요청의 스냅샷. 아직 비동기로 넘어가지 않았으면 null
+     */
+    public static ContextSnapshot of(WebRequest request) {
+        return (ContextSnapshot) request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    /**
+     * @return reset()에 넘길 이전 값
+     */
+    Object[] restore() {
+        Object[] previous = new Object[accessors.length];
+        for (int i = 0; i < accessors.length; i++) {
+            previous[i] = accessors[i].restore(values[i]);
+        }
+        return previous;
+    }
+
+    void reset(Object[] previous) {
+        for (int i = accessors.length - 1; i >= 0; i--) {
+            accessors[i].reset(previous[i]);
+        }
+    }
+
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            Object[] previous = restore();
+            try {
+                task.run();
+            } finally {
+                reset(previous);
+            }
+        };
+    }
+
+    public <T> Callable<T> wrap(Callable<T> task) {
+        return () -> {
+            Object[] previous = restore();
+            try {
+                return task.call();
+            } finally {
+                reset(previous);
+            }
+        };
+    }
+}
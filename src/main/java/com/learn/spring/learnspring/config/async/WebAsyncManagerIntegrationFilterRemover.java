@@ -0,0 +1,42 @@
+package com.learn.spring.learnspring.config.async;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.request.async.WebAsyncManagerIntegrationFilter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * # WebAsyncManagerIntegrationFilterRemover
+ * - WebSecurityConfigurerAdapter 기본 구성이 모든 필터 체인에 넣는 WebAsyncManagerIntegrationFilter를 빼낸다
+ *   - 요청마다 SecurityContextCallableProcessingInterceptor를 만들어 등록하는데, 대부분의 요청은 비동기로 넘어가지 않는다
+ *   - SecurityContext 전파는 ContextPropagatingAsyncInterceptor(ContextAccessors.security())가 맡는다
+ * - HttpSecurity에는 필터를 빼는 API가 없어 만들어진 FilterChainProxy의 체인 목록에서 지운다
+ *   - DefaultSecurityFilterChain.getFilters()가 수정 가능한 목록을 돌려준다는 구현에 기대므로, 지울 수 없으면 경고만 남기고 그대로 둔다
+ * - Ordered: 필터를 감싸는 SecurityFilterMetricsPostProcessor(Ordered 아님)보다 먼저 실행되어야 타입으로 찾을 수 있다
+ */
+@Slf4j
+public class WebAsyncManagerIntegrationFilterRemover implements BeanPostProcessor, Ordered {
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof FilterChainProxy) {
+            for (SecurityFilterChain chain : ((FilterChainProxy) bean).getFilterChains()) {
+                try {
+                    chain.getFilters().removeIf(WebAsyncManagerIntegrationFilter.class::isInstance);
+                } catch (UnsupportedOperationException e) {
+                    log.warn("Cannot remove WebAsyncManagerIntegrationFilter from {}; async requests will register both interceptors", chain);
+                }
+            }
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,95 @@
+package com.learn.spring.learnspring.config.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * # ClickhouseCacheConfig
+ * - ClickHouse 리포지토리 조회 결과 read-through 캐시
+ * - 리포지토리 메서드에 @Cacheable(cacheNames = ..., sync = true) 붙여서 사용
+ *
+ * # Caffeine
+ * - 축출 정책은 W-TinyLFU(빈도 + 최근성). 한 번 스캔된 키가 자주 쓰는 키를 밀어내지 않는다
+ * - maximumWeight + weigher로 결과 크기에 비례해서 상한을 건다
+ * - recordStats()로 hit/miss/eviction 통계를 남기고, actuator가 cache.gets, cache.evictions 등으로 노출한다
+ *
+ * # sync = true
+ * - CaffeineCache.get(key, valueLoader)로 위임되어 같은 키에 대한 동시 miss는 한 번만 조회하고 나머지는 기다린다(stampede 방지)
+ */
+@Slf4j
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(ClickhouseCacheProperties.class)
+public class ClickhouseCacheConfig {
+    public static final String TEST_TABLE_BY_ID = "testTableById";
+    public static final String TEST_TABLE_SUB_BY_ID = "testTableSubById";
+    /** test_db.test_table 변경 시 비울 캐시 */
+    private static final List<String> TEST_TABLE_CACHES = List.of(TEST_TABLE_BY_ID, TEST_TABLE_SUB_BY_ID);
+
+    private final ClickhouseCacheProperties properties;
+
+    public ClickhouseCacheConfig(ClickhouseCacheProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * - SimpleCacheManager는 등록하지 않은 이름의 캐시를 만들지 않으므로, 설정 없는 캐시가 무제한으로 생기지 않는다
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        List<Cache> caches = new ArrayList<>();
+        for (String name : TEST_TABLE_CACHES) {
+            if (!properties.getSpecs().containsKey(name)) {
+                properties.getSpecs().put(name, new ClickhouseCacheProperties.Spec());
+            }
+        }
+        for (Map.Entry<String, ClickhouseCacheProperties.Spec> entry : properties.getSpecs().entrySet()) {
+            ClickhouseCacheProperties.Spec spec = entry.getValue();
+            caches.add(new CaffeineCache(entry.getKey(), Caffeine.newBuilder()
+                    .expireAfterWrite(spec.getTtl())
+                    .maximumWeight(spec.getMaxWeight())
+                    .weigher(new ClickhouseCacheWeigher())
+                    .recordStats()
+                    .build(), false));
+        }
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        return cacheManager;
+    }
+
+    /**
+     * - 적재 직후 캐시에 남은 이전 결과를 TTL까지 돌려주지 않도록, 적재한 id의 test_table 캐시만 지운다
+     * - 두 캐시 모두 키가 findById(Integer id)의 id라서 이벤트의 id로 바로 지울 수 있다
+     * - 적재가 계속되는 동안에도 적재하지 않은 id의 캐시는 남는다
+     */
+    @EventListener
+    public void onTestTableChanged(TestTableChangedEvent event) {
+        // @Configuration 프록시를 거치므로 새로 만들지 않고 등록된 빈을 돌려받는다
+        CacheManager cacheManager = cacheManager();
+        for (String name : TEST_TABLE_CACHES) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                for (int id : event.getIds()) {
+                    cache.evict(id);
+                }
+            }
+        }
+        log.debug("Evicted {} ids from {} after {} bytes were written to test_db.test_table",
+                event.getIds().length, TEST_TABLE_CACHES, event.getBytes());
+    }
+}
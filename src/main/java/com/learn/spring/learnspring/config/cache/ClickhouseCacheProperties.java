@@ -0,0 +1,31 @@
+package com.learn.spring.learnspring.config.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * # learnspring.clickhouse.cache
+ * - 캐시 이름별 TTL과 최대 가중치(대략적인 바이트 수)
+ * - specs에 없는 캐시 이름은 사용할 수 없다(ClickhouseCacheConfig 참조)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "learnspring.clickhouse.cache")
+public class ClickhouseCacheProperties {
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Spec {
+        /** 저장 후 만료 시간 */
+        private Duration ttl = Duration.ofSeconds(30);
+        /** 캐시 전체 가중치 합 상한. 값 하나의 가중치는 ClickhouseCacheWeigher 추정 바이트 수 */
+        private long maxWeight = 64L * 1024 * 1024;
+    }
+}
@@ -0,0 +1,82 @@
+package com.learn.spring.learnspring.config.cache;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.learn.spring.learnspring.entities.clickhouse.TestTableParentEntity;
+import com.learn.spring.learnspring.entities.clickhouse.TestTableEntity;
+import com.learn.spring.learnspring.entities.clickhouse.types.IntArrayList;
+import com.learn.spring.learnspring.entities.clickhouse.types.ShortArrayList;
+
+/**
+ * # ClickhouseCacheWeigher
+ * - 캐시 값의 힙 사용량을 대략 바이트 단위로 추정
+ * - 정확한 크기보다, 배열/문자열이 큰 TestTableEntity가 작은 값보다 더 많이 차지하도록 하는 것이 목적
+ * - 건수 기준(maximumSize)이면 큰 결과 몇 개가 메모리를 다 차지해도 알 수 없다
+ */
+final class ClickhouseCacheWeigher implements Weigher<Object, Object> {
+    /** 객체 헤더 + 필드 참조 + boxing 값들. TestTableEntity 필드 수 기준 */
+    private static final int ENTITY_BASE_BYTES = 512;
+    private static final int BOXED_ELEMENT_BYTES = 20;
+    private static final int STRING_BASE_BYTES = 40;
+    private static final int DEFAULT_BYTES = 64;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long weight = estimate(value);
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+    static long estimate(Object value) {
+        if (value instanceof Collection) {
+            long weight = DEFAULT_BYTES;
+            for (Object element : (Collection<?>) value) {
+                weight += estimate(element);
+            }
+            return weight;
+        }
+        if (value instanceof TestTableEntity) {
+            TestTableEntity entity = (TestTableEntity) value;
+            return ENTITY_BASE_BYTES
+                    + string(entity.getCString()) + string(entity.getCFixedstring())
+                    + list(entity.getCArrayInt8()) + list(entity.getCArrayInt16()) + strings(entity.getCArrayString());
+        }
+        if (value instanceof TestTableParentEntity) {
+            TestTableParentEntity entity = (TestTableParentEntity) value;
+            return ENTITY_BASE_BYTES
+                    + string(entity.getCString()) + string(entity.getCFixedstring())
+                    + list(entity.getCArrayInt8()) + list(entity.getCArrayInt16()) + strings(entity.getCArrayString());
+        }
+        return DEFAULT_BYTES;
+    }
+
+    private static long string(String value) {
+        return value == null ? 0 : STRING_BASE_BYTES + value.length();
+    }
+
+    private static long list(List<?> values) {
+        if (values == null) {
+            return 0;
+        }
+        // ClickHouseArrayType이 읽어 온 배열은 primitive 배열로 들고 있다
+        if (values instanceof ShortArrayList) {
+            return DEFAULT_BYTES + (long) values.size() * Short.BYTES;
+        }
+        if (values instanceof IntArrayList) {
+            return DEFAULT_BYTES + (long) values.size() * Integer.BYTES;
+        }
+        return DEFAULT_BYTES + (long) values.size() * BOXED_ELEMENT_BYTES;
+    }
+
+    private static long strings(List<String> values) {
+        if (values == null) {
+            return 0;
+        }
+        long weight = DEFAULT_BYTES;
+        for (String value : values) {
+            weight += string(value);
+        }
+        return weight;
+    }
+}
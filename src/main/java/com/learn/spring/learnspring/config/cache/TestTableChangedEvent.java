@@ -0,0 +1,30 @@
+package com.learn.spring.learnspring.config.cache;
+
+/**
+ * # TestTableChangedEvent
+ * - test_db.test_table에 행이 쓰였음을 알리는 이벤트
+ * - TestTableIngestionService가 배치 전송 후 발행하고, ClickhouseCacheConfig가 받아서 ids의 test_table 캐시만 지운다
+ */
+public class TestTableChangedEvent {
+    private final long bytes;
+    private final int[] ids;
+
+    public TestTableChangedEvent(long bytes, int[] ids) {
+        this.bytes = bytes;
+        this.ids = ids;
+    }
+
+    /**
+     * 전송한 RowBinary 바이트 수
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * 전송한 행의 id(c_int8). 중복 없이 오름차순
+     */
+    public int[] getIds() {
+        return ids;
+    }
+}
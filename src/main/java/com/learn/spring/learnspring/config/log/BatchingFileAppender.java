@@ -0,0 +1,432 @@
+package com.learn.spring.learnspring.config.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.util.FileSize;
+
+/**
+ * # BatchingFileAppender
+ * - 요청 스레드는 이벤트를 큐에 넣기만 하고, 인코딩과 파일 쓰기는 전용 스레드 하나가 한다
+ * - AsyncAppender(ArrayBlockingQueue, 락)와 달리 MpscBoundedQueue(락 프리)를 쓰고, 큐가 차도 요청 스레드를 막지 않는다
+ *
+ * # 버리기 정책
+ * - 레벨별로 큐가 몇 % 찼을 때부터 버릴지 지정(traceDiscardThreshold 등, 0~100)
+ * - 기본값: TRACE/DEBUG 50%, INFO 80%, WARN/ERROR 100%(가득 찼을 때만)
+ * - ERROR는 가득 찼을 때 maxBlockMillis 동안 자리가 나기를 기다려 본다. 0이면 바로 버린다
+ * - 버린 이벤트 수는 레벨별로 센다(getDroppedCount)
+ *
+ * # 배치 쓰기
+ * - 쓰기 스레드는 큐에서 최대 batchSize 건을 꺼내서 직접 ByteBuffer에 인코딩하고 FileChannel.write() 한 번으로 쓴다
+ * - 큐가 비면 flushIntervalMillis 동안 잠든다. 잠든 사이 이벤트가 들어오면 생산자가 깨운다
+ *
+ * # 종료
+ * - stop()은 쓰기 스레드를 깨우고 최대 5초 join 한다. 쓰기 스레드는 큐를 비운 뒤 파일을 닫고 끝난다
+ *
+ * # 롤링
+ * - 파일이 maxFileSize를 넘으면 file.1, file.2 ... file.{maxHistory} 순으로 밀어내고 새 파일을 연다
+ * - 새 파일을 열지 못하면(디스크, 권한 등) 쓰기 스레드는 멈추지 않고 그 사이 배치를 버린다
+ *   - 다시 여는 시도는 1초부터 두 배씩, 최대 1분 간격으로 한다. 열리면 간격을 처음으로 돌린다
+ */
+public class BatchingFileAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+    /** 메트릭 바인딩용. 재설정(scan)되면 같은 이름으로 새 인스턴스가 들어온다 */
+    private static final Map<String, BatchingFileAppender> STARTED = new ConcurrentHashMap<>();
+    private static final int WRITE_BUFFER_BYTES = 256 * 1024;
+    private static final long MIN_REOPEN_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_REOPEN_BACKOFF_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private String file;
+    private FileSize maxFileSize = FileSize.valueOf("100MB");
+    private int maxHistory = 10;
+    private int queueSize = 8192;
+    private int batchSize = 512;
+    private long flushIntervalMillis = 200;
+    private long maxBlockMillis = 100;
+    private int traceDiscardThreshold = 50;
+    private int debugDiscardThreshold = 50;
+    private int infoDiscardThreshold = 80;
+    private int warnDiscardThreshold = 100;
+    private int errorDiscardThreshold = 100;
+    private Encoder<ILoggingEvent> encoder;
+
+    private MpscBoundedQueue<ILoggingEvent> queue;
+    private final LongAdder droppedTrace = new LongAdder();
+    private final LongAdder droppedDebug = new LongAdder();
+    private final LongAdder droppedInfo = new LongAdder();
+    private final LongAdder droppedWarn = new LongAdder();
+    private final LongAdder droppedError = new LongAdder();
+
+    private Thread writer;
+    private volatile boolean running;
+    /** 쓰기 스레드가 잠들었는지. 생산자는 이 값이 true일 때만 unpark 한다 */
+    private volatile boolean writerParked;
+    private FileChannel channel;
+    private ByteBuffer writeBuffer;
+    private long fileSize;
+    /** 파일을 열지 못했을 때 다음에 다시 열어 볼 시각(System.nanoTime)과 그다음 간격 */
+    private long reopenAtNanos;
+    private long reopenBackoffNanos = MIN_REOPEN_BACKOFF_NANOS;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (file == null) {
+            addError("No file set for the appender named [" + name + "].");
+            return;
+        }
+        if (encoder == null) {
+            addError("No encoder set for the appender named [" + name + "].");
+            return;
+        }
+        try {
+            openFile();
+        } catch (IOException e) {
+            addError("Failed to open [" + file + "]", e);
+            return;
+        }
+        queue = new MpscBoundedQueue<>(queueSize);
+        writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        running = true;
+        writer = new Thread(this::writeLoop, "logback-batching-" + name);
+        writer.setDaemon(true);
+        writer.start();
+        super.start();
+        STARTED.put(name, this);
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        STARTED.remove(name, this);
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            // 채널은 쓰기 스레드가 남은 이벤트를 다 쓰고 닫는다. 여기서 닫으면 쓰는 도중에 닫힌다
+            addWarn("Writer thread of [" + name + "] did not finish within 5 seconds. It closes [" + file + "] after writing " + queue.size() + " pending events.");
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (isDiscardable(event.getLevel())) {
+            countDropped(event.getLevel());
+            return;
+        }
+        // 메시지, 스레드 이름, MDC를 지금 스레드에서 확정한다. 쓰기 스레드에서 부르면 쓰기 스레드 값이 들어간다
+        event.prepareForDeferredProcessing();
+        if (!queue.offer(event) && !(event.getLevel().levelInt >= Level.ERROR_INT && offerWithin(event, maxBlockMillis))) {
+            countDropped(event.getLevel());
+            return;
+        }
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private boolean isDiscardable(Level level) {
+        int threshold = discardThreshold(level);
+        if (threshold >= 100) {
+            return false;
+        }
+        return queue.size() * 100L >= (long) queue.capacity() * threshold;
+    }
+
+    private boolean offerWithin(ILoggingEvent event, long millis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        do {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            if (queue.offer(event)) {
+                return true;
+            }
+        } while (System.nanoTime() < deadline);
+        return false;
+    }
+
+    /**
+     * - 채널은 start()에서 연 뒤로 이 스레드만 쓰고, 닫는 것도 이 스레드가 마지막에 한다
+     */
+    private void writeLoop() {
+        try {
+            while (running) {
+                if (!drain()) {
+                    writerParked = true;
+                    // unpark 신호를 놓치지 않도록 잠들기 직전에 한 번 더 확인
+                    if (queue.isEmpty() && running) {
+                        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+                    }
+                    writerParked = false;
+                }
+            }
+            while (drain()) {
+                // 종료 시 남은 이벤트를 모두 쓴다
+            }
+        } finally {
+            closeFile();
+        }
+    }
+
+    /**
+     * @return 한 건이라도 썼으면 true
+     */
+    private boolean drain() {
+        int count = 0;
+        ILoggingEvent event;
+        while (count < batchSize && (event = queue.poll()) != null) {
+            encode(event);
+            count++;
+        }
+        if (count == 0) {
+            return false;
+        }
+        flushWriteBuffer();
+        return true;
+    }
+
+    private void encode(ILoggingEvent event) {
+        try {
+            if (encoder instanceof DirectLogEncoder) {
+                LogByteBuffer bytes = ((DirectLogEncoder) encoder).encodeToBuffer(event);
+                put(bytes.array(), bytes.size());
+            } else {
+                byte[] bytes = encoder.encode(event);
+                put(bytes, bytes.length);
+            }
+        } catch (RuntimeException e) {
+            addError("Failed to encode event for [" + name + "]", e);
+        }
+    }
+
+    private void put(byte[] bytes, int length) {
+        if (length > writeBuffer.remaining()) {
+            flushWriteBuffer();
+        }
+        if (length > writeBuffer.capacity()) {
+            write(ByteBuffer.wrap(bytes, 0, length));
+            return;
+        }
+        writeBuffer.put(bytes, 0, length);
+    }
+
+    private void flushWriteBuffer() {
+        writeBuffer.flip();
+        write(writeBuffer);
+        writeBuffer.clear();
+        if (channel != null && fileSize >= maxFileSize.getSize()) {
+            rollover();
+        }
+    }
+
+    private void write(ByteBuffer source) {
+        if (channel == null && !reopen()) {
+            source.position(source.limit());
+            return;
+        }
+        try {
+            while (source.hasRemaining()) {
+                fileSize += channel.write(source);
+            }
+        } catch (IOException e) {
+            addError("Failed to write to [" + file + "]", e);
+            source.position(source.limit());
+        }
+    }
+
+    private void rollover() {
+        closeFile();
+        try {
+            Path current = new File(file).toPath();
+            Files.deleteIfExists(archive(maxHistory));
+            for (int i = maxHistory - 1; i >= 1; i--) {
+                Path source = archive(i);
+                if (Files.exists(source)) {
+                    Files.move(source, archive(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            if (maxHistory > 0) {
+                Files.move(current, archive(1), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.deleteIfExists(current);
+            }
+        } catch (IOException e) {
+            addError("Failed to roll over [" + file + "]", e);
+        }
+        reopenAtNanos = System.nanoTime();
+        reopen();
+    }
+
+    /**
+     * 채널이 닫혀 있을 때 간격이 지났으면 파일을 다시 열어 본다
+     * @return 채널이 열려 있으면 true. false면 호출한 쪽이 쓰려던 바이트를 버린다
+     */
+    private boolean reopen() {
+        long now = System.nanoTime();
+        if (now - reopenAtNanos < 0) {
+            return false;
+        }
+        try {
+            openFile();
+            reopenBackoffNanos = MIN_REOPEN_BACKOFF_NANOS;
+            return true;
+        } catch (IOException e) {
+            addError("Failed to reopen [" + file + "]. Events are dropped until it opens, next attempt in "
+                    + TimeUnit.NANOSECONDS.toMillis(reopenBackoffNanos) + " ms", e);
+            reopenAtNanos = now + reopenBackoffNanos;
+            reopenBackoffNanos = Math.min(reopenBackoffNanos << 1, MAX_REOPEN_BACKOFF_NANOS);
+            return false;
+        }
+    }
+
+    private Path archive(int index) {
+        return new File(file + "." + index).toPath();
+    }
+
+    private void openFile() throws IOException {
+        Path path = new File(file).toPath();
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileSize = channel.size();
+    }
+
+    private void closeFile() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            addError("Failed to close [" + file + "]", e);
+        }
+        channel = null;
+    }
+
+    private int discardThreshold(Level level) {
+        switch (level.levelInt) {
+            case Level.TRACE_INT:
+                return traceDiscardThreshold;
+            case Level.DEBUG_INT:
+                return debugDiscardThreshold;
+            case Level.INFO_INT:
+                return infoDiscardThreshold;
+            case Level.WARN_INT:
+                return warnDiscardThreshold;
+            default:
+                return errorDiscardThreshold;
+        }
+    }
+
+    private void countDropped(Level level) {
+        droppedCounter(level).increment();
+    }
+
+    private LongAdder droppedCounter(Level level) {
+        switch (level.levelInt) {
+            case Level.TRACE_INT:
+                return droppedTrace;
+            case Level.DEBUG_INT:
+                return droppedDebug;
+            case Level.INFO_INT:
+                return droppedInfo;
+            case Level.WARN_INT:
+                return droppedWarn;
+            default:
+                return droppedError;
+        }
+    }
+
+    static Map<String, BatchingFileAppender> started() {
+        return STARTED;
+    }
+
+    public int getQueueDepth() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return queue == null ? 0 : queue.capacity();
+    }
+
+    public long getDroppedCount(Level level) {
+        return droppedCounter(level).sum();
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public void setMaxFileSize(FileSize maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    public void setMaxHistory(int maxHistory) {
+        this.maxHistory = maxHistory;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setFlushIntervalMillis(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public void setMaxBlockMillis(long maxBlockMillis) {
+        this.maxBlockMillis = maxBlockMillis;
+    }
+
+    public void setTraceDiscardThreshold(int traceDiscardThreshold) {
+        this.traceDiscardThreshold = traceDiscardThreshold;
+    }
+
+    public void setDebugDiscardThreshold(int debugDiscardThreshold) {
+        this.debugDiscardThreshold = debugDiscardThreshold;
+    }
+
+    public void setInfoDiscardThreshold(int infoDiscardThreshold) {
+        this.infoDiscardThreshold = infoDiscardThreshold;
+    }
+
+    public void setWarnDiscardThreshold(int warnDiscardThreshold) {
+        this.warnDiscardThreshold = warnDiscardThreshold;
+    }
+
+    public void setErrorDiscardThreshold(int errorDiscardThreshold) {
+        this.errorDiscardThreshold = errorDiscardThreshold;
+    }
+
+    public void setEncoder(Encoder<ILoggingEvent> encoder) {
+        this.encoder = encoder;
+    }
+}
@@ -0,0 +1,58 @@
+package com.learn.spring.learnspring.config.log;
+
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import ch.qos.logback.classic.Level;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * # BatchingFileAppenderMetrics
+ * - 기동 시점에 시작되어 있는 BatchingFileAppender마다 큐 깊이와 레벨별 버린 이벤트 수를 노출한다
+ *   - logback.appender.queue.depth / logback.appender.queue.capacity {appender}
+ *   - logback.appender.dropped {appender, level}
+ * - logback 설정이 다시 읽혀서(scan) appender가 바뀌어도 같은 이름의 새 인스턴스 값을 읽는다
+ */
+@Component
+public class BatchingFileAppenderMetrics implements MeterBinder {
+    private static final Level[] LEVELS = {Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR};
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<String, BatchingFileAppender> appenders = BatchingFileAppender.started();
+        for (String name : appenders.keySet()) {
+            Gauge.builder("logback.appender.queue.depth", appenders, started -> queueDepth(started.get(name)))
+                    .description("Events waiting to be written")
+                    .tag("appender", name)
+                    .register(registry);
+            Gauge.builder("logback.appender.queue.capacity", appenders, started -> queueCapacity(started.get(name)))
+                    .tag("appender", name)
+                    .register(registry);
+            for (Level level : LEVELS) {
+                FunctionCounter.builder("logback.appender.dropped", appenders, started -> dropped(started.get(name), level))
+                        .description("Events discarded because the queue was above the level's threshold")
+                        .tags("appender", name, "level", level.toString())
+                        .register(registry);
+            }
+        }
+    }
+
+    private static double queueDepth(BatchingFileAppender appender) {
+        return appender == null ? Double.NaN : appender.getQueueDepth();
+    }
+
+    private static double queueCapacity(BatchingFileAppender appender) {
+        return appender == null ? Double.NaN : appender.getQueueCapacity();
+    }
+
+    /**
+     * - 재설정으로 새 인스턴스가 들어오면 0부터 다시 센다. FunctionCounter라 값이 줄어든 구간은 Prometheus rate()가 리셋으로 처리한다
+     */
+    private static double dropped(BatchingFileAppender appender, Level level) {
+        return appender == null ? 0 : appender.getDroppedCount(level);
+    }
+}
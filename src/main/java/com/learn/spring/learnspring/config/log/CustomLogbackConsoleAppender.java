@@ -0,0 +1,45 @@
+package com.learn.spring.learnspring.config.log;
+
+import java.io.IOException;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.status.ErrorStatus;
+
+/**
+ * # CustomLogbackConsoleAppender
+ * - 인코더가 DirectLogEncoder(CustomLogbackEncoder, StructuredLogEncoder)이면 encode()가 만드는 byte[] 없이 스레드별 버퍼에서 바로 스트림으로 쓴다
+ * - 인코딩은 락 밖에서, 스트림 쓰기만 락 안에서 한다
+ * - 다른 인코더이면 ConsoleAppender와 같다
+ */
+public class CustomLogbackConsoleAppender extends ConsoleAppender<ILoggingEvent> {
+
+    @Override
+    protected void subAppend(ILoggingEvent event) {
+        Encoder<ILoggingEvent> encoder = getEncoder();
+        if (!(encoder instanceof DirectLogEncoder)) {
+            super.subAppend(event);
+            return;
+        }
+        if (!isStarted()) {
+            return;
+        }
+        try {
+            // 동기 appender라 이벤트가 다른 스레드로 넘어가지 않으므로 prepareForDeferredProcessing()은 부르지 않는다
+            LogByteBuffer buffer = ((DirectLogEncoder) encoder).encodeToBuffer(event);
+            lock.lock();
+            try {
+                buffer.writeTo(getOutputStream());
+                if (isImmediateFlush()) {
+                    getOutputStream().flush();
+                }
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            started = false;
+            addStatus(new ErrorStatus("IO failure in appender", this, e));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.learn.spring.learnspring.config.log;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+/**
+ * # CustomLogbackEncoder
+ * - CustomLogbackLayout과 같은 형식을 String 없이 바이트로 바로 쓰는 인코더
+ *   - {기동 후 경과 ms} {레벨} [{스레드}] {로거} - {메시지}{줄바꿈}
+ *   - 예외가 있으면 그 다음 줄부터 ThrowableProxyUtil.asString() 스택 트레이스(줄마다 줄바꿈)
+ * - CustomLogbackLayout은 이벤트마다 StringBuffer, 결과 String, 그 String의 byte[]를 만든다
+ *
+ * # 할당 줄이기
+ * - 스레드별 LogByteBuffer에 쓰고 재사용한다
+ * - 로거 이름은 UTF-8 바이트로 캐시(로거 수는 한정되어 있다)
+ * - 스레드 이름은 스레드별로 마지막 이름과 바이트를 들고 있다가 같은 String이면 그대로 쓴다
+ *   - 다르면(BatchingFileAppender처럼 한 스레드가 여러 스레드의 이벤트를 인코딩하는 경우) 이름별 캐시에서 찾는다
+ * - 컨텍스트 생성 시각은 start() 때 한 번 읽는다. 이벤트마다 getLoggerContextVO()를 거치지 않는다
+ * - 메시지의 {} 치환은 slf4j/logback이 만드는 String을 그대로 쓴다. 인자가 없는 메시지는 원본 String이라 할당이 없다
+ * - 스택 트레이스는 드물게 찍히므로 String으로 만든 뒤 버퍼에 쓴다
+ *
+ * # 사용
+ * - CustomLogbackConsoleAppender와 함께 쓰면 encode()의 byte[] 복사 없이 버퍼에서 바로 스트림으로 쓴다
+ * - 다른 OutputStreamAppender에 붙이면 Encoder 계약대로 encode()가 byte[]를 돌려준다
+ */
+public class CustomLogbackEncoder extends EncoderBase<ILoggingEvent> implements DirectLogEncoder {
+    private static final int INITIAL_BUFFER_BYTES = 256;
+    /** 로거 이름 캐시 상한. 동적으로 로거 이름을 만드는 코드가 있어도 캐시가 끝없이 커지지 않도록 한다 */
+    private static final int MAX_CACHED_NAMES = 4096;
+    private static final byte[] LINE_SEPARATOR = CoreConstants.LINE_SEPARATOR.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] THREAD_OPEN = " [".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] THREAD_CLOSE = "] ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MESSAGE_SEPARATOR = " - ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRACE = levelBytes(Level.TRACE);
+    private static final byte[] DEBUG = levelBytes(Level.DEBUG);
+    private static final byte[] INFO = levelBytes(Level.INFO);
+    private static final byte[] WARN = levelBytes(Level.WARN);
+    private static final byte[] ERROR = levelBytes(Level.ERROR);
+
+    private final ConcurrentMap<String, byte[]> loggerNames = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, byte[]> threadNames = new ConcurrentHashMap<>();
+    private final ThreadLocal<ThreadState> threadState = ThreadLocal.withInitial(() -> new ThreadState(threadNames));
+    private long birthTime;
+
+    @Override
+    public void start() {
+        birthTime = getContext().getBirthTime();
+        super.start();
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        return encodeToBuffer(event).toByteArray();
+    }
+
+    /**
+     * 스레드별 버퍼에 인코딩한 뒤 바로 스트림에 쓴다. 호출자가 스트림 동기화를 책임진다
+     */
+    public void encodeTo(ILoggingEvent event, OutputStream out) throws IOException {
+        encodeToBuffer(event).writeTo(out);
+    }
+
+    @Override
+    public LogByteBuffer encodeToBuffer(ILoggingEvent event) {
+        ThreadState state = threadState.get();
+        LogByteBuffer buffer = state.buffer;
+        buffer.reset();
+        buffer.append(event.getTimeStamp() - birthTime)
+                .append((byte) ' ')
+                .append(level(event.getLevel()))
+                .append(THREAD_OPEN)
+                .append(state.threadName(event.getThreadName()))
+                .append(THREAD_CLOSE)
+                .append(cachedBytes(loggerNames, event.getLoggerName()))
+                .append(MESSAGE_SEPARATOR)
+                .appendUtf8(String.valueOf(event.getFormattedMessage()))
+                .append(LINE_SEPARATOR);
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            buffer.appendUtf8(ThrowableProxyUtil.asString(throwable));
+        }
+        return buffer;
+    }
+
+    private static byte[] cachedBytes(ConcurrentMap<String, byte[]> cache, String name) {
+        byte[] bytes = cache.get(name);
+        if (bytes != null) {
+            return bytes;
+        }
+        bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (cache.size() < MAX_CACHED_NAMES) {
+            cache.putIfAbsent(name, bytes);
+        }
+        return bytes;
+    }
+
+    private static byte[] level(Level level) {
+        switch (level.levelInt) {
+            case Level.TRACE_INT:
+                return TRACE;
+            case Level.DEBUG_INT:
+                return DEBUG;
+            case Level.INFO_INT:
+                return INFO;
+            case Level.WARN_INT:
+                return WARN;
+            case Level.ERROR_INT:
+                return ERROR;
+            default:
+                return levelBytes(level);
+        }
+    }
+
+    private static byte[] levelBytes(Level level) {
+        return level.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class ThreadState {
+        private final LogByteBuffer buffer = new LogByteBuffer(INITIAL_BUFFER_BYTES);
+        private final ConcurrentMap<String, byte[]> threadNames;
+        private String threadName;
+        private byte[] threadNameBytes;
+
+        ThreadState(ConcurrentMap<String, byte[]> threadNames) {
+            this.threadNames = threadNames;
+        }
+
+        /**
+         * - 스레드 이름은 바뀌는 일이 드물어서 마지막 값 하나만 들고 있으면 충분하다
+         * - 비동기 appender 등에서 다른 스레드의 이벤트를 인코딩하면 이름이 달라지므로 그때만 이름별 캐시를 찾는다
+         */
+        byte[] threadName(String name) {
+            if (name != threadName) {
+                threadNameBytes = cachedBytes(threadNames, name);
+                threadName = name;
+            }
+            return threadNameBytes;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.learn.spring.learnspring.config.log;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.LayoutBase;
 
@@ -20,8 +22,10 @@ public class CustomLogbackLayout extends LayoutBase<ILoggingEvent>{
 	public String doLayout(ILoggingEvent event) {
 		/**
 		 * org.springframework.boot.logging.logback.ColorConverter
+		 * - 지역 변수라 동기화가 필요 없으므로 StringBuffer 대신 StringBuilder
+		 * - String 없이 바이트로 바로 쓰려면 CustomLogbackEncoder 사용
 		 */
-		StringBuffer sbuf = new StringBuffer(128);
+		StringBuilder sbuf = new StringBuilder(128);
 		/**
 		 * # LoggerContextVO
 		 * - LoggingEvent에 의해 원격 시스템에 보여지는 제한된 LoggerContext 컨텍스트의 뷰를 제공하며, 이 뷰는 직렬화에 최적화되어 있다
@@ -41,6 +45,10 @@ public class CustomLogbackLayout extends LayoutBase<ILoggingEvent>{
 		sbuf.append(" - ");
 		sbuf.append(event.getFormattedMessage());
 		sbuf.append(CoreConstants.LINE_SEPARATOR);
+		IThrowableProxy throwable = event.getThrowableProxy();
+		if (throwable != null) {
+			sbuf.append(ThrowableProxyUtil.asString(throwable));
+		}
 
 		return sbuf.toString();
 	}
@@ -0,0 +1,16 @@
+package com.learn.spring.learnspring.config.log;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * # DirectLogEncoder
+ * - Encoder.encode()처럼 이벤트마다 byte[]를 새로 만들지 않고, 스레드별 LogByteBuffer에 인코딩해서 돌려주는 인코더
+ * - CustomLogbackConsoleAppender, BatchingFileAppender는 인코더가 이 인터페이스를 구현하면 버퍼에서 바로 쓴다
+ */
+public interface DirectLogEncoder {
+
+    /**
+     * 돌려준 버퍼는 같은 스레드에서 다음 호출 전까지만 유효하다
+     */
+    LogByteBuffer encodeToBuffer(ILoggingEvent event);
+}
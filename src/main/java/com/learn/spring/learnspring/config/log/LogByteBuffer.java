@@ -0,0 +1,207 @@
+package com.learn.spring.learnspring.config.log;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * # LogByteBuffer
+ * - 로그 한 줄을 만들 때 쓰는 재사용 바이트 버퍼
+ * - 문자열을 String.getBytes()로 바꾸지 않고 UTF-8로 직접 인코딩해서 쓴다
+ * - 스레드마다 하나씩 쓰는 것을 전제로 하므로 동기화하지 않는다(ThreadLocal로 보관)
+ */
+public final class LogByteBuffer {
+    /** 아주 긴 메시지 한 번 때문에 커진 버퍼를 스레드가 계속 붙잡고 있지 않도록 이 크기를 넘으면 reset() 시 줄인다 */
+    private static final int RETAINED_CAPACITY = 64 * 1024;
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes();
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final int initialCapacity;
+    private byte[] bytes;
+    private int size;
+
+    public LogByteBuffer(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+        this.bytes = new byte[initialCapacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] array() {
+        return bytes;
+    }
+
+    public void reset() {
+        size = 0;
+        if (bytes.length > RETAINED_CAPACITY) {
+            bytes = new byte[initialCapacity];
+        }
+    }
+
+    public LogByteBuffer append(byte value) {
+        ensureCapacity(1);
+        bytes[size++] = value;
+        return this;
+    }
+
+    public LogByteBuffer append(byte[] values) {
+        ensureCapacity(values.length);
+        System.arraycopy(values, 0, bytes, size, values.length);
+        size += values.length;
+        return this;
+    }
+
+    /**
+     * 10진수로 쓴다. Long.toString()과 같은 결과
+     */
+    public LogByteBuffer append(long value) {
+        if (value == Long.MIN_VALUE) {
+            return append(MIN_LONG);
+        }
+        if (value < 0) {
+            append((byte) '-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        int position = size + digits;
+        do {
+            bytes[--position] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value > 0);
+        size += digits;
+        return this;
+    }
+
+    /**
+     * UTF-8로 인코딩해서 쓴다. 짝이 맞지 않는 surrogate는 String.getBytes(UTF_8)처럼 '?'로 쓴다
+     */
+    public LogByteBuffer appendUtf8(CharSequence value) {
+        int length = value.length();
+        // 최악의 경우(BMP 문자 3바이트)만큼 미리 확보
+        ensureCapacity(length * 3);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes[size++] = (byte) c;
+            } else {
+                i = putNonAscii(value, i, c);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * JSON 문자열 내용으로 이스케이프하면서 UTF-8로 쓴다(따옴표는 쓰지 않는다)
+     * - ", \, 제어 문자(U+0000~U+001F)만 이스케이프한다. 나머지는 UTF-8 그대로
+     */
+    public LogByteBuffer appendJsonEscaped(CharSequence value) {
+        int length = value.length();
+        // 최악의 경우(제어 문자 이스케이프 6바이트)만큼 미리 확보
+        ensureCapacity(length * 6);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                i = putNonAscii(value, i, c);
+            } else if (c == '"' || c == '\\') {
+                bytes[size++] = '\\';
+                bytes[size++] = (byte) c;
+            } else if (c >= 0x20) {
+                bytes[size++] = (byte) c;
+            } else if (c == '\n') {
+                bytes[size++] = '\\';
+                bytes[size++] = 'n';
+            } else if (c == '\r') {
+                bytes[size++] = '\\';
+                bytes[size++] = 'r';
+            } else if (c == '\t') {
+                bytes[size++] = '\\';
+                bytes[size++] = 't';
+            } else {
+                bytes[size++] = '\\';
+                bytes[size++] = 'u';
+                bytes[size++] = '0';
+                bytes[size++] = '0';
+                bytes[size++] = HEX[c >> 4];
+                bytes[size++] = HEX[c & 0xF];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * little-endian 4바이트
+     */
+    public LogByteBuffer appendInt32(int value) {
+        ensureCapacity(4);
+        putInt32(size, value);
+        size += 4;
+        return this;
+    }
+
+    /**
+     * little-endian 8바이트
+     */
+    public LogByteBuffer appendInt64(long value) {
+        ensureCapacity(8);
+        for (int i = 0; i < 8; i++) {
+            bytes[size++] = (byte) (value >>> (i << 3));
+        }
+        return this;
+    }
+
+    /**
+     * 이미 쓴 위치의 4바이트를 고쳐 쓴다. 길이를 먼저 자리만 잡아 두고 나중에 채울 때 사용
+     */
+    public void putInt32(int index, int value) {
+        bytes[index] = (byte) value;
+        bytes[index + 1] = (byte) (value >>> 8);
+        bytes[index + 2] = (byte) (value >>> 16);
+        bytes[index + 3] = (byte) (value >>> 24);
+    }
+
+    /**
+     * 호출자가 용량을 확보해 둔 상태에서 0x80 이상 문자 하나(surrogate pair이면 둘)를 쓴다
+     *
+     * @return 마지막으로 읽은 문자 위치
+     */
+    private int putNonAscii(CharSequence value, int i, char c) {
+        if (c < 0x800) {
+            bytes[size++] = (byte) (0xC0 | (c >> 6));
+            bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(++i));
+            bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+            bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            bytes[size++] = '?';
+        } else {
+            bytes[size++] = (byte) (0xE0 | (c >> 12));
+            bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return i;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    private void ensureCapacity(int additional) {
+        int required = size + additional;
+        if (required > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length << 1));
+        }
+    }
+}
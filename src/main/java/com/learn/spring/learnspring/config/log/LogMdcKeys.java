@@ -0,0 +1,14 @@
+package com.learn.spring.learnspring.config.log;
+
+/**
+ * # LogMdcKeys
+ * - 요청 처리 중 MDC에 넣는 키. MdcLoggingFilter가 넣고 StructuredLogEncoder가 기본 mdcKeys로 읽는다
+ * - logback-spring.xml의 mdcKeys도 같은 이름을 쓴다
+ */
+public final class LogMdcKeys {
+    public static final String REQUEST_ID = "requestId";
+    public static final String PRINCIPAL = "principal";
+
+    private LogMdcKeys() {
+    }
+}
@@ -0,0 +1,89 @@
+package com.learn.spring.learnspring.config.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * # MpscBoundedQueue
+ * - 여러 생산자, 하나의 소비자용 고정 크기 락 프리 큐
+ * - 슬롯마다 sequence를 두는 Vyukov 방식. 생산자는 tail CAS 한 번으로 슬롯을 차지하고, 값을 쓴 뒤 sequence를 올려서 소비자에게 알린다
+ * - 큐가 가득 차면 offer()는 기다리지 않고 false를 돌려준다
+ * - poll()은 반드시 한 스레드에서만 호출한다
+ */
+final class MpscBoundedQueue<E> {
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    /** 소비자만 쓰고, size()를 위해 다른 스레드에서 읽는다 */
+    private volatile long head;
+
+    /**
+     * @param capacity 2의 거듭제곱으로 올림
+     */
+    MpscBoundedQueue(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2: " + capacity);
+        }
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.elements = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.setPlain(index, element);
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // 소비자가 아직 한 바퀴 전 값을 가져가지 않은 슬롯: 가득 찼다
+                return false;
+            } else {
+                // 다른 생산자가 이미 차지한 슬롯
+                position = tail.get();
+            }
+        }
+    }
+
+    E poll() {
+        long position = head;
+        int index = (int) (position & mask);
+        if (sequences.getAcquire(index) != position + 1) {
+            return null;
+        }
+        E element = elements.getPlain(index);
+        elements.setPlain(index, null);
+        sequences.setRelease(index, position + capacity);
+        head = position + 1;
+        return element;
+    }
+
+    /**
+     * 대략적인 크기. 동시에 offer/poll 되는 중에는 정확하지 않다
+     */
+    int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(capacity, size));
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+}
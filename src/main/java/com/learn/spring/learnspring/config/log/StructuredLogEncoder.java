@@ -0,0 +1,215 @@
+package com.learn.spring.learnspring.config.log;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+/**
+ * # StructuredLogEncoder
+ * - 로그 수집기가 패턴 문자열을 다시 파싱하지 않도록 필드 단위로 인코딩한다
+ * - format: json(기본) 또는 binary
+ * - mdcKeys: 함께 쓸 MDC 키 목록(쉼표 구분). 기본값은 LogMdcKeys의 requestId, principal
+ *
+ * # json (NDJSON, 한 줄에 이벤트 하나)
+ * - {"ts":1642000000000,"level":"INFO","thread":"...","logger":"...","msg":"...","requestId":"...","principal":"...","stack":"..."}
+ * - 값이 없는 MDC 키와 예외가 없을 때의 stack은 생략한다
+ * - 필드 이름과 구분자는 start() 때 바이트로 만들어 두고, 이벤트마다 값만 이스케이프해서 쓴다
+ * - ObjectMapper, JsonGenerator, 리플렉션을 쓰지 않는다
+ *
+ * # binary (모든 정수는 little-endian)
+ * - int32 frameLength: 이 필드 뒤 바이트 수
+ * - int64 ts, int8 level(TRACE 0, DEBUG 1, INFO 2, WARN 3, ERROR 4)
+ * - string thread, string logger, string msg  (string = int32 UTF-8 바이트 수 + UTF-8)
+ * - int8 mdcCount, 그 수만큼 string key + string value
+ * - string stack (예외가 없으면 길이 0)
+ */
+public class StructuredLogEncoder extends EncoderBase<ILoggingEvent> implements DirectLogEncoder {
+    private static final int INITIAL_BUFFER_BYTES = 512;
+    private static final int MAX_CACHED_NAMES = 4096;
+
+    private String format = "json";
+    private String mdcKeys = LogMdcKeys.REQUEST_ID + "," + LogMdcKeys.PRINCIPAL;
+
+    private boolean binary;
+    private String[] keys;
+    /** json: ,"{key}":" / binary: UTF-8 키 */
+    private byte[][] keyBytes;
+    private byte[] tsPrefix;
+    private byte[][] levelSegments;
+    private byte[] loggerPrefix;
+    private byte[] messagePrefix;
+    private byte[] stackPrefix;
+    private byte[] suffix;
+
+    /** json이면 이스케이프된 바이트, binary이면 UTF-8 바이트 */
+    private final ConcurrentMap<String, byte[]> loggerNames = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, byte[]> threadNames = new ConcurrentHashMap<>();
+    private final ThreadLocal<LogByteBuffer> buffers = ThreadLocal.withInitial(() -> new LogByteBuffer(INITIAL_BUFFER_BYTES));
+
+    @Override
+    public void start() {
+        if (!"json".equalsIgnoreCase(format) && !"binary".equalsIgnoreCase(format)) {
+            addError("Unknown format [" + format + "]. Use json or binary.");
+            return;
+        }
+        binary = "binary".equalsIgnoreCase(format);
+        keys = mdcKeys.trim().isEmpty() ? new String[0] : mdcKeys.trim().split("\\s*,\\s*");
+        keyBytes = new byte[keys.length][];
+        for (int i = 0; i < keys.length; i++) {
+            keyBytes[i] = binary ? utf8(keys[i]) : utf8("\",\"" + escape(keys[i]) + "\":\"");
+        }
+        tsPrefix = utf8("{\"ts\":");
+        Level[] levels = {Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR};
+        levelSegments = new byte[levels.length][];
+        for (int i = 0; i < levels.length; i++) {
+            levelSegments[i] = utf8(",\"level\":\"" + levels[i] + "\",\"thread\":\"");
+        }
+        loggerPrefix = utf8("\",\"logger\":\"");
+        messagePrefix = utf8("\",\"msg\":\"");
+        stackPrefix = utf8("\",\"stack\":\"");
+        suffix = utf8("\"}\n");
+        super.start();
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        return encodeToBuffer(event).toByteArray();
+    }
+
+    @Override
+    public LogByteBuffer encodeToBuffer(ILoggingEvent event) {
+        LogByteBuffer buffer = buffers.get();
+        buffer.reset();
+        if (binary) {
+            encodeBinary(event, buffer);
+        } else {
+            encodeJson(event, buffer);
+        }
+        return buffer;
+    }
+
+    private void encodeJson(ILoggingEvent event, LogByteBuffer buffer) {
+        buffer.append(tsPrefix)
+                .append(event.getTimeStamp())
+                .append(levelSegments[levelIndex(event.getLevel())])
+                .append(cachedBytes(threadNames, event.getThreadName()))
+                .append(loggerPrefix)
+                .append(cachedBytes(loggerNames, event.getLoggerName()))
+                .append(messagePrefix)
+                .appendJsonEscaped(String.valueOf(event.getFormattedMessage()));
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        for (int i = 0; i < keys.length; i++) {
+            String value = mdc.get(keys[i]);
+            if (value != null) {
+                buffer.append(keyBytes[i]).appendJsonEscaped(value);
+            }
+        }
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            buffer.append(stackPrefix).appendJsonEscaped(ThrowableProxyUtil.asString(throwable));
+        }
+        buffer.append(suffix);
+    }
+
+    private void encodeBinary(ILoggingEvent event, LogByteBuffer buffer) {
+        buffer.appendInt32(0);
+        buffer.appendInt64(event.getTimeStamp());
+        buffer.append((byte) levelIndex(event.getLevel()));
+        appendBytes(buffer, cachedBytes(threadNames, event.getThreadName()));
+        appendBytes(buffer, cachedBytes(loggerNames, event.getLoggerName()));
+        appendString(buffer, String.valueOf(event.getFormattedMessage()));
+
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        int countIndex = buffer.size();
+        buffer.append((byte) 0);
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            String value = mdc.get(keys[i]);
+            if (value != null) {
+                appendBytes(buffer, keyBytes[i]);
+                appendString(buffer, value);
+                count++;
+            }
+        }
+        buffer.array()[countIndex] = (byte) count;
+
+        IThrowableProxy throwable = event.getThrowableProxy();
+        appendString(buffer, throwable == null ? "" : ThrowableProxyUtil.asString(throwable));
+        buffer.putInt32(0, buffer.size() - 4);
+    }
+
+    private static void appendBytes(LogByteBuffer buffer, byte[] bytes) {
+        buffer.appendInt32(bytes.length).append(bytes);
+    }
+
+    /**
+     * 길이 자리를 먼저 잡고 UTF-8로 쓴 뒤 실제 바이트 수로 채운다
+     */
+    private static void appendString(LogByteBuffer buffer, String value) {
+        int lengthIndex = buffer.size();
+        buffer.appendInt32(0).appendUtf8(value);
+        buffer.putInt32(lengthIndex, buffer.size() - lengthIndex - 4);
+    }
+
+    private byte[] cachedBytes(ConcurrentMap<String, byte[]> cache, String name) {
+        byte[] bytes = cache.get(name);
+        if (bytes != null) {
+            return bytes;
+        }
+        bytes = binary ? utf8(name) : utf8(escape(name));
+        if (cache.size() < MAX_CACHED_NAMES) {
+            cache.putIfAbsent(name, bytes);
+        }
+        return bytes;
+    }
+
+    private static int levelIndex(Level level) {
+        switch (level.levelInt) {
+            case Level.TRACE_INT:
+                return 0;
+            case Level.DEBUG_INT:
+                return 1;
+            case Level.INFO_INT:
+                return 2;
+            case Level.WARN_INT:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+
+    private static String escape(String value) {
+        LogByteBuffer buffer = new LogByteBuffer(value.length() + 16);
+        buffer.appendJsonEscaped(value);
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public void setMdcKeys(String mdcKeys) {
+        this.mdcKeys = mdcKeys;
+    }
+}
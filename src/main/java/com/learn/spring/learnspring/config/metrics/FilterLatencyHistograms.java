@@ -0,0 +1,122 @@
+package com.learn.spring.learnspring.config.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * # FilterLatencyHistograms
+ * - 보안 필터별 자체 시간(ns) HDR 히스토그램. 체인(SecurityFilterChain) → 필터 클래스 이름 → 히스토그램
+ * - 기록: Recorder.recordValue는 wait-free라서 요청 스레드끼리 락을 잡지 않는다
+ * - 조회: Recorder의 구간 히스토그램을 누적 히스토그램에 더한 뒤 백분위를 계산한다. 조회, 등록끼리만 동기화한다
+ * - Recorder는 기동 시 필터를 감쌀 때 한 번 만들므로 목록은 체인, 필터 순서를 유지하는 LinkedHashMap으로 둔다
+ * - 유효 숫자 significantDigits자리(2면 1% 오차), 범위는 값이 들어오는 만큼 늘어난다(auto resize)
+ */
+public class FilterLatencyHistograms {
+    private final int significantDigits;
+    private final Map<String, Map<String, Entry>> chains = new LinkedHashMap<>();
+
+    public FilterLatencyHistograms(int significantDigits) {
+        this.significantDigits = significantDigits;
+    }
+
+    /**
+     * 체인 하나의 필터 하나에 쓸 Recorder. 같은 체인에 같은 클래스 필터가 둘이면 하나로 합쳐진다
+     */
+    synchronized Recorder recorder(String chain, String filter) {
+        return chains.computeIfAbsent(chain, c -> new LinkedHashMap<>())
+                .computeIfAbsent(filter, f -> new Entry(significantDigits))
+                .recorder;
+    }
+
+    /**
+     * 체인 → 필터(체인 순서) → 누적 분포
+     */
+    public synchronized Map<String, Map<String, Snapshot>> snapshot() {
+        Map<String, Map<String, Snapshot>> result = new LinkedHashMap<>();
+        chains.forEach((chain, filters) -> {
+            Map<String, Snapshot> snapshots = new LinkedHashMap<>();
+            filters.forEach((filter, entry) -> snapshots.put(filter, entry.snapshot()));
+            result.put(chain, snapshots);
+        });
+        return result;
+    }
+
+    /**
+     * 누적 분포를 비운다. 측정 구간을 나눌 때 쓴다
+     */
+    public synchronized void reset() {
+        chains.values().forEach(filters -> filters.values().forEach(Entry::reset));
+    }
+
+    private static final class Entry {
+        private final Recorder recorder;
+        private final Histogram accumulated;
+        private Histogram interval;
+
+        Entry(int significantDigits) {
+            this.recorder = new Recorder(significantDigits);
+            this.accumulated = new Histogram(significantDigits);
+        }
+
+        Snapshot snapshot() {
+            drain();
+            return new Snapshot(accumulated.getTotalCount(),
+                    accumulated.getValueAtPercentile(50.0),
+                    accumulated.getValueAtPercentile(99.0),
+                    accumulated.getValueAtPercentile(99.9),
+                    accumulated.getMaxValue());
+        }
+
+        void reset() {
+            drain();
+            accumulated.reset();
+        }
+
+        private void drain() {
+            interval = recorder.getIntervalHistogram(interval);
+            accumulated.add(interval);
+        }
+    }
+
+    /**
+     * 누적 분포 요약. 시간은 모두 ns
+     */
+    public static final class Snapshot {
+        private final long count;
+        private final long p50;
+        private final long p99;
+        private final long p999;
+        private final long max;
+
+        Snapshot(long count, long p50, long p99, long p999, long max) {
+            this.count = count;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getP999() {
+            return p999;
+        }
+
+        public long getMax() {
+            return max;
+        }
+    }
+}
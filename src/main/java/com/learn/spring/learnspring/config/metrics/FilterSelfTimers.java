@@ -0,0 +1,57 @@
+package com.learn.spring.learnspring.config.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * # FilterSelfTimers
+ * - security.filter{filter} 타이머. 필터 클래스 이름마다 SelfTime 하나를 FunctionTimer로 등록한다
+ * - Timer.record는 최댓값(TimeWindowMax)을 갱신하느라 호출마다 벽시계를 읽는다. 요청 하나에 필터 수만큼 불리므로
+ *   SelfTime은 LongAdder 두 개(횟수, 합계)만 더한다. Prometheus에는 security_filter_seconds_count, _sum만 나간다(_max 없음)
+ * - 같은 이름, 태그로 FunctionTimer를 다시 등록하면 registry는 처음 것을 돌려주고 새 객체는 버린다. 그래서 여기서 한 번만 만든다
+ */
+final class FilterSelfTimers {
+    private final MeterRegistry registry;
+    private final Map<String, SelfTime> timers = new ConcurrentHashMap<>();
+
+    FilterSelfTimers(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    SelfTime get(String filter) {
+        return timers.computeIfAbsent(filter, this::register);
+    }
+
+    private SelfTime register(String filter) {
+        SelfTime selfTime = new SelfTime();
+        FunctionTimer.builder(SecurityFilterMetricsPostProcessor.METRIC_NAME, selfTime,
+                        SelfTime::count, SelfTime::totalNanos, TimeUnit.NANOSECONDS)
+                .description("Time spent in a security filter, excluding the rest of the chain")
+                .tag("filter", filter)
+                .register(registry);
+        return selfTime;
+    }
+
+    static final class SelfTime {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        double totalNanos() {
+            return totalNanos.sum();
+        }
+    }
+}
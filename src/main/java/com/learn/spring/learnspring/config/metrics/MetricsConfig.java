@@ -0,0 +1,65 @@
+package com.learn.spring.learnspring.config.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * # MetricsConfig
+ * - 계층별 타이머. 모두 /actuator/prometheus 로 노출된다
+ *
+ * # 메트릭
+ * - 요청: http.server.requests(Spring Boot). 태그 uri(라우트 템플릿), method, status, outcome
+ * - 보안 필터: security.filter(SecurityFilterMetricsPostProcessor). 태그 filter
+ *   - 체인별 p50/p99/p999가 필요하면 learnspring.metrics.security-filter.histograms=true → /actuator/securityfilters
+ * - 커넥션 풀: hikaricp.connections.acquire 등(DataSourcePoolSupport). 태그 pool
+ * - 리포지토리: repository.invocations(Spring Boot + RepositoryMetricsPostProcessor). 태그 repository, method, state, exception
+ * - 템플릿: view.render(TimedGroovyMarkupView). 태그 view
+ *
+ * # 태그, 비용
+ * - 태그 값은 모두 코드에 정해진 집합(클래스, 메서드, 라우트, 풀, 템플릿 이름)이라 요청 값에 따라 시계열이 늘지 않는다
+ * - 계측 비용 예산과 측정은 MetricsOverheadBenchmark 참조
+ * - BeanPostProcessor는 다른 빈보다 먼저 만들어져야 하므로 static, MeterRegistry는 후처리 시점에 꺼낸다
+ */
+@Configuration
+public class MetricsConfig {
+    @Bean
+    public static SecurityFilterMetricsPostProcessor securityFilterMetricsPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry, ObjectProvider<FilterLatencyHistograms> histograms) {
+        return new SecurityFilterMetricsPostProcessor(meterRegistry, histograms);
+    }
+
+    /**
+     * Spring Data 리포지토리 타이머와 같은 이름(management.metrics.data.repository.metric-name)을 쓴다
+     */
+    @Bean
+    public static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${management.metrics.data.repository.metric-name:spring.data.repository.invocations}") String metricName) {
+        return new RepositoryMetricsPostProcessor(meterRegistry, metricName);
+    }
+
+    /**
+     * # learnspring.metrics.security-filter.histograms
+     * - 필터별 타이머(security.filter)는 체인을 구분하지 않고, Prometheus 히스토그램은 버킷 경계만큼만 정밀하다
+     * - 어느 필터가 요청 오버헤드를 차지하는지 볼 때만 켠다. 필터 하나당 HDR 히스토그램 세 개(Recorder 둘, 누적 하나)를 쓴다
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "learnspring.metrics.security-filter.histograms", havingValue = "true")
+    static class SecurityFilterHistogramConfig {
+        @Bean
+        public FilterLatencyHistograms filterLatencyHistograms(
+                @Value("${learnspring.metrics.security-filter.significant-digits:2}") int significantDigits) {
+            return new FilterLatencyHistograms(significantDigits);
+        }
+
+        @Bean
+        public SecurityFilterLatencyEndpoint securityFilterLatencyEndpoint(FilterLatencyHistograms histograms) {
+            return new SecurityFilterLatencyEndpoint(histograms);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.learn.spring.learnspring.config.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * # RepositoryMetricsInterceptor
+ * - 리포지토리 메서드 호출 시간. Spring Boot가 Spring Data 리포지토리에 남기는 타이머와 같은 이름, 같은 태그를 쓴다
+ *   - repository: 클래스 이름, method: 메서드 이름, state: SUCCESS | ERROR, exception: 예외 클래스 이름 | None
+ * - 성공 타이머는 메서드별로 캐시해서 호출마다 Meter.Id를 만들지 않는다
+ *   - 캐시 조회는 get을 먼저 한다. computeIfAbsent에 invocation을 잡는 람다를 넘기면 호출마다 람다 객체가 생긴다
+ * - MeterRegistry는 처음 쓸 때 한 번 꺼내 둔다. ObjectProvider.getIfAvailable은 호출마다 빈 팩토리를 조회한다
+ * - 콜백을 받는 메서드(TestTableColumnarReader.findById 등)는 콜백 처리 시간까지 포함된다
+ */
+final class RepositoryMetricsInterceptor implements MethodInterceptor {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final String metricName;
+    private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    RepositoryMetricsInterceptor(ObjectProvider<MeterRegistry> meterRegistry, String metricName) {
+        this.meterRegistry = meterRegistry;
+        this.metricName = metricName;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (method.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        MeterRegistry registry = registry();
+        if (registry == null) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            long nanos = System.nanoTime() - start;
+            Timer timer = successTimers.get(method);
+            if (timer == null) {
+                timer = successTimers.computeIfAbsent(method, m -> timer(registry, invocation, "SUCCESS", "None"));
+            }
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(registry, invocation, "ERROR", e.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private MeterRegistry registry() {
+        MeterRegistry current = registry;
+        if (current == null) {
+            current = meterRegistry.getIfAvailable();
+            registry = current;
+        }
+        return current;
+    }
+
+    private Timer timer(MeterRegistry registry, MethodInvocation invocation, String state, String exception) {
+        return Timer.builder(metricName)
+                .description("Duration of repository invocations")
+                .tag("repository", AopUtils.getTargetClass(invocation.getThis()).getSimpleName())
+                .tag("method", invocation.getMethod().getName())
+                .tag("state", state)
+                .tag("exception", exception)
+                .register(registry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.learn.spring.learnspring.config.metrics;
+
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.ClassFilters;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * # RepositoryMetricsPostProcessor
+ * - Spring Data가 아닌 @Repository 빈(TestTableAggregationRepository, TestTableColumnarReader)에 RepositoryMetricsInterceptor를 붙인다
+ * - Spring Data 리포지토리(TestTableRepository 등)는 Spring Boot RepositoryMetricsAutoConfiguration이 같은 이름으로 잰다
+ * - PersistenceExceptionTranslationPostProcessor처럼 이미 프록시인 빈에는 advisor만 추가한다
+ */
+public class RepositoryMetricsPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final String metricName;
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry, String metricName) {
+        this.meterRegistry = meterRegistry;
+        this.metricName = metricName;
+        setProxyTargetClass(true);
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        super.setBeanFactory(beanFactory);
+        ClassFilter repository = new AnnotationMatchingPointcut(Repository.class, true).getClassFilter();
+        ClassFilter notSpringData = clazz -> !org.springframework.data.repository.Repository.class.isAssignableFrom(clazz);
+        this.advisor = new DefaultPointcutAdvisor(new ComposablePointcut(ClassFilters.intersection(repository, notSpringData)),
+                new RepositoryMetricsInterceptor(meterRegistry, metricName));
+    }
+}
@@ -0,0 +1,36 @@
+package com.learn.spring.learnspring.config.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * # /actuator/securityfilters
+ * - GET: 체인별, 필터별 자체 시간 분포(count, p50, p99, p999, max). 단위 ns, 기동 후(또는 마지막 DELETE 후) 누적
+ * - DELETE: 누적 분포를 비운다. 부하를 주기 직전에 비우고 끝난 뒤 조회하면 그 구간만 볼 수 있다
+ * - learnspring.metrics.security-filter.histograms=true 일 때만 등록된다(MetricsConfig)
+ */
+@Endpoint(id = "securityfilters")
+public class SecurityFilterLatencyEndpoint {
+    private final FilterLatencyHistograms histograms;
+
+    public SecurityFilterLatencyEndpoint(FilterLatencyHistograms histograms) {
+        this.histograms = histograms;
+    }
+
+    @ReadOperation
+    public Map<String, Object> latencies() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("unit", "ns");
+        result.put("chains", histograms.snapshot());
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        histograms.reset();
+    }
+}
@@ -0,0 +1,98 @@
+package com.learn.spring.learnspring.config.metrics;
+
+import java.util.List;
+import java.util.ListIterator;
+
+import javax.servlet.Filter;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.security.web.DefaultSecurityFilterChain;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * # SecurityFilterMetricsPostProcessor
+ * - FilterChainProxy의 필터를 TimedFilter로 감싸서 security.filter{filter=클래스 이름} 타이머(FilterSelfTimers)에 자체 시간을 남긴다
+ * - 태그는 필터 클래스 이름뿐이라 체인이 여러 개여도 시계열 수는 필터 종류 수로 고정된다
+ * - histograms(learnspring.metrics.security-filter.histograms=true 일 때): 체인별로 FilterLatencyHistograms에도 남긴다
+ *   - 체인 이름은 "순서: 요청 매처"(ex: "0: Ant [pattern='/admin/**']"). /actuator/securityfilters에서 본다
+ * - WebAsyncManagerIntegrationFilterRemover처럼 DefaultSecurityFilterChain.getFilters()가 수정 가능한 목록이라는 구현에 기댄다
+ *   - 필터를 빼는 후처리(WebAsyncManagerIntegrationFilterRemover)가 타입으로 찾을 수 있도록 그보다 뒤에 실행된다(Ordered 아님)
+ */
+@Slf4j
+public class SecurityFilterMetricsPostProcessor implements BeanPostProcessor {
+    public static final String METRIC_NAME = "security.filter";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<FilterLatencyHistograms> histograms;
+    /** FilterChainProxy가 여러 개여도 같은 필터 클래스는 같은 타이머에 남긴다 */
+    private FilterSelfTimers selfTimers;
+
+    public SecurityFilterMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                              ObjectProvider<FilterLatencyHistograms> histograms) {
+        this.meterRegistry = meterRegistry;
+        this.histograms = histograms;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof FilterChainProxy)) {
+            return bean;
+        }
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        FilterLatencyHistograms latencyHistograms = histograms.getIfAvailable();
+        if (registry == null && latencyHistograms == null) {
+            return bean;
+        }
+        if (registry != null && selfTimers == null) {
+            selfTimers = new FilterSelfTimers(registry);
+        }
+        List<SecurityFilterChain> chains = ((FilterChainProxy) bean).getFilterChains();
+        for (int i = 0; i < chains.size(); i++) {
+            SecurityFilterChain chain = chains.get(i);
+            try {
+                wrap(chain.getFilters(), selfTimers, latencyHistograms, chainName(i, chain));
+            } catch (UnsupportedOperationException e) {
+                log.warn("Cannot instrument security filters of {}", chain);
+            }
+        }
+        return bean;
+    }
+
+    static void wrap(List<Filter> filters, MeterRegistry registry) {
+        wrap(filters, registry, null, null);
+    }
+
+    static void wrap(List<Filter> filters, MeterRegistry registry, FilterLatencyHistograms histograms, String chain) {
+        wrap(filters, registry == null ? null : new FilterSelfTimers(registry), histograms, chain);
+    }
+
+    /**
+     * selfTimers, histograms 중 null인 쪽에는 남기지 않는다
+     * - 마지막 필터만 chain.doFilter 시간을 직접 잰다(TimedFilter 비용 참조)
+     */
+    private static void wrap(List<Filter> filters, FilterSelfTimers selfTimers, FilterLatencyHistograms histograms, String chain) {
+        for (ListIterator<Filter> iterator = filters.listIterator(); iterator.hasNext(); ) {
+            Filter filter = iterator.next();
+            if (!(filter instanceof TimedFilter)) {
+                String name = filter.getClass().getSimpleName();
+                iterator.set(new TimedFilter(filter,
+                        selfTimers == null ? null : selfTimers.get(name),
+                        histograms == null ? null : histograms.recorder(chain, name),
+                        !iterator.hasNext()));
+            }
+        }
+    }
+
+    private static String chainName(int index, SecurityFilterChain chain) {
+        if (chain instanceof DefaultSecurityFilterChain) {
+            return index + ": " + ((DefaultSecurityFilterChain) chain).getRequestMatcher();
+        }
+        return index + ": " + chain.getClass().getSimpleName();
+    }
+}
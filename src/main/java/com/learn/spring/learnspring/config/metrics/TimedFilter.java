@@ -0,0 +1,127 @@
+package com.learn.spring.learnspring.config.metrics;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.HdrHistogram.Recorder;
+
+/**
+ * # TimedFilter
+ * - 필터 하나의 자체 시간(self time)을 잰다. 다음 필터부터 컨트롤러까지 걸린 시간(chain.doFilter)은 뺀다
+ * - 필터마다 inclusive 시간을 재면 앞쪽 필터일수록 요청 전체 시간과 같아져서 어느 필터가 느린지 알 수 없다
+ * - selfTime(선택): security.filter 타이머(FilterSelfTimers). recorder(선택): FilterLatencyHistograms가 켜져 있으면 HDR 히스토그램에도 남긴다
+ * - 비동기 요청은 컨테이너 스레드가 chain.doFilter에서 먼저 돌아오므로 동기 구간만 잰다
+ *
+ * # 비용
+ * - 요청 경로에서 객체를 만들지 않는다. TimedChain은 스레드마다 중첩 깊이별로 하나씩 만들어 두고 재사용한다(Frames)
+ *   - 그래서 감싼 필터는 doFilter가 끝난 뒤에 chain을 쓰면 안 된다. 보안 필터는 모두 doFilter 안에서만 쓴다
+ * - 시계는 필터당 System.nanoTime() 두 번(들어올 때, 나갈 때)만 읽는다
+ *   - 다음 필터도 TimedFilter면 그 필터의 inclusive 시간이 곧 이 필터의 downstream 시간이므로 pop할 때 바깥 TimedChain에 넘긴다
+ *   - 체인의 마지막 필터(last)만 chain.doFilter 앞뒤로 시계를 한 번 더 읽는다. 그 뒤는 TimedFilter가 아니다
+ *   - 필터 사이 VirtualFilterChain 이동 시간은 앞 필터의 자체 시간에 들어간다
+ * - 측정값은 MetricsOverheadBenchmark 참조
+ */
+final class TimedFilter implements Filter {
+    private static final ThreadLocal<Frames> FRAMES = ThreadLocal.withInitial(Frames::new);
+
+    private final Filter delegate;
+    private final FilterSelfTimers.SelfTime selfTime;
+    private final Recorder recorder;
+    private final boolean last;
+
+    TimedFilter(Filter delegate, FilterSelfTimers.SelfTime selfTime, Recorder recorder, boolean last) {
+        this.delegate = delegate;
+        this.selfTime = selfTime;
+        this.recorder = recorder;
+        this.last = last;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        Frames frames = FRAMES.get();
+        TimedChain timedChain = frames.push(chain, last);
+        long start = System.nanoTime();
+        try {
+            delegate.doFilter(request, response, timedChain);
+        } finally {
+            long inclusiveNanos = System.nanoTime() - start;
+            long selfNanos = Math.max(0, inclusiveNanos - timedChain.downstreamNanos);
+            frames.pop(inclusiveNanos);
+            if (selfTime != null) {
+                selfTime.record(selfNanos);
+            }
+            if (recorder != null) {
+                recorder.recordValue(selfNanos);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Timed(" + delegate + ")";
+    }
+
+    /**
+     * 스레드 하나의 TimedFilter 중첩. chains[depth - 1]이 지금 실행 중인 필터의 TimedChain
+     */
+    private static final class Frames {
+        private TimedChain[] chains = new TimedChain[16];
+        private int depth;
+
+        TimedChain push(FilterChain next, boolean timesDownstream) {
+            if (depth == chains.length) {
+                chains = Arrays.copyOf(chains, depth << 1);
+            }
+            TimedChain chain = chains[depth];
+            if (chain == null) {
+                chain = new TimedChain();
+                chains[depth] = chain;
+            }
+            depth++;
+            chain.next = next;
+            chain.timesDownstream = timesDownstream;
+            chain.downstreamNanos = 0;
+            return chain;
+        }
+
+        /**
+         * 바깥 필터가 있으면 이 필터의 inclusive 시간을 바깥 필터의 downstream 시간에 더한다
+         */
+        void pop(long inclusiveNanos) {
+            TimedChain chain = chains[--depth];
+            chain.next = null;
+            if (depth > 0) {
+                TimedChain outer = chains[depth - 1];
+                if (!outer.timesDownstream) {
+                    outer.downstreamNanos += inclusiveNanos;
+                }
+            }
+        }
+    }
+
+    private static final class TimedChain implements FilterChain {
+        private FilterChain next;
+        private boolean timesDownstream;
+        private long downstreamNanos;
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+            if (!timesDownstream) {
+                next.doFilter(request, response);
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                next.doFilter(request, response);
+            } finally {
+                downstreamNanos += System.nanoTime() - start;
+            }
+        }
+    }
+}
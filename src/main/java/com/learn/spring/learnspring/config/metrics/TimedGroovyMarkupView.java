@@ -0,0 +1,51 @@
+package com.learn.spring.learnspring.config.metrics;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.web.servlet.view.groovy.GroovyMarkupView;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * # TimedGroovyMarkupView
+ * - Groovy 템플릿 렌더링 시간 view.render{view=템플릿 경로}. CustomMvcConfig.GroovyConfig에서 viewClass로 지정
+ * - 뷰는 GroovyMarkupViewResolver가 이름별로 캐시하므로 타이머도 뷰 객체에 한 번만 만든다
+ * - 태그는 템플릿 파일 경로라서 템플릿 수만큼만 시계열이 생긴다
+ */
+public class TimedGroovyMarkupView extends GroovyMarkupView {
+    public static final String METRIC_NAME = "view.render";
+
+    private Timer timer;
+
+    @Override
+    protected void initApplicationContext(ApplicationContext context) {
+        super.initApplicationContext(context);
+        MeterRegistry registry = context.getBeanProvider(MeterRegistry.class).getIfAvailable();
+        if (registry != null) {
+            timer = Timer.builder(METRIC_NAME)
+                    .description("Groovy markup template rendering time")
+                    .tag("view", String.valueOf(getUrl()))
+                    .register(registry);
+        }
+    }
+
+    @Override
+    protected void renderMergedTemplateModel(Map<String, Object> model, HttpServletRequest request, HttpServletResponse response) throws Exception {
+        if (timer == null) {
+            super.renderMergedTemplateModel(model, request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            super.renderMergedTemplateModel(model, request, response);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.learn.spring.learnspring.config.migration;
+
+import java.io.IOException;
+
+import javax.sql.DataSource;
+
+import com.learn.spring.learnspring.repository.clickhouse.migration.ClickHouseMigration;
+import com.learn.spring.learnspring.repository.clickhouse.migration.ClickHouseMigrator;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternUtils;
+
+/**
+ * # ClickhouseMigrationConfig
+ * - ClickHouseMigrator 빈. 스크립트 목록과 자리표시자는 빈을 만들 때 검사한다
+ * - run-on-startup=true 이면 싱글톤 초기화 중에 migrate()한다. 웹 서버는 모든 싱글톤이 만들어진 뒤에 요청을 받으므로
+ *   요청이 적용 전 스키마를 보는 일은 없다
+ * - 기본값은 false. V2처럼 테이블을 복사해서 바꿔 끼우는 스크립트는 쓰기를 멈춘 뒤 CLI로 적용해야 하고,
+ *   다른 인스턴스가 쓰고 있는지 기동하는 인스턴스는 알 수 없다
+ */
+@Configuration
+@EnableConfigurationProperties(ClickhouseMigrationProperties.class)
+public class ClickhouseMigrationConfig {
+    @Bean
+    public ClickHouseMigrator clickHouseMigrator(@Qualifier("clickhouseDataSource") DataSource dataSource,
+                                                 ClickhouseMigrationProperties properties,
+                                                 ResourceLoader resourceLoader) throws IOException {
+        return new ClickHouseMigrator(dataSource,
+                ClickHouseMigration.load(ResourcePatternUtils.getResourcePatternResolver(resourceLoader), properties.getLocation()),
+                properties.getHistoryTable(), properties.getPlaceholders());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "learnspring.clickhouse.migration", name = "run-on-startup", havingValue = "true")
+    public InitializingBean clickhouseMigrationInitializer(ClickHouseMigrator clickHouseMigrator) {
+        return clickHouseMigrator::migrate;
+    }
+}
@@ -0,0 +1,29 @@
+package com.learn.spring.learnspring.config.migration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.learn.spring.learnspring.repository.clickhouse.migration.ClickHouseMigrator;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * # learnspring.clickhouse.migration
+ * - ClickHouseMigrator 설정. CLI(ClickHouseMigrationCommand)는 같은 기본값을 명령행 옵션으로 받는다
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "learnspring.clickhouse.migration")
+public class ClickhouseMigrationProperties {
+    /** 기동 시 clickhouseDataSource에 대기 중인 스크립트를 적용한다. 기본은 끄고 CLI로 적용(V2는 test_table 쓰기를 멈춘 뒤에 적용해야 한다) */
+    private boolean runOnStartup = false;
+    /** V{버전}__{설명}.sql 스크립트 위치 */
+    private String location = ClickHouseMigrator.DEFAULT_LOCATION;
+    /** 적용 이력 테이블 */
+    private String historyTable = ClickHouseMigrator.DEFAULT_HISTORY_TABLE;
+    /** 스크립트의 ${이름} 자리표시자 값 */
+    private Map<String, String> placeholders = new LinkedHashMap<>(ClickHouseMigrator.DEFAULT_PLACEHOLDERS);
+}
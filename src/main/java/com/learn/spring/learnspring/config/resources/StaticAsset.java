@@ -0,0 +1,71 @@
+package com.learn.spring.learnspring.config.resources;
+
+import java.io.File;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+
+/**
+ * # StaticAsset
+ * - 자원 하나. StaticAssetCatalog가 만들고 바꾸지 않는다
+ * - hash: 원본 내용의 MD5(hex). VersionResourceResolver의 ContentVersionStrategy와 같은 방식
+ * - 표현(Representation)은 원본(identity), gzip, br. 압축본이 없으면 null
+ */
+final class StaticAsset {
+    final String path;
+    final String hash;
+    final MediaType mediaType;
+    /** 알 수 없으면 -1 */
+    final long lastModified;
+    final Representation identity;
+    final Representation gzip;
+    final Representation brotli;
+
+    StaticAsset(String path, String hash, MediaType mediaType, long lastModified,
+                Representation identity, Representation gzip, Representation brotli) {
+        this.path = path;
+        this.hash = hash;
+        this.mediaType = mediaType;
+        this.lastModified = lastModified;
+        this.identity = identity;
+        this.gzip = gzip;
+        this.brotli = brotli;
+    }
+
+    boolean hasEncodings() {
+        return gzip != null || brotli != null;
+    }
+
+    /** 메모리에 올린 바이트 */
+    long memoryBytes() {
+        return Representation.memoryBytes(identity) + Representation.memoryBytes(gzip) + Representation.memoryBytes(brotli);
+    }
+
+    /**
+     * # Representation
+     * - 보낼 바이트의 위치. bytes(메모리) → file(sendfile) → resource(스트림 복사) 순서로 쓴다
+     * - etag는 인코딩마다 다르다(같은 URL이라도 표현이 다르면 ETag도 달라야 한다)
+     */
+    static final class Representation {
+        /** Content-Encoding. 원본이면 null */
+        final String encoding;
+        final String etag;
+        final long length;
+        final byte[] bytes;
+        final File file;
+        final Resource resource;
+
+        Representation(String encoding, String etag, long length, byte[] bytes, File file, Resource resource) {
+            this.encoding = encoding;
+            this.etag = etag;
+            this.length = length;
+            this.bytes = bytes;
+            this.file = file;
+            this.resource = resource;
+        }
+
+        private static long memoryBytes(Representation representation) {
+            return representation == null || representation.bytes == null ? 0 : representation.bytes.length;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.learn.spring.learnspring.config.resources;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * # StaticAssetCatalog
+ * - 정적 자원 경로 → StaticAsset. 한 번 만든 StaticAsset은 cache=false가 아니면 다시 읽지 않는다
+ * - 해시 URL: css/app.css → css/app-{MD5}.css (VersionResourceResolver + ContentVersionStrategy와 같은 모양)
+ *   - 요청의 해시가 지금 내용의 해시와 다르면 찾지 못한 것으로 본다(예전 URL을 새 내용으로 1년 캐시하지 않도록)
+ *   - 해시 없는 URL도 그대로 찾는다. 대신 StaticResourceHandler가 ETag로 재검증하게 한다
+ * - 메모리: memory-max-file-size 이하 자원은 바이트로 들고 있다. 합계가 memory-max-size를 넘으면 더 올리지 않는다
+ * - 압축본
+ *   - gzip: 기동할 때(또는 첫 요청 때) 메모리에 올린 압축 대상 자원을 BEST_COMPRESSION으로 압축한다. 원본보다 작을 때만 쓴다
+ *   - br: JDK에 Brotli 인코더가 없어서 만들지 않는다. 빌드에서 만든 {파일}.br이 옆에 있으면 쓴다
+ *   - {파일}.gz가 옆에 있으면 직접 압축하지 않고 그 파일을 쓴다(zopfli 등 빌드 도구 결과). 원본과 같은 내용으로 만들었다고 가정한다
+ *   - 큰 자원은 압축본 파일이 있을 때만 압축해서 보낸다
+ * - 경로 검사: ResourceHttpRequestHandler.isInvalidPath처럼 .., WEB-INF, META-INF, URL 형태를 거절한다
+ */
+@Slf4j
+public class StaticAssetCatalog {
+    private static final Pattern VERSIONED = Pattern.compile("^(.*)-([0-9a-f]{32})(\\.[^./]*)?$");
+
+    private final StaticResourceProperties properties;
+    private final ResourcePatternResolver resolver;
+    private final List<Resource> locations = new ArrayList<>();
+    private final List<MediaType> compressibleTypes = new ArrayList<>();
+    private final String urlPrefix;
+    private final ConcurrentMap<String, StaticAsset> assets = new ConcurrentHashMap<>();
+    private final AtomicLong memoryBytes = new AtomicLong();
+
+    public StaticAssetCatalog(StaticResourceProperties properties, ResourceLoader resourceLoader) {
+        this.properties = properties;
+        this.resolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
+        for (String location : properties.getLocations()) {
+            locations.add(resolver.getResource(location.endsWith("/") ? location : location + "/"));
+        }
+        for (String type : properties.getCompressibleTypes()) {
+            compressibleTypes.add(MediaType.parseMediaType(type));
+        }
+        String pattern = properties.getPathPattern();
+        this.urlPrefix = pattern.endsWith("**") ? pattern.substring(0, pattern.length() - 2) : pattern;
+    }
+
+    /**
+     * 목록을 만들 수 있는 위치 아래 자원을 모두 StaticAsset으로 만든다. 기동할 때 한 번(StaticResourceConfig)
+     *
+     * @return 만든 자원 수
+     */
+    public int precompute() {
+        int count = 0;
+        for (int i = 0; i < locations.size(); i++) {
+            String location = properties.getLocations().get(i);
+            try {
+                String base = locations.get(i).getURL().toExternalForm();
+                for (Resource resource : resolver.getResources((location.endsWith("/") ? location : location + "/") + "**")) {
+                    String url = resource.getURL().toExternalForm();
+                    if (!url.startsWith(base) || url.endsWith("/") || url.endsWith(".gz") || url.endsWith(".br")) {
+                        continue;
+                    }
+                    if (find(StringUtils.uriDecode(url.substring(base.length()), StandardCharsets.UTF_8)) != null) {
+                        count++;
+                    }
+                }
+            } catch (IOException e) {
+                // 서블릿 컨텍스트에 문서 루트가 없는 경우 등. 요청 때 찾는다
+                log.debug("Cannot list static resources in {}", location, e);
+            }
+        }
+        log.info("Precomputed {} static assets ({} bytes in memory)", count, memoryBytes.get());
+        return count;
+    }
+
+    /**
+     * @param path 접두사(/resources/) 뒤의 경로. 해시가 붙어 있을 수 있다
+     * @return 없으면 null
+     */
+    Lookup lookup(String path) {
+        Matcher matcher = VERSIONED.matcher(path);
+        if (matcher.matches()) {
+            String extension = matcher.group(3);
+            StaticAsset asset = find(matcher.group(1) + (extension == null ? "" : extension));
+            if (asset != null && asset.hash.equals(matcher.group(2))) {
+                return new Lookup(asset, true);
+            }
+        }
+        StaticAsset asset = find(path);
+        return asset == null ? null : new Lookup(asset, false);
+    }
+
+    /**
+     * 템플릿 등에서 쓸 해시가 붙은 URL(/resources/css/app-{MD5}.css)
+     *
+     * @param path 접두사 뒤의 경로(css/app.css)
+     * @return 자원이 없으면 null
+     */
+    public String getVersionedUrl(String path) {
+        StaticAsset asset = find(path);
+        if (asset == null) {
+            return null;
+        }
+        String extension = StringUtils.getFilenameExtension(asset.path);
+        return urlPrefix + StringUtils.stripFilenameExtension(asset.path) + "-" + asset.hash + (extension == null ? "" : "." + extension);
+    }
+
+    /** 메모리에 올린 바이트 합계 */
+    public long getMemoryBytes() {
+        return memoryBytes.get();
+    }
+
+    /**
+     * 해시 없는 경로로 찾는다
+     */
+    StaticAsset find(String path) {
+        String normalized = normalize(path);
+        if (normalized == null) {
+            return null;
+        }
+        if (!properties.isCache()) {
+            return read(normalized, false);
+        }
+        StaticAsset asset = assets.get(normalized);
+        if (asset != null) {
+            return asset;
+        }
+        // 없는 경로는 담아 두지 않는다(임의 경로 요청으로 맵이 커지지 않도록)
+        asset = read(normalized, true);
+        if (asset != null) {
+            StaticAsset previous = assets.putIfAbsent(normalized, asset);
+            if (previous != null) {
+                memoryBytes.addAndGet(-asset.memoryBytes());
+                return previous;
+            }
+        }
+        return asset;
+    }
+
+    private StaticAsset read(String path, boolean budgeted) {
+        for (Resource location : locations) {
+            try {
+                Resource resource = location.createRelative(path);
+                if (resource.isReadable()) {
+                    return read(path, resource, budgeted);
+                }
+            } catch (IOException e) {
+                log.warn("Cannot read static resource {} in {}", path, location, e);
+            }
+        }
+        return null;
+    }
+
+    private StaticAsset read(String path, Resource resource, boolean budgeted) throws IOException {
+        MediaType mediaType = MediaTypeFactory.getMediaType(resource).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        long lastModified = lastModified(resource);
+        File file = resource.isFile() ? resource.getFile() : null;
+        long length = resource.contentLength();
+        byte[] bytes = null;
+        String hash;
+        if (length <= properties.getMemoryMaxFileSize().toBytes()) {
+            try (InputStream in = resource.getInputStream()) {
+                bytes = StreamUtils.copyToByteArray(in);
+            }
+            length = bytes.length;
+            hash = DigestUtils.md5DigestAsHex(bytes);
+        } else {
+            try (InputStream in = resource.getInputStream()) {
+                hash = DigestUtils.md5DigestAsHex(in);
+            }
+        }
+        // 해시는 메모리에 못 올려도 구해야 하므로 다 읽은 뒤에 자리를 잡는다
+        byte[] identityBytes = bytes != null && reserve(bytes.length, budgeted) ? bytes : null;
+        StaticAsset.Representation identity = new StaticAsset.Representation(null, etag(hash, null), length, identityBytes, file, resource);
+
+        StaticAsset.Representation gzip = prebuilt(resource, hash, "gzip", ".gz", budgeted);
+        if (gzip == null && identityBytes != null && length >= properties.getCompressMinSize().toBytes() && isCompressible(mediaType)) {
+            byte[] compressed = gzip(identityBytes);
+            if (compressed.length < identityBytes.length && reserve(compressed.length, budgeted)) {
+                gzip = new StaticAsset.Representation("gzip", etag(hash, "gzip"), compressed.length, compressed, null, null);
+            }
+        }
+        StaticAsset.Representation brotli = prebuilt(resource, hash, "br", ".br", budgeted);
+        return new StaticAsset(path, hash, mediaType, lastModified, identity, gzip, brotli);
+    }
+
+    /**
+     * 빌드에서 만든 {파일}{suffix}
+     */
+    private StaticAsset.Representation prebuilt(Resource resource, String hash, String encoding, String suffix, boolean budgeted) throws IOException {
+        Resource encoded = resource.createRelative(resource.getFilename() + suffix);
+        if (!encoded.isReadable()) {
+            return null;
+        }
+        long length = encoded.contentLength();
+        byte[] bytes = null;
+        if (length <= properties.getMemoryMaxFileSize().toBytes() && reserve(length, budgeted)) {
+            try (InputStream in = encoded.getInputStream()) {
+                bytes = StreamUtils.copyToByteArray(in);
+            }
+        }
+        return new StaticAsset.Representation(encoding, etag(hash, encoding), length, bytes, encoded.isFile() ? encoded.getFile() : null, encoded);
+    }
+
+    private boolean reserve(long bytes, boolean budgeted) {
+        if (!budgeted) {
+            return true;
+        }
+        long limit = properties.getMemoryMaxSize().toBytes();
+        while (true) {
+            long used = memoryBytes.get();
+            if (used + bytes > limit) {
+                return false;
+            }
+            if (memoryBytes.compareAndSet(used, used + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean isCompressible(MediaType mediaType) {
+        for (MediaType type : compressibleTypes) {
+            if (type.includes(mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 앞의 /를 떼고 ResourceHttpRequestHandler가 거절하는 경로는 null
+     */
+    private static String normalize(String path) {
+        int start = 0;
+        while (start < path.length() && path.charAt(start) == '/') {
+            start++;
+        }
+        String normalized = path.substring(start);
+        if (normalized.isEmpty() || normalized.endsWith("/") || normalized.indexOf('\\') >= 0 || normalized.contains(":/")
+                || normalized.contains("//")) {
+            return null;
+        }
+        String upper = normalized.toUpperCase(Locale.ROOT);
+        if (upper.startsWith("WEB-INF") || upper.startsWith("META-INF")) {
+            return null;
+        }
+        for (String segment : StringUtils.delimitedListToStringArray(normalized, "/")) {
+            if (segment.equals("..") || segment.equals(".")) {
+                return null;
+            }
+        }
+        return normalized;
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            long lastModified = resource.lastModified();
+            return lastModified > 0 ? lastModified : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static String etag(String hash, String encoding) {
+        return "\"" + hash + (encoding == null ? "" : "-" + encoding) + "\"";
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * versioned: 요청 URL에 지금 내용의 해시가 붙어 있었다
+     */
+    static final class Lookup {
+        final StaticAsset asset;
+        final boolean versioned;
+
+        Lookup(StaticAsset asset, boolean versioned) {
+            this.asset = asset;
+            this.versioned = versioned;
+        }
+    }
+}
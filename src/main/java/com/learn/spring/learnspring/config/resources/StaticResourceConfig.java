@@ -0,0 +1,42 @@
+package com.learn.spring.learnspring.config.resources;
+
+import java.util.Collections;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+
+/**
+ * # StaticResourceConfig
+ * - learnspring.resources.path-pattern(/resources/**)을 StaticResourceHandler로 보낸다
+ *   - CustomMvcConfig.ResourceConfig의 ResourceHandlerRegistry 등록(setCachePeriod(300))을 대신한다
+ *   - 순서: 컨트롤러(RequestMappingHandlerMapping)보다 뒤, /** 기본 서블릿 매핑보다 앞. ResourceHandlerRegistry와 같은 자리
+ * - precompute=true 이면 싱글톤 초기화 중에 해시와 압축본을 만든다. 웹 서버가 요청을 받기 전에 끝난다
+ * - 템플릿에서 해시가 붙은 URL은 StaticAssetCatalog.getVersionedUrl로 만든다
+ */
+@Configuration
+@EnableConfigurationProperties(StaticResourceProperties.class)
+public class StaticResourceConfig {
+    @Bean
+    public StaticAssetCatalog staticAssetCatalog(StaticResourceProperties properties, ResourceLoader resourceLoader) {
+        return new StaticAssetCatalog(properties, resourceLoader);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "learnspring.resources", name = "precompute", havingValue = "true", matchIfMissing = true)
+    public InitializingBean staticAssetPrecomputer(StaticAssetCatalog staticAssetCatalog) {
+        return staticAssetCatalog::precompute;
+    }
+
+    @Bean
+    public SimpleUrlHandlerMapping staticResourceHandlerMapping(StaticAssetCatalog staticAssetCatalog, StaticResourceProperties properties) {
+        return new SimpleUrlHandlerMapping(
+                Collections.singletonMap(properties.getPathPattern(), new StaticResourceHandler(staticAssetCatalog, properties)),
+                Ordered.LOWEST_PRECEDENCE - 1);
+    }
+}
@@ -0,0 +1,222 @@
+package com.learn.spring.learnspring.config.resources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.learn.spring.learnspring.config.resources.StaticAssetCatalog.Lookup;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.HttpRequestHandler;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * # StaticResourceHandler
+ * - ResourceHttpRequestHandler 대신 StaticAssetCatalog의 자원을 보낸다
+ * - Cache-Control
+ *   - 해시가 붙은 URL: public, max-age=versioned-max-age, immutable
+ *   - 해시 없는 URL: no-cache. 매번 ETag로 재검증하고 바뀌지 않았으면 304
+ *   - 여기서 먼저 쓰므로 Spring Security CacheControlHeadersWriter는 no-store를 쓰지 않는다
+ * - Content-Encoding: Accept-Encoding을 보고 br → gzip → 원본. 압축본이 있으면 Vary: Accept-Encoding
+ * - Range: 범위 하나만 206으로 보낸다. 여러 범위면 전체를 200으로 보낸다. 범위 요청은 항상 원본에서 자른다
+ * - 본문 쓰기
+ *   - 메모리에 있으면 바이트 배열을 그대로 쓴다
+ *   - 파일이면 Tomcat sendfile(org.apache.tomcat.sendfile.*) 요청 속성을 남긴다. 서블릿이 끝난 뒤 커넥터가 FileChannel.transferTo로 소켓에 보낸다
+ *   - sendfile을 못 쓰면(NIO2, 다른 컨테이너, MockHttpServletRequest) FileChannel.transferTo로 응답 스트림에 쓴다
+ *   - jar 안의 자원은 스트림 복사
+ */
+public class StaticResourceHandler implements HttpRequestHandler {
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final StaticAssetCatalog catalog;
+    private final String versionedCacheControl;
+    private final String unversionedCacheControl;
+
+    public StaticResourceHandler(StaticAssetCatalog catalog, StaticResourceProperties properties) {
+        this.catalog = catalog;
+        // CacheControl에 immutable이 없어서(Spring 6.0.5부터) 덧붙인다
+        this.versionedCacheControl = CacheControl.maxAge(properties.getVersionedMaxAge()).cachePublic().getHeaderValue() + ", immutable";
+        this.unversionedCacheControl = CacheControl.noCache().getHeaderValue();
+    }
+
+    @Override
+    public void handleRequest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String method = request.getMethod();
+        boolean head = "HEAD".equals(method);
+        if (!head && !"GET".equals(method)) {
+            response.setHeader(HttpHeaders.ALLOW, "GET, HEAD, OPTIONS");
+            if (!"OPTIONS".equals(method)) {
+                response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            }
+            return;
+        }
+        String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        Lookup lookup = path == null ? null : catalog.lookup(path);
+        if (lookup == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        StaticAsset asset = lookup.asset;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        StaticAsset.Representation representation = range == null ? negotiate(request, asset) : asset.identity;
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, lookup.versioned ? versionedCacheControl : unversionedCacheControl);
+        if (asset.hasEncodings()) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        // ETag, Last-Modified를 쓰고 If-None-Match, If-Modified-Since가 맞으면 304
+        if (new ServletWebRequest(request, response).checkNotModified(representation.etag, asset.lastModified)) {
+            return;
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(asset.mediaType.toString());
+        if (representation.encoding != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, representation.encoding);
+        }
+
+        long length = representation.length;
+        long start = 0;
+        long end = length - 1;
+        if (range != null && ifRangeMatches(request, asset)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    // getRangeStart는 길이를 넘는 시작 위치를 거르지 않는다
+                    if (start >= length || start > end) {
+                        throw new IllegalArgumentException("Range start " + start + " is beyond " + length);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (ranges.size() == 1) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (head || count == 0) {
+            return;
+        }
+        write(request, response, representation, start, count);
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response,
+                              StaticAsset.Representation representation, long start, long count) throws IOException {
+        if (representation.bytes != null) {
+            response.getOutputStream().write(representation.bytes, (int) start, (int) count);
+            return;
+        }
+        if (representation.file != null) {
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // end는 Tomcat DefaultServlet처럼 끝(포함하지 않음)
+                request.setAttribute(SENDFILE_FILENAME, representation.file.getAbsolutePath());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, start + count);
+                return;
+            }
+            OutputStream out = response.getOutputStream();
+            try (FileChannel channel = FileChannel.open(representation.file.toPath(), StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long position = start;
+                long remaining = count;
+                while (remaining > 0) {
+                    long written = channel.transferTo(position, remaining, target);
+                    if (written <= 0) {
+                        // 목록을 만든 뒤 파일이 짧아졌다
+                        throw new IOException("Unexpected end of " + representation.file);
+                    }
+                    position += written;
+                    remaining -= written;
+                }
+            }
+            return;
+        }
+        try (InputStream in = representation.resource.getInputStream()) {
+            StreamUtils.copyRange(in, response.getOutputStream(), start, start + count - 1);
+        }
+    }
+
+    /**
+     * If-Range가 없거나 지금 원본의 ETag(강한 비교), Last-Modified와 같으면 Range를 따른다
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, StaticAsset asset) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(asset.identity.etag);
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return asset.lastModified > 0 && date / 1000 == asset.lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Accept-Encoding에서 q=0이 아닌 br, gzip(또는 *) 중 압축본이 있는 것. 없으면 원본
+     */
+    private static StaticAsset.Representation negotiate(HttpServletRequest request, StaticAsset asset) {
+        String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (header == null || !asset.hasEncodings()) {
+            return asset.identity;
+        }
+        boolean brotli = false;
+        boolean gzip = false;
+        for (String token : header.toLowerCase(Locale.ROOT).split(",")) {
+            int semicolon = token.indexOf(';');
+            String coding = (semicolon < 0 ? token : token.substring(0, semicolon)).trim();
+            if (semicolon >= 0 && isZeroQuality(token.substring(semicolon + 1))) {
+                continue;
+            }
+            brotli |= coding.equals("br") || coding.equals("*");
+            gzip |= coding.equals("gzip") || coding.equals("x-gzip") || coding.equals("*");
+        }
+        if (brotli && asset.brotli != null) {
+            return asset.brotli;
+        }
+        if (gzip && asset.gzip != null) {
+            return asset.gzip;
+        }
+        return asset.identity;
+    }
+
+    private static boolean isZeroQuality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(trimmed.substring(2).trim()) <= 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
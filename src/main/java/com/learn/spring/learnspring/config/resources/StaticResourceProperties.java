@@ -0,0 +1,41 @@
+package com.learn.spring.learnspring.config.resources;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * # learnspring.resources
+ * - StaticAssetCatalog, StaticResourceHandler 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "learnspring.resources")
+public class StaticResourceProperties {
+    /** 정적 자원 URL 패턴. /** 앞부분이 접두사 */
+    private String pathPattern = "/resources/**";
+    /** 자원 위치. 앞에서부터 찾는다 */
+    private List<String> locations = new ArrayList<>(Arrays.asList("/", "classpath:/META-INF/public-web-resources/"));
+    /** 기동할 때 위치 아래 자원을 모두 읽어서 해시와 압축본을 미리 만든다. false면 첫 요청 때 만든다 */
+    private boolean precompute = true;
+    /** false면 요청마다 자원을 다시 읽는다(개발용) */
+    private boolean cache = true;
+    /** 이 크기 이하의 자원만 메모리에 올린다. 더 크면 파일에서 보낸다(Tomcat sendfile) */
+    private DataSize memoryMaxFileSize = DataSize.ofKilobytes(256);
+    /** 메모리에 올리는 바이트(원본 + 압축본) 합계 상한 */
+    private DataSize memoryMaxSize = DataSize.ofMegabytes(64);
+    /** 이보다 작은 자원은 압축하지 않는다 */
+    private DataSize compressMinSize = DataSize.ofBytes(1024);
+    /** 기동할 때 gzip으로 압축할 Content-Type */
+    private List<String> compressibleTypes = new ArrayList<>(Arrays.asList(
+            "text/*", "application/javascript", "application/json", "application/xml", "image/svg+xml", "application/wasm"));
+    /** 해시가 붙은 URL의 Cache-Control max-age(immutable) */
+    private Duration versionedMaxAge = Duration.ofDays(365);
+}
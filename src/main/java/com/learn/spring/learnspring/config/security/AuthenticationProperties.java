@@ -0,0 +1,37 @@
+package com.learn.spring.learnspring.config.security;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * # learnspring.security.authentication
+ * - AuthenticationProviderImpl 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "learnspring.security.authentication")
+public class AuthenticationProperties {
+    /**
+     * 사용자(UserDetails) 캐시
+     * - AuthenticationProviderImpl.getUserDetailsManager()를 거치지 않고 DB에서 바꾼 비밀번호, 계정 잠금은 최대 ttl 만큼 늦게 반영된다
+     *   (새 비밀번호는 바로 로그인되지만 예전 비밀번호도 ttl 동안은 통한다)
+     */
+    private long userCacheSize = 10_000;
+    private Duration userCacheTtl = Duration.ofMinutes(5);
+    /**
+     * 실패 캐시. 같은 저장 해시와 비교해 틀린 사용자 이름/비밀번호 조합은 ttl 동안 해시 계산 없이, 없는 사용자 이름은 DB 조회 없이 거절한다
+     * - 크기를 넘으면 오래 안 쓴 항목부터 버리므로 무작위 조합이 쏟아져도 메모리는 늘지 않는다
+     */
+    private long failureCacheSize = 100_000;
+    private Duration failureCacheTtl = Duration.ofMinutes(10);
+    /** 비밀번호 해시 비교 전용 스레드 수. 기본값은 CPU 수 */
+    private int hashThreads = Runtime.getRuntime().availableProcessors();
+    /** 해시 비교 대기열 크기. 가득 차면 바로 실패시켜 요청 스레드가 쌓이지 않게 한다 */
+    private int hashQueueCapacity = 256;
+    /** 대기열에서 기다린 시간을 포함한 해시 비교 제한 시간 */
+    private Duration hashTimeout = Duration.ofSeconds(2);
+}
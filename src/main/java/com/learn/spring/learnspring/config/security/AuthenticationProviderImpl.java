@@ -1,40 +1,275 @@
 package com.learn.spring.learnspring.config.security;
 
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.sql.DataSource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.authentication.dao.AbstractUserDetailsAuthenticationProvider;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.JdbcUserDetailsManager;
+import org.springframework.security.provisioning.UserDetailsManager;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+
 /**
- * AuthenticationManagerBuilder 빈 사용하지 않을 때에만 사용
+ * # AuthenticationProviderImpl
+ * - postgres1DataSource의 users/authorities 테이블(sqls/postgres/users.sql)로 사용자 이름/비밀번호를 인증한다
+ * - 비밀번호는 DelegatingPasswordEncoder 형식({bcrypt}..., {argon2}... 등)
  *
+ * # 사용자 캐시
+ * - 인증에 성공한 UserDetails를 CaffeineUserCache(크기, TTL 제한)에 두고 DB 조회를 건너뛴다
+ * - 캐시된 사용자로 비밀번호가 맞지 않으면 AbstractUserDetailsAuthenticationProvider가 DB에서 다시 읽어 한 번 더 확인한다
+ *   - 그래서 DB에서 비밀번호를 바꾼 직후에도 새 비밀번호로 로그인된다(캐시의 예전 해시로 실패 → DB의 새 해시로 성공)
+ * - 사용자 추가, 비밀번호 변경, 삭제는 getUserDetailsManager()로 하면 그 사용자의 캐시와 "없는 사용자" 항목을 바로 지운다
+ *
+ * # 해시 비교 전용 executor
+ * - bcrypt/argon2는 일부러 느리므로(수십~수백 ms CPU) 요청 스레드 대신 CPU 수만큼의 스레드에서 비교한다
+ * - 대기열이 가득 차거나 hashTimeout을 넘기면 AuthenticationServiceException으로 바로 실패시킨다
+ *   - 로그인 요청이 몰려도 다른 요청을 처리할 Tomcat 스레드가 남는다
+ *
+ * # 실패 캐시(크리덴셜 스터핑 대응)
+ * - 틀린 조합은 HMAC(기동 시 만든 임의 키)(사용자 이름, 입력한 비밀번호, 비교한 저장 해시)만 남겨 failureCacheTtl 동안 해시 계산 없이 거절한다
+ *   - 저장 해시가 키에 들어가므로 비밀번호가 바뀌면 예전 실패 기록은 맞지 않는다. 새 비밀번호는 새 해시와 실제로 비교한다
+ *   - DB 조회는 건너뛰지 않는다(어떤 해시와 비교할지 알아야 한다). 건너뛰는 것은 느린 해시 계산이다
+ * - 없는 사용자 이름은 같은 기간 DB 조회 없이 거절한다. 처음 한 번은 임의 비밀번호로 해시를 계산해서 응답 시간으로 사용자 존재 여부를 알 수 없게 한다
+ *   - getUserDetailsManager()로 만든 사용자는 바로 지운다. DB에 직접 넣은 사용자는 최대 failureCacheTtl 뒤에 로그인된다
+ *
+ * # 메트릭
+ * - security.authentication {result}: 로그인 처리 시간. result = success, bad_credentials, rejected, error
+ * - cache.gets/puts/evictions {cache=authentication.users|authentication.failures}
+ * - executor.* {name=authentication.hash}
  */
+@Slf4j
 @Component
-public class AuthenticationProviderImpl extends AbstractUserDetailsAuthenticationProvider {
+public class AuthenticationProviderImpl extends AbstractUserDetailsAuthenticationProvider implements DisposableBean {
+    private static final String HMAC = "HmacSHA256";
+    private static final Object FAILED = Boolean.TRUE;
+
+    private final UserDetailsManager userDetailsManager;
+    private final PasswordEncoder passwordEncoder;
+    private final AuthenticationProperties properties;
+    private final ThreadPoolExecutor hashExecutor;
+    private final Cache<String, Object> failures;
+    private final SecretKeySpec failureKey;
+    private final ThreadLocal<Mac> macs;
+    private final String unknownUserPassword;
+    private final MeterRegistry meterRegistry;
+
+    public AuthenticationProviderImpl(@Qualifier("postgres1DataSource") DataSource dataSource,
+                                      AuthenticationProperties properties,
+                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        this(jdbcUserDetailsManager(dataSource), PasswordEncoderFactories.createDelegatingPasswordEncoder(), properties,
+                meterRegistry.getIfAvailable());
+    }
+
+    AuthenticationProviderImpl(UserDetailsManager users, PasswordEncoder passwordEncoder,
+                               AuthenticationProperties properties, MeterRegistry meterRegistry) {
+        this.userDetailsManager = new CacheEvictingUserDetailsManager(users, this::evictUser);
+        this.passwordEncoder = passwordEncoder;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.hashExecutor = new ThreadPoolExecutor(properties.getHashThreads(), properties.getHashThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getHashQueueCapacity()), hashThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(properties.getFailureCacheSize())
+                .expireAfterWrite(properties.getFailureCacheTtl())
+                .recordStats()
+                .build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.failureKey = new SecretKeySpec(key, HMAC);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        this.unknownUserPassword = passwordEncoder.encode(UUID.randomUUID().toString());
+
+        CaffeineUserCache userCache = new CaffeineUserCache(properties);
+        setUserCache(userCache);
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, userCache.getCache(), "authentication.users");
+            CaffeineCacheMetrics.monitor(meterRegistry, failures, "authentication.failures");
+            new ExecutorServiceMetrics(hashExecutor, "authentication.hash", List.of()).bindTo(meterRegistry);
+        }
+    }
 
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
-
-        return null;
+        long start = System.nanoTime();
+        String result = "error";
+        try {
+            Authentication authenticated = super.authenticate(authentication);
+            result = "success";
+            return authenticated;
+        } catch (BadCredentialsException e) {
+            result = "bad_credentials";
+            throw e;
+        } catch (InternalAuthenticationServiceException e) {
+            throw e;
+        } catch (AuthenticationServiceException e) {
+            result = "rejected";
+            throw e;
+        } finally {
+            if (meterRegistry != null) {
+                Timer.builder("security.authentication")
+                        .description("Username/password authentication time")
+                        .tag("result", result)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
     }
 
     @Override
-    public boolean supports(Class<?> authentication) {
-        // TODO Auto-generated method stub
-        return false;
+    protected UserDetails retrieveUser(String username, UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
+        String unknownKey = failureKey(username, null, null);
+        if (failures.getIfPresent(unknownKey) != null) {
+            throw new UsernameNotFoundException("Unknown user (cached)");
+        }
+        try {
+            UserDetails user = userDetailsManager.loadUserByUsername(username);
+            if (user == null) {
+                throw new InternalAuthenticationServiceException("UserDetailsService returned null");
+            }
+            return user;
+        } catch (UsernameNotFoundException e) {
+            // 있는 사용자와 응답 시간이 같도록 해시를 한 번 계산한 뒤 실패
+            String presented = authentication.getCredentials() == null ? "" : authentication.getCredentials().toString();
+            matches(presented, unknownUserPassword);
+            failures.put(unknownKey, FAILED);
+            throw e;
+        } catch (AuthenticationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new InternalAuthenticationServiceException(e.getMessage(), e);
+        }
     }
 
     @Override
     protected void additionalAuthenticationChecks(UserDetails userDetails, UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
-        // TODO Auto-generated method stub
+        if (authentication.getCredentials() == null) {
+            throw new BadCredentialsException(messages.getMessage("AbstractUserDetailsAuthenticationProvider.badCredentials", "Bad credentials"));
+        }
+        String presented = authentication.getCredentials().toString();
+        // 같은 해시와 이미 비교해서 틀린 조합이면 다시 계산하지 않는다. 캐시의 예전 해시라면 상위 클래스가 DB에서 다시 읽어 온다
+        String key = failureKey(userDetails.getUsername(), presented, userDetails.getPassword());
+        if (failures.getIfPresent(key) != null || !matches(presented, userDetails.getPassword())) {
+            failures.put(key, FAILED);
+            throw new BadCredentialsException(messages.getMessage("AbstractUserDetailsAuthenticationProvider.badCredentials", "Bad credentials"));
+        }
+    }
+
+    /**
+     * 사용자 추가, 수정, 삭제, 비밀번호 변경용. 바뀐 사용자의 캐시와 "없는 사용자" 실패 항목을 지운다
+     */
+    public UserDetailsManager getUserDetailsManager() {
+        return userDetailsManager;
+    }
 
+    void evictUser(String username) {
+        getUserCache().removeUserFromCache(username);
+        failures.invalidate(failureKey(username, null, null));
     }
 
     @Override
-    protected UserDetails retrieveUser(String username, UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
-        // TODO Auto-generated method stub
-        return null;
+    public void destroy() {
+        hashExecutor.shutdownNow();
+    }
+
+    private boolean matches(String presented, String encoded) {
+        Future<Boolean> result;
+        try {
+            result = hashExecutor.submit(() -> passwordEncoder.matches(presented, encoded));
+        } catch (RejectedExecutionException e) {
+            throw new AuthenticationServiceException("Too many concurrent logins; password check queue is full");
+        }
+        try {
+            return result.get(properties.getHashTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new AuthenticationServiceException("Password check timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new AuthenticationServiceException("Interrupted while checking password");
+        } catch (ExecutionException e) {
+            throw new InternalAuthenticationServiceException("Password check failed", e.getCause());
+        }
+    }
+
+    /**
+     * @param password null이면 "없는 사용자" 키
+     * @param encoded  비교한 저장 해시
+     */
+    private String failureKey(String username, String password, String encoded) {
+        Mac mac = macs.get();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        if (password != null) {
+            mac.update((byte) 0);
+            mac.update(password.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(String.valueOf(encoded).getBytes(StandardCharsets.UTF_8));
+        }
+        return Base64.getEncoder().encodeToString(mac.doFinal());
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(failureKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + HMAC, e);
+        }
+    }
+
+    private static UserDetailsManager jdbcUserDetailsManager(DataSource dataSource) {
+        JdbcUserDetailsManager manager = new JdbcUserDetailsManager(dataSource);
+        manager.setEnableGroups(false);
+        return manager;
+    }
+
+    private static ThreadFactory hashThreadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "auth-hash-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
-}
\ No newline at end of file
+}
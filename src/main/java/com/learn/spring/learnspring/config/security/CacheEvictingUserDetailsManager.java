@@ -0,0 +1,64 @@
+package com.learn.spring.learnspring.config.security;
+
+import java.util.function.Consumer;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.provisioning.UserDetailsManager;
+
+/**
+ * # CacheEvictingUserDetailsManager
+ * - 사용자를 바꾸는 메서드가 끝나면 그 사용자 이름으로 onChange를 부른다(AuthenticationProviderImpl.evictUser)
+ * - 새 사용자가 "없는 사용자" 실패 캐시에, 바뀐 비밀번호가 사용자 캐시에 막히지 않게 한다
+ */
+final class CacheEvictingUserDetailsManager implements UserDetailsManager {
+    private final UserDetailsManager delegate;
+    private final Consumer<String> onChange;
+
+    CacheEvictingUserDetailsManager(UserDetailsManager delegate, Consumer<String> onChange) {
+        this.delegate = delegate;
+        this.onChange = onChange;
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return delegate.loadUserByUsername(username);
+    }
+
+    @Override
+    public void createUser(UserDetails user) {
+        delegate.createUser(user);
+        onChange.accept(user.getUsername());
+    }
+
+    @Override
+    public void updateUser(UserDetails user) {
+        delegate.updateUser(user);
+        onChange.accept(user.getUsername());
+    }
+
+    @Override
+    public void deleteUser(String username) {
+        delegate.deleteUser(username);
+        onChange.accept(username);
+    }
+
+    /**
+     * 현재 SecurityContext의 사용자 비밀번호를 바꾼다(JdbcUserDetailsManager와 같은 계약)
+     */
+    @Override
+    public void changePassword(String oldPassword, String newPassword) {
+        Authentication current = SecurityContextHolder.getContext().getAuthentication();
+        delegate.changePassword(oldPassword, newPassword);
+        if (current != null) {
+            onChange.accept(current.getName());
+        }
+    }
+
+    @Override
+    public boolean userExists(String username) {
+        return delegate.userExists(username);
+    }
+}
@@ -0,0 +1,49 @@
+package com.learn.spring.learnspring.config.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * # CaffeineUserCache
+ * - 크기, TTL 제한이 있는 UserCache
+ * - ProviderManager가 인증 후 principal(User)의 비밀번호를 지우므로(eraseCredentials) 캐시에 넣을 때와 꺼낼 때 복사한다
+ */
+public class CaffeineUserCache implements UserCache {
+    private final Cache<String, UserDetails> cache;
+
+    public CaffeineUserCache(AuthenticationProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getUserCacheSize())
+                .expireAfterWrite(properties.getUserCacheTtl())
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        UserDetails user = cache.getIfPresent(username);
+        return user == null ? null : copy(user);
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        cache.put(user.getUsername(), copy(user));
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        cache.invalidate(username);
+    }
+
+    Cache<String, UserDetails> getCache() {
+        return cache;
+    }
+
+    private static UserDetails copy(UserDetails user) {
+        return User.withUserDetails(user).build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.learn.spring.learnspring.config.security;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * # learnspring.security.rate-limit
+ * - RateLimitingFilter 설정. rules에 적힌 순서대로 검사하고 처음 맞는 규칙 하나만 적용한다
+ * - 규칙이 없으면 필터를 등록하지 않는다
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "learnspring.security.rate-limit")
+public class RateLimitProperties {
+    /** 규칙마다 유지할 토큰 버킷(키) 최대 개수. 넘으면 오래 안 쓴 키부터 버린다 */
+    private long maxKeys = 100_000;
+    /** 이 시간 동안 요청이 없는 키의 버킷을 버린다. 다시 오면 가득 찬 버킷으로 시작 */
+    private Duration keyIdleTimeout = Duration.ofMinutes(10);
+    /** 규칙 이름(메트릭 rule 태그) -> 규칙 */
+    private Map<String, Rule> rules = new LinkedHashMap<>();
+
+    public enum KeyType {
+        /** ServletRequest.getRemoteAddr(). 프록시 뒤라면 server.forward-headers-strategy 설정 필요 */
+        CLIENT,
+        /** 원격 주소 + Authorization: Basic 사용자 이름, 없으면 CLIENT. 세션을 읽지 않으므로 검증 전의 값이라 주소와 묶는다 */
+        PRINCIPAL,
+        /** 규칙 전체가 버킷 하나를 나눠 쓴다 */
+        PATH
+    }
+
+    @Getter
+    @Setter
+    public static class Rule {
+        /** AntPathRequestMatcher 패턴 */
+        private List<String> patterns = new ArrayList<>();
+        /** 비어 있으면 모든 메서드 */
+        private List<String> methods = new ArrayList<>();
+        private KeyType key = KeyType.CLIENT;
+        /** 버킷 크기(순간적으로 허용하는 요청 수). 0이면 토큰 버킷을 쓰지 않는다 */
+        private int capacity = 0;
+        /** 초당 채워지는 토큰 수 */
+        private double refillPerSecond = 0;
+        private Concurrency concurrency = new Concurrency();
+    }
+
+    /**
+     * # 동시 처리 한도(규칙 단위)
+     * - 응답 시간이 기준(장기 평균)보다 길어지면 한도를 줄이고, 비슷하면 조금씩 늘린다
+     * - 오류(예외, 5xx)가 나면 backoff-ratio 만큼 곱해서 줄인다
+     */
+    @Getter
+    @Setter
+    public static class Concurrency {
+        private boolean enabled = false;
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 200;
+        /** 기준 응답 시간의 몇 배까지를 정상으로 볼지 */
+        private double tolerance = 1.5;
+        private double backoffRatio = 0.9;
+    }
+}
@@ -6,11 +6,14 @@ import javax.servlet.Filter;
 import javax.sql.DataSource;
 
 import com.learn.spring.learnspring.config.security.filters.CustomHeaderWriterFilter;
-import com.learn.spring.learnspring.config.security.filters.CustomSecurityContextPersistenceFilter;
-import com.learn.spring.learnspring.config.security.filters.CustomWebAsyncManagerIntegrationFilter;
+import com.learn.spring.learnspring.config.security.filters.MdcLoggingFilter;
+import com.learn.spring.learnspring.config.security.filters.RateLimitingFilter;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.EnvironmentAware;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -23,14 +26,21 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.FilterChainProxy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.channel.ChannelProcessingFilter;
 import org.springframework.security.web.authentication.LoginUrlAuthenticationEntryPoint;
 import org.springframework.security.web.authentication.switchuser.SwitchUserFilter;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.security.web.header.writers.HstsHeaderWriter;
 import org.springframework.security.web.util.matcher.AnyRequestMatcher;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -55,7 +65,25 @@ public class SecurityConfig {
      * - Order 값은 낮을수록 우선순위가 높다
      */
     @Order(Ordered.LOWEST_PRECEDENCE - 100)
+    @EnableConfigurationProperties({TokenSecurityContextProperties.class, RateLimitProperties.class})
     protected static class FilterConfig extends WebSecurityConfigurerAdapter {
+        /**
+         * # learnspring.security.context-repository
+         * - session(기본): HttpSessionSecurityContextRepository
+         * - token: TokenSecurityContextRepository. 세션을 만들지 않고 서명된 쿠키/헤더로 SecurityContext를 주고받는다
+         */
+        @Value("${learnspring.security.context-repository:session}")
+        private String contextRepository;
+
+        @Autowired
+        private TokenSecurityContextProperties tokenProperties;
+
+        @Autowired
+        private RateLimitProperties rateLimitProperties;
+
+        @Autowired
+        private ObjectProvider<MeterRegistry> meterRegistry;
+
         /**
          * BasicAuthenticationFilter
          */
@@ -98,6 +126,7 @@ public class SecurityConfig {
          */
         private Filter springSecurityFilterChain;
 
+        // 체인별, 필터별 지연 분포는 learnspring.metrics.security-filter.histograms=true 후 /actuator/securityfilters (MetricsConfig)
         /* public void getFilters() {
             FilterChainProxy filterChainProxy = (FilterChainProxy) springSecurityFilterChain;
             List<SecurityFilterChain> list = filterChainProxy.getFilterChains();
@@ -108,6 +137,22 @@ public class SecurityConfig {
 
         @Override
         protected void configure(HttpSecurity http) throws Exception {
+            SecurityContextRepository repository = securityContextRepository();
+            /**
+             * # securityContextRepository
+             * - 저장소는 여기 한 곳에서만 등록한다. 기본 SecurityContextPersistenceFilter, SessionManagementFilter가 공유 객체로 같이 쓴다
+             * - CustomSecurityContextPersistenceFilter는 체인에 넣지 않는다. 같은 FILTER_APPLIED 속성을 보므로 기본 필터 뒤에서는 아무것도 하지 않고,
+             *   저장소를 따로 받으면 load/save가 두 군데로 나뉜다
+             */
+            http.securityContext().securityContextRepository(repository);
+            if (repository instanceof TokenSecurityContextRepository) {
+                /**
+                 * - STATELESS: RequestCache 등이 세션을 만들지 않는다
+                 * - CSRF 토큰도 세션 대신 쿠키에 둔다(HttpSessionCsrfTokenRepository는 세션을 만든다)
+                 */
+                http.sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
+                http.csrf().csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse());
+            }
             http
             /**
              * # addFilter(https://docs.spring.io/spring-security/site/docs/current/api/org/springframework/security/config/annotation/web/HttpSecurityBuilder.html#addFilter-javax.servlet.Filter-)
@@ -115,14 +160,37 @@ public class SecurityConfig {
              * - 필터의 순서를 자동으로 관리
              * - SwitchUserFilter 클래스가 가장 마지막 순서
              */
-            .addFilterAfter(new CustomWebAsyncManagerIntegrationFilter(), SwitchUserFilter.class)
-            .addFilterAfter(new CustomSecurityContextPersistenceFilter(), CustomWebAsyncManagerIntegrationFilter.class);
+            // 비동기 요청의 SecurityContext 전파는 CustomMvcConfig.AsyncConfig의 ContextPropagatingAsyncInterceptor가 맡는다
+            // 인증 정보가 SecurityContextHolder에 올라온 뒤에 MDC에 넣는다
+            .addFilterAfter(new MdcLoggingFilter(), SwitchUserFilter.class);
+            if (!rateLimitProperties.getRules().isEmpty()) {
+                /**
+                 * # RateLimitingFilter
+                 * - ChannelProcessingFilter는 FilterOrderRegistration에서 가장 앞 순서. 체인에 없어도 순서 기준으로 쓸 수 있다
+                 * - 세션을 읽는 SecurityContextPersistenceFilter보다 먼저 거절해야 과부하 때 세션 저장소, DB에 부담을 주지 않는다
+                 */
+                http.addFilterBefore(new RateLimitingFilter(rateLimitProperties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new)),
+                        ChannelProcessingFilter.class);
+            }
+        }
+
+        private SecurityContextRepository securityContextRepository() {
+            switch (contextRepository) {
+                case "session":
+                    return new HttpSessionSecurityContextRepository();
+                case "token":
+                    return new TokenSecurityContextRepository(tokenProperties);
+                default:
+                    throw new IllegalArgumentException("Unknown learnspring.security.context-repository: " + contextRepository
+                            + " (expected session or token)");
+            }
         }
     }
 
 
     @Configuration
     @Order(Ordered.LOWEST_PRECEDENCE - 90)
+    @EnableConfigurationProperties(AuthenticationProperties.class)
     protected static class AdminAuthenticationConfig extends WebSecurityConfigurerAdapter implements EnvironmentAware {
         private Environment environment;
 
@@ -182,15 +250,13 @@ public class SecurityConfig {
         }
 
 
+        /**
+         * # configureGlobal
+         * - postgres1DataSource 기반 AuthenticationProviderImpl(사용자/실패 캐시, 해시 비교 전용 executor) 등록
+         */
         @Autowired
-        public void configureGlobal(AuthenticationManagerBuilder auth) throws Exception {
-            // User 클래스 내부 클래스 UserBuilder 생성 후 반환
-                auth.authenticationProvider(authenticationProviderImpl());
-        }
-
-
-        public AuthenticationProviderImpl authenticationProviderImpl() {
-                return new AuthenticationProviderImpl();
+        public void configureGlobal(AuthenticationManagerBuilder auth, AuthenticationProviderImpl authenticationProvider) throws Exception {
+                auth.authenticationProvider(authenticationProvider);
         }
     }
 
@@ -0,0 +1,34 @@
+package com.learn.spring.learnspring.config.security;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * # learnspring.security.token
+ * - TokenSecurityContextRepository 설정. learnspring.security.context-repository=token 일 때 사용
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "learnspring.security.token")
+public class TokenSecurityContextProperties {
+    /**
+     * HMAC-SHA256 키(Base64). 모든 인스턴스가 같은 값을 써야 한다
+     * - 비어 있으면 기동 시 무작위로 만들므로 재기동하면 기존 토큰이 모두 무효가 된다
+     */
+    private String secret;
+    /** 토큰 유효 시간 */
+    private Duration ttl = Duration.ofMinutes(30);
+    /** 남은 시간이 이보다 짧으면 응답에서 새 토큰을 발급 */
+    private Duration refreshBefore = Duration.ofMinutes(10);
+    private String cookieName = "LS_AUTH";
+    /** 쿠키 대신 헤더로 주고받는 클라이언트용. 요청에 이 헤더가 있으면 응답도 같은 헤더로 돌려준다 */
+    private String headerName = "X-Auth-Token";
+    private boolean secureCookie = true;
+    /** 서명 검증 결과 캐시. 검증은 토큰만으로 가능하며 캐시는 HMAC 재계산을 줄이는 용도 */
+    private long verificationCacheSize = 10_000;
+    private Duration verificationCacheTtl = Duration.ofMinutes(1);
+}
@@ -0,0 +1,336 @@
+package com.learn.spring.learnspring.config.security;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SaveContextOnUpdateOrErrorResponseWrapper;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.WebUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * # TokenSecurityContextRepository
+ * - SecurityContext를 HttpSession 대신 서명된 토큰(쿠키 또는 헤더)에 담는다
+ * - 서버에 상태가 없으므로 세션 조회/생성이 없고, 어느 인스턴스로 요청이 가도 같은 키로 검증된다
+ *
+ * # 토큰 형식
+ * - base64url(payload) + "." + base64url(HMAC-SHA256(payload))
+ * - payload: version(1) | expiresAt epoch seconds(8) | username | 권한 수(1) | 권한...  (문자열은 2바이트 길이 + UTF-8)
+ * - 비밀번호, credentials, details는 담지 않는다. 복원된 Authentication은 UsernamePasswordAuthenticationToken(username, null, authorities)
+ *
+ * # 검증 캐시
+ * - 같은 토큰이 반복해서 오므로 검증 결과(사용자 이름, 권한, 만료 시각)를 토큰 문자열 기준으로 Caffeine에 잠깐 보관한다
+ * - 캐시에 있어도 만료 시각은 매번 확인한다
+ *
+ * # 저장
+ * - HttpSessionSecurityContextRepository처럼 응답이 커밋되기 전에(SaveContextOnUpdateOrErrorResponseWrapper) 쿠키/헤더를 쓴다
+ * - 인증이 바뀌었거나 만료가 refreshBefore 안으로 들어왔을 때만 새 토큰을 발급한다
+ * - 인증이 없어지면(로그아웃) 쿠키를 지운다
+ */
+@Slf4j
+public class TokenSecurityContextRepository implements SecurityContextRepository {
+    private static final byte VERSION = 1;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAX_TOKEN_LENGTH = 4096;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final TokenSecurityContextProperties properties;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final Cache<String, VerifiedToken> verified;
+    private final Clock clock;
+
+    public TokenSecurityContextRepository(TokenSecurityContextProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    TokenSecurityContextRepository(TokenSecurityContextProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.key = new SecretKeySpec(secret(properties), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(properties.getVerificationCacheSize())
+                .expireAfterWrite(properties.getVerificationCacheTtl())
+                .build();
+    }
+
+    @Override
+    public SecurityContext loadContext(HttpRequestResponseHolder holder) {
+        HttpServletRequest request = holder.getRequest();
+        String token = readToken(request);
+        VerifiedToken verifiedToken = token == null ? null : verify(token);
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        Authentication authentication = null;
+        if (verifiedToken != null) {
+            authentication = verifiedToken.newAuthentication();
+            context.setAuthentication(authentication);
+        }
+        holder.setResponse(new SaveTokenOnUpdateResponseWrapper(holder.getResponse(), request, verifiedToken, authentication));
+        return context;
+    }
+
+    @Override
+    public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        SaveTokenOnUpdateResponseWrapper wrapper = WebUtils.getNativeResponse(response, SaveTokenOnUpdateResponseWrapper.class);
+        if (wrapper == null) {
+            throw new IllegalStateException("Cannot invoke saveContext on response " + response
+                    + ". You must use the HttpRequestResponseHolder.response after invoking loadContext");
+        }
+        if (!wrapper.isContextSaved()) {
+            wrapper.saveContext(context);
+        }
+    }
+
+    @Override
+    public boolean containsContext(HttpServletRequest request) {
+        String token = readToken(request);
+        return token != null && verify(token) != null;
+    }
+
+    /**
+     * 인증 정보를 토큰 문자열로 만든다
+     */
+    String issue(Authentication authentication) {
+        long expiresAt = clock.instant().plus(properties.getTtl()).getEpochSecond();
+        byte[] payload = payload(authentication, expiresAt);
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * @return 서명이 맞고 만료되지 않았으면 복원한 인증 정보, 아니면 null
+     */
+    VerifiedToken verify(String token) {
+        VerifiedToken cached = verified.getIfPresent(token);
+        if (cached == null) {
+            cached = parse(token);
+            if (cached == null) {
+                return null;
+            }
+            verified.put(token, cached);
+        }
+        if (cached.expiresAt <= clock.instant().getEpochSecond()) {
+            verified.invalidate(token);
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * 남은 시간이 refreshBefore보다 짧으면 새 토큰을 발급해야 한다
+     */
+    boolean needsRefresh(VerifiedToken token) {
+        return token.expiresAt - clock.instant().getEpochSecond() < properties.getRefreshBefore().getSeconds();
+    }
+
+    /**
+     * @return Set-Cookie 헤더 값. 빈 토큰과 Duration.ZERO면 쿠키를 지운다
+     */
+    String setCookie(String token, Duration maxAge) {
+        StringBuilder cookie = new StringBuilder(token.length() + 96)
+                .append(properties.getCookieName()).append('=').append(token)
+                .append("; Path=/; Max-Age=").append(maxAge.getSeconds())
+                .append("; HttpOnly; SameSite=Lax");
+        if (properties.isSecureCookie()) {
+            cookie.append("; Secure");
+        }
+        return cookie.toString();
+    }
+
+    private VerifiedToken parse(String token) {
+        if (token.length() > MAX_TOKEN_LENGTH) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        try {
+            byte[] payload = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                log.debug("Rejected security context token with an invalid signature");
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            if (buffer.get() != VERSION) {
+                return null;
+            }
+            long expiresAt = buffer.getLong();
+            String username = readString(buffer);
+            int authorityCount = buffer.get() & 0xFF;
+            List<GrantedAuthority> authorities = new ArrayList<>(authorityCount);
+            for (int i = 0; i < authorityCount; i++) {
+                authorities.add(new SimpleGrantedAuthority(readString(buffer)));
+            }
+            return new VerifiedToken(username, List.copyOf(authorities), expiresAt);
+        } catch (IllegalArgumentException | BufferUnderflowException | IndexOutOfBoundsException e) {
+            // Base64 형식 오류, 잘린 payload
+            return null;
+        }
+    }
+
+    private static byte[] payload(Authentication authentication, long expiresAt) {
+        byte[] username = authentication.getName().getBytes(StandardCharsets.UTF_8);
+        Collection<? extends GrantedAuthority> grantedAuthorities = authentication.getAuthorities();
+        List<byte[]> authorities = new ArrayList<>(grantedAuthorities.size());
+        int length = 1 + 8 + 2 + username.length + 1;
+        for (GrantedAuthority authority : grantedAuthorities) {
+            byte[] bytes = authority.getAuthority().getBytes(StandardCharsets.UTF_8);
+            authorities.add(bytes);
+            length += 2 + bytes.length;
+        }
+        if (authorities.size() > 0xFF) {
+            throw new IllegalArgumentException("Too many authorities for a security context token: " + authorities.size());
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.put(VERSION).putLong(expiresAt);
+        writeString(buffer, username);
+        buffer.put((byte) authorities.size());
+        for (byte[] authority : authorities) {
+            writeString(buffer, authority);
+        }
+        return buffer.array();
+    }
+
+    private static void writeString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Value too long for a security context token: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private byte[] sign(byte[] payload) {
+        Mac mac = macs.get();
+        return mac.doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + ALGORITHM, e);
+        }
+    }
+
+    private String readToken(HttpServletRequest request) {
+        String header = request.getHeader(properties.getHeaderName());
+        if (StringUtils.hasText(header)) {
+            return header;
+        }
+        Cookie cookie = WebUtils.getCookie(request, properties.getCookieName());
+        return cookie == null || !StringUtils.hasText(cookie.getValue()) ? null : cookie.getValue();
+    }
+
+    private static byte[] secret(TokenSecurityContextProperties properties) {
+        if (StringUtils.hasText(properties.getSecret())) {
+            return Base64.getDecoder().decode(properties.getSecret());
+        }
+        log.warn("learnspring.security.token.secret is not set. Using a random key; tokens will not survive a restart or work across instances.");
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    /**
+     * - 캐시에는 불변 값만 두고 요청마다 Authentication을 새로 만든다
+     * - Authentication은 setDetails() 등으로 바뀔 수 있어서 요청끼리 같은 객체를 나눠 쓰면 안 된다
+     */
+    static final class VerifiedToken {
+        private final String username;
+        private final List<GrantedAuthority> authorities;
+        private final long expiresAt;
+
+        VerifiedToken(String username, List<GrantedAuthority> authorities, long expiresAt) {
+            this.username = username;
+            this.authorities = authorities;
+            this.expiresAt = expiresAt;
+        }
+
+        Authentication newAuthentication() {
+            return new UsernamePasswordAuthenticationToken(username, null, authorities);
+        }
+    }
+
+    /**
+     * # SaveTokenOnUpdateResponseWrapper
+     * - 응답이 커밋되기 직전(flush, sendError, sendRedirect 등) 또는 saveContext()에서 한 번만 토큰을 쓴다
+     */
+    final class SaveTokenOnUpdateResponseWrapper extends SaveContextOnUpdateOrErrorResponseWrapper {
+        private final HttpServletRequest request;
+        private final VerifiedToken loaded;
+        private final Authentication loadedAuthentication;
+
+        SaveTokenOnUpdateResponseWrapper(HttpServletResponse response, HttpServletRequest request,
+                                         VerifiedToken loaded, Authentication loadedAuthentication) {
+            super(response, false);
+            this.request = request;
+            this.loaded = loaded;
+            this.loadedAuthentication = loadedAuthentication;
+        }
+
+        @Override
+        protected void saveContext(SecurityContext context) {
+            Authentication authentication = context.getAuthentication();
+            if (authentication == null || authentication instanceof AnonymousAuthenticationToken || !authentication.isAuthenticated()) {
+                if (loaded != null) {
+                    writeToken("", Duration.ZERO);
+                }
+                return;
+            }
+            // 요청 중에 인증이 바뀌지 않았으면 loadContext()에서 넣은 객체 그대로다
+            if (loaded != null && loadedAuthentication == authentication && !needsRefresh(loaded)) {
+                return;
+            }
+            writeToken(issue(authentication), properties.getTtl());
+        }
+
+        private void writeToken(String token, Duration maxAge) {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            if (StringUtils.hasText(request.getHeader(properties.getHeaderName()))) {
+                response.setHeader(properties.getHeaderName(), token);
+                return;
+            }
+            response.addHeader("Set-Cookie", setCookie(token, maxAge));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.learn.spring.learnspring.config.security;
+
+import java.time.Duration;
+
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.server.context.ServerSecurityContextRepository;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * # TokenServerSecurityContextRepository
+ * - WebFlux용 TokenSecurityContextRepository. 토큰 형식, 서명, 검증 캐시는 TokenSecurityContextRepository를 그대로 쓴다
+ * - 서블릿과 달리 save()는 로그인/로그아웃처럼 인증이 바뀔 때만 호출되므로, 갱신(refreshBefore)은 load()에서 응답 커밋 직전에 한다
+ * - 서명 검증은 캐시되고 HMAC 계산도 짧아서 이벤트 루프에서 바로 실행한다
+ */
+public class TokenServerSecurityContextRepository implements ServerSecurityContextRepository {
+    private final TokenSecurityContextRepository tokens;
+    private final TokenSecurityContextProperties properties;
+
+    public TokenServerSecurityContextRepository(TokenSecurityContextProperties properties) {
+        this(new TokenSecurityContextRepository(properties), properties);
+    }
+
+    TokenServerSecurityContextRepository(TokenSecurityContextRepository tokens, TokenSecurityContextProperties properties) {
+        this.tokens = tokens;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> save(ServerWebExchange exchange, SecurityContext context) {
+        return Mono.fromRunnable(() -> {
+            Authentication authentication = context == null ? null : context.getAuthentication();
+            if (authentication == null || authentication instanceof AnonymousAuthenticationToken || !authentication.isAuthenticated()) {
+                if (readToken(exchange.getRequest()) != null) {
+                    writeToken(exchange, "", Duration.ZERO);
+                }
+                return;
+            }
+            writeToken(exchange, tokens.issue(authentication), properties.getTtl());
+        });
+    }
+
+    @Override
+    public Mono<SecurityContext> load(ServerWebExchange exchange) {
+        return Mono.fromSupplier(() -> {
+            String token = readToken(exchange.getRequest());
+            TokenSecurityContextRepository.VerifiedToken verified = token == null ? null : tokens.verify(token);
+            if (verified == null) {
+                return null;
+            }
+            Authentication authentication = verified.newAuthentication();
+            if (tokens.needsRefresh(verified)) {
+                exchange.getResponse().beforeCommit(() -> Mono.fromRunnable(
+                        () -> writeToken(exchange, tokens.issue(authentication), properties.getTtl())));
+            }
+            return new SecurityContextImpl(authentication);
+        });
+    }
+
+    private String readToken(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(properties.getHeaderName());
+        if (StringUtils.hasText(header)) {
+            return header;
+        }
+        HttpCookie cookie = request.getCookies().getFirst(properties.getCookieName());
+        return cookie == null || !StringUtils.hasText(cookie.getValue()) ? null : cookie.getValue();
+    }
+
+    private void writeToken(ServerWebExchange exchange, String token, Duration maxAge) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (StringUtils.hasText(exchange.getRequest().getHeaders().getFirst(properties.getHeaderName()))) {
+            response.getHeaders().set(properties.getHeaderName(), token);
+            return;
+        }
+        response.getHeaders().add(HttpHeaders.SET_COOKIE, tokens.setCookie(token, maxAge));
+    }
+}
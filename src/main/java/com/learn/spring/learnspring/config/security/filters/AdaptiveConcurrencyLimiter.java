@@ -0,0 +1,96 @@
+package com.learn.spring.learnspring.config.security.filters;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.learn.spring.learnspring.config.security.RateLimitProperties;
+
+/**
+ * # AdaptiveConcurrencyLimiter
+ * - 동시에 처리 중인 요청 수(inFlight)가 limit 이상이면 바로 거절한다. 대기열을 두지 않으므로 거절은 기다리지 않는다
+ * - limit은 응답 시간으로 조정한다(gradient 방식)
+ *      - longRtt: 응답 시간의 지수 이동 평균(기준값)
+ *      - gradient = clamp(tolerance * longRtt / rtt, 0.5, 1.0). 느려질수록 1보다 작아진다
+ *      - newLimit = limit * gradient + sqrt(limit). 느려지지 않았으면 sqrt(limit)만큼 늘어난다
+ *      - 오류(예외, 5xx)는 limit * backoffRatio (곱셈 감소)
+ * - 한도의 절반도 안 쓰고 있을 때는 늘리지 않는다. 한가할 때 limit이 maxLimit까지 부풀어서 과부하 순간에 소용없어지는 것을 막는다
+ *
+ * # 동시성
+ * - acquire/release는 AtomicInteger CAS만 쓴다
+ * - limit 갱신은 한 번에 한 스레드만 한다. 이미 갱신 중이면 그 표본은 버리고 기다리지 않는다
+ */
+class AdaptiveConcurrencyLimiter {
+    private static final double SMOOTHING = 0.2;
+    private static final double LONG_RTT_ALPHA = 2.0 / (600 + 1);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean updating = new AtomicBoolean();
+    private volatile double limit;
+    private double longRttNanos = -1;
+
+    AdaptiveConcurrencyLimiter(RateLimitProperties.Concurrency properties) {
+        this.minLimit = Math.max(1, properties.getMinLimit());
+        this.maxLimit = Math.max(minLimit, properties.getMaxLimit());
+        this.tolerance = properties.getTolerance();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.limit = Math.min(maxLimit, Math.max(minLimit, properties.getInitialLimit()));
+    }
+
+    /**
+     * @return 허용되면 true. true를 받은 호출자는 반드시 onComplete를 한 번 불러야 한다
+     */
+    boolean tryAcquire() {
+        int max = (int) limit;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= max) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void onComplete(long rttNanos, boolean failed) {
+        int current = inFlight.getAndDecrement();
+        if (!updating.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            double currentLimit = limit;
+            double newLimit;
+            if (failed) {
+                newLimit = currentLimit * backoffRatio;
+            } else {
+                if (longRttNanos < 0) {
+                    longRttNanos = rttNanos;
+                } else {
+                    longRttNanos += (rttNanos - longRttNanos) * LONG_RTT_ALPHA;
+                }
+                if (current < currentLimit / 2) {
+                    return;
+                }
+                double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / Math.max(1L, rttNanos)));
+                newLimit = currentLimit * gradient + Math.sqrt(currentLimit);
+                newLimit = currentLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+            }
+            limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        } finally {
+            updating.set(false);
+        }
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
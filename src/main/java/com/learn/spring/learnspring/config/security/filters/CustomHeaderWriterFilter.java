@@ -31,6 +31,10 @@ public class CustomHeaderWriterFilter extends OncePerRequestFilter {
      *
      * # CompositeHeaderWriter
      * - 다른 HeaderWriter 클래스에 위임하는 HeaderWriter 클래스
+     *
+     * # 요청마다 응답 커밋 시점에 목록 순서대로 실행한다(HeaderWriterFilter와 같다)
+     * - 값이 고정된 헤더를 기동 시 배열로 뽑아 둬도 response.reset(), 애플리케이션의 addHeader 때문에
+     *   "없을 때만 쓰기"는 커밋 시점에 해야 하고 wrapper도 필요하다. 요청당 하는 일이 같아서 측정상 이득이 없었다
 	 */
 	private final List<HeaderWriter> headerWriters;
 
@@ -1,36 +0,0 @@
-package com.learn.spring.learnspring.config.security.filters;
-
-import java.io.IOException;
-
-import javax.servlet.FilterChain;
-import javax.servlet.ServletException;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
-
-import org.springframework.security.web.context.request.async.SecurityContextCallableProcessingInterceptor;
-import org.springframework.web.context.request.async.WebAsyncManager;
-import org.springframework.web.context.request.async.WebAsyncUtils;
-import org.springframework.web.filter.OncePerRequestFilter;
-
-import lombok.extern.slf4j.Slf4j;
-
-/**
- * CustomWebAsyncManagerIntegrationFilter
- */
-@Slf4j
-public class CustomWebAsyncManagerIntegrationFilter extends OncePerRequestFilter {
-	private static final Object CALLABLE_INTERCEPTOR_KEY = new Object();
-
-	@Override
-	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
-        log.info("doFilterInternal");
-		WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
-
-		SecurityContextCallableProcessingInterceptor securityProcessingInterceptor = (SecurityContextCallableProcessingInterceptor) asyncManager.getCallableInterceptor(CALLABLE_INTERCEPTOR_KEY);
-		if (securityProcessingInterceptor == null) {
-			asyncManager.registerCallableInterceptor(CALLABLE_INTERCEPTOR_KEY, new SecurityContextCallableProcessingInterceptor());
-		}
-
-		filterChain.doFilter(request, response);
-	}
-}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.learn.spring.learnspring.config.security.filters;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.learn.spring.learnspring.config.log.LogMdcKeys;
+
+import org.slf4j.MDC;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * # MdcLoggingFilter
+ * - 요청 처리 중 남기는 로그에 요청 ID와 사용자 이름이 함께 찍히도록 MDC에 넣는다(키는 LogMdcKeys, StructuredLogEncoder의 mdcKeys)
+ * - SecurityContextPersistenceFilter 뒤에 두어야 SecurityContextHolder에서 인증 정보를 읽을 수 있다
+ *
+ * # requestId
+ * - X-Request-Id 헤더가 있고 형식이 안전하면 그대로 쓰고, 없으면 16자리 hex로 만든다
+ * - UUID.randomUUID()는 SecureRandom을 쓰므로 요청마다 부르지 않는다
+ * - 응답 헤더에도 같은 값을 넣어서 클라이언트가 로그를 찾을 수 있게 한다
+ */
+public class MdcLoggingFilter extends OncePerRequestFilter {
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    private static final int MAX_REQUEST_ID_LENGTH = 64;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (!isValidRequestId(requestId)) {
+            requestId = newRequestId();
+        }
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        MDC.put(LogMdcKeys.REQUEST_ID, requestId);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null) {
+            MDC.put(LogMdcKeys.PRINCIPAL, authentication.getName());
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(LogMdcKeys.REQUEST_ID);
+            MDC.remove(LogMdcKeys.PRINCIPAL);
+        }
+    }
+
+    /**
+     * 로그와 응답 헤더에 그대로 들어가므로 영문자, 숫자, '-', '_', '.'만 허용
+     */
+    static boolean isValidRequestId(String value) {
+        if (value == null || value.isEmpty() || value.length() > MAX_REQUEST_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_' || c == '.';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String newRequestId() {
+        String hex = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+    }
+}
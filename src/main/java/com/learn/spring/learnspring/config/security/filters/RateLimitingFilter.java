@@ -0,0 +1,266 @@
+package com.learn.spring.learnspring.config.security.filters;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.learn.spring.learnspring.config.security.RateLimitProperties;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * # RateLimitingFilter
+ * - 시큐리티 필터 체인 맨 앞(SecurityConfig.FilterConfig)에 두어 세션, SecurityContext, DB 작업 전에 거절한다
+ * - 규칙(RateLimitProperties.Rule)마다
+ *      - 토큰 버킷(키별): 다 쓰면 429 + Retry-After
+ *      - 동시 처리 한도(규칙 전체, AdaptiveConcurrencyLimiter): 넘으면 503 + Retry-After: 1
+ * - 거절 응답은 상태 코드와 헤더만 쓴다. sendError()는 /error 디스패치를 거치므로 쓰지 않는다
+ *
+ * # 메트릭
+ * - security.ratelimit.rejected{rule, reason=rate|concurrency}
+ * - security.ratelimit.concurrency.limit / inflight{rule}
+ *
+ * # 비동기 요청
+ * - Callable, DeferredResult 요청은 컨테이너 스레드가 먼저 돌아오므로 AsyncListener로 완료 시점에 한도를 반납하고 응답 시간을 잰다
+ */
+public class RateLimitingFilter extends OncePerRequestFilter {
+    private static final String BASIC_PREFIX = "Basic ";
+
+    private final List<CompiledRule> rules;
+
+    public RateLimitingFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        List<CompiledRule> compiled = new ArrayList<>();
+        for (Map.Entry<String, RateLimitProperties.Rule> entry : properties.getRules().entrySet()) {
+            compiled.add(new CompiledRule(entry.getKey(), entry.getValue(), properties, meterRegistry));
+        }
+        this.rules = List.copyOf(compiled);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        CompiledRule rule = match(request);
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (rule.buckets != null) {
+            long now = System.nanoTime();
+            TokenBucket bucket = rule.buckets.get(rule.key(request), k -> new TokenBucket(rule.capacity, rule.refillPerSecond, now));
+            long waitNanos = bucket.tryAcquire(now);
+            if (waitNanos > 0) {
+                rule.rateRejected.increment();
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+                return;
+            }
+        }
+        if (rule.limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!rule.limiter.tryAcquire()) {
+            rule.concurrencyRejected.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1L);
+            return;
+        }
+        Permit permit = new Permit(rule.limiter, response);
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            permit.failed = true;
+            throw e;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(permit);
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    private CompiledRule match(HttpServletRequest request) {
+        for (CompiledRule rule : rules) {
+            if (rule.matcher.matches(request)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds) {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentLength(0);
+    }
+
+    /**
+     * # PRINCIPAL 규칙의 버킷 키
+     * - 인증 전에 도는 필터라 사용자 이름은 검증되지 않은 값이다. 그래서 사용자 이름만으로 키를 만들지 않고 원격 주소와 묶는다
+     *      - 다른 주소에서 남의 사용자 이름을 보내도 그 사용자의 버킷을 비울 수 없다
+     *      - 같은 주소에서 사용자 이름을 바꿔 가며 보내면 버킷이 늘어나지만 max-keys와 동시 처리 한도로 막힌다
+     * - Authorization 헤더가 없으면 원격 주소만 쓴다(CLIENT와 같다)
+     */
+    static String principalKey(HttpServletRequest request) {
+        String username = basicUsername(request);
+        if (username != null) {
+            return "u:" + request.getRemoteAddr() + '/' + username;
+        }
+        return "c:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Authorization: Basic 헤더의 사용자 이름. 비밀번호는 확인하지 않는다
+     */
+    static String basicUsername(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BASIC_PREFIX, 0, BASIC_PREFIX.length())) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getDecoder().decode(header.substring(BASIC_PREFIX.length()).trim()), StandardCharsets.UTF_8);
+            int colon = decoded.indexOf(':');
+            return colon > 0 ? decoded.substring(0, colon) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static final class CompiledRule {
+        private final RequestMatcher matcher;
+        private final RateLimitProperties.KeyType keyType;
+        private final int capacity;
+        private final double refillPerSecond;
+        private final Cache<String, TokenBucket> buckets;
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final Counter rateRejected;
+        private final Counter concurrencyRejected;
+
+        private CompiledRule(String name, RateLimitProperties.Rule rule, RateLimitProperties properties, MeterRegistry meterRegistry) {
+            if (rule.getPatterns().isEmpty()) {
+                throw new IllegalArgumentException("learnspring.security.rate-limit.rules." + name + ".patterns is empty");
+            }
+            List<RequestMatcher> matchers = new ArrayList<>();
+            for (String pattern : rule.getPatterns()) {
+                if (rule.getMethods().isEmpty()) {
+                    matchers.add(new AntPathRequestMatcher(pattern));
+                } else {
+                    for (String method : rule.getMethods()) {
+                        matchers.add(new AntPathRequestMatcher(pattern, method));
+                    }
+                }
+            }
+            this.matcher = matchers.size() == 1 ? matchers.get(0) : new OrRequestMatcher(matchers);
+            this.keyType = rule.getKey();
+            this.capacity = rule.getCapacity();
+            this.refillPerSecond = rule.getRefillPerSecond();
+            if (capacity > 0) {
+                if (refillPerSecond <= 0) {
+                    throw new IllegalArgumentException("learnspring.security.rate-limit.rules." + name + ".refill-per-second must be positive");
+                }
+                this.buckets = Caffeine.newBuilder()
+                        .maximumSize(keyType == RateLimitProperties.KeyType.PATH ? 1 : properties.getMaxKeys())
+                        .expireAfterAccess(properties.getKeyIdleTimeout())
+                        .build();
+            } else {
+                this.buckets = null;
+            }
+            this.limiter = rule.getConcurrency().isEnabled() ? new AdaptiveConcurrencyLimiter(rule.getConcurrency()) : null;
+
+            this.rateRejected = rejectedCounter(meterRegistry, name, "rate");
+            this.concurrencyRejected = rejectedCounter(meterRegistry, name, "concurrency");
+            if (limiter != null) {
+                Gauge.builder("security.ratelimit.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                        .tag("rule", name)
+                        .register(meterRegistry);
+                Gauge.builder("security.ratelimit.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                        .tag("rule", name)
+                        .register(meterRegistry);
+            }
+        }
+
+        private static Counter rejectedCounter(MeterRegistry meterRegistry, String rule, String reason) {
+            return Counter.builder("security.ratelimit.rejected")
+                    .description("Requests rejected by RateLimitingFilter")
+                    .tag("rule", rule)
+                    .tag("reason", reason)
+                    .register(meterRegistry);
+        }
+
+        private String key(HttpServletRequest request) {
+            switch (keyType) {
+                case PATH:
+                    return "";
+                case PRINCIPAL:
+                    return principalKey(request);
+                default:
+                    return request.getRemoteAddr();
+            }
+        }
+    }
+
+    /**
+     * 동시 처리 한도 반납. 동기 요청은 finally에서, 비동기 요청은 AsyncListener에서 한 번만 반납한다
+     */
+    private static final class Permit implements AsyncListener {
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final HttpServletResponse response;
+        private final long start = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean failed;
+
+        private Permit(AdaptiveConcurrencyLimiter limiter, HttpServletResponse response) {
+            this.limiter = limiter;
+            this.response = response;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limiter.onComplete(System.nanoTime() - start, failed || response.getStatus() >= 500);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            failed = true;
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            failed = true;
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
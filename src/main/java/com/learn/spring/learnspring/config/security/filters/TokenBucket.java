@@ -0,0 +1,38 @@
+package com.learn.spring.learnspring.config.security.filters;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * # TokenBucket
+ * - 토큰 개수 대신 "다음 요청이 이론상 도착해야 하는 시각(TAT)" 하나만 AtomicLong에 둔다(GCRA)
+ * - tryAcquire는 CAS 한 번으로 끝나고 락, 별도 리필 스레드가 없다
+ * - TAT가 now + capacity * interval 을 넘으면 버킷이 빈 것
+ */
+class TokenBucket {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(int capacity, double refillPerSecond, long nowNanos) {
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = intervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return 0이면 허용, 양수면 토큰이 생길 때까지 기다려야 하는 나노초
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.learn.spring.learnspring.config.session;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * # OffHeapSlab
+ * - 샤드 하나가 쓰는 direct ByteBuffer 할당기. 샤드 락 안에서만 쓴다
+ * - slabSize 크기의 direct 버퍼를 필요할 때 하나씩 잡고, 그 안을 2의 거듭제곱 크기(64 B ~ slabSize) 블록으로 나눠 준다
+ *   - 크기별 free list로 다시 쓴다. 합치지(coalesce) 않으므로 크기 분포가 바뀌면 빈 블록이 남을 수 있다
+ *   - 잡은 버퍼는 돌려주지 않는다. maxBytes까지만 잡고, 그 뒤로는 allocate가 -1을 돌려준다
+ * - handle = (버퍼 번호 << 32) | 버퍼 안 offset
+ */
+final class OffHeapSlab {
+    private static final int MIN_SHIFT = 6;
+
+    private final int slabBytes;
+    private final int maxSlabs;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    /** 크기 순서(64 B, 128 B, ...)별 빈 블록 handle 스택 */
+    private final long[][] free;
+    private final int[] freeCount;
+    /** 마지막 버퍼에서 아직 나눠 주지 않은 위치 */
+    private int top;
+    private long usedBytes;
+
+    OffHeapSlab(int slabBytes, long maxBytes) {
+        this.slabBytes = Integer.highestOneBit(Math.max(slabBytes, 1 << MIN_SHIFT));
+        this.maxSlabs = (int) Math.min(Integer.MAX_VALUE, Math.max(1, maxBytes / this.slabBytes));
+        int classes = Integer.numberOfTrailingZeros(this.slabBytes) - MIN_SHIFT + 1;
+        this.free = new long[classes][];
+        this.freeCount = new int[classes];
+        for (int i = 0; i < classes; i++) {
+            free[i] = new long[16];
+        }
+        this.top = this.slabBytes;
+    }
+
+    /**
+     * @return length바이트를 담을 블록 handle. 블록이 slabSize보다 크거나 maxBytes를 다 썼으면 -1
+     */
+    long allocate(int length) {
+        int sizeClass = sizeClass(length);
+        if (sizeClass >= free.length) {
+            return -1;
+        }
+        int blockBytes = 1 << (sizeClass + MIN_SHIFT);
+        long handle;
+        if (freeCount[sizeClass] > 0) {
+            handle = free[sizeClass][--freeCount[sizeClass]];
+        } else {
+            if (top + blockBytes > slabBytes) {
+                if (slabs.size() >= maxSlabs) {
+                    return -1;
+                }
+                retireTail();
+                slabs.add(ByteBuffer.allocateDirect(slabBytes));
+                top = 0;
+            }
+            handle = ((long) (slabs.size() - 1) << 32) | top;
+            top += blockBytes;
+        }
+        usedBytes += blockBytes;
+        return handle;
+    }
+
+    void write(long handle, byte[] source, int length) {
+        ByteBuffer slab = slabs.get((int) (handle >>> 32));
+        slab.position((int) handle);
+        slab.put(source, 0, length);
+    }
+
+    byte[] read(long handle, int length) {
+        ByteBuffer slab = slabs.get((int) (handle >>> 32));
+        byte[] target = new byte[length];
+        slab.position((int) handle);
+        slab.get(target);
+        return target;
+    }
+
+    void free(long handle, int length) {
+        int sizeClass = sizeClass(length);
+        push(sizeClass, handle);
+        usedBytes -= 1 << (sizeClass + MIN_SHIFT);
+    }
+
+    /** 사용 중인 블록 크기 합계 */
+    long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /** 잡아 둔 direct 버퍼 크기 합계 */
+    long getReservedBytes() {
+        return (long) slabs.size() * slabBytes;
+    }
+
+    /**
+     * 새 버퍼로 넘어가기 전에 마지막 버퍼의 남은 공간을 큰 블록부터 free list에 넣는다
+     */
+    private void retireTail() {
+        if (slabs.isEmpty()) {
+            return;
+        }
+        long slab = (long) (slabs.size() - 1) << 32;
+        while (slabBytes - top >= 1 << MIN_SHIFT) {
+            int sizeClass = 31 - Integer.numberOfLeadingZeros(slabBytes - top) - MIN_SHIFT;
+            push(sizeClass, slab | top);
+            top += 1 << (sizeClass + MIN_SHIFT);
+        }
+    }
+
+    private void push(int sizeClass, long handle) {
+        if (freeCount[sizeClass] == free[sizeClass].length) {
+            long[] grown = new long[free[sizeClass].length * 2];
+            System.arraycopy(free[sizeClass], 0, grown, 0, freeCount[sizeClass]);
+            free[sizeClass] = grown;
+        }
+        free[sizeClass][freeCount[sizeClass]++] = handle;
+    }
+
+    private static int sizeClass(int length) {
+        int shift = length <= 1 << MIN_SHIFT ? MIN_SHIFT : 32 - Integer.numberOfLeadingZeros(length - 1);
+        return shift - MIN_SHIFT;
+    }
+}
@@ -0,0 +1,173 @@
+package com.learn.spring.learnspring.config.session;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+
+/**
+ * # SessionAttributeCodec
+ * - off-heap 모드에서 세션 속성을 바이트로 바꾼다
+ * - 항목 = [이름 길이 varint][이름 UTF-8][값 길이 varint][타입 1 B][값]. 세션 하나는 항목을 이어 붙인 것
+ *   - 값 길이가 있어서 다른 속성을 역직렬화하지 않고 바뀐 속성만 바꿔 끼울 수 있다(merge)
+ * - 타입: String, Boolean, Integer, Long은 직접 쓰고, 나머지(SecurityContext 등)는 Java 직렬화
+ *   - JdbcIndexedSessionRepository와 같은 SerializingConverter/DeserializingConverter. 역직렬화는 애플리케이션 클래스 로더로 한다
+ *     (devtools 재시작 클래스 로더에서도 같은 클래스로 읽힌다)
+ */
+final class SessionAttributeCodec {
+    private static final byte STRING = 1;
+    private static final byte TRUE = 2;
+    private static final byte FALSE = 3;
+    private static final byte INT = 4;
+    private static final byte LONG = 5;
+    private static final byte SERIALIZED = 6;
+
+    private final SerializingConverter serializer = new SerializingConverter();
+    private final DeserializingConverter deserializer;
+
+    SessionAttributeCodec(ClassLoader classLoader) {
+        this.deserializer = new DeserializingConverter(classLoader);
+    }
+
+    /**
+     * 속성 하나의 항목. 값이 null이면 null(항목 없음)
+     */
+    byte[] encode(String name, Object value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] payload;
+        byte type;
+        if (value instanceof String) {
+            type = STRING;
+            payload = ((String) value).getBytes(StandardCharsets.UTF_8);
+        } else if (value instanceof Boolean) {
+            type = (Boolean) value ? TRUE : FALSE;
+            payload = new byte[0];
+        } else if (value instanceof Integer) {
+            type = INT;
+            payload = longBytes((Integer) value, Integer.BYTES);
+        } else if (value instanceof Long) {
+            type = LONG;
+            payload = longBytes((Long) value, Long.BYTES);
+        } else {
+            type = SERIALIZED;
+            payload = serializer.convert(value);
+        }
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(nameBytes.length + payload.length + 8);
+        writeVarInt(out, nameBytes.length);
+        out.write(nameBytes, 0, nameBytes.length);
+        writeVarInt(out, payload.length + 1);
+        out.write(type);
+        out.write(payload, 0, payload.length);
+        return out.toByteArray();
+    }
+
+    /**
+     * 항목들을 차례로 읽어서 consumer(이름, 값)로 넘긴다
+     */
+    void decode(byte[] entries, BiConsumer<String, Object> consumer) {
+        int[] position = {0};
+        while (position[0] < entries.length) {
+            String name = readName(entries, position);
+            int valueLength = readVarInt(entries, position);
+            consumer.accept(name, decodeValue(entries, position[0], valueLength));
+            position[0] += valueLength;
+        }
+    }
+
+    /**
+     * entries에서 changed에 있는 이름의 항목을 빼고 changed의 새 항목(null이면 삭제)을 뒤에 붙인다
+     */
+    byte[] merge(byte[] entries, Map<String, byte[]> changed) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(entries.length + 64);
+        int[] position = {0};
+        while (position[0] < entries.length) {
+            int start = position[0];
+            String name = readName(entries, position);
+            int valueLength = readVarInt(entries, position);
+            position[0] += valueLength;
+            if (!changed.containsKey(name)) {
+                out.write(entries, start, position[0] - start);
+            }
+        }
+        for (byte[] entry : changed.values()) {
+            if (entry != null) {
+                out.write(entry, 0, entry.length);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private Object decodeValue(byte[] entries, int offset, int length) {
+        byte type = entries[offset];
+        int payloadOffset = offset + 1;
+        int payloadLength = length - 1;
+        switch (type) {
+            case STRING:
+                return new String(entries, payloadOffset, payloadLength, StandardCharsets.UTF_8);
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INT:
+                return (int) readLong(entries, payloadOffset, Integer.BYTES);
+            case LONG:
+                return readLong(entries, payloadOffset, Long.BYTES);
+            case SERIALIZED:
+                byte[] serialized = new byte[payloadLength];
+                System.arraycopy(entries, payloadOffset, serialized, 0, payloadLength);
+                return deserializer.convert(serialized);
+            default:
+                throw new IllegalStateException("Unknown session attribute type " + type);
+        }
+    }
+
+    private static String readName(byte[] entries, int[] position) {
+        int length = readVarInt(entries, position);
+        String name = new String(entries, position[0], length, StandardCharsets.UTF_8);
+        position[0] += length;
+        return name;
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(byte[] entries, int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = entries[position[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static byte[] longBytes(long value, int bytes) {
+        byte[] result = new byte[bytes];
+        for (int i = bytes - 1; i >= 0; i--) {
+            result[i] = (byte) value;
+            value >>>= 8;
+        }
+        return result;
+    }
+
+    private static long readLong(byte[] entries, int offset, int bytes) {
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | (entries[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,54 @@
+package com.learn.spring.learnspring.config.session;
+
+/**
+ * # SessionRecord
+ * - 샤드에 저장된 세션 하나. MapSession(HashMap, Instant, Duration) 대신 필드 몇 개로 둔다
+ * - 속성은 둘 중 하나에 있다
+ *   - 힙: attributes = [이름0, 값0, 이름1, 값1, ...]. 값은 복사하지 않고 참조만 둔다(MapSessionRepository와 같다)
+ *   - 힙 밖: handle/length = OffHeapSlab 블록, 슬랩에 자리가 없으면 spill(byte[])
+ * - prev/next: TimerWheel 버킷의 이중 연결 리스트. 노드를 따로 만들지 않는다
+ * - 모든 필드는 샤드 락 안에서만 읽고 쓴다
+ */
+final class SessionRecord {
+    static final long NOT_SCHEDULED = Long.MAX_VALUE;
+
+    final String id;
+    long creationTime;
+    long lastAccessedTime;
+    /** 초. 음수면 만료되지 않는다 */
+    int maxInactiveSeconds;
+    /** FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME 값 */
+    String principal;
+
+    Object[] attributes;
+    long handle = -1;
+    int length;
+    byte[] spill;
+
+    /** TimerWheel에 넣은 tick. 실제 만료는 lastAccessedTime 기준으로 다시 계산한다 */
+    long scheduledTick = NOT_SCHEDULED;
+    SessionRecord prev;
+    SessionRecord next;
+
+    SessionRecord(String id) {
+        this.id = id;
+    }
+
+    /**
+     * TimerWheel 버킷 머리(sentinel)
+     */
+    static SessionRecord sentinel() {
+        SessionRecord sentinel = new SessionRecord(null);
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        return sentinel;
+    }
+
+    long expiresAt() {
+        return maxInactiveSeconds < 0 ? Long.MAX_VALUE : lastAccessedTime + maxInactiveSeconds * 1000L;
+    }
+
+    boolean isExpired(long now) {
+        return expiresAt() <= now;
+    }
+}
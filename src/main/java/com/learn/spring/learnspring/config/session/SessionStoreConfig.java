@@ -0,0 +1,40 @@
+package com.learn.spring.learnspring.config.session;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * # SessionStoreConfig
+ * - @EnableSpringHttpSession: SessionRepositoryFilter가 HttpSession을 ShardedMapSessionRepository 세션으로 바꾼다
+ *   - 이 빈이 있으면 Spring Boot SessionAutoConfiguration은 저장소를 만들지 않고 필터 등록만 한다
+ *   - 필터 순서는 SessionRepositoryFilter.DEFAULT_ORDER로 springSecurityFilterChain보다 앞이라 보안 필터도 같은 세션을 본다
+ * - Tomcat 기본 세션 관리자는 백그라운드 스레드가 주기마다 모든 세션을 훑어서 만료시킨다. 이 저장소는 타이머 휠로 지난 버킷만 본다
+ * - 메트릭: sessions.active(세션 수), sessions.offheap.used(off-heap 블록 바이트)
+ */
+@Configuration
+@EnableSpringHttpSession
+@EnableConfigurationProperties(SessionStoreProperties.class)
+public class SessionStoreConfig {
+    @Bean
+    public ShardedMapSessionRepository sessionRepository(SessionStoreProperties properties) {
+        return new ShardedMapSessionRepository(properties);
+    }
+
+    @Bean
+    public MeterBinder sessionRepositoryMetrics(ShardedMapSessionRepository sessionRepository) {
+        return registry -> {
+            Gauge.builder("sessions.active", sessionRepository, ShardedMapSessionRepository::getSessionCount)
+                    .description("Sessions held by ShardedMapSessionRepository")
+                    .register(registry);
+            Gauge.builder("sessions.offheap.used", sessionRepository, ShardedMapSessionRepository::getOffHeapUsedBytes)
+                    .description("Off-heap bytes used by session attributes")
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.learn.spring.learnspring.config.session;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * # learnspring.session
+ * - ShardedMapSessionRepository 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "learnspring.session")
+public class SessionStoreProperties {
+    /** 새 세션의 만료 시간(마지막 접근 기준) */
+    private Duration maxInactiveInterval = Duration.ofMinutes(30);
+    /** 샤드 수. 2의 거듭제곱으로 올린다. 0이면 CPU 수 * 4 */
+    private int shards = 0;
+    /** 만료 타이머 휠 한 칸. 만료는 최대 이만큼 늦게 처리된다(조회 시에는 바로 만료로 본다) */
+    private Duration expiryTick = Duration.ofSeconds(1);
+    private OffHeap offHeap = new OffHeap();
+
+    @Getter
+    @Setter
+    public static class OffHeap {
+        /** 속성을 직렬화해서 힙 밖(direct ByteBuffer)에 둔다. 세션이 아주 많아 GC가 부담될 때만 켠다 */
+        private boolean enabled = false;
+        /** 샤드가 한 번에 잡는 direct 버퍼 크기. 2의 거듭제곱으로 올린다. 이보다 큰 세션은 힙에 둔다 */
+        private DataSize slabSize = DataSize.ofMegabytes(1);
+        /** 모든 샤드의 direct 버퍼 합계 상한. 넘으면 새 세션은 힙에 둔다 */
+        private DataSize maxSize = DataSize.ofMegabytes(512);
+    }
+}
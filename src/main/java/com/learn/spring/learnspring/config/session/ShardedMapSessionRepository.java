@@ -0,0 +1,523 @@
+package com.learn.spring.learnspring.config.session;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.session.DelegatingIndexResolver;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.IndexResolver;
+import org.springframework.session.MapSession;
+import org.springframework.session.PrincipalNameIndexResolver;
+import org.springframework.session.Session;
+import org.springframework.util.ClassUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * # ShardedMapSessionRepository
+ * - spring-session의 메모리 세션 저장소. SessionStoreConfig가 @EnableSpringHttpSession으로 HttpSession을 이 저장소로 바꾼다
+ *   - HttpSessionSecurityContextRepository(SecurityContextPersistenceFilter)가 쓰는 SPRING_SECURITY_CONTEXT 속성도 여기 저장된다
+ * - 세션 ID 해시로 샤드를 고르고, 샤드마다 HashMap + ReentrantLock(가상 스레드가 고정되지 않도록 synchronized 대신)
+ * - FindByIndexNameSessionRepository: 사용자 이름(PRINCIPAL_NAME_INDEX_NAME) → 세션 ID 색인. SpringSessionBackedSessionRegistry 등이 쓴다
+ *
+ * # 저장
+ * - ShardedSession이 바뀐 속성 이름만 기억하고, save는 그 속성만 반영한다(JdbcIndexedSessionRepository와 같은 방식)
+ *   - SessionRepositoryFilter는 요청마다 lastAccessedTime 때문에 save를 부르지만 대부분 속성은 그대로라서 시간 필드만 바뀐다
+ *   - 같은 세션의 동시 요청이 서로 다른 속성을 바꿔도 둘 다 남는다
+ * - 힙: 속성 값은 참조만 둔다(MapSessionRepository처럼 복사, 직렬화하지 않는다)
+ * - off-heap(learnspring.session.off-heap.enabled): SessionAttributeCodec으로 직렬화해서 OffHeapSlab에 둔다
+ *   - 힙에는 SessionRecord(필드 몇 개)만 남아 세션 수가 아주 많을 때 GC가 훑을 객체가 줄어든다
+ *   - 대신 조회할 때마다 속성을 역직렬화한다. SecurityContext는 Java 직렬화라서 요청당 비용이 힙 모드보다 크다
+ *
+ * # 만료
+ * - 샤드마다 TimerWheel. 만료 스레드(session-expiry)가 expiry-tick마다 지난 버킷만 처리한다
+ * - findById는 휠과 상관없이 lastAccessedTime으로 바로 만료를 판단한다
+ * - MapSessionRepository처럼 세션 이벤트(SessionExpiredEvent 등)는 보내지 않는다
+ */
+@Slf4j
+public class ShardedMapSessionRepository implements FindByIndexNameSessionRepository<ShardedMapSessionRepository.ShardedSession>, SmartLifecycle {
+    private final Shard[] shards;
+    private final Duration defaultMaxInactiveInterval;
+    private final long tickMillis;
+    private final Clock clock;
+    /** off-heap 모드에서만 */
+    private final SessionAttributeCodec codec;
+    private final IndexResolver<Session> indexResolver = new DelegatingIndexResolver<>(new PrincipalNameIndexResolver<>());
+    private final Map<String, Set<String>> principalIndex = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService scheduler;
+
+    public ShardedMapSessionRepository(SessionStoreProperties properties) {
+        this(properties, Clock.systemUTC(), ClassUtils.getDefaultClassLoader());
+    }
+
+    ShardedMapSessionRepository(SessionStoreProperties properties, Clock clock, ClassLoader classLoader) {
+        int shardCount = 1;
+        int requested = properties.getShards() > 0 ? properties.getShards() : Runtime.getRuntime().availableProcessors() * 4;
+        while (shardCount < requested) {
+            shardCount <<= 1;
+        }
+        this.defaultMaxInactiveInterval = properties.getMaxInactiveInterval();
+        this.tickMillis = Math.max(1, properties.getExpiryTick().toMillis());
+        this.clock = clock;
+        SessionStoreProperties.OffHeap offHeap = properties.getOffHeap();
+        this.codec = offHeap.isEnabled() ? new SessionAttributeCodec(classLoader) : null;
+        this.shards = new Shard[shardCount];
+        long now = clock.millis();
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(new TimerWheel(tickMillis, now), offHeap.isEnabled()
+                    ? new OffHeapSlab((int) Math.min(Integer.MAX_VALUE, offHeap.getSlabSize().toBytes()), offHeap.getMaxSize().toBytes() / shardCount)
+                    : null);
+        }
+    }
+
+    @Override
+    public ShardedSession createSession() {
+        MapSession session = new MapSession();
+        Instant now = clock.instant();
+        session.setCreationTime(now);
+        session.setLastAccessedTime(now);
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return new ShardedSession(session, true);
+    }
+
+    @Override
+    public void save(ShardedSession session) {
+        String id = session.getId();
+        boolean idChanged = !id.equals(session.originalId);
+        if (idChanged) {
+            deleteById(session.originalId);
+        }
+        boolean full = session.isNew || idChanged;
+        Map<String, Object> changed = full ? allAttributes(session) : session.changedAttributes();
+        Map<String, byte[]> encoded = encode(changed);
+
+        Shard shard = shard(id);
+        shard.lock.lock();
+        try {
+            SessionRecord record = shard.sessions.get(id);
+            if (record == null) {
+                if (!full) {
+                    // 조회한 뒤 만료, 삭제되었다. MapSessionRepository처럼 다시 넣는다(드문 경우라 락 안에서 직렬화한다)
+                    full = true;
+                    changed = allAttributes(session);
+                    encoded = encode(changed);
+                }
+                record = new SessionRecord(id);
+                record.creationTime = session.getCreationTime().toEpochMilli();
+                shard.sessions.put(id, record);
+            }
+            record.lastAccessedTime = session.getLastAccessedTime().toEpochMilli();
+            record.maxInactiveSeconds = (int) session.getMaxInactiveInterval().getSeconds();
+            if (!changed.isEmpty()) {
+                writeAttributes(shard, record, changed, encoded);
+                index(record, indexResolver.resolveIndexesFor(session).get(PRINCIPAL_NAME_INDEX_NAME));
+            }
+            if (full) {
+                shard.wheel.schedule(record);
+            } else {
+                shard.wheel.reschedule(record);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+        session.saved();
+    }
+
+    @Override
+    public ShardedSession findById(String id) {
+        Shard shard = shard(id);
+        MapSession session;
+        byte[] entries = null;
+        shard.lock.lock();
+        try {
+            SessionRecord record = shard.sessions.get(id);
+            if (record == null) {
+                return null;
+            }
+            if (record.isExpired(clock.millis())) {
+                shard.sessions.remove(id);
+                release(shard, record);
+                return null;
+            }
+            session = new MapSession(id);
+            session.setCreationTime(Instant.ofEpochMilli(record.creationTime));
+            session.setLastAccessedTime(Instant.ofEpochMilli(record.lastAccessedTime));
+            session.setMaxInactiveInterval(Duration.ofSeconds(record.maxInactiveSeconds));
+            if (codec == null) {
+                Object[] attributes = record.attributes;
+                for (int i = 0; attributes != null && i < attributes.length; i += 2) {
+                    session.setAttribute((String) attributes[i], attributes[i + 1]);
+                }
+            } else {
+                entries = read(shard, record);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+        if (entries != null) {
+            // 역직렬화는 락 밖에서
+            codec.decode(entries, session::setAttribute);
+        }
+        return new ShardedSession(session, false);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        Shard shard = shard(id);
+        shard.lock.lock();
+        try {
+            SessionRecord record = shard.sessions.remove(id);
+            if (record != null) {
+                release(shard, record);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * PRINCIPAL_NAME_INDEX_NAME 색인만 지원한다. 다른 이름이면 빈 결과
+     */
+    @Override
+    public Map<String, ShardedSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        if (!PRINCIPAL_NAME_INDEX_NAME.equals(indexName)) {
+            return Collections.emptyMap();
+        }
+        Set<String> ids = principalIndex.get(indexValue);
+        if (ids == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, ShardedSession> sessions = new HashMap<>();
+        for (String id : ids) {
+            ShardedSession session = findById(id);
+            if (session != null) {
+                sessions.put(id, session);
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * 지난 tick의 만료 세션을 지운다. 만료 스레드가 부르고, 테스트에서는 직접 부른다
+     *
+     * @return 지운 세션 수
+     */
+    public int expireSessions() {
+        long now = clock.millis();
+        int[] expired = {0};
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                shard.wheel.advance(now, record -> {
+                    shard.sessions.remove(record.id);
+                    release(shard, record);
+                    expired[0]++;
+                });
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return expired[0];
+    }
+
+    public int getSessionCount() {
+        int count = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                count += shard.sessions.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * off-heap 블록 사용량(바이트). 힙 모드면 0
+     */
+    public long getOffHeapUsedBytes() {
+        long bytes = 0;
+        for (Shard shard : shards) {
+            if (shard.slab != null) {
+                shard.lock.lock();
+                try {
+                    bytes += shard.slab.getUsedBytes();
+                } finally {
+                    shard.lock.unlock();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::expireQuietly, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        scheduler = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        scheduler = null;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private void expireQuietly() {
+        try {
+            int expired = expireSessions();
+            if (expired > 0) {
+                log.debug("Expired {} sessions", expired);
+            }
+        } catch (RuntimeException e) {
+            log.error("Session expiry failed", e);
+        }
+    }
+
+    private Shard shard(String id) {
+        int hash = id.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & (shards.length - 1)];
+    }
+
+    private static Map<String, Object> allAttributes(ShardedSession session) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (String name : session.getAttributeNames()) {
+            attributes.put(name, session.getAttribute(name));
+        }
+        return attributes;
+    }
+
+    private Map<String, byte[]> encode(Map<String, Object> attributes) {
+        if (codec == null || attributes.isEmpty()) {
+            return null;
+        }
+        Map<String, byte[]> encoded = new LinkedHashMap<>();
+        attributes.forEach((name, value) -> encoded.put(name, codec.encode(name, value)));
+        return encoded;
+    }
+
+    /**
+     * changed(값이 null이면 삭제)를 기존 속성에 반영한다. 힙 배열도 새로 만들어서 바꿔 끼운다
+     */
+    private void writeAttributes(Shard shard, SessionRecord record, Map<String, Object> changed, Map<String, byte[]> encoded) {
+        if (codec != null) {
+            byte[] merged = codec.merge(read(shard, record), encoded);
+            free(shard, record);
+            if (merged.length > 0) {
+                long handle = shard.slab.allocate(merged.length);
+                if (handle < 0) {
+                    record.spill = merged;
+                } else {
+                    shard.slab.write(handle, merged, merged.length);
+                    record.handle = handle;
+                }
+                record.length = merged.length;
+            }
+            return;
+        }
+        Object[] previous = record.attributes;
+        Object[] next = new Object[(previous == null ? 0 : previous.length) + changed.size() * 2];
+        int size = 0;
+        for (int i = 0; previous != null && i < previous.length; i += 2) {
+            if (!changed.containsKey(previous[i])) {
+                next[size++] = previous[i];
+                next[size++] = previous[i + 1];
+            }
+        }
+        for (Map.Entry<String, Object> entry : changed.entrySet()) {
+            if (entry.getValue() != null) {
+                next[size++] = entry.getKey();
+                next[size++] = entry.getValue();
+            }
+        }
+        record.attributes = size == 0 ? null : size == next.length ? next : Arrays.copyOf(next, size);
+    }
+
+    private byte[] read(Shard shard, SessionRecord record) {
+        if (record.spill != null) {
+            return record.spill;
+        }
+        return record.handle < 0 ? new byte[0] : shard.slab.read(record.handle, record.length);
+    }
+
+    private void free(Shard shard, SessionRecord record) {
+        if (record.handle >= 0) {
+            shard.slab.free(record.handle, record.length);
+            record.handle = -1;
+        }
+        record.spill = null;
+        record.length = 0;
+    }
+
+    /**
+     * 샤드 맵에서 뺀 세션의 휠, off-heap 블록, 색인을 정리한다
+     */
+    private void release(Shard shard, SessionRecord record) {
+        shard.wheel.remove(record);
+        free(shard, record);
+        record.attributes = null;
+        index(record, null);
+    }
+
+    private void index(SessionRecord record, String principal) {
+        if (Objects.equals(record.principal, principal)) {
+            return;
+        }
+        if (record.principal != null) {
+            principalIndex.computeIfPresent(record.principal, (name, ids) -> {
+                ids.remove(record.id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+        if (principal != null) {
+            principalIndex.compute(principal, (name, ids) -> {
+                Set<String> result = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                result.add(record.id);
+                return result;
+            });
+        }
+        record.principal = principal;
+    }
+
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, SessionRecord> sessions = new HashMap<>();
+        private final TimerWheel wheel;
+        private final OffHeapSlab slab;
+
+        Shard(TimerWheel wheel, OffHeapSlab slab) {
+            this.wheel = wheel;
+            this.slab = slab;
+        }
+    }
+
+    /**
+     * # ShardedSession
+     * - MapSession에 바뀐 속성 이름을 더한 것. save 뒤에는 바뀐 것이 없는 상태로 돌아간다
+     */
+    public static final class ShardedSession implements Session {
+        private final MapSession delegate;
+        private boolean isNew;
+        /** 저장소에 있는 ID. changeSessionId 뒤 save에서 이 ID를 지운다 */
+        private String originalId;
+        private Set<String> changed;
+
+        ShardedSession(MapSession delegate, boolean isNew) {
+            this.delegate = delegate;
+            this.isNew = isNew;
+            this.originalId = delegate.getId();
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            delegate.setAttribute(attributeName, attributeValue);
+            if (changed == null) {
+                changed = new HashSet<>();
+            }
+            changed.add(attributeName);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            setAttribute(attributeName, null);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            delegate.setMaxInactiveInterval(interval);
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+
+        /**
+         * 바뀐 속성 이름 → 현재 값(지웠으면 null)
+         */
+        Map<String, Object> changedAttributes() {
+            if (changed == null) {
+                return Collections.emptyMap();
+            }
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            for (String name : changed) {
+                attributes.put(name, delegate.getAttribute(name));
+            }
+            return attributes;
+        }
+
+        void saved() {
+            isNew = false;
+            originalId = delegate.getId();
+            changed = null;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.learn.spring.learnspring.config.session;
+
+import java.util.function.Consumer;
+
+/**
+ * # TimerWheel
+ * - 계층형 타이머 휠. 단계 4개, 단계마다 버킷 64개
+ *   - 한 칸: 1 tick, 64 tick, 4,096 tick, 262,144 tick (tick 1초면 1초, 약 1분, 약 1시간, 약 3일)
+ *   - 약 194일(64^4 tick)보다 먼 만료는 가장 먼 버킷에 두었다가 그때 다시 계산한다
+ * - 추가, 삭제는 O(1). advance는 지나간 tick의 버킷만 보므로 전체 세션 수와 무관하다
+ *   - Tomcat StandardManager.processExpires처럼 모든 세션을 훑지 않는다
+ * - 접근할 때마다 다시 넣지 않는다(lazy). 예정 tick이 되면 lastAccessedTime으로 실제 만료를 다시 계산해서
+ *   지났으면 onExpired, 아니면 새 위치로 옮긴다
+ * - 샤드 락 안에서만 쓴다
+ */
+final class TimerWheel {
+    private static final int BITS = 6;
+    private static final int BUCKETS = 1 << BITS;
+    private static final int MASK = BUCKETS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY = (1L << (BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+    private final SessionRecord[][] wheel = new SessionRecord[LEVELS][BUCKETS];
+    /** 마지막으로 처리한 tick */
+    private long currentTick;
+
+    TimerWheel(long tickMillis, long now) {
+        this.tickMillis = tickMillis;
+        this.currentTick = now / tickMillis;
+        for (SessionRecord[] level : wheel) {
+            for (int i = 0; i < BUCKETS; i++) {
+                level[i] = SessionRecord.sentinel();
+            }
+        }
+    }
+
+    /**
+     * 만료 시각에 맞는 버킷에 넣는다. 이미 들어 있으면 옮긴다. 만료되지 않는 세션은 빼기만 한다
+     */
+    void schedule(SessionRecord record) {
+        remove(record);
+        long expiresAt = record.expiresAt();
+        if (expiresAt != Long.MAX_VALUE) {
+            schedule(record, Math.floorDiv(expiresAt + tickMillis - 1, tickMillis), currentTick + 1);
+        }
+    }
+
+    /**
+     * 만료 시각이 이미 넣어 둔 tick보다 앞당겨졌을 때만 옮긴다. 미뤄진 경우는 예정 tick에 다시 계산한다
+     */
+    void reschedule(SessionRecord record) {
+        long expiresAt = record.expiresAt();
+        if (expiresAt == Long.MAX_VALUE) {
+            remove(record);
+        } else if (Math.floorDiv(expiresAt + tickMillis - 1, tickMillis) < record.scheduledTick) {
+            schedule(record);
+        }
+    }
+
+    void remove(SessionRecord record) {
+        if (record.prev != null) {
+            record.prev.next = record.next;
+            record.next.prev = record.prev;
+            record.prev = null;
+            record.next = null;
+        }
+        record.scheduledTick = SessionRecord.NOT_SCHEDULED;
+    }
+
+    /**
+     * now까지의 tick을 차례로 처리한다. 만료된 세션은 휠에서 뺀 뒤 onExpired로 넘긴다
+     */
+    void advance(long now, Consumer<SessionRecord> onExpired) {
+        long targetTick = now / tickMillis;
+        while (currentTick < targetTick) {
+            long tick = currentTick + 1;
+            // 위 단계부터 내려야 여러 단계가 한꺼번에 넘어가는 tick에서도 같은 tick에 모두 내려온다
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((tick & ((1L << (BITS * level)) - 1)) == 0) {
+                    SessionRecord record = detach(level, (int) ((tick >>> (BITS * level)) & MASK));
+                    while (record != null) {
+                        SessionRecord next = record.next;
+                        record.next = null;
+                        long expiresAt = record.expiresAt();
+                        if (expiresAt == Long.MAX_VALUE) {
+                            record.scheduledTick = SessionRecord.NOT_SCHEDULED;
+                        } else {
+                            schedule(record, Math.floorDiv(expiresAt + tickMillis - 1, tickMillis), tick);
+                        }
+                        record = next;
+                    }
+                }
+            }
+            currentTick = tick;
+            SessionRecord record = detach(0, (int) (tick & MASK));
+            while (record != null) {
+                SessionRecord next = record.next;
+                record.next = null;
+                if (record.isExpired(now)) {
+                    record.scheduledTick = SessionRecord.NOT_SCHEDULED;
+                    onExpired.accept(record);
+                } else {
+                    schedule(record);
+                }
+                record = next;
+            }
+        }
+    }
+
+    /**
+     * base tick 기준으로 단계를 고른다. 단계 L의 버킷은 64^L tick 구간 하나를 맡는다
+     */
+    private void schedule(SessionRecord record, long deadline, long base) {
+        long delay = Math.max(0, deadline - base);
+        if (delay > MAX_DELAY) {
+            delay = MAX_DELAY;
+        }
+        long tick = base + delay;
+        int level = 0;
+        while (delay >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        SessionRecord sentinel = wheel[level][(int) ((tick >>> (BITS * level)) & MASK)];
+        record.scheduledTick = tick;
+        record.prev = sentinel.prev;
+        record.next = sentinel;
+        sentinel.prev.next = record;
+        sentinel.prev = record;
+    }
+
+    /**
+     * 버킷을 비우고 들어 있던 목록의 첫 노드를 돌려준다. 각 노드의 prev는 지우고 next로만 이어 둔다
+     */
+    private SessionRecord detach(int level, int index) {
+        SessionRecord sentinel = wheel[level][index];
+        if (sentinel.next == sentinel) {
+            return null;
+        }
+        SessionRecord first = sentinel.next;
+        sentinel.prev.next = null;
+        sentinel.next = sentinel;
+        sentinel.prev = sentinel;
+        for (SessionRecord record = first; record != null; record = record.next) {
+            record.prev = null;
+        }
+        return first;
+    }
+}
@@ -0,0 +1,69 @@
+package com.learn.spring.learnspring.controller;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import javax.servlet.http.HttpServletRequest;
+
+import com.learn.spring.learnspring.entities.clickhouse.TestTableColumn;
+import com.learn.spring.learnspring.service.clickhouse.export.TestTableExportFormat;
+import com.learn.spring.learnspring.service.clickhouse.export.TestTableExportService;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * # TestTableExportController
+ * - test_db.test_table 을 NDJSON 또는 CSV로 스트리밍 내보내기
+ * - 예: GET /api/export/test-table?format=CSV&columns=C_INT8,C_STRING&limit=1000
+ *
+ * # StreamingResponseBody
+ * - 요청 스레드는 바로 반환되고, writeTo()는 MVC 비동기 TaskExecutor(CustomMvcConfig.AsyncConfig)에서 실행된다
+ * - 응답 OutputStream에 직접 쓰므로 List<TestTableEntity>처럼 결과 전체를 메모리에 올리지 않는다
+ * - 비동기 타임아웃은 이 요청만 learnspring.clickhouse.export.timeout-ms(기본 -1, 없음)로 바꾼다
+ *   - 요청 하나에만 CallableProcessingInterceptor를 등록해서, 기본 타임아웃으로 만들어진 AsyncWebRequest를 비동기 시작 전에 덮어쓴다
+ */
+@RestController
+@RequiredArgsConstructor
+public class TestTableExportController {
+    private static final List<TestTableColumn> ALL_COLUMNS = Arrays.asList(TestTableColumn.values());
+
+    private final TestTableExportService exportService;
+    @Value("${learnspring.clickhouse.export.timeout-ms:-1}")
+    private long timeoutMillis;
+
+    @GetMapping(path = "/api/export/test-table")
+    public ResponseEntity<StreamingResponseBody> exportTestTable(
+            @RequestParam(defaultValue = "NDJSON") TestTableExportFormat format,
+            @RequestParam(required = false) List<TestTableColumn> columns,
+            @RequestParam(required = false) Integer id,
+            @RequestParam(required = false) Long limit,
+            HttpServletRequest request) {
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(TestTableExportController.class, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+                // 비동기 처리를 시작하기 직전에 불린다. 이때 넘어오는 것이 이 요청의 AsyncWebRequest
+                ((AsyncWebRequest) webRequest).setTimeout(timeoutMillis);
+            }
+        });
+        List<TestTableColumn> selected = columns == null || columns.isEmpty() ? ALL_COLUMNS : columns;
+        StreamingResponseBody body = outputStream -> exportService.export(selected, format, id, limit, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"test_table." + format.getFileExtension() + "\"")
+                .body(body);
+    }
+}
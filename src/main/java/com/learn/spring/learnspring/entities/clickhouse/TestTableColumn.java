@@ -0,0 +1,55 @@
+package com.learn.spring.learnspring.entities.clickhouse;
+
+/**
+ * # TestTableColumn
+ * - test_db.test_table 컬럼 목록과 ClickHouse 타입(sqls/clickhouse/migration/V*.sql 참조)
+ * - 엔티티를 거치지 않고 JDBC로 직접 읽는 쪽(columnar 조회 등)에서 컬럼 이름을 문자열로 흩뿌리지 않기 위해 사용
+ * - 쿼리에 들어가는 컬럼 이름은 이 enum에서만 가져오므로 외부 입력이 SQL 식별자로 들어갈 일이 없다
+ */
+public enum TestTableColumn {
+    C_INT8("c_int8", Type.INT8),
+    C_INT16("c_int16", Type.INT16),
+    C_INT32("c_int32", Type.INT32),
+    C_INT64("c_int64", Type.INT64),
+    C_INT128("c_int128", Type.INT128),
+    C_INT256("c_int256", Type.INT256),
+    C_FLOAT32("c_float32", Type.FLOAT32),
+    C_FLOAT64("c_float64", Type.FLOAT64),
+    C_DECIMAL32_9("c_decimal32_9", Type.DECIMAL),
+    C_DECIMAL64_18("c_decimal64_18", Type.DECIMAL),
+    C_DECIMAL128_38("c_decimal128_38", Type.DECIMAL),
+    C_DECIMAL256_76("c_decimal256_76", Type.DECIMAL),
+    C_STRING("c_string", Type.STRING),
+    C_FIXEDSTRING("c_fixedstring", Type.STRING),
+    C_DATE("c_date", Type.DATE),
+    C_DATE32("c_date32", Type.DATE),
+    C_DATETIME("c_datetime", Type.DATETIME),
+    C_DATETIME64("c_datetime64", Type.DATETIME64),
+    C_ARRAY_INT8("c_array_int8", Type.ARRAY_INT),
+    C_ARRAY_INT16("c_array_int16", Type.ARRAY_INT),
+    C_ARRAY_STRING("c_array_string", Type.ARRAY_STRING);
+
+    /**
+     * # Type
+     * - 값을 어떤 primitive 표현으로 읽을지 기준이 되는 분류
+     */
+    public enum Type {
+        INT8, INT16, INT32, INT64, INT128, INT256, FLOAT32, FLOAT64, DECIMAL, STRING, DATE, DATETIME, DATETIME64, ARRAY_INT, ARRAY_STRING
+    }
+
+    private final String columnName;
+    private final Type type;
+
+    TestTableColumn(String columnName, Type type) {
+        this.columnName = columnName;
+        this.type = type;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public Type getType() {
+        return type;
+    }
+}
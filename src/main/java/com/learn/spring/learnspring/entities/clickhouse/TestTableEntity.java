@@ -2,7 +2,11 @@ package com.learn.spring.learnspring.entities.clickhouse;
 
 import lombok.Getter;
 import lombok.Setter;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideDecimal;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideDecimalType;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideInteger;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
@@ -33,16 +37,18 @@ public class TestTableEntity implements Serializable {
     private Long cInt64;
     @Basic
     @Column(name = "c_int128", columnDefinition = "int128")
-    private BigDecimal cInt128;
+    @Type(type = "int128")
+    private WideInteger cInt128;
     @Basic
     @Column(name = "c_int256", columnDefinition = "int256")
-    private BigDecimal cInt256;
+    @Type(type = "int256")
+    private WideInteger cInt256;
     @Basic
     @Column(name = "c_float32", columnDefinition = "float32")
     private Float cFloat32;
     @Basic
     @Column(name = "c_float64", columnDefinition = "float64")
-    private Float cFloat64;
+    private Double cFloat64;
     @Basic
     @Column(name = "c_decimal32_9", columnDefinition = "Decimal(9,9)")
     private BigDecimal cDecimal329;
@@ -51,10 +57,12 @@ public class TestTableEntity implements Serializable {
     private BigDecimal cDecimal6418;
     @Basic
     @Column(name = "c_decimal128_38", columnDefinition = "Decimal(38,38)")
-    private BigDecimal cDecimal12838;
+    @Type(type = "decimal128", parameters = @Parameter(name = WideDecimalType.SCALE, value = "38"))
+    private WideDecimal cDecimal12838;
     @Basic
     @Column(name = "c_decimal256_76", columnDefinition = "Decimal(76,76)")
-    private BigDecimal cDecimal25676;
+    @Type(type = "decimal256", parameters = @Parameter(name = WideDecimalType.SCALE, value = "76"))
+    private WideDecimal cDecimal25676;
     @Basic
     @Column(name = "c_string", columnDefinition = "string")
     private String cString;
@@ -75,16 +83,42 @@ public class TestTableEntity implements Serializable {
     private LocalDateTime cDatetime64;
     @Basic
     @Column(name = "c_array_int8", columnDefinition = "array")
-    @Type(type = "json")
+    @Type(type = "array-int8")
     private List<Short> cArrayInt8;
     @Basic
     @Column(name = "c_array_int16", columnDefinition = "array")
-    @Type(type = "json")
+    @Type(type = "array-int16")
     private List<Integer> cArrayInt16;
     @Basic
     @Column(name = "c_array_string", columnDefinition = "array")
-    @Type(type = "list-array")
+    @Type(type = "array-string")
     private List<String> cArrayString;
+    /**
+     * # c_nested
+     * - Nested는 같은 길이의 컬럼별 배열(c_nested.nested_c_int32 등)로 펼쳐서 저장된다
+     * - 컬럼 이름에 점이 있어 백틱으로 감싼다
+     */
+    @Basic
+    @Column(name = "`c_nested.nested_c_int32`", columnDefinition = "array")
+    @Type(type = "array-int32")
+    private List<Integer> cNestedCInt32;
+    @Basic
+    @Column(name = "`c_nested.nested_c_array_int16`", columnDefinition = "array")
+    @Type(type = "array-array-int16")
+    private List<List<Integer>> cNestedCArrayInt16;
+    @Basic
+    @Column(name = "`c_nested.nested_c_array_string`", columnDefinition = "array")
+    @Type(type = "array-array-string")
+    private List<List<String>> cNestedCArrayString;
+    /**
+     * # c_tuple
+     * - 아직 JPA 매핑이 없어 RowBinary 적재(TestTableIngestionService)에서만 사용
+     * - Tuple(Nullable(String), Nullable(String))은 원소별로 나눠서 들고 있는다
+     */
+    @Transient
+    private String cTuple1;
+    @Transient
+    private String cTuple2;
 
     @Override
     public boolean equals(Object o) {
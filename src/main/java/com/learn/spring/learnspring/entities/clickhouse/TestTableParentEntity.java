@@ -3,7 +3,11 @@ package com.learn.spring.learnspring.entities.clickhouse;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideDecimal;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideDecimalType;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideInteger;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
@@ -29,16 +33,18 @@ public class TestTableParentEntity implements Serializable {
     private Long cInt64;
     @Basic
     @Column(name = "c_int128", columnDefinition = "int128")
-    private BigDecimal cInt128;
+    @Type(type = "int128")
+    private WideInteger cInt128;
     @Basic
     @Column(name = "c_int256", columnDefinition = "int256")
-    private BigDecimal cInt256;
+    @Type(type = "int256")
+    private WideInteger cInt256;
     @Basic
     @Column(name = "c_float32", columnDefinition = "float32")
     private Float cFloat32;
     @Basic
     @Column(name = "c_float64", columnDefinition = "float64")
-    private Float cFloat64;
+    private Double cFloat64;
     @Basic
     @Column(name = "c_decimal32_9", columnDefinition = "Decimal(9,9)")
     private BigDecimal cDecimal329;
@@ -47,10 +53,12 @@ public class TestTableParentEntity implements Serializable {
     private BigDecimal cDecimal6418;
     @Basic
     @Column(name = "c_decimal128_38", columnDefinition = "Decimal(38,38)")
-    private BigDecimal cDecimal12838;
+    @Type(type = "decimal128", parameters = @Parameter(name = WideDecimalType.SCALE, value = "38"))
+    private WideDecimal cDecimal12838;
     @Basic
     @Column(name = "c_decimal256_76", columnDefinition = "Decimal(76,76)")
-    private BigDecimal cDecimal25676;
+    @Type(type = "decimal256", parameters = @Parameter(name = WideDecimalType.SCALE, value = "76"))
+    private WideDecimal cDecimal25676;
     @Basic
     @Column(name = "c_string", columnDefinition = "string")
     private String cString;
@@ -71,14 +79,14 @@ public class TestTableParentEntity implements Serializable {
     private LocalDateTime cDatetime64;
     @Basic
     @Column(name = "c_array_int8", columnDefinition = "array")
-    @Type(type = "json")
+    @Type(type = "array-int8")
     private List<Short> cArrayInt8;
     @Basic
     @Column(name = "c_array_int16", columnDefinition = "array")
-    @Type(type = "json")
+    @Type(type = "array-int16")
     private List<Integer> cArrayInt16;
     @Basic
     @Column(name = "c_array_string", columnDefinition = "array")
-    @Type(type = "list-array")
+    @Type(type = "array-string")
     private List<String> cArrayString;
 }
@@ -1,15 +1,42 @@
 @TypeDefs({
+        // Array(T) -> ShortArrayList, IntArrayList, List<String>. array-array-*는 Nested 안의 Array 컬럼
         @TypeDef(
-                name = "json", typeClass = JsonType.class
+                name = "array-int8", typeClass = ClickHouseArrayType.class, parameters = @Parameter(name = ClickHouseArrayType.ELEMENT, value = "INT8")
         ),
         @TypeDef(
-                name = "list-array", typeClass = ListArrayType.class
+                name = "array-int16", typeClass = ClickHouseArrayType.class, parameters = @Parameter(name = ClickHouseArrayType.ELEMENT, value = "INT16")
+        ),
+        @TypeDef(
+                name = "array-int32", typeClass = ClickHouseArrayType.class, parameters = @Parameter(name = ClickHouseArrayType.ELEMENT, value = "INT32")
+        ),
+        @TypeDef(
+                name = "array-string", typeClass = ClickHouseArrayType.class, parameters = @Parameter(name = ClickHouseArrayType.ELEMENT, value = "STRING")
+        ),
+        @TypeDef(
+                name = "array-array-int16", typeClass = ClickHouseArrayType.class, parameters = @Parameter(name = ClickHouseArrayType.ELEMENT, value = "ARRAY_INT16")
+        ),
+        @TypeDef(
+                name = "array-array-string", typeClass = ClickHouseArrayType.class, parameters = @Parameter(name = ClickHouseArrayType.ELEMENT, value = "ARRAY_STRING")
+        ),
+        // Int128/Int256, Decimal128/Decimal256 -> WideInteger, WideDecimal (scale은 컬럼의 @Type parameters로 지정)
+        @TypeDef(
+                name = "int128", typeClass = WideIntegerType.class, parameters = @Parameter(name = WideIntegerType.BITS, value = "128")
+        ),
+        @TypeDef(
+                name = "int256", typeClass = WideIntegerType.class, parameters = @Parameter(name = WideIntegerType.BITS, value = "256")
+        ),
+        @TypeDef(
+                name = "decimal128", typeClass = WideDecimalType.class, parameters = @Parameter(name = WideDecimalType.BITS, value = "128")
+        ),
+        @TypeDef(
+                name = "decimal256", typeClass = WideDecimalType.class, parameters = @Parameter(name = WideDecimalType.BITS, value = "256")
         )
 })
 
 package com.learn.spring.learnspring.entities.clickhouse;
-import com.vladmihalcea.hibernate.type.array.ListArrayType;
-import com.vladmihalcea.hibernate.type.json.JsonStringType;
-import com.vladmihalcea.hibernate.type.json.JsonType;
+import com.learn.spring.learnspring.entities.clickhouse.types.ClickHouseArrayType;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideDecimalType;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideIntegerType;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.TypeDef;
 import org.hibernate.annotations.TypeDefs;
@@ -0,0 +1,280 @@
+package com.learn.spring.learnspring.entities.clickhouse.types;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.ParameterizedType;
+import org.hibernate.usertype.UserType;
+
+/**
+ * # ClickHouseArrayType
+ * - Array(T) 컬럼 <-> List. package-info의 @TypeDef "array-int8", "array-int16", ...
+ * - 파라미터 element: Element 이름. 컬럼의 원소 타입
+ * - JsonType처럼 문자열을 Jackson으로 다시 파싱하지 않고, 드라이버가 주는 java.sql.Array 값을 바로 primitive 배열로 옮긴다
+ * - 정수 배열은 ShortArrayList, IntArrayList(primitive 배열을 감싼 읽기 전용 List)로 돌려준다. 원소마다 boxing하지 않는다
+ * - 읽어 온 값은 불변이라 dirty checking 스냅샷(deepCopy)에서 복사하지 않는다. 애플리케이션이 넣은 일반 List만 복사한다
+ */
+public class ClickHouseArrayType implements UserType, ParameterizedType {
+    public static final String ELEMENT = "element";
+
+    public enum Element {
+        /** Array(Int8) -> ShortArrayList */
+        INT8,
+        /** Array(Int16) -> IntArrayList */
+        INT16,
+        /** Array(Int32) -> IntArrayList */
+        INT32,
+        /** Array(String) -> List<String> */
+        STRING,
+        /** Array(Array(Int16)) -> List<IntArrayList>. Nested 안의 Array(Int16) 컬럼 */
+        ARRAY_INT16,
+        /** Array(Array(String)) -> List<List<String>>. Nested 안의 Array(String) 컬럼 */
+        ARRAY_STRING
+    }
+
+    private Element element = Element.STRING;
+
+    @Override
+    public void setParameterValues(Properties parameters) {
+        if (parameters != null && parameters.getProperty(ELEMENT) != null) {
+            element = Element.valueOf(parameters.getProperty(ELEMENT));
+        }
+    }
+
+    @Override
+    public int[] sqlTypes() {
+        return new int[]{Types.ARRAY};
+    }
+
+    @Override
+    public Class<?> returnedClass() {
+        return List.class;
+    }
+
+    @Override
+    public boolean equals(Object x, Object y) throws HibernateException {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(Object x) throws HibernateException {
+        return x.hashCode();
+    }
+
+    @Override
+    public Object nullSafeGet(ResultSet rs, String[] names, SharedSessionContractImplementor session, Object owner) throws HibernateException, SQLException {
+        java.sql.Array array = rs.getArray(names[0]);
+        if (array == null) {
+            return null;
+        }
+        try {
+            return decode(element, array.getArray());
+        } finally {
+            array.free();
+        }
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, Object value, int index, SharedSessionContractImplementor session) throws HibernateException, SQLException {
+        if (value == null) {
+            st.setNull(index, Types.ARRAY);
+        } else {
+            st.setObject(index, encode(element, (List<?>) value));
+        }
+    }
+
+    @Override
+    public Object deepCopy(Object value) throws HibernateException {
+        return value == null ? null : normalize(element, (List<?>) value);
+    }
+
+    /**
+     * 엔티티 setter로 ArrayList 같은 가변 List가 들어올 수 있다
+     */
+    @Override
+    public boolean isMutable() {
+        return true;
+    }
+
+    @Override
+    public Serializable disassemble(Object value) throws HibernateException {
+        return (Serializable) deepCopy(value);
+    }
+
+    @Override
+    public Object assemble(Serializable cached, Object owner) throws HibernateException {
+        return cached;
+    }
+
+    @Override
+    public Object replace(Object original, Object target, Object owner) throws HibernateException {
+        return deepCopy(original);
+    }
+
+    /**
+     * # java.sql.Array.getArray() 값 -> List
+     * - 드라이버 버전에 따라 short[], byte[] 같은 primitive 배열이나 Short[], Object[]가 온다. 모두 받는다
+     * - 2차원 배열은 바깥이 Object[]이고 원소가 배열(또는 java.sql.Array)이다
+     */
+    static List<?> decode(Element element, Object array) throws SQLException {
+        switch (element) {
+            case INT8:
+                return ShortArrayList.wrap(toShortArray(array));
+            case INT16:
+            case INT32:
+                return IntArrayList.wrap(toIntArray(array));
+            case STRING:
+                return toStringList(array);
+            case ARRAY_INT16:
+            case ARRAY_STRING:
+                int length = Array.getLength(array);
+                Element inner = element == Element.ARRAY_INT16 ? Element.INT16 : Element.STRING;
+                List<Object> values = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    values.add(decode(inner, unwrap(Array.get(array, i))));
+                }
+                return Collections.unmodifiableList(values);
+            default:
+                throw new IllegalStateException("Unknown element " + element);
+        }
+    }
+
+    /**
+     * setObject()에 넘길 배열. 드라이버가 primitive 배열과 String[], Object[]를 Array 리터럴로 바꾼다
+     */
+    static Object encode(Element element, List<?> values) {
+        switch (element) {
+            case INT8:
+                return ShortArrayList.copyOf(numbers(values)).toShortArray();
+            case INT16:
+            case INT32:
+                return IntArrayList.copyOf(numbers(values)).toIntArray();
+            case STRING:
+                return values.toArray(new String[0]);
+            case ARRAY_INT16:
+            case ARRAY_STRING:
+                Element inner = element == Element.ARRAY_INT16 ? Element.INT16 : Element.STRING;
+                Object[] arrays = new Object[values.size()];
+                for (int i = 0; i < arrays.length; i++) {
+                    Object value = values.get(i);
+                    arrays[i] = encode(inner, value == null ? Collections.emptyList() : (List<?>) value);
+                }
+                return arrays;
+            default:
+                throw new IllegalStateException("Unknown element " + element);
+        }
+    }
+
+    /**
+     * 읽어 온 값(ShortArrayList, IntArrayList, 불변 List)은 그대로 두고, 그 외 List는 같은 불변 형태로 복사
+     */
+    static List<?> normalize(Element element, List<?> values) {
+        switch (element) {
+            case INT8:
+                return ShortArrayList.copyOf(numbers(values));
+            case INT16:
+            case INT32:
+                return IntArrayList.copyOf(numbers(values));
+            case STRING:
+                return Collections.unmodifiableList(new ArrayList<>(values));
+            case ARRAY_INT16:
+            case ARRAY_STRING:
+                Element inner = element == Element.ARRAY_INT16 ? Element.INT16 : Element.STRING;
+                List<Object> copy = new ArrayList<>(values.size());
+                for (Object value : values) {
+                    copy.add(normalize(inner, value == null ? Collections.emptyList() : (List<?>) value));
+                }
+                return Collections.unmodifiableList(copy);
+            default:
+                throw new IllegalStateException("Unknown element " + element);
+        }
+    }
+
+    private static short[] toShortArray(Object array) {
+        if (array instanceof short[]) {
+            return (short[]) array;
+        }
+        if (array instanceof byte[]) {
+            byte[] bytes = (byte[]) array;
+            short[] values = new short[bytes.length];
+            for (int i = 0; i < bytes.length; i++) {
+                values[i] = bytes[i];
+            }
+            return values;
+        }
+        int length = Array.getLength(array);
+        short[] values = new short[length];
+        for (int i = 0; i < length; i++) {
+            Object value = Array.get(array, i);
+            values[i] = value == null ? 0 : ((Number) value).shortValue();
+        }
+        return values;
+    }
+
+    private static int[] toIntArray(Object array) {
+        if (array instanceof int[]) {
+            return (int[]) array;
+        }
+        if (array instanceof short[]) {
+            short[] shorts = (short[]) array;
+            int[] values = new int[shorts.length];
+            for (int i = 0; i < shorts.length; i++) {
+                values[i] = shorts[i];
+            }
+            return values;
+        }
+        int length = Array.getLength(array);
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            Object value = Array.get(array, i);
+            values[i] = value == null ? 0 : ((Number) value).intValue();
+        }
+        return values;
+    }
+
+    private static List<String> toStringList(Object array) {
+        if (array instanceof String[]) {
+            return Collections.unmodifiableList(Arrays.asList((String[]) array));
+        }
+        int length = Array.getLength(array);
+        String[] values = new String[length];
+        for (int i = 0; i < length; i++) {
+            Object value = Array.get(array, i);
+            values[i] = value == null ? null : value.toString();
+        }
+        return Collections.unmodifiableList(Arrays.asList(values));
+    }
+
+    private static Object unwrap(Object value) throws SQLException {
+        if (value instanceof java.sql.Array) {
+            java.sql.Array array = (java.sql.Array) value;
+            try {
+                return array.getArray();
+            } finally {
+                array.free();
+            }
+        }
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).toArray();
+        }
+        return value == null ? new Object[0] : value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<? extends Number> numbers(List<?> values) {
+        return (Collection<? extends Number>) values;
+    }
+}
@@ -0,0 +1,74 @@
+package com.learn.spring.learnspring.entities.clickhouse.types;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * # IntArrayList
+ * - int[]를 감싼 읽기 전용 List<Integer>. Array(Int16), Array(Int32) 컬럼 값(ClickHouseArrayType)
+ * - 원소마다 Integer 객체를 들고 있지 않고, get()할 때만 Integer.valueOf로 꺼낸다
+ * - boxing 없이 읽으려면 getInt(i) 또는 toIntArray()
+ */
+public final class IntArrayList extends AbstractList<Integer> implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final IntArrayList EMPTY = new IntArrayList(new int[0]);
+
+    private final int[] values;
+
+    private IntArrayList(int[] values) {
+        this.values = values;
+    }
+
+    /**
+     * 배열을 복사하지 않고 감싼다. 넘긴 배열을 이후에 수정하면 안 된다
+     */
+    public static IntArrayList wrap(int[] values) {
+        return values.length == 0 ? EMPTY : new IntArrayList(values);
+    }
+
+    public static IntArrayList copyOf(Collection<? extends Number> values) {
+        if (values instanceof IntArrayList) {
+            return (IntArrayList) values;
+        }
+        int[] copy = new int[values.size()];
+        int i = 0;
+        for (Number value : values) {
+            copy[i++] = value == null ? 0 : value.intValue();
+        }
+        return wrap(copy);
+    }
+
+    @Override
+    public Integer get(int index) {
+        return values[index];
+    }
+
+    public int getInt(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    public int[] toIntArray() {
+        return values.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof IntArrayList) {
+            return Arrays.equals(values, ((IntArrayList) o).values);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
@@ -0,0 +1,74 @@
+package com.learn.spring.learnspring.entities.clickhouse.types;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * # ShortArrayList
+ * - short[]를 감싼 읽기 전용 List<Short>. Array(Int8) 컬럼 값(ClickHouseArrayType)
+ * - 원소마다 Short 객체를 들고 있지 않고, get()할 때만 Short.valueOf로 꺼낸다(Int8 범위는 Short 캐시에 있어 할당이 없다)
+ * - boxing 없이 읽으려면 getShort(i) 또는 toShortArray()
+ */
+public final class ShortArrayList extends AbstractList<Short> implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final ShortArrayList EMPTY = new ShortArrayList(new short[0]);
+
+    private final short[] values;
+
+    private ShortArrayList(short[] values) {
+        this.values = values;
+    }
+
+    /**
+     * 배열을 복사하지 않고 감싼다. 넘긴 배열을 이후에 수정하면 안 된다
+     */
+    public static ShortArrayList wrap(short[] values) {
+        return values.length == 0 ? EMPTY : new ShortArrayList(values);
+    }
+
+    public static ShortArrayList copyOf(Collection<? extends Number> values) {
+        if (values instanceof ShortArrayList) {
+            return (ShortArrayList) values;
+        }
+        short[] copy = new short[values.size()];
+        int i = 0;
+        for (Number value : values) {
+            copy[i++] = value == null ? 0 : value.shortValue();
+        }
+        return wrap(copy);
+    }
+
+    @Override
+    public Short get(int index) {
+        return values[index];
+    }
+
+    public short getShort(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    public short[] toShortArray() {
+        return values.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof ShortArrayList) {
+            return Arrays.equals(values, ((ShortArrayList) o).values);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
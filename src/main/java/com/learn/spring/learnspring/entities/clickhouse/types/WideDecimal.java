@@ -0,0 +1,146 @@
+package com.learn.spring.learnspring.entities.clickhouse.types;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * # WideDecimal
+ * - ClickHouse Decimal128(S), Decimal256(S) 값. ClickHouse와 같이 unscaled 정수(WideInteger)와 scale로 들고 있다
+ * - BigDecimal은 toBigDecimal()을 처음 부를 때 만들고 캐시한다
+ * - scale을 넘는 자릿수는 ClickHouse와 같이 버린다(RoundingMode.DOWN)
+ * - 불변. unscaled, scale이 모두 같아야 equals
+ */
+public final class WideDecimal implements Comparable<WideDecimal>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final WideInteger unscaled;
+    private final int scale;
+    private transient BigDecimal bigDecimal;
+
+    private WideDecimal(WideInteger unscaled, int scale) {
+        this.unscaled = unscaled;
+        this.scale = scale;
+    }
+
+    public static WideDecimal of(WideInteger unscaled, int scale) {
+        return new WideDecimal(unscaled, scale);
+    }
+
+    public static WideDecimal fromBigDecimal(BigDecimal value, int scale, int bits) {
+        BigDecimal scaled = value.setScale(scale, RoundingMode.DOWN);
+        WideDecimal decimal = new WideDecimal(WideInteger.fromBigInteger(scaled.unscaledValue(), bits), scale);
+        decimal.bigDecimal = scaled;
+        return decimal;
+    }
+
+    /**
+     * # parse
+     * - [-+]정수부[.소수부] 형식은 BigDecimal 없이 자릿수를 바로 unscaled limb에 누적하고, 모자란 소수 자릿수는 0으로 채운다
+     * - 지수 표기(1E-5)는 드물어서 BigDecimal로 처리한다
+     */
+    public static WideDecimal parse(CharSequence text, int scale, int bits) {
+        int length = text.length();
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            index = 1;
+        }
+        WideInteger.Accumulator accumulator = new WideInteger.Accumulator(bits);
+        boolean digits = false;
+        int fractionDigits = -1;
+        for (; index < length; index++) {
+            char c = text.charAt(index);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (c == 'e' || c == 'E') {
+                return fromBigDecimal(new BigDecimal(text.toString()), scale, bits);
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Not a decimal: " + text);
+            }
+            digits = true;
+            if (fractionDigits >= 0) {
+                if (fractionDigits == scale) {
+                    continue;
+                }
+                fractionDigits++;
+            }
+            accumulator.digit(c - '0');
+        }
+        if (!digits) {
+            throw new NumberFormatException("Not a decimal: " + text);
+        }
+        for (int i = Math.max(fractionDigits, 0); i < scale; i++) {
+            accumulator.digit(0);
+        }
+        return new WideDecimal(accumulator.finish(negative, text), scale);
+    }
+
+    /**
+     * Jackson 역직렬화. 값의 scale 그대로, 크기에 맞춰 Decimal128 또는 Decimal256
+     */
+    @JsonCreator
+    public static WideDecimal valueOf(BigDecimal value) {
+        int scale = Math.max(value.scale(), 0);
+        return fromBigDecimal(value, scale, value.unscaledValue().bitLength() < 128 && scale <= 38 ? 128 : 256);
+    }
+
+    public WideInteger getUnscaled() {
+        return unscaled;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public int signum() {
+        return unscaled.signum();
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        BigDecimal value = bigDecimal;
+        if (value == null) {
+            value = new BigDecimal(unscaled.toBigInteger(), scale);
+            bigDecimal = value;
+        }
+        return value;
+    }
+
+    /**
+     * scale이 같으면 unscaled 값만 비교한다
+     */
+    @Override
+    public int compareTo(WideDecimal other) {
+        return scale == other.scale ? unscaled.compareTo(other.unscaled) : toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WideDecimal)) {
+            return false;
+        }
+        WideDecimal that = (WideDecimal) o;
+        return scale == that.scale && unscaled.equals(that.unscaled);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * unscaled.hashCode() + scale;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,112 @@
+package com.learn.spring.learnspring.entities.clickhouse.types;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+import java.util.Properties;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.ParameterizedType;
+import org.hibernate.usertype.UserType;
+
+/**
+ * # WideDecimalType
+ * - Decimal128(S), Decimal256(S) 컬럼 <-> WideDecimal. package-info의 @TypeDef "decimal128", "decimal256"
+ * - 파라미터 bits: 128(기본) 또는 256, scale: 컬럼의 S (@Type parameters로 컬럼마다 지정)
+ * - 드라이버가 BigDecimal을 주면 unscaled 값만 limb로 옮기고 받은 BigDecimal은 캐시해 둔다. 문자열이면 WideDecimal.parse
+ */
+public class WideDecimalType implements UserType, ParameterizedType {
+    public static final String BITS = "bits";
+    public static final String SCALE = "scale";
+
+    private int bits = 128;
+    private int scale;
+
+    @Override
+    public void setParameterValues(Properties parameters) {
+        if (parameters == null) {
+            return;
+        }
+        if (parameters.getProperty(BITS) != null) {
+            bits = Integer.parseInt(parameters.getProperty(BITS));
+            WideInteger.limbCount(bits);
+        }
+        if (parameters.getProperty(SCALE) != null) {
+            scale = Integer.parseInt(parameters.getProperty(SCALE));
+        }
+    }
+
+    @Override
+    public int[] sqlTypes() {
+        return new int[]{Types.DECIMAL};
+    }
+
+    @Override
+    public Class<?> returnedClass() {
+        return WideDecimal.class;
+    }
+
+    @Override
+    public boolean equals(Object x, Object y) throws HibernateException {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(Object x) throws HibernateException {
+        return x.hashCode();
+    }
+
+    @Override
+    public Object nullSafeGet(ResultSet rs, String[] names, SharedSessionContractImplementor session, Object owner) throws HibernateException, SQLException {
+        Object value = rs.getObject(names[0]);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigDecimal) {
+            return WideDecimal.fromBigDecimal((BigDecimal) value, scale, bits);
+        }
+        return WideDecimal.parse(value.toString(), scale, bits);
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, Object value, int index, SharedSessionContractImplementor session) throws HibernateException, SQLException {
+        if (value == null) {
+            st.setNull(index, Types.DECIMAL);
+        } else {
+            st.setBigDecimal(index, ((WideDecimal) value).toBigDecimal());
+        }
+    }
+
+    /**
+     * WideDecimal은 불변
+     */
+    @Override
+    public Object deepCopy(Object value) throws HibernateException {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(Object value) throws HibernateException {
+        return (Serializable) value;
+    }
+
+    @Override
+    public Object assemble(Serializable cached, Object owner) throws HibernateException {
+        return cached;
+    }
+
+    @Override
+    public Object replace(Object original, Object target, Object owner) throws HibernateException {
+        return original;
+    }
+}
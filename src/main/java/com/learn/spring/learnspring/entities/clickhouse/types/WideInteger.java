@@ -0,0 +1,354 @@
+package com.learn.spring.learnspring.entities.clickhouse.types;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * # WideInteger
+ * - ClickHouse Int128, Int256 값. 2의 보수 값을 64비트 limb 배열(little-endian, limbs[0]이 최하위)로 들고 있다
+ * - RowBinary의 Int128/Int256 표현과 같은 순서라 인코딩할 때 limb를 그대로 쓴다
+ * - BigInteger는 toBigInteger()를 처음 부를 때 만들고 캐시한다. 읽어서 그대로 내보내거나 비교만 하면 만들지 않는다
+ * - 반대로 fromBigInteger()는 받은 BigInteger만 들고 있다가 limb가 필요할 때(RowBinary 인코딩, 비교, 해시) 만든다
+ *   - JDBC 드라이버가 이미 BigInteger로 준 값을 읽기만 할 때는 변환 비용이 없다(WideIntegerType)
+ * - 불변. 같은 비트 수끼리만 equals
+ */
+public final class WideInteger implements Comparable<WideInteger>, Serializable {
+    private static final long serialVersionUID = 1L;
+    /** 한 번에 long으로 누적할 수 있는 10진 자릿수 */
+    private static final int CHUNK_DIGITS = 18;
+
+    /** 직렬화 형식은 limbs 하나. 역직렬화하면 readResolve()가 limbs로 다시 만든다 */
+    private final transient int bits;
+    /** fromBigInteger()로 만들었으면 처음 쓸 때 채운다. 다른 스레드가 채우다 만 배열을 보지 않도록 volatile */
+    private volatile long[] limbs;
+    private transient BigInteger bigInteger;
+
+    private WideInteger(long[] limbs) {
+        this.bits = limbs.length << 6;
+        this.limbs = limbs;
+    }
+
+    private WideInteger(int bits, BigInteger bigInteger) {
+        this.bits = bits;
+        this.bigInteger = bigInteger;
+    }
+
+    public static WideInteger of(long value, int bits) {
+        long[] limbs = new long[limbCount(bits)];
+        Arrays.fill(limbs, value < 0 ? -1L : 0L);
+        limbs[0] = value;
+        return new WideInteger(limbs);
+    }
+
+    /**
+     * RowBinary와 같은 little-endian 2의 보수 바이트
+     */
+    public static WideInteger fromLittleEndian(byte[] bytes, int offset, int bits) {
+        long[] limbs = new long[limbCount(bits)];
+        for (int k = 0; k < limbs.length; k++) {
+            long limb = 0;
+            for (int b = 7; b >= 0; b--) {
+                limb = (limb << 8) | (bytes[offset + (k << 3) + b] & 0xFFL);
+            }
+            limbs[k] = limb;
+        }
+        return new WideInteger(limbs);
+    }
+
+    /**
+     * 범위만 확인하고 value를 그대로 들고 있는다. limb는 limbs()에서 만든다
+     */
+    public static WideInteger fromBigInteger(BigInteger value, int bits) {
+        limbCount(bits);
+        if (value.bitLength() > bits - 1) {
+            throw new ArithmeticException(value + " does not fit in Int" + bits);
+        }
+        return new WideInteger(bits, value);
+    }
+
+    private long[] limbs() {
+        long[] current = limbs;
+        if (current == null) {
+            current = toLimbs(bigInteger, bits);
+            limbs = current;
+        }
+        return current;
+    }
+
+    private static long[] toLimbs(BigInteger value, int bits) {
+        byte[] bigEndian = value.toByteArray();
+        long[] limbs = new long[limbCount(bits)];
+        long signExtension = value.signum() < 0 ? -1L : 0L;
+        for (int k = 0; k < limbs.length; k++) {
+            long limb = 0;
+            for (int b = 7; b >= 0; b--) {
+                int index = bigEndian.length - 1 - ((k << 3) + b);
+                limb = (limb << 8) | (index >= 0 ? bigEndian[index] & 0xFFL : signExtension & 0xFFL);
+            }
+            limbs[k] = limb;
+        }
+        return limbs;
+    }
+
+    /**
+     * # parse
+     * - 10진 문자열을 BigInteger를 거치지 않고 18자리씩 limb 배열에 곱하고 더한다
+     * - JSONEachRow(따옴표로 감싼 Int128/Int256), JDBC 문자열 값을 읽을 때 사용
+     */
+    public static WideInteger parse(CharSequence text, int bits) {
+        int length = text.length();
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            index = 1;
+        }
+        if (index == length) {
+            throw new NumberFormatException("Not an integer: " + text);
+        }
+        Accumulator accumulator = new Accumulator(bits);
+        for (; index < length; index++) {
+            char c = text.charAt(index);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Not an integer: " + text);
+            }
+            accumulator.digit(c - '0');
+        }
+        return accumulator.finish(negative, text);
+    }
+
+    /**
+     * Jackson 역직렬화. 값 크기에 맞춰 Int128 또는 Int256
+     */
+    @JsonCreator
+    public static WideInteger valueOf(BigInteger value) {
+        return fromBigInteger(value, value.bitLength() < 128 ? 128 : 256);
+    }
+
+    public int bits() {
+        return bits;
+    }
+
+    public int limbCount() {
+        return bits >> 6;
+    }
+
+    /**
+     * @param index 0이 최하위 64비트
+     */
+    public long limb(int index) {
+        return limbs()[index];
+    }
+
+    public int signum() {
+        BigInteger value = bigInteger;
+        if (value != null) {
+            return value.signum();
+        }
+        long[] limbs = limbs();
+        if (limbs[limbs.length - 1] < 0) {
+            return -1;
+        }
+        for (long limb : limbs) {
+            if (limb != 0) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 상위 limb가 모두 부호 확장이면 long 하나로 표현된다
+     */
+    public boolean fitsInLong() {
+        long[] limbs = limbs();
+        long signExtension = limbs[0] >> 63;
+        for (int k = 1; k < limbs.length; k++) {
+            if (limbs[k] != signExtension) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @JsonValue
+    public BigInteger toBigInteger() {
+        BigInteger value = bigInteger;
+        if (value == null) {
+            long[] limbs = limbs();
+            if (fitsInLong()) {
+                value = BigInteger.valueOf(limbs[0]);
+            } else {
+                byte[] bigEndian = new byte[limbs.length << 3];
+                for (int k = 0; k < limbs.length; k++) {
+                    long limb = limbs[k];
+                    int end = bigEndian.length - (k << 3);
+                    for (int b = 1; b <= 8; b++) {
+                        bigEndian[end - b] = (byte) limb;
+                        limb >>>= 8;
+                    }
+                }
+                value = new BigInteger(bigEndian);
+            }
+            bigInteger = value;
+        }
+        return value;
+    }
+
+    @Override
+    public int compareTo(WideInteger other) {
+        int n = Math.max(limbCount(), other.limbCount());
+        long high = extendedLimb(n - 1);
+        long otherHigh = other.extendedLimb(n - 1);
+        if (high != otherHigh) {
+            return Long.compare(high, otherHigh);
+        }
+        for (int k = n - 2; k >= 0; k--) {
+            int compare = Long.compareUnsigned(extendedLimb(k), other.extendedLimb(k));
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return 0;
+    }
+
+    private long extendedLimb(int index) {
+        long[] limbs = limbs();
+        return index < limbs.length ? limbs[index] : limbs[limbs.length - 1] >> 63;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WideInteger)) {
+            return false;
+        }
+        WideInteger other = (WideInteger) o;
+        if (bits != other.bits) {
+            return false;
+        }
+        BigInteger value = bigInteger;
+        BigInteger otherValue = other.bigInteger;
+        if (value != null && otherValue != null) {
+            return value.equals(otherValue);
+        }
+        return Arrays.equals(limbs(), other.limbs());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(limbs());
+    }
+
+    @Override
+    public String toString() {
+        BigInteger value = bigInteger;
+        if (value != null) {
+            return value.toString();
+        }
+        return fitsInLong() ? Long.toString(limbs()[0]) : toBigInteger().toString();
+    }
+
+    /**
+     * 직렬화 전에 limb를 채운다. bigInteger는 transient
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        limbs();
+        out.defaultWriteObject();
+    }
+
+    private Object readResolve() {
+        return new WideInteger(limbs);
+    }
+
+    static int limbCount(int bits) {
+        if (bits != 64 && bits != 128 && bits != 256) {
+            throw new IllegalArgumentException("Unsupported width: " + bits);
+        }
+        return bits >> 6;
+    }
+
+    /**
+     * # Accumulator
+     * - 10진 자릿수를 받아 magnitude(부호 없는 limb 배열) = magnitude * 10 + digit 을 만든다
+     * - 자릿수는 long 하나에 모았다가 18자리마다 한 번만 limb 배열 전체에 곱한다
+     * - WideDecimal.parse도 소수점을 건너뛰고 같은 방식으로 unscaled 값을 만든다
+     */
+    static final class Accumulator {
+        private final int bits;
+        private final long[] magnitude;
+        private long chunk;
+        private long chunkScale = 1;
+        private int chunkDigits;
+
+        Accumulator(int bits) {
+            this.bits = bits;
+            this.magnitude = new long[limbCount(bits)];
+        }
+
+        void digit(int digit) {
+            chunk = chunk * 10 + digit;
+            chunkScale *= 10;
+            if (++chunkDigits == CHUNK_DIGITS) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (chunkDigits == 0) {
+                return;
+            }
+            long carry = chunk;
+            for (int k = 0; k < magnitude.length; k++) {
+                long limb = magnitude[k];
+                long low = limb * chunkScale;
+                // 부호 없는 곱의 상위 64비트. chunkScale은 양수이므로 limb 쪽만 보정한다
+                long high = Math.multiplyHigh(limb, chunkScale) + ((limb >> 63) & chunkScale);
+                long sum = low + carry;
+                if (Long.compareUnsigned(sum, low) < 0) {
+                    high++;
+                }
+                magnitude[k] = sum;
+                carry = high;
+            }
+            if (carry != 0) {
+                throw new ArithmeticException("Value does not fit in Int" + bits);
+            }
+            chunk = 0;
+            chunkScale = 1;
+            chunkDigits = 0;
+        }
+
+        WideInteger finish(boolean negative, CharSequence text) {
+            flush();
+            long top = magnitude[magnitude.length - 1];
+            if (top < 0) {
+                // 음수일 때만 -2^(bits-1) 하나가 더 들어간다
+                boolean minValue = negative && top == Long.MIN_VALUE;
+                for (int k = 0; minValue && k < magnitude.length - 1; k++) {
+                    minValue = magnitude[k] == 0;
+                }
+                if (!minValue) {
+                    throw new ArithmeticException(text + " does not fit in Int" + bits);
+                }
+            }
+            if (negative) {
+                long carry = 1;
+                for (int k = 0; k < magnitude.length; k++) {
+                    long inverted = ~magnitude[k];
+                    magnitude[k] = inverted + carry;
+                    carry = (carry != 0 && magnitude[k] == 0) ? 1 : 0;
+                }
+            }
+            return new WideInteger(magnitude);
+        }
+    }
+}
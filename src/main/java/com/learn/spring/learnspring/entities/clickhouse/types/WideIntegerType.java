@@ -0,0 +1,122 @@
+package com.learn.spring.learnspring.entities.clickhouse.types;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+import java.util.Properties;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.ParameterizedType;
+import org.hibernate.usertype.UserType;
+
+/**
+ * # WideIntegerType
+ * - Int128, Int256 컬럼 <-> WideInteger. package-info의 @TypeDef "int128", "int256"
+ * - 파라미터 bits: 128(기본) 또는 256
+ *
+ * # 읽기
+ * - ResultSet.getObject()가 드라이버에서 이미 만든 값을 그대로 받는다
+ *      - BigInteger: 범위만 확인하고 그대로 감싼다(WideInteger.fromBigInteger). limb는 RowBinary로 쓸 때 만든다
+ *      - 문자열: WideInteger.parse (BigInteger/BigDecimal을 만들지 않는다)
+ * - getBigDecimal()을 쓰는 BigDecimalType과 달리 BigDecimal 변환이 없다
+ */
+public class WideIntegerType implements UserType, ParameterizedType {
+    public static final String BITS = "bits";
+
+    private int bits = 128;
+
+    @Override
+    public void setParameterValues(Properties parameters) {
+        if (parameters != null && parameters.getProperty(BITS) != null) {
+            bits = Integer.parseInt(parameters.getProperty(BITS));
+            WideInteger.limbCount(bits);
+        }
+    }
+
+    @Override
+    public int[] sqlTypes() {
+        return new int[]{Types.NUMERIC};
+    }
+
+    @Override
+    public Class<?> returnedClass() {
+        return WideInteger.class;
+    }
+
+    @Override
+    public boolean equals(Object x, Object y) throws HibernateException {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(Object x) throws HibernateException {
+        return x.hashCode();
+    }
+
+    @Override
+    public Object nullSafeGet(ResultSet rs, String[] names, SharedSessionContractImplementor session, Object owner) throws HibernateException, SQLException {
+        return toWideInteger(rs.getObject(names[0]), bits);
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, Object value, int index, SharedSessionContractImplementor session) throws HibernateException, SQLException {
+        if (value == null) {
+            st.setNull(index, Types.NUMERIC);
+        } else {
+            st.setObject(index, ((WideInteger) value).toBigInteger());
+        }
+    }
+
+    static WideInteger toWideInteger(Object value, int bits) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof WideInteger) {
+            return (WideInteger) value;
+        }
+        if (value instanceof BigInteger) {
+            return WideInteger.fromBigInteger((BigInteger) value, bits);
+        }
+        if (value instanceof BigDecimal) {
+            return WideInteger.fromBigInteger(((BigDecimal) value).toBigIntegerExact(), bits);
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return WideInteger.of(((Number) value).longValue(), bits);
+        }
+        return WideInteger.parse(value.toString(), bits);
+    }
+
+    /**
+     * WideInteger는 불변
+     */
+    @Override
+    public Object deepCopy(Object value) throws HibernateException {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(Object value) throws HibernateException {
+        return (Serializable) value;
+    }
+
+    @Override
+    public Object assemble(Serializable cached, Object owner) throws HibernateException {
+        return cached;
+    }
+
+    @Override
+    public Object replace(Object original, Object target, Object owner) throws HibernateException {
+        return original;
+    }
+}
@@ -0,0 +1,51 @@
+package com.learn.spring.learnspring.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * # ReactiveApiConfig
+ * - WebFlux 함수형 엔드포인트(RouterFunction)와 ClickHouse 접근 계층 구성
+ * - 핸들러는 이벤트 루프에서 실행되므로 블로킹 호출(JDBC, OkHttp 동기 호출 등)을 넣지 않는다
+ *
+ * # 엔드포인트
+ * - GET /home
+ * - GET /api/test-table/{id}: c_int8 = id 인 행(NDJSON)
+ * - GET /api/test-table?limit=1000: 앞에서부터 limit 행(NDJSON)
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(ReactiveClickHouseProperties.class)
+public class ReactiveApiConfig {
+
+    @Bean
+    public ReactiveClickHouseClient reactiveClickHouseClient(WebClient.Builder builder, ReactiveClickHouseProperties properties) {
+        return new ReactiveClickHouseClient(builder, properties);
+    }
+
+    @Bean
+    public ReactiveTestTableRepository reactiveTestTableRepository(ReactiveClickHouseClient client) {
+        return new ReactiveTestTableRepository(client);
+    }
+
+    @Bean
+    public TestTableHandler testTableHandler(ReactiveTestTableRepository repository) {
+        return new TestTableHandler(repository);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> routes(TestTableHandler handler) {
+        return RouterFunctions.route()
+                .GET("/home", handler::home)
+                .path("/api/test-table", builder -> builder
+                        .GET("/{id}", handler::findById)
+                        .GET("", handler::findAll))
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.learn.spring.learnspring.reactive;
+
+import java.net.URI;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriBuilder;
+
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * # ReactiveClickHouseClient
+ * - ClickHouse HTTP 인터페이스(https://clickhouse.com/docs/en/interfaces/http)를 WebClient로 호출한다
+ * - JDBC 드라이버와 달리 응답을 기다리는 동안 스레드를 붙잡지 않고, 본문은 도착하는 대로 행 단위로 내보낸다
+ *
+ * # 쿼리
+ * - SQL은 POST 본문, 결과는 JSONEachRow(한 줄에 한 행)
+ * - 값은 SQL 문자열에 넣지 않고 쿼리 파라미터로 보낸다. SQL에서는 {name:Type}, 요청에서는 param_name
+ *
+ * # 배압과 취소
+ * - 구독자가 요청한 만큼만 Netty가 소켓을 읽으므로 느린 클라이언트면 ClickHouse 응답도 TCP 수준에서 멈춘다
+ * - 구독이 취소되면 커넥션을 닫고, cancel_http_readonly_queries_on_client_close로 ClickHouse 쪽 쿼리도 중단된다
+ */
+public class ReactiveClickHouseClient {
+    private final WebClient webClient;
+    private final ReactiveClickHouseProperties properties;
+
+    public ReactiveClickHouseClient(WebClient.Builder builder, ReactiveClickHouseProperties properties) {
+        this.properties = properties;
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("clickhouse")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .compress(true)
+                .responseTimeout(properties.getResponseTimeout());
+        this.webClient = builder
+                .baseUrl(properties.getUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .defaultHeader("X-ClickHouse-User", properties.getUsername())
+                .defaultHeader("X-ClickHouse-Key", properties.getPassword())
+                .build();
+    }
+
+    /**
+     * @param sql        FORMAT 절 없는 SELECT
+     * @param parameters SQL의 {name:Type} 자리에 들어갈 값
+     * @return 행마다 JSON 오브젝트 하나
+     */
+    public Flux<JsonNode> query(String sql, Map<String, String> parameters) {
+        return webClient.post()
+                .uri(uri -> queryUri(uri, parameters))
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue(sql + " FORMAT JSONEachRow")
+                .retrieve()
+                .onStatus(HttpStatus::isError, response -> response.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .map(body -> new DataAccessResourceFailureException(
+                                "ClickHouse query failed with " + response.rawStatusCode() + ": " + body.trim())))
+                .bodyToFlux(JsonNode.class);
+    }
+
+    private URI queryUri(UriBuilder uri, Map<String, String> parameters) {
+        uri.path("/")
+                .queryParam("database", properties.getDatabase())
+                .queryParam("cancel_http_readonly_queries_on_client_close", 1)
+                // Int64 이상, Decimal은 double로 파싱되며 자릿수를 잃지 않도록 문자열로 받는다
+                .queryParam("output_format_json_quote_64bit_integers", 1)
+                .queryParam("output_format_json_quote_decimals", 1);
+        parameters.forEach((name, value) -> uri.queryParam("param_" + name, "{" + name + "}"));
+        return uri.build(parameters);
+    }
+}
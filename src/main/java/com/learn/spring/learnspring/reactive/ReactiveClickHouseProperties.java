@@ -0,0 +1,29 @@
+package com.learn.spring.learnspring.reactive;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * # learnspring.reactive.clickhouse
+ * - ReactiveClickHouseClient가 호출하는 ClickHouse HTTP 인터페이스 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties("learnspring.reactive.clickhouse")
+public class ReactiveClickHouseProperties {
+    /** HTTP 인터페이스 주소(jdbc:clickhouse: 접두사 없이) */
+    private String url = "http://localhost:8123";
+    private String database = "test_db";
+    private String username = "default";
+    private String password = "";
+    /** 이벤트 루프가 나눠 쓰는 커넥션 수 상한. 넘는 요청은 커넥션을 기다린다 */
+    private int maxConnections = 64;
+    /** 커넥션을 기다리는 최대 시간 */
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(10);
+    /** 응답 헤더를 받을 때까지의 시간. 스트리밍 중인 본문에는 적용되지 않는다 */
+    private Duration responseTimeout = Duration.ofSeconds(30);
+}
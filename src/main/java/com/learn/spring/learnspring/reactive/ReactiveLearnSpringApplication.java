@@ -0,0 +1,38 @@
+package com.learn.spring.learnspring.reactive;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.session.SessionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.ComponentScan;
+
+/**
+ * # WebFlux API 실행 진입점
+ * - 실행: ./gradlew bootRunReactive
+ * - spring-boot-starter-web과 webflux가 함께 있으면 Spring Boot는 서블릿으로 뜨므로 REACTIVE를 직접 지정한다
+ * - 서블릿 애플리케이션(LearnSpringApplication)과 구성을 나누기 위해 이 패키지만 스캔한다
+ *   - LearnSpringApplication이 이 패키지를 스캔해도 @ConditionalOnWebApplication(REACTIVE)에 걸려 로드되지 않는다
+ * - JDBC/JPA는 쓰지 않는다. ClickHouse는 HTTP 인터페이스로 ReactiveClickHouseClient가 읽는다
+ * - 세션 저장소는 WebFlux 기본 InMemoryWebSessionStore(spring-session 자동 구성 제외)
+ */
+@SpringBootConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableAutoConfiguration(exclude = {
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class,
+        SessionAutoConfiguration.class})
+@ComponentScan(basePackageClasses = ReactiveLearnSpringApplication.class)
+public class ReactiveLearnSpringApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveLearnSpringApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .run(args);
+    }
+}
@@ -0,0 +1,90 @@
+package com.learn.spring.learnspring.reactive;
+
+import com.learn.spring.learnspring.config.PostgresDataSourceConfig;
+import com.learn.spring.learnspring.config.security.AuthenticationProperties;
+import com.learn.spring.learnspring.config.security.AuthenticationProviderImpl;
+import com.learn.spring.learnspring.config.security.TokenSecurityContextProperties;
+import com.learn.spring.learnspring.config.security.TokenServerSecurityContextRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManagerAdapter;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.ServerSecurityContextRepository;
+import org.springframework.security.web.server.context.WebSessionServerSecurityContextRepository;
+import org.springframework.security.web.server.csrf.CookieServerCsrfTokenRepository;
+import org.springframework.security.web.server.header.XFrameOptionsServerHttpHeadersWriter;
+
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * # ReactiveSecurityConfig
+ * - SecurityConfig(서블릿)와 같은 보안 구성을 WebFlux 필터 체인(SecurityWebFilterChain)으로 옮긴 것
+ *
+ * # 서블릿 구성과 대응
+ * - 헤더: X-Content-Type-Options, X-XSS-Protection, Cache-Control, HSTS(서브도메인 제외), X-Frame-Options: DENY
+ *   - WebFlux HSTS writer는 https 요청에만 쓴다(서블릿은 AnyRequestMatcher로 모든 요청)
+ * - CSRF, CORS 사용. 인가 규칙은 서블릿과 같이 아직 없으므로 모두 허용
+ * - learnspring.security.context-repository
+ *   - session: WebSessionServerSecurityContextRepository
+ *   - token: TokenServerSecurityContextRepository. CSRF 토큰도 쿠키에 둔다
+ * - 인증: AuthenticationProviderImpl을 ReactiveAuthenticationManagerAdapter로 감싸고 boundedElastic에서 실행(블로킹 조회가 이벤트 루프를 막지 않도록)
+ *   - 사용자 테이블을 읽기 위해 postgres1DataSource(PostgresDataSourceConfig)만 가져온다
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableWebFluxSecurity
+@EnableConfigurationProperties({TokenSecurityContextProperties.class, AuthenticationProperties.class})
+@Import({PostgresDataSourceConfig.class, AuthenticationProviderImpl.class})
+public class ReactiveSecurityConfig {
+    @Value("${learnspring.security.context-repository:session}")
+    private String contextRepository;
+
+    @Bean
+    public SecurityWebFilterChain springSecurityWebFilterChain(ServerHttpSecurity http, TokenSecurityContextProperties tokenProperties) {
+        ServerSecurityContextRepository repository = securityContextRepository(tokenProperties);
+        http.securityContextRepository(repository);
+        if (repository instanceof TokenServerSecurityContextRepository) {
+            http.csrf(csrf -> csrf.csrfTokenRepository(CookieServerCsrfTokenRepository.withHttpOnlyFalse()));
+        }
+        return http
+                .headers(headers -> headers
+                        .contentTypeOptions(Customizer.withDefaults())
+                        .xssProtection(Customizer.withDefaults())
+                        .cache(Customizer.withDefaults())
+                        .hsts(hsts -> hsts.includeSubdomains(false))
+                        .frameOptions(frameOptions -> frameOptions.mode(XFrameOptionsServerHttpHeadersWriter.Mode.DENY)))
+                .cors(Customizer.withDefaults())
+                .authorizeExchange(exchanges -> exchanges.anyExchange().permitAll())
+                .build();
+    }
+
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(AuthenticationProviderImpl authenticationProvider) {
+        ReactiveAuthenticationManagerAdapter manager = new ReactiveAuthenticationManagerAdapter(
+                new ProviderManager(authenticationProvider));
+        manager.setScheduler(Schedulers.boundedElastic());
+        return manager;
+    }
+
+    private ServerSecurityContextRepository securityContextRepository(TokenSecurityContextProperties tokenProperties) {
+        switch (contextRepository) {
+            case "session":
+                return new WebSessionServerSecurityContextRepository();
+            case "token":
+                return new TokenServerSecurityContextRepository(tokenProperties);
+            default:
+                throw new IllegalArgumentException("Unknown learnspring.security.context-repository: " + contextRepository
+                        + " (expected session or token)");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.learn.spring.learnspring.reactive;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.learn.spring.learnspring.entities.clickhouse.TestTableColumn;
+import com.learn.spring.learnspring.entities.clickhouse.TestTableEntity;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * # ReactiveTestTableRepository
+ * - TestTableRepository(JPA)와 같은 조회를 ClickHouse HTTP 인터페이스로 스트리밍한다
+ * - 행은 도착하는 대로 하나씩 내보내므로 결과 전체를 List로 모으지 않는다
+ * - 캐시(ClickhouseCacheConfig)는 거치지 않는다
+ */
+public class ReactiveTestTableRepository {
+    private static final List<TestTableColumn> COLUMNS = Arrays.asList(TestTableColumn.values());
+    private static final String SELECT = "SELECT "
+            + COLUMNS.stream().map(TestTableColumn::getColumnName).collect(Collectors.joining(", "))
+            + " FROM test_db.test_table";
+
+    private final ReactiveClickHouseClient client;
+
+    public ReactiveTestTableRepository(ReactiveClickHouseClient client) {
+        this.client = client;
+    }
+
+    public Flux<TestTableEntity> findById(int id) {
+        return client.query(SELECT + " WHERE c_int8 = {id:Int8}", Map.of("id", Integer.toString(id)))
+                .map(row -> TestTableJsonRowMapper.map(row, COLUMNS));
+    }
+
+    public Flux<TestTableEntity> findAll(long limit) {
+        return client.query(SELECT + " LIMIT {limit:UInt64}", Map.of("limit", Long.toString(limit)))
+                .map(row -> TestTableJsonRowMapper.map(row, COLUMNS));
+    }
+}
@@ -0,0 +1,68 @@
+package com.learn.spring.learnspring.reactive;
+
+import com.learn.spring.learnspring.entities.clickhouse.TestTableEntity;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * # TestTableHandler
+ * - ReactiveApiConfig.routes()에 등록되는 핸들러 함수 모음
+ * - 응답은 application/x-ndjson. 행을 받는 대로 한 줄씩 써서 클라이언트가 첫 행을 바로 받는다
+ */
+public class TestTableHandler {
+    static final long DEFAULT_LIMIT = 1000;
+    static final long MAX_LIMIT = 100_000;
+
+    private final ReactiveTestTableRepository repository;
+
+    public TestTableHandler(ReactiveTestTableRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * MainController.home()과 같은 응답
+     */
+    public Mono<ServerResponse> home(ServerRequest request) {
+        return ServerResponse.accepted().bodyValue("ACCEPTED");
+    }
+
+    /**
+     * GET /api/test-table/{id}
+     */
+    public Mono<ServerResponse> findById(ServerRequest request) {
+        int id;
+        try {
+            id = Integer.parseInt(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().bodyValue("id must be an Int8");
+        }
+        if (id < Byte.MIN_VALUE || id > Byte.MAX_VALUE) {
+            return ServerResponse.badRequest().bodyValue("id must be an Int8");
+        }
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(repository.findById(id), TestTableEntity.class);
+    }
+
+    /**
+     * GET /api/test-table?limit=1000
+     */
+    public Mono<ServerResponse> findAll(ServerRequest request) {
+        long limit;
+        try {
+            limit = request.queryParam("limit").map(Long::parseLong).orElse(DEFAULT_LIMIT);
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().bodyValue("limit must be a number");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ServerResponse.badRequest().bodyValue("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(repository.findAll(limit), TestTableEntity.class);
+    }
+}
@@ -0,0 +1,159 @@
+package com.learn.spring.learnspring.reactive;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.learn.spring.learnspring.entities.clickhouse.TestTableColumn;
+import com.learn.spring.learnspring.entities.clickhouse.TestTableEntity;
+import com.learn.spring.learnspring.entities.clickhouse.types.IntArrayList;
+import com.learn.spring.learnspring.entities.clickhouse.types.ShortArrayList;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideDecimal;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideInteger;
+
+/**
+ * # TestTableJsonRowMapper
+ * - JSONEachRow 한 행(JsonNode)을 TestTableEntity로 옮긴다
+ * - 컬럼 이름은 TestTableColumn에서만 가져온다
+ * - ClickHouse 텍스트 표현: Date "2022-01-01", DateTime "2022-01-01 00:00:00", DateTime64 "2022-01-01 00:00:00.123"
+ * - Int64 이상, Decimal은 문자열로 온다(ReactiveClickHouseClient 참조)
+ */
+final class TestTableJsonRowMapper {
+    private static final DateTimeFormatter DATE_TIME = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .appendLiteral(' ')
+            .append(DateTimeFormatter.ISO_LOCAL_TIME)
+            .toFormatter();
+    private static final DateTimeFormatter DATE_TIME_64 = new DateTimeFormatterBuilder()
+            .append(DATE_TIME)
+            .optionalStart()
+            .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+            .optionalEnd()
+            .toFormatter();
+
+    private TestTableJsonRowMapper() {
+    }
+
+    static TestTableEntity map(JsonNode row, List<TestTableColumn> columns) {
+        TestTableEntity entity = new TestTableEntity();
+        for (TestTableColumn column : columns) {
+            JsonNode value = row.get(column.getColumnName());
+            if (value == null || value.isNull()) {
+                continue;
+            }
+            switch (column) {
+                case C_INT8:
+                    entity.setId(value.asInt());
+                    break;
+                case C_INT16:
+                    entity.setCInt16(value.asInt());
+                    break;
+                case C_INT32:
+                    entity.setCInt32(value.asInt());
+                    break;
+                case C_INT64:
+                    entity.setCInt64(Long.parseLong(value.asText()));
+                    break;
+                case C_INT128:
+                    entity.setCInt128(WideInteger.parse(value.asText(), 128));
+                    break;
+                case C_INT256:
+                    entity.setCInt256(WideInteger.parse(value.asText(), 256));
+                    break;
+                case C_FLOAT32:
+                    entity.setCFloat32((float) value.asDouble());
+                    break;
+                case C_FLOAT64:
+                    entity.setCFloat64(value.asDouble());
+                    break;
+                case C_DECIMAL32_9:
+                    entity.setCDecimal329(new BigDecimal(value.asText()));
+                    break;
+                case C_DECIMAL64_18:
+                    entity.setCDecimal6418(new BigDecimal(value.asText()));
+                    break;
+                case C_DECIMAL128_38:
+                    entity.setCDecimal12838(WideDecimal.parse(value.asText(), 38, 128));
+                    break;
+                case C_DECIMAL256_76:
+                    entity.setCDecimal25676(WideDecimal.parse(value.asText(), 76, 256));
+                    break;
+                case C_STRING:
+                    entity.setCString(value.asText());
+                    break;
+                case C_FIXEDSTRING:
+                    entity.setCFixedstring(trimZeros(value.asText()));
+                    break;
+                case C_DATE:
+                    entity.setCDate(LocalDate.parse(value.asText()).atStartOfDay());
+                    break;
+                case C_DATE32:
+                    entity.setCDate32(LocalDate.parse(value.asText()).atStartOfDay());
+                    break;
+                case C_DATETIME:
+                    entity.setCDatetime(LocalDateTime.parse(value.asText(), DATE_TIME));
+                    break;
+                case C_DATETIME64:
+                    entity.setCDatetime64(LocalDateTime.parse(value.asText(), DATE_TIME_64));
+                    break;
+                case C_ARRAY_INT8:
+                    entity.setCArrayInt8(int8List(value));
+                    break;
+                case C_ARRAY_INT16:
+                    entity.setCArrayInt16(intList(value));
+                    break;
+                case C_ARRAY_STRING:
+                    entity.setCArrayString(list(value, JsonNode::asText));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unmapped column " + column);
+            }
+        }
+        return entity;
+    }
+
+    private static <T> List<T> list(JsonNode array, Function<JsonNode, T> element) {
+        List<T> values = new ArrayList<>(array.size());
+        for (JsonNode node : array) {
+            values.add(element.apply(node));
+        }
+        return values;
+    }
+
+    /**
+     * JPA로 읽을 때(ClickHouseArrayType)와 같은 primitive 기반 List
+     */
+    private static ShortArrayList int8List(JsonNode array) {
+        short[] values = new short[array.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (short) array.get(i).asInt();
+        }
+        return ShortArrayList.wrap(values);
+    }
+
+    private static IntArrayList intList(JsonNode array) {
+        int[] values = new int[array.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = array.get(i).asInt();
+        }
+        return IntArrayList.wrap(values);
+    }
+
+    /**
+     * FixedString(N)은 N바이트가 되도록 뒤에 0x00이 채워져서 온다
+     */
+    private static String trimZeros(String value) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) == 0) {
+            end--;
+        }
+        return value.substring(0, end);
+    }
+}
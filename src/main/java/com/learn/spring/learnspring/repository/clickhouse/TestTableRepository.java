@@ -1,6 +1,8 @@
 package com.learn.spring.learnspring.repository.clickhouse;
 
+import com.learn.spring.learnspring.config.cache.ClickhouseCacheConfig;
 import com.learn.spring.learnspring.entities.clickhouse.TestTableEntity;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,6 +10,11 @@ import java.util.List;
 
 @Repository
 public interface TestTableRepository extends JpaRepository<TestTableEntity, Short> {
+    /**
+     * - 결과는 ClickhouseCacheConfig.TEST_TABLE_BY_ID 캐시에 저장되어 여러 호출자가 같은 엔티티 객체를 공유한다. 돌려받은 엔티티를 수정하지 말 것
+     * - sync = true: 같은 id로 동시에 miss가 나면 한 번만 조회한다
+     */
+    @Cacheable(cacheNames = ClickhouseCacheConfig.TEST_TABLE_BY_ID, sync = true)
     List<TestTableEntity> findById(Integer id);
 
 }
@@ -0,0 +1,17 @@
+package com.learn.spring.learnspring.repository.clickhouse.aggregation;
+
+/**
+ * # AggregateFunction
+ * - TestTableAggregation에서 쓸 수 있는 ClickHouse 집계 함수
+ * - UNIQ는 근사값(HyperLogLog 계열 uniq). 정확한 값이 필요하면 GROUP BY 후 COUNT를 쓴다
+ * - QUANTILE도 근사값(reservoir sampling quantile)
+ */
+public enum AggregateFunction {
+    COUNT,
+    SUM,
+    AVG,
+    MIN,
+    MAX,
+    UNIQ,
+    QUANTILE
+}
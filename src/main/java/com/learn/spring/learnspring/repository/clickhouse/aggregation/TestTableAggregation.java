@@ -0,0 +1,348 @@
+package com.learn.spring.learnspring.repository.clickhouse.aggregation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.learn.spring.learnspring.entities.clickhouse.TestTableColumn;
+import com.learn.spring.learnspring.repository.clickhouse.columnar.ColumnVector;
+
+/**
+ * # TestTableAggregation
+ * - test_db.test_table 집계 쿼리. GROUP BY, 집계를 ClickHouse에서 계산하고 그룹별 결과만 받는다
+ * - TestTableAggregationRepository.aggregate()로 실행하고, 결과는 primitive 배열(TestTableAggregationResult)로 받는다
+ *
+ * # 예
+ * <pre>
+ * new TestTableAggregation()
+ *         .where(TestTableColumn.C_INT8, Operator.EQ, -1)
+ *         .arrayJoin(TestTableColumn.C_ARRAY_INT16)
+ *         .groupBy(TestTableColumn.C_ARRAY_INT16)      // 배열 원소별 그룹
+ *         .count()
+ *         .avg(TestTableColumn.C_FLOAT64)
+ *         .quantile(0.99, TestTableColumn.C_DECIMAL64_18);
+ * </pre>
+ *
+ * # SQL
+ * - 컬럼 이름은 TestTableColumn에서만, 값은 모두 ? 파라미터로 들어간다
+ * - arrayJoin 컬럼은 ARRAY JOIN 절로 펼치고, 같은 쿼리 안에서 그 컬럼을 가리키면 배열 대신 원소를 뜻한다
+ * - 키: 정수, 날짜/시간(ColumnVector.selectExpression과 같은 정수 표현), 문자열 컬럼만 가능
+ * - 값: COUNT, UNIQ와 정수 컬럼의 SUM/MIN/MAX는 long, 나머지는 toFloat64()로 바꿔서 double로 받는다
+ *   (Int128/256, Decimal 합계는 double 정밀도로 근사된다)
+ */
+public class TestTableAggregation {
+    private static final String TABLE = "test_db.test_table";
+
+    public enum Operator {
+        EQ("="), NE("!="), LT("<"), LE("<="), GT(">"), GE(">="), IN("IN");
+
+        private final String sql;
+
+        Operator(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    public enum ValueType {
+        LONG, DOUBLE
+    }
+
+    private final List<Filter> filters = new ArrayList<>();
+    private final List<TestTableColumn> groupBy = new ArrayList<>();
+    private final List<Aggregate> aggregates = new ArrayList<>();
+    private TestTableColumn arrayJoin;
+    private Long limit;
+
+    public TestTableAggregation where(TestTableColumn column, Operator operator, Object value) {
+        if (operator == Operator.IN) {
+            if (!(value instanceof Collection) || ((Collection<?>) value).isEmpty()) {
+                throw new IllegalArgumentException("IN requires a non-empty collection");
+            }
+        } else if (value == null || value instanceof Collection) {
+            throw new IllegalArgumentException(operator + " requires a single non-null value");
+        }
+        filters.add(new Filter(column, operator, value));
+        return this;
+    }
+
+    /**
+     * 배열 컬럼을 원소 단위 행으로 펼친다(ARRAY JOIN). 한 쿼리에 하나만
+     */
+    public TestTableAggregation arrayJoin(TestTableColumn column) {
+        if (column.getType() != TestTableColumn.Type.ARRAY_INT && column.getType() != TestTableColumn.Type.ARRAY_STRING) {
+            throw new IllegalArgumentException(column.getColumnName() + " is not an array column");
+        }
+        if (arrayJoin != null && arrayJoin != column) {
+            throw new IllegalStateException("Only one arrayJoin column is supported");
+        }
+        this.arrayJoin = column;
+        return this;
+    }
+
+    public TestTableAggregation groupBy(TestTableColumn... columns) {
+        for (TestTableColumn column : columns) {
+            groupBy.add(column);
+        }
+        return this;
+    }
+
+    public TestTableAggregation count() {
+        aggregates.add(new Aggregate(AggregateFunction.COUNT, null, 0));
+        return this;
+    }
+
+    public TestTableAggregation sum(TestTableColumn column) {
+        return aggregate(AggregateFunction.SUM, column, 0);
+    }
+
+    public TestTableAggregation avg(TestTableColumn column) {
+        return aggregate(AggregateFunction.AVG, column, 0);
+    }
+
+    public TestTableAggregation min(TestTableColumn column) {
+        return aggregate(AggregateFunction.MIN, column, 0);
+    }
+
+    public TestTableAggregation max(TestTableColumn column) {
+        return aggregate(AggregateFunction.MAX, column, 0);
+    }
+
+    public TestTableAggregation uniq(TestTableColumn column) {
+        return aggregate(AggregateFunction.UNIQ, column, 0);
+    }
+
+    /**
+     * @param level 0보다 크고 1보다 작은 값(0.5 = 중앙값)
+     */
+    public TestTableAggregation quantile(double level, TestTableColumn column) {
+        if (!(level > 0 && level < 1)) {
+            throw new IllegalArgumentException("quantile level must be in (0, 1): " + level);
+        }
+        return aggregate(AggregateFunction.QUANTILE, column, level);
+    }
+
+    /**
+     * 그룹 수 제한. 정렬은 키 순서
+     */
+    public TestTableAggregation limit(long limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    private TestTableAggregation aggregate(AggregateFunction function, TestTableColumn column, double level) {
+        aggregates.add(new Aggregate(function, column, level));
+        return this;
+    }
+
+    public List<TestTableColumn> getGroupBy() {
+        return List.copyOf(groupBy);
+    }
+
+    public List<Aggregate> getAggregates() {
+        return List.copyOf(aggregates);
+    }
+
+    /**
+     * 그룹 키 컬럼의 결과 타입. 문자열 키는 null
+     */
+    ValueType keyType(TestTableColumn column) {
+        switch (elementType(column)) {
+            case INT8:
+            case INT16:
+            case INT32:
+            case INT64:
+            case DATE:
+            case DATETIME:
+            case DATETIME64:
+            case ARRAY_INT:
+                return ValueType.LONG;
+            case STRING:
+            case ARRAY_STRING:
+                return null;
+            default:
+                throw new IllegalArgumentException(column.getColumnName() + " (" + column.getType() + ") cannot be a group key");
+        }
+    }
+
+    /**
+     * # compile
+     * - SELECT 키..., 집계... FROM test_db.test_table [ARRAY JOIN] [WHERE] [GROUP BY] [ORDER BY] [LIMIT]
+     * - params에 ? 순서대로 바인딩할 값을 채운다
+     */
+    String compile(List<Object> params) {
+        if (groupBy.isEmpty() && aggregates.isEmpty()) {
+            throw new IllegalStateException("At least one group key or aggregate is required");
+        }
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < groupBy.size(); i++) {
+            TestTableColumn column = groupBy.get(i);
+            keyType(column);
+            sql.append(i > 0 ? ", " : "").append(keyExpression(column));
+        }
+        for (int i = 0; i < aggregates.size(); i++) {
+            sql.append(i > 0 || !groupBy.isEmpty() ? ", " : "").append(aggregates.get(i).expression(this));
+        }
+        sql.append(" FROM ").append(TABLE);
+        if (arrayJoin != null) {
+            sql.append(" ARRAY JOIN ").append(arrayJoin.getColumnName()).append(" AS ").append(elementAlias(arrayJoin));
+        }
+        for (int i = 0; i < filters.size(); i++) {
+            Filter filter = filters.get(i);
+            elementType(filter.column);
+            sql.append(i == 0 ? " WHERE " : " AND ").append(columnExpression(filter.column)).append(' ').append(filter.operator.sql).append(' ');
+            if (filter.operator == Operator.IN) {
+                Collection<?> values = (Collection<?>) filter.value;
+                sql.append('(');
+                for (int j = 0; j < values.size(); j++) {
+                    sql.append(j > 0 ? ", ?" : "?");
+                }
+                sql.append(')');
+                params.addAll(values);
+            } else {
+                sql.append('?');
+                params.add(filter.value);
+            }
+        }
+        if (!groupBy.isEmpty()) {
+            // 위치 인자(GROUP BY 1)는 enable_positional_arguments 설정에 따라 달라지므로 표현식을 그대로 반복한다
+            StringBuilder keys = new StringBuilder();
+            for (int i = 0; i < groupBy.size(); i++) {
+                keys.append(i > 0 ? ", " : "").append(keyExpression(groupBy.get(i)));
+            }
+            sql.append(" GROUP BY ").append(keys).append(" ORDER BY ").append(keys);
+        }
+        if (limit != null) {
+            sql.append(" LIMIT ").append(limit.longValue());
+        }
+        return sql.toString();
+    }
+
+    private TestTableColumn.Type elementType(TestTableColumn column) {
+        if (column.getType() == TestTableColumn.Type.ARRAY_INT || column.getType() == TestTableColumn.Type.ARRAY_STRING) {
+            if (column != arrayJoin) {
+                throw new IllegalArgumentException(column.getColumnName() + " must be expanded with arrayJoin() first");
+            }
+        }
+        return column.getType();
+    }
+
+    private String keyExpression(TestTableColumn column) {
+        return column == arrayJoin ? elementAlias(column) : ColumnVector.selectExpression(column);
+    }
+
+    private String columnExpression(TestTableColumn column) {
+        return column == arrayJoin ? elementAlias(column) : column.getColumnName();
+    }
+
+    private static String elementAlias(TestTableColumn column) {
+        return column.getColumnName() + "_element";
+    }
+
+    private static final class Filter {
+        private final TestTableColumn column;
+        private final Operator operator;
+        private final Object value;
+
+        private Filter(TestTableColumn column, Operator operator, Object value) {
+            this.column = column;
+            this.operator = operator;
+            this.value = value;
+        }
+    }
+
+    public static final class Aggregate {
+        private final AggregateFunction function;
+        private final TestTableColumn column;
+        private final double level;
+
+        private Aggregate(AggregateFunction function, TestTableColumn column, double level) {
+            this.function = function;
+            this.column = column;
+            this.level = level;
+        }
+
+        public AggregateFunction getFunction() {
+            return function;
+        }
+
+        /**
+         * COUNT는 null
+         */
+        public TestTableColumn getColumn() {
+            return column;
+        }
+
+        ValueType valueType(TestTableAggregation query) {
+            switch (function) {
+                case COUNT:
+                case UNIQ:
+                    return ValueType.LONG;
+                case SUM:
+                case MIN:
+                case MAX:
+                    return isSmallInteger(query.elementType(column)) ? ValueType.LONG : ValueType.DOUBLE;
+                default:
+                    return ValueType.DOUBLE;
+            }
+        }
+
+        private String expression(TestTableAggregation query) {
+            if (function == AggregateFunction.COUNT) {
+                return "count()";
+            }
+            TestTableColumn.Type type = query.elementType(column);
+            String argument = query.columnExpression(column);
+            if (function == AggregateFunction.UNIQ) {
+                return "uniq(" + argument + ")";
+            }
+            if (!isNumeric(type)) {
+                throw new IllegalArgumentException(function + " requires a numeric column: " + column.getColumnName());
+            }
+            String call;
+            switch (function) {
+                case SUM:
+                    call = "sum(" + argument + ")";
+                    break;
+                case AVG:
+                    call = "avg(" + argument + ")";
+                    break;
+                case MIN:
+                    call = "min(" + argument + ")";
+                    break;
+                case MAX:
+                    call = "max(" + argument + ")";
+                    break;
+                default:
+                    call = "quantile(" + Double.toString(level) + ")(" + argument + ")";
+                    break;
+            }
+            return valueType(query) == ValueType.LONG ? "toInt64(" + call + ")" : "toFloat64(" + call + ")";
+        }
+
+        private static boolean isSmallInteger(TestTableColumn.Type type) {
+            return type == TestTableColumn.Type.INT8 || type == TestTableColumn.Type.INT16 || type == TestTableColumn.Type.INT32
+                    || type == TestTableColumn.Type.INT64 || type == TestTableColumn.Type.ARRAY_INT;
+        }
+
+        private static boolean isNumeric(TestTableColumn.Type type) {
+            switch (type) {
+                case INT8:
+                case INT16:
+                case INT32:
+                case INT64:
+                case INT128:
+                case INT256:
+                case FLOAT32:
+                case FLOAT64:
+                case DECIMAL:
+                case ARRAY_INT:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+}
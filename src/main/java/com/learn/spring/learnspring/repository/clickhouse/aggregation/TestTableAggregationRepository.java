@@ -0,0 +1,51 @@
+package com.learn.spring.learnspring.repository.clickhouse.aggregation;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Repository;
+
+/**
+ * # TestTableAggregationRepository
+ * - TestTableRepository로 List<TestTableEntity>를 받아 Java에서 집계하면 모든 행, 모든 컬럼이 네트워크를 건너온다
+ * - 여기서는 TestTableAggregation을 ClickHouse SQL로 바꿔 GROUP BY, 집계를 컬럼 저장소에서 끝내고 그룹별 결과만 받는다
+ * - TestTableColumnarReader와 같이 Hibernate/트랜잭션 없이 clickhouseDataSource에서 바로 JDBC로 읽는다
+ */
+@Repository
+public class TestTableAggregationRepository {
+    private final DataSource dataSource;
+
+    public TestTableAggregationRepository(@Qualifier("clickhouseDataSource") DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public TestTableAggregationResult aggregate(TestTableAggregation query) {
+        List<Object> params = new ArrayList<>();
+        String sql = query.compile(params);
+        TestTableAggregationResult result = new TestTableAggregationResult(query);
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    result.appendRow(resultSet);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Aggregation of test_db.test_table failed: " + sql, e);
+        }
+        result.trim();
+        return result;
+    }
+}
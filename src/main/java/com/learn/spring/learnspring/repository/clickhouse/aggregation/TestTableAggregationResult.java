@@ -0,0 +1,131 @@
+package com.learn.spring.learnspring.repository.clickhouse.aggregation;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import com.learn.spring.learnspring.entities.clickhouse.TestTableColumn;
+
+/**
+ * # TestTableAggregationResult
+ * - 그룹 하나가 한 행. 키와 집계 값을 컬럼별 primitive 배열로 들고 있다(행마다 객체를 만들지 않는다)
+ * - 키: longKeys(column) 또는 stringKeys(column). 날짜/시간 키는 ColumnVector.selectExpression과 같은 정수 표현
+ * - 값: 집계를 추가한 순서(index)로 longs(index) 또는 doubles(index)
+ * - 돌려주는 배열은 복사하지 않은 내부 배열이므로 수정하지 말 것
+ */
+public final class TestTableAggregationResult {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final List<TestTableColumn> groupBy;
+    private final List<TestTableAggregation.Aggregate> aggregates;
+    /** 열마다 long[], double[], String[] 중 하나. 키 다음에 집계 순서 */
+    private final Object[] columns;
+    private final TestTableAggregation.ValueType[] types;
+    private int capacity = INITIAL_CAPACITY;
+    private int size;
+
+    TestTableAggregationResult(TestTableAggregation query) {
+        this.groupBy = query.getGroupBy();
+        this.aggregates = query.getAggregates();
+        this.columns = new Object[groupBy.size() + aggregates.size()];
+        this.types = new TestTableAggregation.ValueType[columns.length];
+        for (int i = 0; i < groupBy.size(); i++) {
+            types[i] = query.keyType(groupBy.get(i));
+        }
+        for (int i = 0; i < aggregates.size(); i++) {
+            types[groupBy.size() + i] = aggregates.get(i).valueType(query);
+        }
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = allocate(types[i], INITIAL_CAPACITY);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<TestTableColumn> getGroupBy() {
+        return groupBy;
+    }
+
+    public List<TestTableAggregation.Aggregate> getAggregates() {
+        return aggregates;
+    }
+
+    public long[] longKeys(TestTableColumn column) {
+        return (long[]) columns[keyIndex(column)];
+    }
+
+    public String[] stringKeys(TestTableColumn column) {
+        return (String[]) columns[keyIndex(column)];
+    }
+
+    public long[] longs(int aggregateIndex) {
+        return (long[]) columns[groupBy.size() + aggregateIndex];
+    }
+
+    public double[] doubles(int aggregateIndex) {
+        return (double[]) columns[groupBy.size() + aggregateIndex];
+    }
+
+    void appendRow(ResultSet resultSet) throws SQLException {
+        if (size == capacity) {
+            resize(capacity * 2);
+        }
+        for (int i = 0; i < columns.length; i++) {
+            if (types[i] == TestTableAggregation.ValueType.LONG) {
+                ((long[]) columns[i])[size] = resultSet.getLong(i + 1);
+            } else if (types[i] == TestTableAggregation.ValueType.DOUBLE) {
+                ((double[]) columns[i])[size] = resultSet.getDouble(i + 1);
+            } else {
+                ((String[]) columns[i])[size] = resultSet.getString(i + 1);
+            }
+        }
+        size++;
+    }
+
+    /**
+     * 다 읽은 뒤 배열 길이를 size에 맞춘다
+     */
+    void trim() {
+        if (size != capacity) {
+            resize(size);
+        }
+    }
+
+    private void resize(int length) {
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = copyOf(columns[i], length);
+        }
+        capacity = length;
+    }
+
+    private int keyIndex(TestTableColumn column) {
+        int index = groupBy.indexOf(column);
+        if (index < 0) {
+            throw new IllegalArgumentException(column.getColumnName() + " is not a group key");
+        }
+        return index;
+    }
+
+    private static Object allocate(TestTableAggregation.ValueType type, int capacity) {
+        if (type == TestTableAggregation.ValueType.LONG) {
+            return new long[capacity];
+        }
+        if (type == TestTableAggregation.ValueType.DOUBLE) {
+            return new double[capacity];
+        }
+        return new String[capacity];
+    }
+
+    private static Object copyOf(Object array, int length) {
+        if (array instanceof long[]) {
+            return Arrays.copyOf((long[]) array, length);
+        }
+        if (array instanceof double[]) {
+            return Arrays.copyOf((double[]) array, length);
+        }
+        return Arrays.copyOf((String[]) array, length);
+    }
+}
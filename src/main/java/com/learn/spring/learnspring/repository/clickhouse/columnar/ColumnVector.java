@@ -0,0 +1,72 @@
+package com.learn.spring.learnspring.repository.clickhouse.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.learn.spring.learnspring.entities.clickhouse.TestTableColumn;
+
+/**
+ * # ColumnVector
+ * - 한 컬럼의 값을 배치 크기만큼 primitive 배열에 담는 벡터
+ * - 배치마다 새로 만들지 않고 reset() 후 재사용한다
+ * - ResultSet에서 읽을 때 boxing이 생기지 않도록 타입별 getter(getInt, getLong ...)만 사용한다
+ */
+public abstract class ColumnVector {
+    protected int size;
+
+    public int size() {
+        return size;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    /**
+     * 현재 행(row = size)의 값을 읽어서 뒤에 붙인다
+     */
+    abstract void append(ResultSet resultSet, int columnIndex) throws SQLException;
+
+    /**
+     * # SELECT 절에 들어갈 표현식
+     * - 날짜/시간은 ClickHouse에서 정수로 바꿔서 받아 LocalDate/LocalDateTime 객체 생성을 피한다
+     */
+    public static String selectExpression(TestTableColumn column) {
+        switch (column.getType()) {
+            case DATE:
+                return "toInt32(" + column.getColumnName() + ")";
+            case DATETIME:
+                return "toUInt32(" + column.getColumnName() + ")";
+            case DATETIME64:
+                return "toUnixTimestamp64Milli(" + column.getColumnName() + ")";
+            default:
+                return column.getColumnName();
+        }
+    }
+
+    static ColumnVector create(TestTableColumn column, int capacity) {
+        switch (column.getType()) {
+            case INT8:
+            case INT16:
+            case INT32:
+            case DATE:
+                return new IntColumnVector(capacity);
+            case INT64:
+            case DATETIME:
+            case DATETIME64:
+                return new LongColumnVector(capacity);
+            case FLOAT32:
+                return new FloatColumnVector(capacity);
+            case FLOAT64:
+                return new DoubleColumnVector(capacity);
+            case STRING:
+                return new StringColumnVector(capacity);
+            case ARRAY_INT:
+                return new IntArrayColumnVector(capacity);
+            case ARRAY_STRING:
+                return new StringArrayColumnVector(capacity);
+            default:
+                throw new IllegalArgumentException(column.getColumnName() + " (" + column.getType() + ") is not supported in columnar scans");
+        }
+    }
+}
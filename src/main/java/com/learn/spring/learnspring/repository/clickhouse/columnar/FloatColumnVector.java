@@ -0,0 +1,31 @@
+package com.learn.spring.learnspring.repository.clickhouse.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Float32
+ */
+public final class FloatColumnVector extends ColumnVector {
+    private final float[] values;
+
+    FloatColumnVector(int capacity) {
+        this.values = new float[capacity];
+    }
+
+    public float get(int row) {
+        return values[row];
+    }
+
+    /**
+     * 배치 크기(capacity)만큼 잡힌 내부 배열. 유효한 범위는 [0, size())
+     */
+    public float[] values() {
+        return values;
+    }
+
+    @Override
+    void append(ResultSet resultSet, int columnIndex) throws SQLException {
+        values[size++] = resultSet.getFloat(columnIndex);
+    }
+}
@@ -0,0 +1,59 @@
+package com.learn.spring.learnspring.repository.clickhouse.columnar;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * # Array(Int8), Array(Int16)
+ * - offset 인코딩: 모든 행의 원소를 values 하나에 이어 붙이고
+ *   row 번째 행의 원소는 values[offsets[row]] ~ values[offsets[row + 1] - 1]
+ * - 행마다 List<Short>/List<Integer>를 만들지 않는다
+ */
+public final class IntArrayColumnVector extends ColumnVector {
+    private final int[] offsets;
+    private int[] values;
+
+    IntArrayColumnVector(int capacity) {
+        this.offsets = new int[capacity + 1];
+        this.values = new int[capacity * 4];
+    }
+
+    public int length(int row) {
+        return offsets[row + 1] - offsets[row];
+    }
+
+    public int get(int row, int index) {
+        return values[offsets[row] + index];
+    }
+
+    public int[] offsets() {
+        return offsets;
+    }
+
+    public int[] values() {
+        return values;
+    }
+
+    @Override
+    void append(ResultSet resultSet, int columnIndex) throws SQLException {
+        int start = offsets[size];
+        Array array = resultSet.getArray(columnIndex);
+        int end = start;
+        if (array != null) {
+            Object elements = array.getArray();
+            int length = java.lang.reflect.Array.getLength(elements);
+            ensureValueCapacity(start + length);
+            end = PrimitiveArrays.copyInts(elements, values, start);
+            array.free();
+        }
+        offsets[++size] = end;
+    }
+
+    private void ensureValueCapacity(int required) {
+        if (required > values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length << 1, required));
+        }
+    }
+}
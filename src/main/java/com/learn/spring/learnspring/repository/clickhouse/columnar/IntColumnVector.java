@@ -0,0 +1,31 @@
+package com.learn.spring.learnspring.repository.clickhouse.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Int8, Int16, Int32, Date(1970-01-01부터의 일 수)
+ */
+public final class IntColumnVector extends ColumnVector {
+    private final int[] values;
+
+    IntColumnVector(int capacity) {
+        this.values = new int[capacity];
+    }
+
+    public int get(int row) {
+        return values[row];
+    }
+
+    /**
+     * 배치 크기(capacity)만큼 잡힌 내부 배열. 유효한 범위는 [0, size())
+     */
+    public int[] values() {
+        return values;
+    }
+
+    @Override
+    void append(ResultSet resultSet, int columnIndex) throws SQLException {
+        values[size++] = resultSet.getInt(columnIndex);
+    }
+}
@@ -0,0 +1,31 @@
+package com.learn.spring.learnspring.repository.clickhouse.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Int64, DateTime(epoch 초), DateTime64(epoch 밀리초)
+ */
+public final class LongColumnVector extends ColumnVector {
+    private final long[] values;
+
+    LongColumnVector(int capacity) {
+        this.values = new long[capacity];
+    }
+
+    public long get(int row) {
+        return values[row];
+    }
+
+    /**
+     * 배치 크기(capacity)만큼 잡힌 내부 배열. 유효한 범위는 [0, size())
+     */
+    public long[] values() {
+        return values;
+    }
+
+    @Override
+    void append(ResultSet resultSet, int columnIndex) throws SQLException {
+        values[size++] = resultSet.getLong(columnIndex);
+    }
+}
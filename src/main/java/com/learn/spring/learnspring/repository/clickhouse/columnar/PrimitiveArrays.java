@@ -0,0 +1,44 @@
+package com.learn.spring.learnspring.repository.clickhouse.columnar;
+
+/**
+ * # PrimitiveArrays
+ * - java.sql.Array.getArray()가 드라이버에 따라 byte[], short[], int[] 또는 Number[]를 돌려주므로
+ *   타입별로 나눠서 boxing 없이 복사한다
+ */
+final class PrimitiveArrays {
+    private PrimitiveArrays() {
+    }
+
+    /**
+     * @return 복사가 끝난 다음 위치
+     */
+    static int copyInts(Object source, int[] target, int offset) {
+        if (source instanceof int[]) {
+            int[] ints = (int[]) source;
+            System.arraycopy(ints, 0, target, offset, ints.length);
+            return offset + ints.length;
+        }
+        if (source instanceof short[]) {
+            for (short value : (short[]) source) {
+                target[offset++] = value;
+            }
+            return offset;
+        }
+        if (source instanceof byte[]) {
+            for (byte value : (byte[]) source) {
+                target[offset++] = value;
+            }
+            return offset;
+        }
+        if (source instanceof long[]) {
+            for (long value : (long[]) source) {
+                target[offset++] = Math.toIntExact(value);
+            }
+            return offset;
+        }
+        for (Object value : (Object[]) source) {
+            target[offset++] = value == null ? 0 : ((Number) value).intValue();
+        }
+        return offset;
+    }
+}
@@ -0,0 +1,56 @@
+package com.learn.spring.learnspring.repository.clickhouse.columnar;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * # Array(String)
+ * - IntArrayColumnVector와 같은 offset 인코딩
+ */
+public final class StringArrayColumnVector extends ColumnVector {
+    private final int[] offsets;
+    private String[] values;
+
+    StringArrayColumnVector(int capacity) {
+        this.offsets = new int[capacity + 1];
+        this.values = new String[capacity * 4];
+    }
+
+    public int length(int row) {
+        return offsets[row + 1] - offsets[row];
+    }
+
+    public String get(int row, int index) {
+        return values[offsets[row] + index];
+    }
+
+    public int[] offsets() {
+        return offsets;
+    }
+
+    @Override
+    void reset() {
+        Arrays.fill(values, 0, offsets[size], null);
+        super.reset();
+    }
+
+    @Override
+    void append(ResultSet resultSet, int columnIndex) throws SQLException {
+        int start = offsets[size];
+        Array array = resultSet.getArray(columnIndex);
+        int end = start;
+        if (array != null) {
+            Object[] elements = (Object[]) array.getArray();
+            if (start + elements.length > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length << 1, start + elements.length));
+            }
+            for (Object element : elements) {
+                values[end++] = element == null ? null : element.toString();
+            }
+            array.free();
+        }
+        offsets[++size] = end;
+    }
+}
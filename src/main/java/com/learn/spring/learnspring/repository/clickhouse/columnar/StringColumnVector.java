@@ -0,0 +1,33 @@
+package com.learn.spring.learnspring.repository.clickhouse.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * String, FixedString
+ * - JDBC에서 String으로 받는 이상 값마다 String 하나는 생긴다
+ */
+public final class StringColumnVector extends ColumnVector {
+    private final String[] values;
+
+    StringColumnVector(int capacity) {
+        this.values = new String[capacity];
+    }
+
+    public String get(int row) {
+        return values[row];
+    }
+
+    @Override
+    void reset() {
+        // 이전 배치의 String이 GC 되도록 참조를 끊는다
+        Arrays.fill(values, 0, size, null);
+        super.reset();
+    }
+
+    @Override
+    void append(ResultSet resultSet, int columnIndex) throws SQLException {
+        values[size++] = resultSet.getString(columnIndex);
+    }
+}
@@ -0,0 +1,94 @@
+package com.learn.spring.learnspring.repository.clickhouse.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import com.learn.spring.learnspring.entities.clickhouse.TestTableColumn;
+
+/**
+ * # TestTableColumnBatch
+ * - 요청한 컬럼들을 최대 capacity 행까지 컬럼별 벡터로 담는 배치
+ * - TestTableColumnarReader가 한 번 만들어서 모든 배치에 재사용하므로
+ *   consumer는 배치나 벡터의 참조를 콜백 밖으로 들고 나가면 안 된다
+ */
+public final class TestTableColumnBatch {
+    private final List<TestTableColumn> columns;
+    private final ColumnVector[] vectors;
+    private final ColumnVector[] vectorsByColumn = new ColumnVector[TestTableColumn.values().length];
+    private final int capacity;
+    private int size;
+
+    TestTableColumnBatch(List<TestTableColumn> columns, int capacity) {
+        this.columns = List.copyOf(columns);
+        this.capacity = capacity;
+        this.vectors = new ColumnVector[columns.size()];
+        for (int i = 0; i < vectors.length; i++) {
+            TestTableColumn column = columns.get(i);
+            vectors[i] = ColumnVector.create(column, capacity);
+            vectorsByColumn[column.ordinal()] = vectors[i];
+        }
+    }
+
+    public List<TestTableColumn> getColumns() {
+        return columns;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == capacity;
+    }
+
+    void reset() {
+        for (ColumnVector vector : vectors) {
+            vector.reset();
+        }
+        size = 0;
+    }
+
+    void appendRow(ResultSet resultSet) throws SQLException {
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i].append(resultSet, i + 1);
+        }
+        size++;
+    }
+
+    public IntColumnVector getInts(TestTableColumn column) {
+        return (IntColumnVector) vector(column);
+    }
+
+    public LongColumnVector getLongs(TestTableColumn column) {
+        return (LongColumnVector) vector(column);
+    }
+
+    public FloatColumnVector getFloats(TestTableColumn column) {
+        return (FloatColumnVector) vector(column);
+    }
+
+    public DoubleColumnVector getDoubles(TestTableColumn column) {
+        return (DoubleColumnVector) vector(column);
+    }
+
+    public StringColumnVector getStrings(TestTableColumn column) {
+        return (StringColumnVector) vector(column);
+    }
+
+    public IntArrayColumnVector getIntArrays(TestTableColumn column) {
+        return (IntArrayColumnVector) vector(column);
+    }
+
+    public StringArrayColumnVector getStringArrays(TestTableColumn column) {
+        return (StringArrayColumnVector) vector(column);
+    }
+
+    private ColumnVector vector(TestTableColumn column) {
+        ColumnVector vector = vectorsByColumn[column.ordinal()];
+        if (vector == null) {
+            throw new IllegalArgumentException(column.getColumnName() + " was not selected");
+        }
+        return vector;
+    }
+}
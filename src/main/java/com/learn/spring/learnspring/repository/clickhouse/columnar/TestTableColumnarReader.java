@@ -0,0 +1,94 @@
+package com.learn.spring.learnspring.repository.clickhouse.columnar;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import com.learn.spring.learnspring.entities.clickhouse.TestTableColumn;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Repository;
+
+/**
+ * # TestTableColumnarReader
+ * - TestTableRepository는 행마다 영속성 컨텍스트에 관리되는 TestTableEntity를 만들고
+ *   Integer/Long/Float boxing, BigDecimal, JSON 기반 List 변환을 거친다
+ * - 대량 분석 조회는 이 클래스로 필요한 컬럼만 골라 primitive 배열 배치(TestTableColumnBatch)로 받는다
+ * - 읽기 전용이며 Hibernate/트랜잭션을 거치지 않고 clickhouseDataSource에서 바로 JDBC로 읽는다
+ */
+@Repository
+public class TestTableColumnarReader {
+    public static final int DEFAULT_BATCH_SIZE = 8192;
+
+    private final DataSource dataSource;
+
+    public TestTableColumnarReader(@Qualifier("clickhouseDataSource") DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * TestTableRepository.findById(Integer)의 columnar 버전
+     */
+    public void findById(int id, List<TestTableColumn> columns, Consumer<TestTableColumnBatch> consumer) {
+        scan(columns, "c_int8 = ?", List.of(id), DEFAULT_BATCH_SIZE, consumer);
+    }
+
+    /**
+     * # scan
+     * - batchSize 행이 찰 때마다, 그리고 마지막에 남은 행으로 consumer 호출
+     * - consumer에 넘어가는 배치는 매번 같은 인스턴스이다
+     *
+     * @param where  WHERE 절(없으면 null). 값은 반드시 ? 파라미터로 넘기고, 외부 입력을 이어 붙이지 않는다
+     * @param params where의 ? 에 순서대로 바인딩할 값
+     */
+    public void scan(List<TestTableColumn> columns, String where, List<?> params, int batchSize, Consumer<TestTableColumnBatch> consumer) {
+        TestTableColumnBatch batch = new TestTableColumnBatch(columns, batchSize);
+        String sql = buildSql(columns, where);
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setFetchSize(batchSize);
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    batch.appendRow(resultSet);
+                    if (batch.isFull()) {
+                        consumer.accept(batch);
+                        batch.reset();
+                    }
+                }
+            }
+            if (batch.size() > 0) {
+                consumer.accept(batch);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Columnar scan of test_db.test_table failed: " + sql, e);
+        }
+    }
+
+    static String buildSql(List<TestTableColumn> columns, String where) {
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("At least one column must be selected");
+        }
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ColumnVector.selectExpression(columns.get(i)));
+        }
+        sql.append(" FROM test_db.test_table");
+        if (where != null) {
+            sql.append(" WHERE ").append(where);
+        }
+        return sql.toString();
+    }
+}
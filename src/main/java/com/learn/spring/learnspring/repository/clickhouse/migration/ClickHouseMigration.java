@@ -0,0 +1,179 @@
+package com.learn.spring.learnspring.repository.clickhouse.migration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+
+/**
+ * # ClickHouseMigration
+ * - 버전 스크립트 하나. 파일 이름은 V{버전}__{설명}.sql (ex: V2__partition_test_table.sql)
+ * - 체크섬은 줄바꿈(\r\n, \n) 차이를 무시한 CRC32. 이미 적용한 스크립트를 고치면 ClickHouseMigrator.validate()가 실패한다
+ * - ${이름} 자리표시자는 실행 직전에 치환한다(체크섬은 치환 전 원문 기준)
+ *
+ * # 문장 나누기
+ * - ClickHouse JDBC는 한 번에 한 문장만 실행하므로 ';'로 나눈다
+ * - 문자열('...'), 식별자(`...`, "...") 안의 ';'는 나누지 않고, 주석(-- 한 줄 주석, 블록 주석)은 버린다
+ */
+public final class ClickHouseMigration {
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([\\w.-]+)}");
+
+    private final int version;
+    private final String description;
+    private final String script;
+    private final String sql;
+    private final long checksum;
+
+    ClickHouseMigration(String script, String sql) {
+        Matcher matcher = FILE_NAME.matcher(script);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Migration script name must be V<version>__<description>.sql: " + script);
+        }
+        this.version = Integer.parseInt(matcher.group(1));
+        this.description = matcher.group(2).replace('_', ' ');
+        this.script = script;
+        this.sql = sql;
+        this.checksum = checksum(sql);
+    }
+
+    /**
+     * location 아래의 V*__*.sql을 버전 순서로 읽는다. 같은 버전이 둘이면 실패
+     */
+    public static List<ClickHouseMigration> load(ResourcePatternResolver resolver, String location) throws IOException {
+        String pattern = location.endsWith("/") ? location + "V*__*.sql" : location + "/V*__*.sql";
+        List<ClickHouseMigration> migrations = new ArrayList<>();
+        for (Resource resource : resolver.getResources(pattern)) {
+            try (InputStream in = resource.getInputStream()) {
+                migrations.add(new ClickHouseMigration(resource.getFilename(), new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+            }
+        }
+        migrations.sort(Comparator.comparingInt(ClickHouseMigration::getVersion));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version == migrations.get(i - 1).version) {
+                throw new IllegalStateException("Duplicate migration version " + migrations.get(i).version
+                        + ": " + migrations.get(i - 1).script + ", " + migrations.get(i).script);
+            }
+        }
+        return migrations;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getScript() {
+        return script;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * 자리표시자를 치환하고 문장 단위로 나눈다. 정의되지 않은 자리표시자가 있으면 실패
+     */
+    public List<String> statements(Map<String, String> placeholders) {
+        return split(substitute(sql, placeholders));
+    }
+
+    private String substitute(String text, Map<String, String> placeholders) {
+        Matcher matcher = PLACEHOLDER.matcher(text);
+        StringBuilder result = new StringBuilder(text.length());
+        while (matcher.find()) {
+            String value = placeholders.get(matcher.group(1));
+            if (value == null) {
+                throw new IllegalStateException("Undefined placeholder ${" + matcher.group(1) + "} in " + script);
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    static List<String> split(String text) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == '-' && i + 1 < length && text.charAt(i + 1) == '-') {
+                while (i < length && text.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && i + 1 < length && text.charAt(i + 1) == '*') {
+                int end = text.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                current.append(' ');
+            } else if (c == '\'' || c == '`' || c == '"') {
+                int end = closingQuote(text, i);
+                current.append(text, i, end);
+                i = end;
+            } else if (c == ';') {
+                addStatement(statements, current);
+                i++;
+            } else {
+                current.append(c);
+                i++;
+            }
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    /**
+     * 따옴표 다음 위치. 백슬래시 이스케이프와 따옴표 두 번('')을 모두 건너뛴다
+     */
+    private static int closingQuote(String text, int start) {
+        char quote = text.charAt(start);
+        int i = start + 1;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == quote) {
+                if (i + 1 < text.length() && text.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        throw new IllegalArgumentException("Unterminated " + quote + " quote");
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        String statement = current.toString().trim();
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+        current.setLength(0);
+    }
+
+    private static long checksum(String sql) {
+        CRC32 crc = new CRC32();
+        crc.update(sql.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    @Override
+    public String toString() {
+        return script;
+    }
+}
@@ -0,0 +1,71 @@
+package com.learn.spring.learnspring.repository.clickhouse.migration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import com.clickhouse.client.config.ClickHouseClientOption;
+import com.clickhouse.jdbc.ClickHouseDataSource;
+
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+/**
+ * # ClickHouseMigrationCommand
+ * - 애플리케이션을 띄우지 않고 ClickHouse 마이그레이션만 실행하는 CLI
+ * - 실행: ./gradlew clickhouseMigrate -Pargs="info --url=jdbc:clickhouse:http://localhost:8123"
+ * - 명령: migrate(기본) | info | validate
+ * - 옵션: --url, --user, --password, --location, --history-table, --placeholder.{이름}={값}
+ *   기본값은 application.yaml dev 프로필, ClickHouseMigrator.DEFAULT_* 와 같다
+ */
+public final class ClickHouseMigrationCommand {
+    private ClickHouseMigrationCommand() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String command = "migrate";
+        Map<String, String> options = new HashMap<>();
+        Map<String, String> placeholders = new HashMap<>(ClickHouseMigrator.DEFAULT_PLACEHOLDERS);
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                command = arg;
+                continue;
+            }
+            int equals = arg.indexOf('=');
+            String key = equals < 0 ? arg.substring(2) : arg.substring(2, equals);
+            String value = equals < 0 ? "" : arg.substring(equals + 1);
+            if (key.startsWith("placeholder.")) {
+                placeholders.put(key.substring("placeholder.".length()), value);
+            } else {
+                options.put(key, value);
+            }
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty(ClickHouseClientOption.CLIENT_NAME.getKey(), "clickhouse-migration");
+        properties.setProperty("user", options.getOrDefault("user", "default"));
+        properties.setProperty("password", options.getOrDefault("password", ""));
+        ClickHouseDataSource dataSource = new ClickHouseDataSource(
+                options.getOrDefault("url", "jdbc:clickhouse:http://localhost:8123"), properties);
+        List<ClickHouseMigration> migrations = ClickHouseMigration.load(new PathMatchingResourcePatternResolver(),
+                options.getOrDefault("location", ClickHouseMigrator.DEFAULT_LOCATION));
+        ClickHouseMigrator migrator = new ClickHouseMigrator(dataSource, migrations,
+                options.getOrDefault("history-table", ClickHouseMigrator.DEFAULT_HISTORY_TABLE), placeholders);
+
+        switch (command) {
+            case "migrate":
+                System.out.println("Applied " + migrator.migrate() + " migration(s)");
+                break;
+            case "info":
+                migrator.info().forEach(System.out::println);
+                break;
+            case "validate":
+                migrator.validate();
+                System.out.println("Migrations are valid");
+                break;
+            default:
+                System.err.println("Unknown command " + command + " (migrate | info | validate)");
+                System.exit(2);
+        }
+    }
+}
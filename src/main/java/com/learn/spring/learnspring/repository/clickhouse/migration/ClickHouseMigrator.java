@@ -0,0 +1,224 @@
+package com.learn.spring.learnspring.repository.clickhouse.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * # ClickHouseMigrator
+ * - sqls/clickhouse/migration/V*.sql을 버전 순서로 적용하고, 적용한 버전을 이력 테이블(history-table)에 남긴다
+ * - 기동 시(ClickhouseMigrationConfig, run-on-startup) 또는 CLI(ClickHouseMigrationCommand, ./gradlew clickhouseMigrate)로 실행
+ *
+ * # 실패와 재실행
+ * - ClickHouse DDL은 트랜잭션이 없어서 스크립트 중간에 실패하면 앞 문장까지는 적용된 채로 남는다
+ * - 실패한 버전은 이력에 남기지 않으므로 다음 실행에서 스크립트 처음부터 다시 실행한다
+ *   스크립트는 IF NOT EXISTS, IF EXISTS 등으로 다시 실행해도 되게 작성한다
+ * - 잠금이 없으므로 여러 인스턴스가 동시에 migrate()하면 안 된다. 여러 대로 띄울 때는 CLI로 한 번만 적용한다
+ *
+ * # 검증
+ * - 이미 적용한 스크립트의 체크섬이 바뀌었거나, 이력에는 있는데 스크립트가 없으면 migrate() 전에 실패한다
+ */
+@Slf4j
+public class ClickHouseMigrator {
+    public static final String DEFAULT_LOCATION = "classpath:sqls/clickhouse/migration/";
+    public static final String DEFAULT_HISTORY_TABLE = "test_db.schema_migrations";
+    /** V2__partition_test_table.sql: test_table TTL(개월) */
+    public static final Map<String, String> DEFAULT_PLACEHOLDERS = Map.of("ttl_months", "120");
+
+    private final DataSource dataSource;
+    private final List<ClickHouseMigration> migrations;
+    private final String historyTable;
+    private final Map<String, String> placeholders;
+
+    public ClickHouseMigrator(DataSource dataSource, List<ClickHouseMigration> migrations,
+                              String historyTable, Map<String, String> placeholders) {
+        this.dataSource = dataSource;
+        this.migrations = List.copyOf(migrations);
+        this.historyTable = historyTable;
+        this.placeholders = Map.copyOf(placeholders);
+        // 자리표시자 누락은 실행 전에 알 수 있다
+        this.migrations.forEach(migration -> migration.statements(this.placeholders));
+    }
+
+    public enum State {
+        APPLIED,
+        PENDING,
+        /** 적용한 뒤 스크립트가 바뀌었다 */
+        CHECKSUM_MISMATCH,
+        /** 이력에는 있는데 스크립트가 없다 */
+        MISSING
+    }
+
+    public static final class Status {
+        private final int version;
+        private final String script;
+        private final State state;
+
+        Status(int version, String script, State state) {
+            this.version = version;
+            this.script = script;
+            this.state = state;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public String getScript() {
+            return script;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("V%-4d %-18s %s", version, state, script == null ? "" : script);
+        }
+    }
+
+    /**
+     * 버전별 상태. 이력 테이블이 없으면 모두 PENDING
+     */
+    public List<Status> info() {
+        try (Connection connection = dataSource.getConnection()) {
+            return statuses(applied(connection));
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Failed to read " + historyTable, e);
+        }
+    }
+
+    /**
+     * CHECKSUM_MISMATCH, MISSING이 있으면 IllegalStateException
+     */
+    public void validate() {
+        List<Status> invalid = new ArrayList<>();
+        for (Status status : info()) {
+            if (status.state == State.CHECKSUM_MISMATCH || status.state == State.MISSING) {
+                invalid.add(status);
+            }
+        }
+        if (!invalid.isEmpty()) {
+            throw new IllegalStateException("ClickHouse migrations are out of sync with " + historyTable + ": " + invalid);
+        }
+    }
+
+    /**
+     * @return 이번에 적용한 스크립트 수
+     */
+    public int migrate() {
+        validate();
+        try (Connection connection = dataSource.getConnection()) {
+            createHistoryTable(connection);
+            Map<Integer, Long> applied = applied(connection);
+            int count = 0;
+            for (ClickHouseMigration migration : migrations) {
+                if (applied.containsKey(migration.getVersion())) {
+                    continue;
+                }
+                apply(connection, migration);
+                count++;
+            }
+            if (count == 0) {
+                log.info("ClickHouse schema is up to date (version {})", currentVersion());
+            }
+            return count;
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("ClickHouse migration failed", e);
+        }
+    }
+
+    private int currentVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+    }
+
+    private void apply(Connection connection, ClickHouseMigration migration) throws SQLException {
+        log.info("Applying ClickHouse migration {}", migration.getScript());
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : migration.statements(placeholders)) {
+                try {
+                    statement.execute(sql);
+                } catch (SQLException e) {
+                    throw new SQLException("Migration " + migration.getScript() + " failed at: " + sql, e);
+                }
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + historyTable
+                + " (version, description, script, checksum, execution_ms) VALUES (?, ?, ?, ?, ?)")) {
+            insert.setInt(1, migration.getVersion());
+            insert.setString(2, migration.getDescription());
+            insert.setString(3, migration.getScript());
+            insert.setLong(4, migration.getChecksum());
+            insert.setLong(5, elapsedMillis);
+            insert.executeUpdate();
+        }
+        log.info("Applied ClickHouse migration {} in {} ms", migration.getScript(), elapsedMillis);
+    }
+
+    private List<Status> statuses(Map<Integer, Long> applied) {
+        Map<Integer, Status> statuses = new TreeMap<>();
+        for (ClickHouseMigration migration : migrations) {
+            Long checksum = applied.get(migration.getVersion());
+            State state = checksum == null ? State.PENDING
+                    : checksum == migration.getChecksum() ? State.APPLIED : State.CHECKSUM_MISMATCH;
+            statuses.put(migration.getVersion(), new Status(migration.getVersion(), migration.getScript(), state));
+        }
+        for (Integer version : applied.keySet()) {
+            statuses.putIfAbsent(version, new Status(version, null, State.MISSING));
+        }
+        return new ArrayList<>(statuses.values());
+    }
+
+    /**
+     * 적용한 버전 -> 체크섬
+     */
+    private Map<Integer, Long> applied(Connection connection) throws SQLException {
+        if (!historyTableExists(connection)) {
+            return Collections.emptyMap();
+        }
+        Map<Integer, Long> applied = new TreeMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version, checksum FROM " + historyTable)) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    private boolean historyTableExists(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXISTS TABLE " + historyTable)) {
+            return rs.next() && rs.getInt(1) == 1;
+        }
+    }
+
+    private void createHistoryTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            int dot = historyTable.indexOf('.');
+            if (dot > 0) {
+                statement.execute("CREATE DATABASE IF NOT EXISTS " + historyTable.substring(0, dot));
+            }
+            statement.execute("CREATE TABLE IF NOT EXISTS " + historyTable + " ("
+                    + "version UInt32, description String, script String, checksum UInt32, "
+                    + "execution_ms UInt64, installed_on DateTime DEFAULT now()"
+                    + ") ENGINE = MergeTree() ORDER BY version");
+        }
+    }
+}
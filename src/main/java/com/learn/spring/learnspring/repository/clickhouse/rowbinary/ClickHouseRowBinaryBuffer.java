@@ -0,0 +1,269 @@
+package com.learn.spring.learnspring.repository.clickhouse.rowbinary;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+import com.learn.spring.learnspring.entities.clickhouse.types.WideDecimal;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideInteger;
+
+/**
+ * # ClickHouseRowBinaryBuffer
+ * - ClickHouse RowBinary 포맷(https://clickhouse.com/docs/en/interfaces/formats/#rowbinary)으로 값을 인코딩하는 가변 길이 바이트 버퍼
+ * - 모든 정수/실수는 little-endian으로 쓴다
+ * - String, Array의 길이는 unsigned LEB128 varint로 쓴다
+ * - 내부 배열을 그대로 InputStream으로 노출하므로 배치 전송 시 복사가 발생하지 않는다
+ * - 스레드 안전하지 않다. 호출하는 쪽에서 동기화해야 한다
+ */
+public class ClickHouseRowBinaryBuffer {
+    private byte[] buf;
+    private int count;
+
+    public ClickHouseRowBinaryBuffer(int initialCapacity) {
+        this.buf = new byte[Math.max(initialCapacity, 64)];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 버퍼를 재사용하기 위해 위치만 초기화한다. 내부 배열은 유지된다
+     */
+    public void reset() {
+        count = 0;
+    }
+
+    /**
+     * size 뒤에 쓴 바이트를 버린다. 행을 인코딩하다 실패했을 때 그 행의 앞부분을 되돌리는 데 쓴다
+     */
+    public void truncate(int size) {
+        if (size < 0 || size > count) {
+            throw new IndexOutOfBoundsException("size " + size + " is out of [0, " + count + "]");
+        }
+        count = size;
+    }
+
+    /**
+     * 현재까지 쓴 바이트를 복사 없이 읽는 InputStream
+     */
+    public InputStream toInputStream() {
+        return new ByteArrayInputStream(buf, 0, count);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, count);
+    }
+
+    private void ensureCapacity(int additional) {
+        int required = count + additional;
+        if (required > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, required));
+        }
+    }
+
+    /**************************************************************************************************
+     * 정수/실수
+     **************************************************************************************************/
+    public void writeInt8(int value) {
+        ensureCapacity(1);
+        buf[count++] = (byte) value;
+    }
+
+    public void writeInt16(int value) {
+        ensureCapacity(2);
+        buf[count++] = (byte) value;
+        buf[count++] = (byte) (value >>> 8);
+    }
+
+    public void writeInt32(int value) {
+        ensureCapacity(4);
+        buf[count++] = (byte) value;
+        buf[count++] = (byte) (value >>> 8);
+        buf[count++] = (byte) (value >>> 16);
+        buf[count++] = (byte) (value >>> 24);
+    }
+
+    public void writeInt64(long value) {
+        ensureCapacity(8);
+        for (int i = 0; i < 8; i++) {
+            buf[count++] = (byte) (value >>> (i << 3));
+        }
+    }
+
+    public void writeFloat32(float value) {
+        writeInt32(Float.floatToRawIntBits(value));
+    }
+
+    public void writeFloat64(double value) {
+        writeInt64(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * # Int128, Int256
+     * - byteWidth 바이트 크기의 2의 보수 little-endian
+     * - BigInteger.toByteArray()는 big-endian이므로 뒤집으면서 부호 확장
+     */
+    public void writeBigInteger(BigInteger value, int byteWidth) {
+        byte[] bigEndian = value.toByteArray();
+        if (bigEndian.length > byteWidth) {
+            throw new IllegalArgumentException("Value " + value + " does not fit in " + (byteWidth << 3) + " bits");
+        }
+        ensureCapacity(byteWidth);
+        byte signExtension = value.signum() < 0 ? (byte) 0xFF : 0;
+        for (int i = 0; i < byteWidth; i++) {
+            int index = bigEndian.length - 1 - i;
+            buf[count++] = index >= 0 ? bigEndian[index] : signExtension;
+        }
+    }
+
+    /**
+     * # Int128, Int256 (WideInteger)
+     * - limb가 이미 little-endian 2의 보수 순서이므로 BigInteger.toByteArray() 없이 그대로 쓴다
+     * - 값의 비트 수가 byteWidth와 다르면 부호 확장하거나, 잘리는 limb가 부호 확장인지 확인한다
+     */
+    public void writeWideInteger(WideInteger value, int byteWidth) {
+        int limbs = byteWidth >> 3;
+        long signExtension = value.signum() < 0 ? -1L : 0L;
+        for (int k = limbs; k < value.limbCount(); k++) {
+            if (value.limb(k) != signExtension) {
+                throw new IllegalArgumentException("Value " + value + " does not fit in " + (byteWidth << 3) + " bits");
+            }
+        }
+        ensureCapacity(byteWidth);
+        for (int k = 0; k < limbs; k++) {
+            long limb = k < value.limbCount() ? value.limb(k) : signExtension;
+            for (int i = 0; i < 8; i++) {
+                buf[count++] = (byte) (limb >>> (i << 3));
+            }
+        }
+    }
+
+    /**
+     * # Decimal128(S), Decimal256(S) (WideDecimal)
+     * - scale이 같으면 unscaled limb를 그대로 쓰고, 다르면 BigDecimal로 맞춘다
+     */
+    public void writeDecimal(WideDecimal value, int scale, int byteWidth) {
+        if (value.getScale() == scale) {
+            writeWideInteger(value.getUnscaled(), byteWidth);
+        } else {
+            writeDecimal(value.toBigDecimal(), scale, byteWidth);
+        }
+    }
+
+    /**
+     * # Decimal32(S), Decimal64(S), Decimal128(S), Decimal256(S)
+     * - scale 만큼 10^S 곱한 unscaled 정수를 byteWidth 크기로 쓴다
+     * - 스케일을 넘어서는 자릿수는 ClickHouse와 같이 버린다
+     */
+    public void writeDecimal(BigDecimal value, int scale, int byteWidth) {
+        BigInteger unscaled = value.setScale(scale, RoundingMode.DOWN).unscaledValue();
+        if (byteWidth == 4) {
+            writeInt32(unscaled.intValueExact());
+        } else if (byteWidth == 8) {
+            writeInt64(unscaled.longValueExact());
+        } else {
+            writeBigInteger(unscaled, byteWidth);
+        }
+    }
+
+    /**************************************************************************************************
+     * 가변 길이
+     **************************************************************************************************/
+    /**
+     * unsigned LEB128
+     */
+    public void writeVarInt(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[count++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[count++] = (byte) value;
+    }
+
+    /**
+     * # String
+     * - varint(UTF-8 바이트 길이) + UTF-8 바이트
+     * - 중간 byte[] 생성 없이 char를 직접 UTF-8로 인코딩한다
+     */
+    public void writeString(CharSequence value) {
+        int length = utf8Length(value);
+        writeVarInt(length);
+        ensureCapacity(length);
+        writeUtf8(value);
+    }
+
+    /**
+     * # FixedString(N)
+     * - N 바이트보다 짧으면 0으로 채우고, 길면 자른다
+     */
+    public void writeFixedString(CharSequence value, int length) {
+        ensureCapacity(Math.max(length, utf8Length(value)));
+        int start = count;
+        writeUtf8(value);
+        if (count - start > length) {
+            count = start + length;
+        }
+        while (count - start < length) {
+            buf[count++] = 0;
+        }
+    }
+
+    /**
+     * # Nullable(T)
+     * - 1바이트 null 여부 뒤에 null이 아닌 경우에만 값이 온다
+     * @return 값을 이어서 써야 하면 true
+     */
+    public boolean writeNullFlag(Object value) {
+        writeInt8(value == null ? 1 : 0);
+        return value != null;
+    }
+
+    private void writeUtf8(CharSequence value) {
+        for (int i = 0, len = value.length(); i < len; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buf[count++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[count++] = (byte) (0xC0 | (c >> 6));
+                buf[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                buf[count++] = (byte) (0xF0 | (cp >> 18));
+                buf[count++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buf[count++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buf[count++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buf[count++] = (byte) '?';
+            } else {
+                buf[count++] = (byte) (0xE0 | (c >> 12));
+                buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    static int utf8Length(CharSequence value) {
+        int length = 0;
+        for (int i = 0, len = value.length(); i < len; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,187 @@
+package com.learn.spring.learnspring.repository.clickhouse.rowbinary;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import com.learn.spring.learnspring.entities.clickhouse.TestTableEntity;
+import com.learn.spring.learnspring.entities.clickhouse.types.IntArrayList;
+import com.learn.spring.learnspring.entities.clickhouse.types.ShortArrayList;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideDecimal;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideInteger;
+
+/**
+ * # TestTableRowBinaryEncoder
+ * - TestTableEntity 한 건을 test_db.test_table 컬럼 순서(COLUMNS)에 맞춰 RowBinary로 인코딩
+ * - 컬럼 타입은 sqls/clickhouse/migration/V*.sql 참조
+ * - 컬럼이 Nullable이 아니므로 엔티티 값이 null이면 ClickHouse 기본값(0, 빈 문자열, 빈 배열, 1970-01-01)을 쓴다
+ */
+public class TestTableRowBinaryEncoder {
+    /**
+     * INSERT 문의 컬럼 목록. encode()에서 쓰는 순서와 반드시 같아야 한다
+     */
+    public static final String COLUMNS = "c_int8, c_int16, c_int32, c_int64, c_int128, c_int256, c_float32, c_float64, "
+            + "c_decimal32_9, c_decimal64_18, c_decimal128_38, c_decimal256_76, c_string, c_fixedstring, "
+            + "c_date, c_date32, c_datetime, c_datetime64, c_array_int8, c_array_int16, c_array_string, "
+            + "`c_nested.nested_c_int32`, `c_nested.nested_c_array_int16`, `c_nested.nested_c_array_string`, c_tuple";
+
+    /**
+     * DateTime('Asia/Seoul'), DateTime64(3, 'Asia/Seoul') 컬럼의 타임존
+     */
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+    private static final int FIXED_STRING_LENGTH = 2;
+    private static final WideInteger ZERO = WideInteger.of(0L, 128);
+
+    public void encode(TestTableEntity entity, ClickHouseRowBinaryBuffer out) {
+        out.writeInt8(intOrZero(entity.getId()));
+        out.writeInt16(intOrZero(entity.getCInt16()));
+        out.writeInt32(intOrZero(entity.getCInt32()));
+        out.writeInt64(entity.getCInt64() == null ? 0L : entity.getCInt64());
+        writeWideInteger(out, entity.getCInt128(), 16);
+        writeWideInteger(out, entity.getCInt256(), 32);
+        out.writeFloat32(entity.getCFloat32() == null ? 0f : entity.getCFloat32());
+        out.writeFloat64(entity.getCFloat64() == null ? 0d : entity.getCFloat64());
+        writeDecimal(out, entity.getCDecimal329(), 9, 4);
+        writeDecimal(out, entity.getCDecimal6418(), 18, 8);
+        writeDecimal(out, entity.getCDecimal12838(), 38, 16);
+        writeDecimal(out, entity.getCDecimal25676(), 76, 32);
+        out.writeString(stringOrEmpty(entity.getCString()));
+        out.writeFixedString(stringOrEmpty(entity.getCFixedstring()), FIXED_STRING_LENGTH);
+        // Date: 1970-01-01부터의 일 수(UInt16), Date32: 일 수(Int32)
+        out.writeInt16(entity.getCDate() == null ? 0 : (int) entity.getCDate().toLocalDate().toEpochDay());
+        out.writeInt32(entity.getCDate32() == null ? 0 : (int) entity.getCDate32().toLocalDate().toEpochDay());
+        // DateTime: epoch 초(UInt32), DateTime64(3): epoch 밀리초(Int64)
+        out.writeInt32(entity.getCDatetime() == null ? 0 : (int) toEpochSecond(entity.getCDatetime()));
+        out.writeInt64(entity.getCDatetime64() == null ? 0L : toEpochMilli(entity.getCDatetime64()));
+        writeInt8Array(out, entity.getCArrayInt8());
+        writeInt16Array(out, entity.getCArrayInt16());
+        writeStringArray(out, entity.getCArrayString());
+        writeNested(out, entity);
+        // Tuple(Nullable(String), Nullable(String))
+        if (out.writeNullFlag(entity.getCTuple1())) {
+            out.writeString(entity.getCTuple1());
+        }
+        if (out.writeNullFlag(entity.getCTuple2())) {
+            out.writeString(entity.getCTuple2());
+        }
+    }
+
+    /**
+     * # Nested
+     * - flatten_nested=1(기본값)이면 Nested 컬럼은 같은 길이의 Array 컬럼 세 개로 저장된다
+     * - 길이가 다르면 ClickHouse가 INSERT를 거부하므로 여기서 먼저 검증한다
+     */
+    private void writeNested(ClickHouseRowBinaryBuffer out, TestTableEntity entity) {
+        List<Integer> ints = entity.getCNestedCInt32();
+        List<List<Integer>> int16Arrays = entity.getCNestedCArrayInt16();
+        List<List<String>> stringArrays = entity.getCNestedCArrayString();
+        int size = ints == null ? 0 : ints.size();
+        if (size != (int16Arrays == null ? 0 : int16Arrays.size()) || size != (stringArrays == null ? 0 : stringArrays.size())) {
+            throw new IllegalArgumentException("c_nested columns must have the same length");
+        }
+
+        out.writeVarInt(size);
+        if (ints instanceof IntArrayList) {
+            IntArrayList primitives = (IntArrayList) ints;
+            for (int i = 0; i < size; i++) {
+                out.writeInt32(primitives.getInt(i));
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                out.writeInt32(intOrZero(ints.get(i)));
+            }
+        }
+        out.writeVarInt(size);
+        for (int i = 0; i < size; i++) {
+            writeInt16Array(out, int16Arrays.get(i));
+        }
+        out.writeVarInt(size);
+        for (int i = 0; i < size; i++) {
+            writeStringArray(out, stringArrays.get(i));
+        }
+    }
+
+    private static void writeInt8Array(ClickHouseRowBinaryBuffer out, List<Short> values) {
+        if (values == null) {
+            out.writeVarInt(0);
+            return;
+        }
+        out.writeVarInt(values.size());
+        if (values instanceof ShortArrayList) {
+            ShortArrayList primitives = (ShortArrayList) values;
+            for (int i = 0; i < primitives.size(); i++) {
+                out.writeInt8(primitives.getShort(i));
+            }
+            return;
+        }
+        for (Short value : values) {
+            out.writeInt8(value == null ? 0 : value);
+        }
+    }
+
+    private static void writeInt16Array(ClickHouseRowBinaryBuffer out, List<Integer> values) {
+        if (values == null) {
+            out.writeVarInt(0);
+            return;
+        }
+        out.writeVarInt(values.size());
+        if (values instanceof IntArrayList) {
+            IntArrayList primitives = (IntArrayList) values;
+            for (int i = 0; i < primitives.size(); i++) {
+                out.writeInt16(primitives.getInt(i));
+            }
+            return;
+        }
+        for (Integer value : values) {
+            out.writeInt16(intOrZero(value));
+        }
+    }
+
+    private static void writeStringArray(ClickHouseRowBinaryBuffer out, List<String> values) {
+        if (values == null) {
+            out.writeVarInt(0);
+            return;
+        }
+        out.writeVarInt(values.size());
+        for (String value : values) {
+            out.writeString(stringOrEmpty(value));
+        }
+    }
+
+    private static void writeWideInteger(ClickHouseRowBinaryBuffer out, WideInteger value, int byteWidth) {
+        if (value == null) {
+            out.writeWideInteger(ZERO, byteWidth);
+        } else {
+            out.writeWideInteger(value, byteWidth);
+        }
+    }
+
+    private static void writeDecimal(ClickHouseRowBinaryBuffer out, BigDecimal value, int scale, int byteWidth) {
+        out.writeDecimal(value == null ? BigDecimal.ZERO : value, scale, byteWidth);
+    }
+
+    private static void writeDecimal(ClickHouseRowBinaryBuffer out, WideDecimal value, int scale, int byteWidth) {
+        if (value == null) {
+            out.writeWideInteger(ZERO, byteWidth);
+        } else {
+            out.writeDecimal(value, scale, byteWidth);
+        }
+    }
+
+    private static long toEpochSecond(LocalDateTime value) {
+        return value.atZone(ZONE).toEpochSecond();
+    }
+
+    private static long toEpochMilli(LocalDateTime value) {
+        return value.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private static int intOrZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private static String stringOrEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,244 @@
+package com.learn.spring.learnspring.service.clickhouse;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import com.learn.spring.learnspring.config.cache.TestTableChangedEvent;
+import com.learn.spring.learnspring.entities.clickhouse.TestTableEntity;
+import com.learn.spring.learnspring.repository.clickhouse.rowbinary.ClickHouseRowBinaryBuffer;
+import com.learn.spring.learnspring.repository.clickhouse.rowbinary.TestTableRowBinaryEncoder;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * # TestTableIngestionService
+ * - TestTableRepository.save()는 한 건마다 INSERT 한 번이므로 대량 적재에 쓸 수 없다
+ * - 엔티티를 받는 즉시 RowBinary로 인코딩해서 버퍼에 쌓고, batch-size 건이 차거나 flush-interval이 지나면
+ *   INSERT INTO ... FORMAT RowBinary 한 번으로 보낸다
+ * - 엔티티 객체는 버퍼에 남지 않으므로 대기 중인 행은 인코딩된 바이트 크기만큼만 메모리를 쓴다
+ *
+ * # 버퍼 교체
+ * - 쓰기 버퍼가 차면 sendLock을 잡은 뒤 bufferLock 안에서 빈 버퍼로 바꾸고, 가득 찬 버퍼는 bufferLock 밖에서 전송한다
+ *   - 교체와 전송이 모두 sendLock 안이라 먼저 교체한 배치가 먼저 전송된다
+ *   - 전송하는 동안에도 add()는 새 버퍼에 계속 쌓는다
+ * - 전송이 끝난 버퍼는 freeBuffers로 돌려서 재사용한다
+ *
+ * # 인코딩 실패
+ * - 인코딩 중에 예외가 나면(Nested 길이 불일치, Decimal/Int128/Int256 범위 초과 등) 그 행의 앞부분을 버퍼에서 잘라내고 예외를 던진다
+ * - add()가 예외를 던졌다면 그 행은 받지 않은 것이다. 배치에는 온전한 행만 남는다
+ *
+ * # 전송 실패
+ * - 실패한 배치는 버리지 않고 failed로 들고 있다가 다음 flush()에서 새 배치보다 먼저 다시 보낸다
+ * - 다시 보내기도 실패하면 새 배치는 교체하지 않고 쓰기 버퍼에 그대로 둔다(ClickHouse가 돌아올 때까지 메모리에 쌓인다)
+ * - 예외는 flush()를 직접 부른 쪽에만 던진다
+ * - add()가 배치를 채워서 보낸 경우에는 행을 이미 받은 뒤이므로 던지지 않고 로그만 남긴다. 행은 버퍼에 남아 다음 flush()에서 다시 보낸다
+ *
+ * # 캐시 무효화
+ * - 배치마다 담긴 id(c_int8)를 BitSet으로 모아 두고, 전송에 성공하면 그 id로 TestTableChangedEvent를 발행한다
+ * - ClickhouseCacheConfig가 받아서 해당 id의 조회 캐시만 지운다
+ */
+@Slf4j
+@Service
+public class TestTableIngestionService {
+    private static final String INSERT_SQL = "INSERT INTO test_db.test_table (" + TestTableRowBinaryEncoder.COLUMNS + ") FORMAT RowBinary";
+    private static final int INITIAL_BUFFER_BYTES = 1 << 20;
+
+    private final DataSource dataSource;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TestTableRowBinaryEncoder encoder = new TestTableRowBinaryEncoder();
+    private final int batchSize;
+    private final long flushIntervalMillis;
+
+    private final ReentrantLock bufferLock = new ReentrantLock();
+    /**
+     * 교체부터 전송까지 한 번에 하나만. 배치 순서가 뒤섞이지 않고 ClickHouse에 동시에 여러 part를 만들지 않도록 한다
+     * - 잡는 순서는 sendLock → bufferLock
+     */
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private final BlockingQueue<Batch> freeBatches = new ArrayBlockingQueue<>(2);
+    private Batch batch = new Batch();
+    private int bufferedRows;
+    /** 전송에 실패해서 다시 보낼 배치. sendLock 안에서만 접근 */
+    private Batch failed;
+
+    private ScheduledExecutorService scheduler;
+
+    public TestTableIngestionService(@Qualifier("clickhouseDataSource") DataSource dataSource,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Value("${learnspring.clickhouse.ingestion.batch-size:100000}") int batchSize,
+                                     @Value("${learnspring.clickhouse.ingestion.flush-interval-ms:1000}") long flushIntervalMillis) {
+        this.dataSource = dataSource;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "clickhouse-ingestion-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdown();
+        flush();
+    }
+
+    /**
+     * @throws RuntimeException 행을 인코딩할 수 없을 때. 이 경우 행은 버퍼에 남지 않는다
+     */
+    public void add(TestTableEntity entity) {
+        boolean full;
+        bufferLock.lock();
+        try {
+            ClickHouseRowBinaryBuffer buffer = batch.buffer;
+            int rowStart = buffer.size();
+            try {
+                encoder.encode(entity, buffer);
+            } catch (RuntimeException e) {
+                buffer.truncate(rowStart);
+                throw e;
+            }
+            batch.add(entity.getId());
+            full = ++bufferedRows >= batchSize;
+        } finally {
+            bufferLock.unlock();
+        }
+        if (full) {
+            flushQuietly(batchSize);
+        }
+    }
+
+    public void addAll(Collection<TestTableEntity> entities) {
+        for (TestTableEntity entity : entities) {
+            add(entity);
+        }
+    }
+
+    /**
+     * 쌓여 있는 행을 바로 전송한다. 앞서 실패한 배치가 있으면 그것부터 다시 보낸다
+     */
+    public void flush() {
+        flush(1);
+    }
+
+    private void flushQuietly() {
+        flushQuietly(1);
+    }
+
+    private void flushQuietly(int minRows) {
+        try {
+            flush(minRows);
+        } catch (RuntimeException e) {
+            log.error("Flush to test_db.test_table failed. The batch is kept and retried on the next flush", e);
+        }
+    }
+
+    /**
+     * @param minRows 쌓인 행이 이보다 적으면 교체하지 않는다. sendLock을 기다리는 동안 다른 스레드가 이미 보냈을 수 있다
+     */
+    private void flush(int minRows) {
+        sendLock.lock();
+        try {
+            if (failed != null) {
+                send(failed);
+                recycle(failed);
+                failed = null;
+            }
+            Batch full;
+            bufferLock.lock();
+            try {
+                if (bufferedRows == 0 || bufferedRows < minRows) {
+                    return;
+                }
+                full = swapBatch();
+            } finally {
+                bufferLock.unlock();
+            }
+            try {
+                send(full);
+            } catch (RuntimeException e) {
+                failed = full;
+                throw e;
+            }
+            recycle(full);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /** bufferLock 안에서만 호출 */
+    private Batch swapBatch() {
+        Batch full = batch;
+        Batch next = freeBatches.poll();
+        batch = next != null ? next : new Batch();
+        bufferedRows = 0;
+        return full;
+    }
+
+    private void recycle(Batch sent) {
+        sent.buffer.reset();
+        sent.ids.clear();
+        freeBatches.offer(sent);
+    }
+
+    /** sendLock 안에서만 호출. 실패하면 full은 그대로 둔다 */
+    private void send(Batch full) {
+        long bytes = full.buffer.size();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            /**
+             * # INSERT ... FORMAT RowBinary
+             * - clickhouse-jdbc는 FORMAT 절이 있는 INSERT를 입력 스트림 기반 PreparedStatement로 처리한다
+             * - 파라미터로 넘긴 InputStream이 요청 바디로 그대로 전송된다
+             */
+            statement.setObject(1, full.buffer.toInputStream());
+            statement.executeUpdate();
+            log.debug("Sent {} bytes to test_db.test_table", bytes);
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("RowBinary insert into test_db.test_table failed", e);
+        }
+        eventPublisher.publishEvent(new TestTableChangedEvent(bytes, full.ids()));
+    }
+
+    /**
+     * 인코딩한 행과 그 행들의 id(c_int8, Int8이라 256가지)
+     */
+    private static final class Batch {
+        final ClickHouseRowBinaryBuffer buffer = new ClickHouseRowBinaryBuffer(INITIAL_BUFFER_BYTES);
+        final BitSet ids = new BitSet(256);
+
+        /** TestTableRowBinaryEncoder와 같이 null은 0, 범위 밖 값은 Int8로 잘라서 기록한다 */
+        void add(Integer id) {
+            ids.set((id == null ? 0 : (byte) id.intValue()) + 128);
+        }
+
+        int[] ids() {
+            return ids.stream().map(index -> index - 128).toArray();
+        }
+    }
+}
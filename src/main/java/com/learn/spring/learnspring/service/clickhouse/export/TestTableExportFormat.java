@@ -0,0 +1,213 @@
+package com.learn.spring.learnspring.service.clickhouse.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import com.learn.spring.learnspring.entities.clickhouse.TestTableColumn;
+
+import org.springframework.http.MediaType;
+
+/**
+ * # TestTableExportFormat
+ * - 내보내기 포맷별 행 쓰기
+ * - ResultSet의 현재 행을 Writer에 바로 쓰고, 행 단위 중간 객체(Map, JsonNode 등)를 만들지 않는다
+ */
+public enum TestTableExportFormat {
+    /**
+     * # NDJSON(http://ndjson.org)
+     * - 한 줄에 JSON 오브젝트 하나
+     * - 숫자 컬럼은 따옴표 없이, Int128/Int256/Decimal도 자릿수 손실이 없도록 ClickHouse 텍스트 그대로 쓴다
+     * - JSON에 없는 nan, inf, -inf(Float32/Float64)는 null로 쓴다
+     */
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson") {
+        @Override
+        void writeHeader(Writer writer, List<TestTableColumn> columns) {
+        }
+
+        @Override
+        void writeRow(Writer writer, List<TestTableColumn> columns, ResultSet resultSet) throws IOException, SQLException {
+            writer.write('{');
+            for (int i = 0; i < columns.size(); i++) {
+                TestTableColumn column = columns.get(i);
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write('"');
+                writer.write(column.getColumnName());
+                writer.write("\":");
+                if (isArray(column)) {
+                    writeJsonArray(writer, resultSet.getArray(i + 1), column.getType() == TestTableColumn.Type.ARRAY_STRING);
+                } else {
+                    String value = resultSet.getString(i + 1);
+                    if (value == null) {
+                        writer.write("null");
+                    } else if (isNumeric(column)) {
+                        writeJsonNumber(writer, value);
+                    } else {
+                        writeJsonString(writer, value);
+                    }
+                }
+            }
+            writer.write("}\n");
+        }
+    },
+
+    /**
+     * # CSV(RFC 4180)
+     * - 첫 줄은 컬럼 이름
+     * - 배열은 ClickHouse 텍스트 표현([1,2,3], ['a','b'])을 따옴표로 감싸서 쓴다
+     */
+    CSV(MediaType.parseMediaType("text/csv; charset=UTF-8"), "csv") {
+        @Override
+        void writeHeader(Writer writer, List<TestTableColumn> columns) throws IOException {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(columns.get(i).getColumnName());
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        void writeRow(Writer writer, List<TestTableColumn> columns, ResultSet resultSet) throws IOException, SQLException {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                String value = resultSet.getString(i + 1);
+                if (value != null) {
+                    writeCsvField(writer, value);
+                }
+            }
+            writer.write("\r\n");
+        }
+    };
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    TestTableExportFormat(MediaType mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    abstract void writeHeader(Writer writer, List<TestTableColumn> columns) throws IOException;
+
+    abstract void writeRow(Writer writer, List<TestTableColumn> columns, ResultSet resultSet) throws IOException, SQLException;
+
+    private static boolean isArray(TestTableColumn column) {
+        return column.getType() == TestTableColumn.Type.ARRAY_INT || column.getType() == TestTableColumn.Type.ARRAY_STRING;
+    }
+
+    private static boolean isNumeric(TestTableColumn column) {
+        switch (column.getType()) {
+            case STRING:
+            case DATE:
+            case DATETIME:
+            case DATETIME64:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private static void writeJsonArray(Writer writer, java.sql.Array array, boolean strings) throws IOException, SQLException {
+        if (array == null) {
+            writer.write("[]");
+            return;
+        }
+        Object elements = array.getArray();
+        writer.write('[');
+        for (int i = 0, length = java.lang.reflect.Array.getLength(elements); i < length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object element = java.lang.reflect.Array.get(elements, i);
+            if (element == null) {
+                writer.write("null");
+            } else if (strings) {
+                writeJsonString(writer, element.toString());
+            } else {
+                writer.write(element.toString());
+            }
+        }
+        writer.write(']');
+        array.free();
+    }
+
+    /**
+     * 숫자로 시작하지 않는 값(nan, inf, -inf, NaN, Infinity)은 JSON 숫자가 아니므로 null
+     */
+    static void writeJsonNumber(Writer writer, String value) throws IOException {
+        int first = value.startsWith("-") ? 1 : 0;
+        if (value.length() > first && Character.isDigit(value.charAt(first))) {
+            writer.write(value);
+        } else {
+            writer.write("null");
+        }
+    }
+
+    static void writeJsonString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+
+    static void writeCsvField(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0, length = value.length(); i < length && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
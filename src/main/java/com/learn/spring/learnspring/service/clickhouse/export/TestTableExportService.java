@@ -0,0 +1,122 @@
+package com.learn.spring.learnspring.service.clickhouse.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.learn.spring.learnspring.entities.clickhouse.TestTableColumn;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * # TestTableExportService
+ * - test_db.test_table 행을 JDBC 커서로 한 행씩 읽어서 OutputStream에 바로 쓴다
+ * - 메모리에 남는 것은 fetch-size 만큼의 드라이버 버퍼와 Writer 버퍼뿐이라, 1천 건이든 1억 건이든 힙 사용량이 같다
+ *
+ * # 배압(backpressure)
+ * - 응답 OutputStream.write()는 클라이언트가 읽지 않으면 블로킹되고,
+ *   그동안 ResultSet.next()도 호출되지 않으므로 ClickHouse HTTP 응답도 TCP 수준에서 멈춘다
+ *
+ * # 취소
+ * - 클라이언트가 연결을 끊으면 write()에서 IOException이 나고, 이때 Statement.cancel()로 ClickHouse 쿼리도 중단한다
+ * - 비동기 요청 타임아웃 등으로 스레드가 인터럽트되면 CANCEL_CHECK_ROWS 마다 확인해서 같은 방식으로 중단한다
+ */
+@Slf4j
+@Service
+public class TestTableExportService {
+    private static final int WRITER_BUFFER_CHARS = 64 * 1024;
+    private static final int CANCEL_CHECK_ROWS = 4096;
+
+    private final DataSource dataSource;
+    private final int fetchSize;
+
+    public TestTableExportService(@Qualifier("clickhouseDataSource") DataSource dataSource,
+                                  @Value("${learnspring.clickhouse.export.fetch-size:10000}") int fetchSize) {
+        this.dataSource = dataSource;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @param id    c_int8 조건. null이면 전체
+     * @param limit 최대 행 수. null이면 제한 없음
+     * @return 쓴 행 수
+     */
+    public long export(List<TestTableColumn> columns, TestTableExportFormat format, Integer id, Long limit, OutputStream outputStream) throws IOException {
+        String sql = buildSql(columns, id, limit);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), WRITER_BUFFER_CHARS);
+        long rows = 0;
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setFetchSize(fetchSize);
+            int index = 1;
+            if (id != null) {
+                statement.setInt(index++, id);
+            }
+            if (limit != null) {
+                statement.setLong(index, limit);
+            }
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                format.writeHeader(writer, columns);
+                while (resultSet.next()) {
+                    format.writeRow(writer, columns, resultSet);
+                    if (++rows % CANCEL_CHECK_ROWS == 0 && Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedIOException("Export interrupted after " + rows + " rows");
+                    }
+                }
+                writer.flush();
+            } catch (IOException e) {
+                log.info("Export of test_db.test_table aborted after {} rows: {}", rows, e.getMessage());
+                cancelQuietly(statement);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Export of test_db.test_table failed after " + rows + " rows", e);
+        }
+        log.debug("Exported {} rows of test_db.test_table as {}", rows, format);
+        return rows;
+    }
+
+    private static void cancelQuietly(PreparedStatement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            log.debug("Failed to cancel export query", e);
+        }
+    }
+
+    static String buildSql(List<TestTableColumn> columns, Integer id, Long limit) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(columns.get(i).getColumnName());
+        }
+        sql.append(" FROM test_db.test_table");
+        if (id != null) {
+            sql.append(" WHERE c_int8 = ?");
+        }
+        if (limit != null) {
+            sql.append(" LIMIT ?");
+        }
+        return sql.toString();
+    }
+}
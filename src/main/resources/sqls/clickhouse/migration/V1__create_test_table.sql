@@ -0,0 +1,36 @@
+-- 기존 test_table.sql 스키마. 이미 만들어 둔 테이블이 있으면 그대로 둔다
+CREATE DATABASE IF NOT EXISTS test_db ENGINE = Atomic COMMENT 'test clickhouse db';
+
+CREATE TABLE IF NOT EXISTS test_db.test_table
+(
+    `c_int8`          Int8,
+    `c_int16`         Int16,
+    `c_int32`         Int32,
+    `c_int64`         Int64,
+    `c_int128`        Int128,
+    `c_int256`        Int256,
+    `c_float32`       Float32,
+    `c_float64`       Float64,
+    `c_decimal32_9`   Decimal32(9),
+    `c_decimal64_18`  Decimal64(18),
+    `c_decimal128_38` Decimal128(38),
+    `c_decimal256_76` Decimal256(76),
+    `c_string`        String,
+    `c_fixedstring`   FixedString(2),
+    `c_date`          Date,
+    `c_date32`        Date32,
+    `c_datetime`      DateTime('Asia/Seoul'),
+    `c_datetime64`    DateTime64(3, 'Asia/Seoul'),
+    `c_array_int8`    Array(Int8),
+    `c_array_int16`   Array(Int16),
+    `c_array_string`  Array(String),
+    `c_nested` Nested
+    (
+        nested_c_int32        Int32,
+        nested_c_array_int16  Array(Int16),
+        nested_c_array_string Array(String)
+    ),
+    `c_tuple`         Tuple(Nullable(String), Nullable(String))
+)
+ENGINE = MergeTree()
+PRIMARY KEY c_int8;
@@ -0,0 +1,74 @@
+-- # test_table 파티션, 정렬 키, skip index, TTL
+-- - PARTITION BY, ORDER BY는 ALTER로 바꿀 수 없으므로 새 테이블에 복사한 뒤 EXCHANGE TABLES로 바꿔 끼운다(Atomic 데이터베이스)
+-- - 중간에 실패해도 다시 실행할 수 있도록 test_table_v2를 먼저 비운다
+-- - 파티션: c_datetime 월 단위. 기간 조건은 파티션 minmax로 파트 단위에서 먼저 걸러진다
+-- - 정렬 키: (c_int8, c_datetime). c_int8(id) 조건(findById)과 id 안의 기간 조건이 primary index로 granule을 건너뛴다
+-- - skip index: primary index로 거를 수 없는 조건(c_string =, has(c_array_*, x), c_datetime64/c_int32 범위)용
+-- - TTL: c_datetime 기준 ${ttl_months}개월이 지난 행은 merge 때 지운다
+--     - 복사를 확인하고 바꿔 끼운 뒤 마지막에 MODIFY TTL로 건다. 새 테이블에 처음부터 걸면 복사 중에 지워지는 행을 복사 누락과 구분할 수 없다
+--     - MODIFY TTL은 기존 파트에도 적용되므로(materialize_ttl_after_modify) 이때 기간이 지난 행이 지워진다. 남겨야 할 행이 있으면 ttl_months를 늘린다
+--     - c_datetime이 기본값(1970-01-01)인 행은 시각을 모르는 행이므로 지우지 않는다
+--
+-- # 실행 전에 test_table 쓰기를 멈춘다
+-- - 복사(INSERT ... SELECT)와 EXCHANGE 사이에 들어온 행은 예전 테이블(test_table_v2)에 남았다가 DROP과 함께 사라진다
+-- - 애플리케이션(TestTableIngestionService, TestTableRepository.save)을 내리거나 쓰기를 막고 ./gradlew clickhouseMigrate로 적용한다
+-- - 기동 시 적용(run-on-startup)으로 돌리지 않는다. 같은 애플리케이션의 다른 인스턴스가 쓰고 있을 수 있다
+-- - 복사하는 동안 쓰기가 있었으면 EXCHANGE 전에 실패한다(전체 행 수 비교). 쓰기를 멈추고 다시 실행하면 test_table_v2를 비우고 처음부터 복사한다
+CREATE TABLE IF NOT EXISTS test_db.test_table_v2
+(
+    `c_int8`          Int8,
+    `c_int16`         Int16,
+    `c_int32`         Int32,
+    `c_int64`         Int64,
+    `c_int128`        Int128,
+    `c_int256`        Int256,
+    `c_float32`       Float32,
+    `c_float64`       Float64,
+    `c_decimal32_9`   Decimal32(9),
+    `c_decimal64_18`  Decimal64(18),
+    `c_decimal128_38` Decimal128(38),
+    `c_decimal256_76` Decimal256(76),
+    `c_string`        String,
+    `c_fixedstring`   FixedString(2),
+    `c_date`          Date,
+    `c_date32`        Date32,
+    `c_datetime`      DateTime('Asia/Seoul'),
+    `c_datetime64`    DateTime64(3, 'Asia/Seoul'),
+    `c_array_int8`    Array(Int8),
+    `c_array_int16`   Array(Int16),
+    `c_array_string`  Array(String),
+    `c_nested` Nested
+    (
+        nested_c_int32        Int32,
+        nested_c_array_int16  Array(Int16),
+        nested_c_array_string Array(String)
+    ),
+    `c_tuple`         Tuple(Nullable(String), Nullable(String)),
+    INDEX idx_c_string c_string TYPE bloom_filter(0.01) GRANULARITY 4,
+    INDEX idx_c_array_int8 c_array_int8 TYPE bloom_filter(0.01) GRANULARITY 4,
+    INDEX idx_c_array_int16 c_array_int16 TYPE bloom_filter(0.01) GRANULARITY 4,
+    INDEX idx_c_array_string c_array_string TYPE bloom_filter(0.01) GRANULARITY 4,
+    INDEX idx_c_datetime64 c_datetime64 TYPE minmax GRANULARITY 1,
+    INDEX idx_c_int32 c_int32 TYPE minmax GRANULARITY 4
+)
+ENGINE = MergeTree()
+PARTITION BY toYYYYMM(c_datetime)
+ORDER BY (c_int8, c_datetime)
+SETTINGS index_granularity = 8192;
+
+TRUNCATE TABLE IF EXISTS test_db.test_table_v2;
+
+INSERT INTO test_db.test_table_v2
+SELECT *
+FROM test_db.test_table;
+
+SELECT throwIf(
+    (SELECT count() FROM test_db.test_table) != (SELECT count() FROM test_db.test_table_v2),
+    'test_db.test_table was written while it was copied. Stop writers and run the migration again');
+
+EXCHANGE TABLES test_db.test_table AND test_db.test_table_v2;
+
+DROP TABLE IF EXISTS test_db.test_table_v2;
+
+ALTER TABLE test_db.test_table
+    MODIFY TTL c_datetime + toIntervalMonth(${ttl_months}) WHERE c_datetime > toDateTime(0);
@@ -0,0 +1,124 @@
+package com.learn.spring.learnspring.config;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.learn.spring.learnspring.LearnSpringApplication;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * # 플랫폼 스레드와 가상 스레드 모드 부하 비교
+ * - 실행: ./gradlew throughputTest (가상 스레드 모드는 Java 21 이상에서만 실행)
+ * - 모드마다 애플리케이션을 임의 포트로 띄우고, CONCURRENCY개 클라이언트가 ClickHouse를 읽는 내보내기 API를 동시에 호출한다
+ * - 두 모드 모두 server.tomcat.threads.max, learnspring.mvc.async.max-pool-size를 작게 줄여서 스레드 수가 상한이 되는 상황을 만든다
+ *   - 가상 스레드 모드에서는 이 값들이 적용되지 않으므로 ClickHouse 커넥션 풀(20)이 상한이 된다
+ * - 가상 스레드 모드에서는 VirtualThreadPinningMonitor가 기록한 고정(pinning) 위치도 출력한다
+ */
+@Tag("throughput")
+class VirtualThreadLoadTest {
+    private static final int CONCURRENCY = 200;
+    private static final int REQUESTS = 4_000;
+    private static final String PATH = "/api/export/test-table?format=CSV&columns=C_INT8,C_INT32&limit=1000";
+
+    @Test
+    @DisplayName("Virtual threads serve more requests per second than the platform thread pool")
+    void virtualThreads_Outperform_PlatformThreads() throws Exception {
+        Assumptions.assumeTrue(VirtualThreads.isSupported(), "virtual threads require Java 21+");
+
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("platform: %,.0f req/s, p99 %,d ms%n", platform.requestsPerSecond, platform.p99Millis);
+        System.out.printf("virtual: %,.0f req/s, p99 %,d ms, pinned %d times %s%n",
+                virtual.requestsPerSecond, virtual.p99Millis, virtual.pinnedCount, virtual.pinnedSites);
+        Assertions.assertTrue(virtual.requestsPerSecond > platform.requestsPerSecond);
+    }
+
+    private static Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LearnSpringApplication.class)
+                .profiles("dev")
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=16",
+                        "learnspring.mvc.async.core-pool-size=4",
+                        "learnspring.mvc.async.max-pool-size=8",
+                        "learnspring.threads.virtual=" + virtualThreads)
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            OkHttpClient client = new OkHttpClient.Builder()
+                    .connectionPool(new ConnectionPool(CONCURRENCY, 1, TimeUnit.MINUTES))
+                    .readTimeout(1, TimeUnit.MINUTES)
+                    .build();
+            Request request = new Request.Builder().url("http://localhost:" + port + PATH).build();
+
+            // 워밍업
+            for (int i = 0; i < 100; i++) {
+                call(client, request);
+            }
+
+            ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+            try {
+                List<Future<Long>> futures = new ArrayList<>(REQUESTS);
+                long start = System.nanoTime();
+                for (int i = 0; i < REQUESTS; i++) {
+                    futures.add(clients.submit(() -> call(client, request)));
+                }
+                long[] latencies = new long[REQUESTS];
+                for (int i = 0; i < REQUESTS; i++) {
+                    latencies[i] = futures.get(i).get();
+                }
+                double seconds = (System.nanoTime() - start) / 1_000_000_000d;
+                Arrays.sort(latencies);
+
+                Result result = new Result();
+                result.requestsPerSecond = REQUESTS / seconds;
+                result.p99Millis = TimeUnit.NANOSECONDS.toMillis(latencies[(int) (REQUESTS * 0.99) - 1]);
+                if (virtualThreads) {
+                    VirtualThreadPinningMonitor monitor = context.getBean(VirtualThreadPinningMonitor.class);
+                    result.pinnedCount = monitor.getPinnedCount();
+                    result.pinnedSites = monitor.getPinnedSites().toString();
+                }
+                return result;
+            } finally {
+                clients.shutdownNow();
+                client.connectionPool().evictAll();
+            }
+        }
+    }
+
+    /**
+     * @return 응답 본문을 끝까지 읽는 데 걸린 시간(ns)
+     */
+    private static long call(OkHttpClient client, Request request) throws IOException {
+        long start = System.nanoTime();
+        try (Response response = client.newCall(request).execute()) {
+            Assertions.assertEquals(200, response.code());
+            response.body().bytes();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static final class Result {
+        private double requestsPerSecond;
+        private long p99Millis;
+        private long pinnedCount;
+        private String pinnedSites = "";
+    }
+}
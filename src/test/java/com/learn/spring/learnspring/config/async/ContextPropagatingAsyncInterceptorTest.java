@@ -0,0 +1,99 @@
+package com.learn.spring.learnspring.config.async;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+
+class ContextPropagatingAsyncInterceptorTest {
+    private static final ThreadLocal<String> TENANT = new ThreadLocal<>();
+
+    private final ContextPropagatingAsyncInterceptor interceptor = new ContextPropagatingAsyncInterceptor(List.of(
+            ContextAccessors.security(), ContextAccessors.mdc(), ContextAccessors.of(TENANT)));
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        SecurityContextHolder.clearContext();
+        MDC.clear();
+        TENANT.remove();
+    }
+
+    @Test
+    @DisplayName("Callable sees the request thread's context and the worker is cleaned up afterwards")
+    void callable_Sees_RequestContext() throws Exception {
+        SecurityContextHolder.setContext(new SecurityContextImpl(new UsernamePasswordAuthenticationToken(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN"))));
+        MDC.put("requestId", "abc");
+        TENANT.set("tenant-1");
+        NativeWebRequest request = new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+        Callable<String> task = () -> SecurityContextHolder.getContext().getAuthentication().getName()
+                + "/" + MDC.get("requestId") + "/" + TENANT.get();
+
+        interceptor.beforeConcurrentHandling(request, task);
+        String result = executor.submit(() -> {
+            interceptor.preProcess(request, task);
+            try {
+                return task.call();
+            } finally {
+                interceptor.postProcess(request, task, null);
+            }
+        }).get();
+
+        Assertions.assertEquals("admin/abc/tenant-1", result);
+        String after = executor.submit(() -> SecurityContextHolder.getContext().getAuthentication()
+                + "/" + MDC.get("requestId") + "/" + TENANT.get()).get();
+        Assertions.assertEquals("null/null/null", after);
+    }
+
+    @Test
+    @DisplayName("An empty MDC on the request thread clears the worker's MDC and restores it afterwards")
+    void callable_Restores_EmptyMdc() throws Exception {
+        NativeWebRequest request = new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+        Callable<String> task = () -> MDC.get("requestId");
+        interceptor.beforeConcurrentHandling(request, task);
+
+        String result = executor.submit(() -> {
+            MDC.put("requestId", "worker");
+            interceptor.preProcess(request, task);
+            try {
+                return task.call();
+            } finally {
+                interceptor.postProcess(request, task, null);
+            }
+        }).get();
+
+        Assertions.assertNull(result);
+        Assertions.assertEquals("worker", executor.submit(() -> MDC.get("requestId")).get());
+    }
+
+    @Test
+    @DisplayName("DeferredResult producers can wrap work with the captured snapshot")
+    void deferredResult_Snapshot_WrapsWork() throws Exception {
+        MDC.put("requestId", "def");
+        NativeWebRequest request = new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+        Assertions.assertNull(ContextSnapshot.of(request));
+
+        interceptor.beforeConcurrentHandling(request, new DeferredResult<String>());
+        Callable<String> wrapped = ContextSnapshot.of(request).wrap(() -> MDC.get("requestId"));
+
+        Assertions.assertEquals("def", executor.submit(wrapped).get());
+        Assertions.assertNull(executor.submit(() -> MDC.get("requestId")).get());
+    }
+}
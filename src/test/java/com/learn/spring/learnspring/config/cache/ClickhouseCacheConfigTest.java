@@ -0,0 +1,35 @@
+package com.learn.spring.learnspring.config.cache;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+class ClickhouseCacheConfigTest {
+
+    @Test
+    @DisplayName("An ingested batch evicts only the ids it wrote")
+    void testTableChanged_Evicts_WrittenIdsOnly() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(ClickhouseCacheConfig.class)) {
+            CacheManager cacheManager = context.getBean(CacheManager.class);
+            Cache byId = cacheManager.getCache(ClickhouseCacheConfig.TEST_TABLE_BY_ID);
+            Cache subById = cacheManager.getCache(ClickhouseCacheConfig.TEST_TABLE_SUB_BY_ID);
+            for (int id : new int[]{-1, 1, 2}) {
+                byId.put(id, Collections.emptyList());
+                subById.put(id, Collections.emptyList());
+            }
+
+            context.publishEvent(new TestTableChangedEvent(128, new int[]{-1, 2}));
+
+            for (Cache cache : new Cache[]{byId, subById}) {
+                Assertions.assertNull(cache.get(-1));
+                Assertions.assertNotNull(cache.get(1));
+                Assertions.assertNull(cache.get(2));
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.learn.spring.learnspring.config.log;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.encoder.EchoEncoder;
+import ch.qos.logback.core.util.FileSize;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BatchingFileAppenderTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("stop() waits for the writer thread to write every queued event before the file is closed")
+    void stop_Writes_QueuedEvents() throws IOException {
+        LoggerContext context = new LoggerContext();
+        EchoEncoder<ILoggingEvent> encoder = new EchoEncoder<>();
+        encoder.setContext(context);
+        encoder.start();
+        Path file = directory.resolve("app.log");
+        BatchingFileAppender appender = new BatchingFileAppender();
+        appender.setContext(context);
+        appender.setName("test");
+        appender.setFile(file.toString());
+        appender.setQueueSize(16384);
+        appender.setInfoDiscardThreshold(100);
+        appender.setFlushIntervalMillis(10_000);
+        appender.setEncoder(encoder);
+        appender.start();
+
+        int events = 10_000;
+        for (int i = 0; i < events; i++) {
+            appender.doAppend(new LoggingEvent(getClass().getName(), context.getLogger("test"), Level.INFO, "event " + i, null, null));
+        }
+        appender.stop();
+
+        Assertions.assertEquals(0, appender.getDroppedCount(Level.INFO));
+        Assertions.assertEquals(events, Files.readAllLines(file).size());
+    }
+
+    @Test
+    @DisplayName("When the file cannot be reopened after a rollover, batches are dropped and the writer keeps running until it reopens")
+    void rollover_Survives_ReopenFailure() throws Exception {
+        LoggerContext context = new LoggerContext();
+        EchoEncoder<ILoggingEvent> encoder = new EchoEncoder<>();
+        encoder.setContext(context);
+        encoder.start();
+        Path logs = directory.resolve("logs");
+        Path file = logs.resolve("app.log");
+        BatchingFileAppender appender = new BatchingFileAppender();
+        appender.setContext(context);
+        appender.setName("test");
+        appender.setFile(file.toString());
+        appender.setMaxFileSize(new FileSize(1));
+        appender.setMaxHistory(1);
+        appender.setFlushIntervalMillis(10);
+        appender.setEncoder(encoder);
+        appender.start();
+
+        // 열린 채널은 옮긴 디렉터리에 그대로 두고, 디렉터리 자리를 일반 파일로 막아서 롤링 후 다시 열지 못하게 한다
+        Files.move(logs, directory.resolve("moved"));
+        Files.createFile(logs);
+        appender.doAppend(event(context, "before"));
+        awaitTrue(() -> hasStatus(context, "Failed to reopen"));
+        appender.doAppend(event(context, "dropped"));
+
+        // 다시 열 수 있게 되면 쓰기 스레드가 살아서 이어서 쓴다. 배치마다 롤링되므로 app.log.1까지 본다
+        Files.delete(logs);
+        Path archive = logs.resolve("app.log.1");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!(contains(file, "after") || contains(archive, "after")) && System.nanoTime() < deadline) {
+            appender.doAppend(event(context, "after"));
+            Thread.sleep(100);
+        }
+        appender.stop();
+
+        Assertions.assertTrue(contains(file, "after") || contains(archive, "after"));
+        Assertions.assertFalse(contains(file, "dropped") || contains(archive, "dropped"));
+    }
+
+    private static boolean contains(Path path, String text) throws IOException {
+        return Files.exists(path) && Files.readString(path).contains(text);
+    }
+
+    private static LoggingEvent event(LoggerContext context, String message) {
+        return new LoggingEvent(BatchingFileAppenderTest.class.getName(), context.getLogger("test"), Level.INFO, message, null, null);
+    }
+
+    private static boolean hasStatus(LoggerContext context, String text) {
+        return context.getStatusManager().getCopyOfStatusList().stream()
+                .anyMatch(status -> status.getMessage().contains(text));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(condition.getAsBoolean());
+    }
+}
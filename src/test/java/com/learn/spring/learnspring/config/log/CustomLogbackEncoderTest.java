@@ -0,0 +1,87 @@
+package com.learn.spring.learnspring.config.log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.CoreConstants;
+
+class CustomLogbackEncoderTest {
+    private LoggerContext context;
+    private CustomLogbackLayout layout;
+    private CustomLogbackEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        layout = new CustomLogbackLayout();
+        layout.setContext(context);
+        layout.start();
+        encoder = new CustomLogbackEncoder();
+        encoder.setContext(context);
+        encoder.start();
+    }
+
+    @Test
+    @DisplayName("Encoder output is byte-identical to CustomLogbackLayout")
+    void encode_Matches_Layout() throws IOException {
+        LoggingEvent event = event("com.learn.spring.한글로거", Level.WARN, "메시지 {} 😀 \uD800 {}", "가", 42L);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encodeTo(event, out);
+
+        byte[] expected = layout.doLayout(event).getBytes(StandardCharsets.UTF_8);
+        Assertions.assertArrayEquals(expected, out.toByteArray());
+        Assertions.assertArrayEquals(expected, encoder.encode(event));
+    }
+
+    @Test
+    @DisplayName("Cached thread name is re-encoded when events come from another thread")
+    void encode_Reencodes_ChangedThreadName() {
+        LoggingEvent first = event("a.B", Level.INFO, "first");
+        first.setThreadName("worker-1");
+        LoggingEvent second = event("a.B", Level.INFO, "second");
+        second.setThreadName("worker-2");
+
+        Assertions.assertEquals(layout.doLayout(first), new String(encoder.encode(first), StandardCharsets.UTF_8));
+        Assertions.assertEquals(layout.doLayout(second), new String(encoder.encode(second), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Stack traces are written after the message line")
+    void encode_Writes_StackTrace() {
+        Logger logger = context.getLogger("a.B");
+        IllegalStateException cause = new IllegalStateException("cause");
+        LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, Level.ERROR, "failed", new RuntimeException("outer", cause), null);
+
+        String encoded = new String(encoder.encode(event), StandardCharsets.UTF_8);
+
+        Assertions.assertEquals(layout.doLayout(event), encoded);
+        Assertions.assertTrue(encoded.contains(" - failed" + CoreConstants.LINE_SEPARATOR + "java.lang.RuntimeException: outer" + CoreConstants.LINE_SEPARATOR));
+        Assertions.assertTrue(encoded.contains("Caused by: java.lang.IllegalStateException: cause"));
+        Assertions.assertTrue(encoded.contains("\tat " + getClass().getName() + ".encode_Writes_StackTrace"));
+        Assertions.assertTrue(encoded.endsWith(CoreConstants.LINE_SEPARATOR));
+    }
+
+    @Test
+    @DisplayName("Negative and large elapsed times are formatted like Long.toString()")
+    void append_Formats_Longs() {
+        LogByteBuffer buffer = new LogByteBuffer(1);
+        buffer.append(Long.MIN_VALUE).append((byte) ' ').append(-7).append((byte) ' ').append(0).append((byte) ' ').append(Long.MAX_VALUE);
+        Assertions.assertEquals(Long.MIN_VALUE + " -7 0 " + Long.MAX_VALUE, new String(buffer.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    private LoggingEvent event(String loggerName, Level level, String message, Object... args) {
+        Logger logger = context.getLogger(loggerName);
+        return new LoggingEvent(Logger.class.getName(), logger, level, message, null, args);
+    }
+}
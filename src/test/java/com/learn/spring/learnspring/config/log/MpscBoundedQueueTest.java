@@ -0,0 +1,70 @@
+package com.learn.spring.learnspring.config.log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MpscBoundedQueueTest {
+
+    @Test
+    @DisplayName("Capacity is rounded up to a power of two and offer fails when full")
+    void offer_ReturnsFalse_WhenFull() {
+        MpscBoundedQueue<Integer> queue = new MpscBoundedQueue<>(3);
+        Assertions.assertEquals(4, queue.capacity());
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(queue.offer(i));
+        }
+        Assertions.assertFalse(queue.offer(4));
+        Assertions.assertEquals(4, queue.size());
+        Assertions.assertEquals(0, queue.poll());
+        Assertions.assertTrue(queue.offer(4));
+    }
+
+    @Test
+    @DisplayName("Every element offered by concurrent producers is polled exactly once, in per-producer order")
+    void poll_Receives_AllElements() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 100_000;
+        MpscBoundedQueue<long[]> queue = new MpscBoundedQueue<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!queue.offer(element)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long[] next = new long[producers];
+        start.countDown();
+        for (int received = 0; received < producers * perProducer; ) {
+            long[] element = queue.poll();
+            if (element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            Assertions.assertEquals(next[(int) element[0]]++, element[1]);
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertNull(queue.poll());
+    }
+}
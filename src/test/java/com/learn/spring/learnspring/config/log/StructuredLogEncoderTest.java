@@ -0,0 +1,88 @@
+package com.learn.spring.learnspring.config.log;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+class StructuredLogEncoderTest {
+    private final LoggerContext context = new LoggerContext();
+
+    @Test
+    @DisplayName("JSON output is one parseable line with escaped message and MDC fields")
+    void encodeJson_Writes_ParseableLine() throws Exception {
+        StructuredLogEncoder encoder = encoder("json");
+        LoggingEvent event = event("줄바꿈\n \"따옴표\" \\ \u0001 {}", "값");
+        event.setMDCPropertyMap(Map.of("requestId", "abc123", "principal", "admin"));
+
+        String line = new String(encoder.encode(event), StandardCharsets.UTF_8);
+
+        Assertions.assertTrue(line.endsWith("}\n"));
+        Assertions.assertEquals(line.length() - 1, line.indexOf('\n'));
+        JsonNode node = new ObjectMapper().readTree(line);
+        Assertions.assertEquals(event.getTimeStamp(), node.get("ts").asLong());
+        Assertions.assertEquals("WARN", node.get("level").asText());
+        Assertions.assertEquals("worker-1", node.get("thread").asText());
+        Assertions.assertEquals("com.learn.Test", node.get("logger").asText());
+        Assertions.assertEquals("줄바꿈\n \"따옴표\" \\ \u0001 값", node.get("msg").asText());
+        Assertions.assertEquals("abc123", node.get("requestId").asText());
+        Assertions.assertEquals("admin", node.get("principal").asText());
+        Assertions.assertNull(node.get("stack"));
+    }
+
+    @Test
+    @DisplayName("Binary frame is length-prefixed and decodes back to the event fields")
+    void encodeBinary_Writes_LengthPrefixedFrame() {
+        StructuredLogEncoder encoder = encoder("binary");
+        LoggingEvent event = event("메시지 {}", 1);
+        event.setMDCPropertyMap(Map.of("requestId", "abc123"));
+
+        ByteBuffer frame = ByteBuffer.wrap(encoder.encode(event)).order(ByteOrder.LITTLE_ENDIAN);
+
+        Assertions.assertEquals(frame.capacity() - 4, frame.getInt());
+        Assertions.assertEquals(event.getTimeStamp(), frame.getLong());
+        Assertions.assertEquals(3, frame.get());
+        Assertions.assertEquals("worker-1", string(frame));
+        Assertions.assertEquals("com.learn.Test", string(frame));
+        Assertions.assertEquals("메시지 1", string(frame));
+        Assertions.assertEquals(1, frame.get());
+        Assertions.assertEquals("requestId", string(frame));
+        Assertions.assertEquals("abc123", string(frame));
+        Assertions.assertEquals("", string(frame));
+        Assertions.assertFalse(frame.hasRemaining());
+    }
+
+    private StructuredLogEncoder encoder(String format) {
+        StructuredLogEncoder encoder = new StructuredLogEncoder();
+        encoder.setContext(context);
+        encoder.setFormat(format);
+        encoder.start();
+        Assertions.assertTrue(encoder.isStarted());
+        return encoder;
+    }
+
+    private LoggingEvent event(String message, Object... args) {
+        Logger logger = context.getLogger("com.learn.Test");
+        LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, Level.WARN, message, null, args);
+        event.setThreadName("worker-1");
+        return event;
+    }
+
+    private static String string(ByteBuffer frame) {
+        byte[] bytes = new byte[frame.getInt()];
+        frame.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
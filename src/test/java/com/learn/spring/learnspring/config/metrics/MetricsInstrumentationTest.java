@@ -0,0 +1,168 @@
+package com.learn.spring.learnspring.config.metrics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServlet;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.stereotype.Repository;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MetricsInstrumentationTest {
+
+    @Test
+    @DisplayName("Security filter timers record self time without the rest of the chain")
+    void timedFilter_Excludes_Downstream() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        List<Filter> filters = new ArrayList<>(List.of(new SleepingFilter(20), new DownstreamFilter()));
+        SecurityFilterMetricsPostProcessor.wrap(filters, registry);
+        // 두 번 감싸지 않는다
+        SecurityFilterMetricsPostProcessor.wrap(filters, registry);
+
+        new MockFilterChain(new HttpServlet() {
+        }, filters.toArray(new Filter[0])).doFilter(new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        FunctionTimer outer = registry.get(SecurityFilterMetricsPostProcessor.METRIC_NAME).tag("filter", "SleepingFilter").functionTimer();
+        FunctionTimer inner = registry.get(SecurityFilterMetricsPostProcessor.METRIC_NAME).tag("filter", "DownstreamFilter").functionTimer();
+        Assertions.assertEquals(1, outer.count());
+        Assertions.assertTrue(outer.totalTime(TimeUnit.MILLISECONDS) >= 20);
+        Assertions.assertTrue(outer.totalTime(TimeUnit.MILLISECONDS) < 50 + 20);
+        Assertions.assertTrue(inner.totalTime(TimeUnit.MILLISECONDS) >= 50);
+    }
+
+    @Test
+    @DisplayName("The last security filter excludes the servlet, and the per-thread chains are reused across requests")
+    void timedFilter_Excludes_Servlet() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        List<Filter> filters = new ArrayList<>(List.of(new SleepingFilter(5)));
+        SecurityFilterMetricsPostProcessor.wrap(filters, registry);
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            public void service(ServletRequest request, ServletResponse response) {
+                sleep(50);
+            }
+        };
+
+        for (int i = 0; i < 2; i++) {
+            new MockFilterChain(servlet, filters.toArray(new Filter[0])).doFilter(new MockHttpServletRequest(), new MockHttpServletResponse());
+        }
+
+        FunctionTimer timer = registry.get(SecurityFilterMetricsPostProcessor.METRIC_NAME).tag("filter", "SleepingFilter").functionTimer();
+        Assertions.assertEquals(2, timer.count());
+        Assertions.assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 2 * 5);
+        Assertions.assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) < 2 * 50);
+    }
+
+    @Test
+    @DisplayName("Opt-in HDR histograms keep self time per chain and filter in chain order")
+    void histograms_Report_PerChainPercentiles() throws Exception {
+        FilterLatencyHistograms histograms = new FilterLatencyHistograms(2);
+        List<Filter> filters = new ArrayList<>(List.of(new SleepingFilter(5), new DownstreamFilter()));
+        SecurityFilterMetricsPostProcessor.wrap(filters, null, histograms, "0: any request");
+
+        for (int i = 0; i < 3; i++) {
+            new MockFilterChain(new HttpServlet() {
+            }, filters.toArray(new Filter[0])).doFilter(new MockHttpServletRequest(), new MockHttpServletResponse());
+        }
+
+        Map<String, FilterLatencyHistograms.Snapshot> chain = histograms.snapshot().get("0: any request");
+        Assertions.assertEquals(List.of("SleepingFilter", "DownstreamFilter"), new ArrayList<>(chain.keySet()));
+        FilterLatencyHistograms.Snapshot sleeping = chain.get("SleepingFilter");
+        Assertions.assertEquals(3, sleeping.getCount());
+        Assertions.assertTrue(sleeping.getP50() >= TimeUnit.MILLISECONDS.toNanos(5));
+        Assertions.assertTrue(sleeping.getP999() < TimeUnit.MILLISECONDS.toNanos(50));
+        Assertions.assertTrue(chain.get("DownstreamFilter").getP50() >= TimeUnit.MILLISECONDS.toNanos(50));
+
+        histograms.reset();
+        Assertions.assertEquals(0, histograms.snapshot().get("0: any request").get("SleepingFilter").getCount());
+    }
+
+    @Test
+    @DisplayName("Non Spring Data repositories are timed with repository and method tags")
+    void repositoryInterceptor_Records_StateAndException() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", registry);
+        RepositoryMetricsPostProcessor postProcessor = new RepositoryMetricsPostProcessor(
+                beanFactory.getBeanProvider(MeterRegistry.class), "repository.invocations");
+        postProcessor.setBeanFactory(beanFactory);
+
+        SampleRepository repository = (SampleRepository) postProcessor.postProcessAfterInitialization(new SampleRepository(), "sampleRepository");
+        Assertions.assertTrue(AopUtils.isAopProxy(repository));
+        Assertions.assertEquals(1, repository.find());
+        Assertions.assertEquals(1, repository.find());
+        Assertions.assertThrows(IllegalStateException.class, repository::fail);
+
+        Assertions.assertEquals(2, registry.get("repository.invocations")
+                .tags("repository", "SampleRepository", "method", "find", "state", "SUCCESS", "exception", "None").timer().count());
+        Assertions.assertEquals(1, registry.get("repository.invocations")
+                .tags("method", "fail", "state", "ERROR", "exception", "IllegalStateException").timer().count());
+
+        Object dataRepository = new SampleDataRepository();
+        Assertions.assertSame(dataRepository, postProcessor.postProcessAfterInitialization(dataRepository, "sampleDataRepository"));
+    }
+
+    private static final class SleepingFilter implements Filter {
+        private final long millis;
+
+        SleepingFilter(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            sleep(millis);
+            chain.doFilter(request, response);
+        }
+    }
+
+    private static final class DownstreamFilter implements Filter {
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            sleep(50);
+            chain.doFilter(request, response);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Repository
+    public static class SampleRepository {
+        public int find() {
+            return 1;
+        }
+
+        public void fail() {
+            throw new IllegalStateException("fail");
+        }
+    }
+
+    @Repository
+    public static class SampleDataRepository implements org.springframework.data.repository.Repository<Object, Long> {
+    }
+}
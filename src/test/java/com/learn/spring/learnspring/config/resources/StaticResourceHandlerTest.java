@@ -0,0 +1,187 @@
+package com.learn.spring.learnspring.config.resources;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.HandlerMapping;
+
+class StaticResourceHandlerTest {
+    private static final String CSS = "body { margin: 0; padding: 0; }\n".repeat(100);
+
+    @TempDir
+    Path root;
+
+    @Test
+    @DisplayName("Hashed URLs are immutable, plain URLs revalidate and stale hashes are not found")
+    void versionedUrl_Is_Immutable() throws Exception {
+        write("css/app.css", CSS);
+        StaticAssetCatalog catalog = catalog(properties());
+        String hash = DigestUtils.md5DigestAsHex(CSS.getBytes(StandardCharsets.UTF_8));
+
+        Assertions.assertEquals("/resources/css/app-" + hash + ".css", catalog.getVersionedUrl("css/app.css"));
+        MockHttpServletResponse versioned = get(catalog, "css/app-" + hash + ".css");
+        Assertions.assertEquals(200, versioned.getStatus());
+        Assertions.assertEquals("max-age=31536000, public, immutable", versioned.getHeader("Cache-Control"));
+        Assertions.assertEquals("\"" + hash + "\"", versioned.getHeader("ETag"));
+        Assertions.assertEquals("text/css", versioned.getContentType());
+        Assertions.assertEquals(CSS, versioned.getContentAsString());
+
+        MockHttpServletResponse plain = get(catalog, "css/app.css");
+        Assertions.assertEquals(200, plain.getStatus());
+        Assertions.assertEquals("no-cache", plain.getHeader("Cache-Control"));
+
+        Assertions.assertEquals(404, get(catalog, "css/app-0123456789abcdef0123456789abcdef.css").getStatus());
+        Assertions.assertEquals(404, get(catalog, "../" + root.getFileName() + "/css/app.css").getStatus());
+        Assertions.assertEquals(404, get(catalog, "css/missing.css").getStatus());
+    }
+
+    @Test
+    @DisplayName("Matching If-None-Match returns 304 without a body")
+    void ifNoneMatch_Returns_NotModified() throws Exception {
+        write("css/app.css", CSS);
+        StaticAssetCatalog catalog = catalog(properties());
+        String etag = get(catalog, "css/app.css").getHeader("ETag");
+
+        MockHttpServletRequest request = request("css/app.css");
+        request.addHeader("If-None-Match", etag);
+        MockHttpServletResponse response = handle(catalog, request);
+
+        Assertions.assertEquals(304, response.getStatus());
+        Assertions.assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    @DisplayName("Compressible assets are gzipped once and prebuilt .br files are preferred")
+    void acceptEncoding_Selects_Precompressed() throws Exception {
+        write("css/app.css", CSS);
+        write("js/app.js", CSS);
+        write("js/app.js.br", "brotli");
+        StaticAssetCatalog catalog = catalog(properties());
+        Assertions.assertEquals(2, catalog.precompute());
+
+        MockHttpServletRequest request = request("css/app.css");
+        request.addHeader("Accept-Encoding", "gzip, deflate, br");
+        MockHttpServletResponse gzip = handle(catalog, request);
+        Assertions.assertEquals("gzip", gzip.getHeader("Content-Encoding"));
+        Assertions.assertEquals("Accept-Encoding", gzip.getHeader("Vary"));
+        Assertions.assertTrue(gzip.getHeader("ETag").endsWith("-gzip\""));
+        Assertions.assertEquals(CSS, gunzip(gzip.getContentAsByteArray()));
+
+        request = request("js/app.js");
+        request.addHeader("Accept-Encoding", "gzip, br");
+        MockHttpServletResponse brotli = handle(catalog, request);
+        Assertions.assertEquals("br", brotli.getHeader("Content-Encoding"));
+        Assertions.assertEquals("brotli", brotli.getContentAsString());
+
+        request = request("js/app.js");
+        request.addHeader("Accept-Encoding", "br;q=0");
+        MockHttpServletResponse identity = handle(catalog, request);
+        Assertions.assertNull(identity.getHeader("Content-Encoding"));
+        Assertions.assertEquals(CSS, identity.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("A single byte range is served as 206 and an unsatisfiable one as 416")
+    void range_Returns_PartialContent() throws Exception {
+        write("css/app.css", CSS);
+        StaticAssetCatalog catalog = catalog(properties());
+
+        MockHttpServletRequest request = request("css/app.css");
+        request.addHeader("Range", "bytes=7-12");
+        request.addHeader("Accept-Encoding", "gzip");
+        MockHttpServletResponse partial = handle(catalog, request);
+        Assertions.assertEquals(206, partial.getStatus());
+        Assertions.assertEquals("bytes 7-12/" + CSS.length(), partial.getHeader("Content-Range"));
+        Assertions.assertNull(partial.getHeader("Content-Encoding"));
+        Assertions.assertEquals(CSS.substring(7, 13), partial.getContentAsString());
+
+        request = request("css/app.css");
+        request.addHeader("Range", "bytes=7-12");
+        request.addHeader("If-Range", "\"stale\"");
+        Assertions.assertEquals(200, handle(catalog, request).getStatus());
+
+        request = request("css/app.css");
+        request.addHeader("Range", "bytes=100000-");
+        MockHttpServletResponse unsatisfiable = handle(catalog, request);
+        Assertions.assertEquals(416, unsatisfiable.getStatus());
+        Assertions.assertEquals("bytes */" + CSS.length(), unsatisfiable.getHeader("Content-Range"));
+    }
+
+    @Test
+    @DisplayName("Files over the memory limit are handed to Tomcat sendfile or copied with transferTo")
+    void largeFile_Uses_Sendfile() throws Exception {
+        Path file = write("large.css", CSS);
+        StaticResourceProperties properties = properties();
+        properties.setMemoryMaxFileSize(DataSize.ofBytes(16));
+        StaticAssetCatalog catalog = catalog(properties);
+
+        MockHttpServletRequest request = request("large.css");
+        request.setAttribute(StaticResourceHandler.SENDFILE_SUPPORT, Boolean.TRUE);
+        request.addHeader("Range", "bytes=10-");
+        MockHttpServletResponse sendfile = handle(catalog, request);
+        Assertions.assertEquals(206, sendfile.getStatus());
+        Assertions.assertEquals(CSS.length() - 10, sendfile.getContentLengthLong());
+        Assertions.assertEquals(0, sendfile.getContentAsByteArray().length);
+        Assertions.assertEquals(file.toFile().getAbsolutePath(), request.getAttribute(StaticResourceHandler.SENDFILE_FILENAME));
+        Assertions.assertEquals(10L, request.getAttribute(StaticResourceHandler.SENDFILE_START));
+        Assertions.assertEquals((long) CSS.length(), request.getAttribute(StaticResourceHandler.SENDFILE_END));
+
+        MockHttpServletResponse copied = get(catalog, "large.css");
+        Assertions.assertEquals(CSS, copied.getContentAsString());
+        Assertions.assertEquals(0, catalog.getMemoryBytes());
+    }
+
+    private StaticResourceProperties properties() {
+        StaticResourceProperties properties = new StaticResourceProperties();
+        properties.setLocations(Collections.singletonList(root.toUri().toString()));
+        return properties;
+    }
+
+    private static StaticAssetCatalog catalog(StaticResourceProperties properties) {
+        return new StaticAssetCatalog(properties, new DefaultResourceLoader());
+    }
+
+    private Path write(String path, String content) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MockHttpServletResponse get(StaticAssetCatalog catalog, String path) throws IOException {
+        return handle(catalog, request(path));
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/resources/" + path);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, path);
+        return request;
+    }
+
+    private static MockHttpServletResponse handle(StaticAssetCatalog catalog, MockHttpServletRequest request) throws IOException {
+        StaticResourceProperties properties = new StaticResourceProperties();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new StaticResourceHandler(catalog, properties).handleRequest(request, response);
+        return response;
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+    }
+}
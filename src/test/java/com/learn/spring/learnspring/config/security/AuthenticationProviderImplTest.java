@@ -0,0 +1,165 @@
+package com.learn.spring.learnspring.config.security;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuthenticationProviderImplTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicInteger matches = new AtomicInteger();
+    /** DB 역할. 여기를 직접 바꾸면 provider를 거치지 않고 DB를 바꾼 것과 같다 */
+    private final InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(
+            User.withUsername("admin").password("secret").roles("ADMIN").build()) {
+        @Override
+        public UserDetails loadUserByUsername(String username) {
+            loads.incrementAndGet();
+            return super.loadUserByUsername(username);
+        }
+    };
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private AuthenticationProviderImpl provider;
+
+    @AfterEach
+    void tearDown() {
+        if (provider != null) {
+            provider.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Authenticated users are served from the user cache")
+    void authenticate_CachesUser() {
+        provider = provider(new AuthenticationProperties(), counting(NoOpPasswordEncoder.getInstance()));
+
+        Authentication first = provider.authenticate(token("admin", "secret"));
+        Authentication second = provider.authenticate(token("admin", "secret"));
+
+        Assertions.assertTrue(first.isAuthenticated());
+        Assertions.assertEquals("admin", second.getName());
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(2, registry.get("security.authentication").tag("result", "success").timer().count());
+    }
+
+    @Test
+    @DisplayName("Repeated bad passwords and unknown users skip hashing and lookups")
+    void authenticate_CachesFailures() {
+        provider = provider(new AuthenticationProperties(), counting(NoOpPasswordEncoder.getInstance()));
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("admin", "wrong")));
+            Assertions.assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("nobody", "wrong")));
+        }
+
+        // 해시 비교는 처음 한 번씩만(nobody는 응답 시간을 맞추기 위한 비교). admin은 비교할 해시를 알아야 하므로 매번 조회
+        Assertions.assertEquals(2, matches.get());
+        Assertions.assertEquals(4, loads.get());
+        Assertions.assertEquals(6, registry.get("security.authentication").tag("result", "bad_credentials").timer().count());
+    }
+
+    @Test
+    @DisplayName("A password changed in the database works at once, even after it was tried and cached as a failure")
+    void authenticate_Accepts_ChangedPassword() {
+        provider = provider(new AuthenticationProperties(), counting(NoOpPasswordEncoder.getInstance()));
+        provider.authenticate(token("admin", "secret"));
+        Assertions.assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("admin", "changed")));
+
+        users.updateUser(User.withUsername("admin").password("changed").roles("ADMIN").build());
+
+        Assertions.assertEquals("admin", provider.authenticate(token("admin", "changed")).getName());
+        Assertions.assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("admin", "secret")));
+    }
+
+    @Test
+    @DisplayName("Users created or changed through the provider's UserDetailsManager are not blocked by cached entries")
+    void userDetailsManager_Evicts_CachedEntries() {
+        provider = provider(new AuthenticationProperties(), counting(NoOpPasswordEncoder.getInstance()));
+        Assertions.assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("newbie", "pw")));
+
+        provider.getUserDetailsManager().createUser(User.withUsername("newbie").password("pw").roles("USER").build());
+        Assertions.assertEquals("newbie", provider.authenticate(token("newbie", "pw")).getName());
+
+        provider.getUserDetailsManager().updateUser(User.withUsername("newbie").password("pw2").roles("USER").build());
+        Assertions.assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("newbie", "pw")));
+        Assertions.assertEquals("newbie", provider.authenticate(token("newbie", "pw2")).getName());
+    }
+
+    @Test
+    @DisplayName("Logins are rejected instead of queued when the hash executor is saturated")
+    void authenticate_Rejects_WhenHashQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+        AuthenticationProperties properties = new AuthenticationProperties();
+        properties.setHashThreads(1);
+        properties.setHashQueueCapacity(1);
+        provider = provider(properties, blocking);
+
+        Thread first = new Thread(() -> provider.authenticate(token("admin", "secret")));
+        Thread second = new Thread(() -> provider.authenticate(token("admin", "secret")));
+        first.start();
+        started.await();
+        second.start();
+        while (registry.get("executor.queued").tag("name", "authentication.hash").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        Assertions.assertThrows(AuthenticationServiceException.class, () -> provider.authenticate(token("admin", "secret")));
+        release.countDown();
+        first.join();
+        second.join();
+    }
+
+    private AuthenticationProviderImpl provider(AuthenticationProperties properties, PasswordEncoder encoder) {
+        return new AuthenticationProviderImpl(users, encoder, properties, registry);
+    }
+
+    private PasswordEncoder counting(PasswordEncoder delegate) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return delegate.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                matches.incrementAndGet();
+                return delegate.matches(rawPassword, encodedPassword);
+            }
+        };
+    }
+
+    private static UsernamePasswordAuthenticationToken token(String username, String password) {
+        return new UsernamePasswordAuthenticationToken(username, password);
+    }
+}
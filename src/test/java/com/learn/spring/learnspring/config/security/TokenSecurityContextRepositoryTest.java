@@ -0,0 +1,112 @@
+package com.learn.spring.learnspring.config.security;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import javax.servlet.ServletResponseWrapper;
+import javax.servlet.http.Cookie;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+
+class TokenSecurityContextRepositoryTest {
+    private static final Instant NOW = Instant.parse("2022-01-01T00:00:00Z");
+
+    private final TokenSecurityContextProperties properties = properties();
+
+    @Test
+    @DisplayName("Saved authentication is restored from the cookie without a session")
+    void saveAndLoad_RoundTrips_ThroughCookie() {
+        TokenSecurityContextRepository repository = repository(NOW);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, new MockHttpServletResponse());
+        Assertions.assertNull(repository.loadContext(holder).getAuthentication());
+
+        repository.saveContext(context(admin()), holder.getRequest(), holder.getResponse());
+
+        String setCookie = ((MockHttpServletResponse) unwrap(holder)).getHeader("Set-Cookie");
+        Assertions.assertNotNull(setCookie);
+        Assertions.assertNull(request.getSession(false));
+
+        String token = setCookie.substring(properties.getCookieName().length() + 1, setCookie.indexOf(';'));
+        MockHttpServletRequest next = new MockHttpServletRequest();
+        next.setCookies(new Cookie(properties.getCookieName(), token));
+        Authentication loaded = repository.loadContext(new HttpRequestResponseHolder(next, new MockHttpServletResponse())).getAuthentication();
+        Assertions.assertEquals("admin", loaded.getName());
+        Assertions.assertEquals(AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER"), loaded.getAuthorities());
+        Assertions.assertTrue(repository.containsContext(next));
+    }
+
+    @Test
+    @DisplayName("Tampered and expired tokens are rejected")
+    void verify_Rejects_TamperedAndExpiredTokens() {
+        TokenSecurityContextRepository repository = repository(NOW);
+        String token = repository.issue(admin());
+        Assertions.assertNotNull(repository.verify(token));
+
+        char last = token.charAt(token.length() - 1);
+        String tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+        Assertions.assertNull(repository.verify(tampered));
+        Assertions.assertNull(repository.verify("not-a-token"));
+
+        TokenSecurityContextRepository later = repository(NOW.plus(properties.getTtl()).plusSeconds(1));
+        Assertions.assertNull(later.verify(token));
+    }
+
+    @Test
+    @DisplayName("An unchanged, fresh context is not re-issued and the header transport is echoed")
+    void saveContext_SkipsUnchangedContext_AndUsesHeader() {
+        TokenSecurityContextRepository repository = repository(NOW);
+        String token = repository.issue(admin());
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(properties.getHeaderName(), token);
+        HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, new MockHttpServletResponse());
+        SecurityContext context = repository.loadContext(holder);
+        repository.saveContext(context, holder.getRequest(), holder.getResponse());
+        Assertions.assertNull(((MockHttpServletResponse) unwrap(holder)).getHeader(properties.getHeaderName()));
+
+        HttpRequestResponseHolder changed = new HttpRequestResponseHolder(request, new MockHttpServletResponse());
+        repository.loadContext(changed);
+        repository.saveContext(context(new UsernamePasswordAuthenticationToken("other", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"))), changed.getRequest(), changed.getResponse());
+        Assertions.assertNotNull(((MockHttpServletResponse) unwrap(changed)).getHeader(properties.getHeaderName()));
+    }
+
+    private TokenSecurityContextRepository repository(Instant now) {
+        return new TokenSecurityContextRepository(properties, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static Object unwrap(HttpRequestResponseHolder holder) {
+        return ((ServletResponseWrapper) holder.getResponse()).getResponse();
+    }
+
+    private static Authentication admin() {
+        return new UsernamePasswordAuthenticationToken("admin", "secret",
+                AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER"));
+    }
+
+    private static SecurityContext context(Authentication authentication) {
+        return new SecurityContextImpl(authentication);
+    }
+
+    private static TokenSecurityContextProperties properties() {
+        TokenSecurityContextProperties properties = new TokenSecurityContextProperties();
+        properties.setSecret(Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes()));
+        properties.setTtl(Duration.ofMinutes(30));
+        properties.setRefreshBefore(Duration.ofMinutes(10));
+        return properties;
+    }
+}
@@ -0,0 +1,99 @@
+package com.learn.spring.learnspring.config.security.filters;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.header.HeaderWriter;
+import org.springframework.security.web.header.HeaderWriterFilter;
+import org.springframework.security.web.header.writers.CacheControlHeadersWriter;
+import org.springframework.security.web.header.writers.HstsHeaderWriter;
+import org.springframework.security.web.header.writers.XContentTypeOptionsHeaderWriter;
+import org.springframework.security.web.header.writers.XXssProtectionHeaderWriter;
+import org.springframework.security.web.header.writers.frameoptions.XFrameOptionsHeaderWriter;
+
+class CustomHeaderWriterFilterTest {
+    private static final List<String> HEADERS = List.of("X-Content-Type-Options", "X-XSS-Protection", "Cache-Control",
+            "Pragma", "Expires", "Strict-Transport-Security", "X-Frame-Options");
+
+    @Test
+    @DisplayName("Writes the same headers as HeaderWriterFilter")
+    void doFilter_Writes_SameHeadersAsHeaderWriterFilter() throws ServletException, IOException {
+        for (boolean secure : new boolean[]{true, false}) {
+            MockHttpServletResponse expected = filter(new HeaderWriterFilter(defaultWriters()), secure);
+            MockHttpServletResponse actual = filter(new CustomHeaderWriterFilter(defaultWriters()), secure);
+            for (String header : HEADERS) {
+                Assertions.assertEquals(expected.getHeaders(header), actual.getHeaders(header), header);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Headers set or added by the application end up the same as with HeaderWriterFilter")
+    void doFilter_Matches_HeaderWriterFilter_WithApplicationHeaders() throws ServletException, IOException {
+        FilterChain chain = (req, res) -> {
+            ((HttpServletResponse) res).setHeader("Cache-Control", "max-age=60");
+            ((HttpServletResponse) res).addHeader("X-Frame-Options", "SAMEORIGIN");
+            res.flushBuffer();
+        };
+        MockHttpServletResponse expected = new MockHttpServletResponse();
+        new HeaderWriterFilter(defaultWriters()).doFilter(new MockHttpServletRequest(), expected, chain);
+        MockHttpServletResponse actual = new MockHttpServletResponse();
+        new CustomHeaderWriterFilter(defaultWriters()).doFilter(new MockHttpServletRequest(), actual, chain);
+        for (String header : HEADERS) {
+            Assertions.assertEquals(expected.getHeaders(header), actual.getHeaders(header), header);
+        }
+        Assertions.assertEquals(List.of("max-age=60"), actual.getHeaders("Cache-Control"));
+    }
+
+    @Test
+    @DisplayName("Static headers are written after response.reset()")
+    void doFilter_Writes_StaticHeaders_AfterReset() throws ServletException, IOException {
+        CustomHeaderWriterFilter filter = new CustomHeaderWriterFilter(defaultWriters());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), response, (req, res) -> {
+            ((HttpServletResponse) res).setHeader("X-Custom", "value");
+            res.reset();
+            res.flushBuffer();
+        });
+        Assertions.assertNull(response.getHeader("X-Custom"));
+        Assertions.assertEquals("nosniff", response.getHeader("X-Content-Type-Options"));
+        Assertions.assertEquals("DENY", response.getHeader("X-Frame-Options"));
+    }
+
+    @Test
+    @DisplayName("Writers run in the configured order, so a later writer overrides an earlier one")
+    void doFilter_Runs_WritersInOrder() throws ServletException, IOException {
+        HeaderWriter sameOrigin = (request, response) -> response.setHeader("X-Frame-Options", "SAMEORIGIN");
+        for (Filter filter : List.of(new HeaderWriterFilter(List.of(new XFrameOptionsHeaderWriter(), sameOrigin)),
+                new CustomHeaderWriterFilter(List.of(new XFrameOptionsHeaderWriter(), sameOrigin)))) {
+            Assertions.assertEquals(List.of("SAMEORIGIN"), filter(filter, false).getHeaders("X-Frame-Options"));
+        }
+    }
+
+    private static MockHttpServletResponse filter(Filter filter, boolean secure) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setSecure(secure);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> res.flushBuffer());
+        return response;
+    }
+
+    private static List<HeaderWriter> defaultWriters() {
+        return List.of(
+                new XContentTypeOptionsHeaderWriter(),
+                new XXssProtectionHeaderWriter(),
+                new CacheControlHeadersWriter(),
+                new HstsHeaderWriter(),
+                new XFrameOptionsHeaderWriter());
+    }
+}
@@ -0,0 +1,167 @@
+package com.learn.spring.learnspring.config.security.filters;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+
+import com.learn.spring.learnspring.config.security.RateLimitProperties;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimitingFilterTest {
+
+    @Test
+    @DisplayName("Token bucket allows a burst of capacity and refills over time")
+    void tokenBucket_Allows_CapacityThenRefills() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(3, 10, now);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(0, bucket.tryAcquire(now));
+        }
+        Assertions.assertTrue(bucket.tryAcquire(now) > 0);
+        Assertions.assertEquals(0, bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
+    @Test
+    @DisplayName("Requests over the bucket are rejected with 429 before the chain runs")
+    void doFilter_Rejects_WhenBucketEmpty() throws ServletException, IOException {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setPatterns(List.of("/api/**"));
+        rule.setCapacity(2);
+        rule.setRefillPerSecond(0.001);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RateLimitingFilter filter = new RateLimitingFilter(properties(rule), registry);
+        AtomicInteger calls = new AtomicInteger();
+        FilterChain chain = (req, res) -> calls.incrementAndGet();
+
+        int[] statuses = new int[3];
+        for (int i = 0; i < statuses.length; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request("/api/export/test-table", "10.0.0.1"), response, chain);
+            statuses[i] = response.getStatus();
+        }
+        Assertions.assertArrayEquals(new int[]{200, 200, 429}, statuses);
+        Assertions.assertEquals(2, calls.get());
+        Assertions.assertEquals(1.0, registry.get("security.ratelimit.rejected").tag("reason", "rate").counter().count());
+
+        // 다른 클라이언트, 규칙에 맞지 않는 경로는 영향 없음
+        MockHttpServletResponse other = new MockHttpServletResponse();
+        filter.doFilter(request("/api/export/test-table", "10.0.0.2"), other, chain);
+        Assertions.assertEquals(200, other.getStatus());
+        MockHttpServletResponse home = new MockHttpServletResponse();
+        filter.doFilter(request("/home", "10.0.0.1"), home, chain);
+        Assertions.assertEquals(200, home.getStatus());
+    }
+
+    @Test
+    @DisplayName("Requests over the concurrency limit are rejected with 503")
+    void doFilter_Rejects_WhenConcurrencyLimitReached() throws ServletException, IOException {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setPatterns(List.of("/api/**"));
+        rule.getConcurrency().setEnabled(true);
+        rule.getConcurrency().setInitialLimit(1);
+        rule.getConcurrency().setMinLimit(1);
+        RateLimitingFilter filter = new RateLimitingFilter(properties(rule), new SimpleMeterRegistry());
+
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        // 첫 요청이 처리되는 동안 들어온 두 번째 요청
+        filter.doFilter(request("/api/a", "10.0.0.1"), outer,
+                (req, res) -> filter.doFilter(request("/api/b", "10.0.0.2"), nested, (r, s) -> { }));
+        Assertions.assertEquals(200, outer.getStatus());
+        Assertions.assertEquals(503, nested.getStatus());
+        Assertions.assertEquals("1", nested.getHeader("Retry-After"));
+
+        // 반납 후에는 다시 허용
+        MockHttpServletResponse after = new MockHttpServletResponse();
+        filter.doFilter(request("/api/a", "10.0.0.1"), after, (req, res) -> { });
+        Assertions.assertEquals(200, after.getStatus());
+    }
+
+    @Test
+    @DisplayName("Concurrency limit shrinks when latency grows and on errors")
+    void limiter_Shrinks_OnLatencyAndErrors() {
+        RateLimitProperties.Concurrency concurrency = new RateLimitProperties.Concurrency();
+        concurrency.setInitialLimit(100);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(concurrency);
+        saturate(limiter, TimeUnit.MILLISECONDS.toNanos(10), 50);
+        int baseline = limiter.getLimit();
+        saturate(limiter, TimeUnit.MILLISECONDS.toNanos(100), 1);
+        Assertions.assertTrue(limiter.getLimit() < baseline, limiter.getLimit() + " < " + baseline);
+
+        int beforeError = limiter.getLimit();
+        Assertions.assertTrue(limiter.tryAcquire());
+        limiter.onComplete(1, true);
+        Assertions.assertTrue(limiter.getLimit() < beforeError);
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Basic user name is read without touching the password")
+    void basicUsername_Reads_HeaderUser() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        Assertions.assertNull(RateLimitingFilter.basicUsername(request));
+        request.addHeader("Authorization", "Basic " + Base64.getEncoder().encodeToString("admin:secret".getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals("admin", RateLimitingFilter.basicUsername(request));
+    }
+
+    @Test
+    @DisplayName("Principal keys tie the unverified user name to the remote address")
+    void principalKey_Binds_UserToRemoteAddress() {
+        MockHttpServletRequest anonymous = new MockHttpServletRequest();
+        anonymous.setRemoteAddr("10.0.0.1");
+        Assertions.assertEquals("c:10.0.0.1", RateLimitingFilter.principalKey(anonymous));
+
+        MockHttpServletRequest victim = basicRequest("10.0.0.1", "admin");
+        MockHttpServletRequest forged = basicRequest("10.0.0.2", "admin");
+        Assertions.assertNotEquals(RateLimitingFilter.principalKey(victim), RateLimitingFilter.principalKey(forged));
+        Assertions.assertEquals(RateLimitingFilter.principalKey(victim), RateLimitingFilter.principalKey(basicRequest("10.0.0.1", "admin")));
+    }
+
+    private static MockHttpServletRequest basicRequest(String remoteAddr, String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader("Authorization", "Basic " + Base64.getEncoder().encodeToString((username + ":secret").getBytes(StandardCharsets.UTF_8)));
+        return request;
+    }
+
+    /**
+     * 한도를 꽉 채운 상태에서 요청 하나씩 완료시킨다(여유가 있을 때는 limit을 갱신하지 않으므로)
+     */
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.onComplete(rttNanos, false);
+            }
+        }
+    }
+
+    private static RateLimitProperties properties(RateLimitProperties.Rule rule) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getRules().put("test", rule);
+        return properties;
+    }
+
+    private static MockHttpServletRequest request(String path, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
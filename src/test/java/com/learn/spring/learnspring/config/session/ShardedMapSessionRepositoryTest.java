@@ -0,0 +1,179 @@
+package com.learn.spring.learnspring.config.session;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.learn.spring.learnspring.config.session.ShardedMapSessionRepository.ShardedSession;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.web.http.SessionRepositoryFilter;
+import org.springframework.util.unit.DataSize;
+
+class ShardedMapSessionRepositoryTest {
+    private static final Instant NOW = Instant.parse("2022-01-01T00:00:00Z");
+
+    private final MutableClock clock = new MutableClock(NOW);
+
+    @Test
+    @DisplayName("Concurrent saves of the same session keep attributes changed by either request")
+    void save_Merges_ChangedAttributesOnly() {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            ShardedMapSessionRepository repository = repository(offHeap);
+            ShardedSession session = repository.createSession();
+            session.setAttribute("a", "1");
+            session.setAttribute("b", 2L);
+            repository.save(session);
+
+            ShardedSession first = repository.findById(session.getId());
+            ShardedSession second = repository.findById(session.getId());
+            first.setAttribute("a", "changed");
+            second.setAttribute("c", true);
+            second.removeAttribute("b");
+            repository.save(first);
+            repository.save(second);
+
+            ShardedSession loaded = repository.findById(session.getId());
+            Assertions.assertEquals("changed", loaded.getAttribute("a"));
+            Assertions.assertNull(loaded.getAttribute("b"));
+            Assertions.assertEquals(Boolean.TRUE, loaded.getAttribute("c"));
+        }
+    }
+
+    @Test
+    @DisplayName("Timer wheel expires idle sessions and keeps touched ones")
+    void expireSessions_Removes_OnlyIdleSessions() {
+        ShardedMapSessionRepository repository = repository(false);
+        ShardedSession idle = repository.createSession();
+        idle.setMaxInactiveInterval(Duration.ofSeconds(10));
+        idle.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "idle-user");
+        repository.save(idle);
+        ShardedSession touched = repository.createSession();
+        touched.setMaxInactiveInterval(Duration.ofSeconds(10));
+        repository.save(touched);
+
+        clock.advance(Duration.ofSeconds(9));
+        Assertions.assertEquals(0, repository.expireSessions());
+        ShardedSession access = repository.findById(touched.getId());
+        access.setLastAccessedTime(clock.instant());
+        repository.save(access);
+
+        clock.advance(Duration.ofSeconds(2));
+        Assertions.assertEquals(1, repository.expireSessions());
+        Assertions.assertNull(repository.findById(idle.getId()));
+        Assertions.assertNotNull(repository.findById(touched.getId()));
+        Assertions.assertTrue(repository.findByIndexNameAndIndexValue(
+                FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "idle-user").isEmpty());
+
+        clock.advance(Duration.ofSeconds(9));
+        Assertions.assertEquals(1, repository.expireSessions());
+        Assertions.assertEquals(0, repository.getSessionCount());
+    }
+
+    @Test
+    @DisplayName("Principal index follows session id changes and deletes")
+    void principalIndex_Follows_ChangeSessionIdAndDelete() {
+        ShardedMapSessionRepository repository = repository(true);
+        ShardedSession session = repository.createSession();
+        session.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "user");
+        repository.save(session);
+        String originalId = session.getId();
+
+        ShardedSession loaded = repository.findById(originalId);
+        String newId = loaded.changeSessionId();
+        repository.save(loaded);
+
+        Assertions.assertNull(repository.findById(originalId));
+        Assertions.assertEquals(List.of(newId), List.copyOf(repository.findByIndexNameAndIndexValue(
+                FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "user").keySet()));
+        repository.deleteById(newId);
+        Assertions.assertTrue(repository.findByIndexNameAndIndexValue(
+                FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "user").isEmpty());
+        Assertions.assertEquals(0, repository.getOffHeapUsedBytes());
+    }
+
+    @Test
+    @DisplayName("HttpSessionSecurityContextRepository stores the SecurityContext through SessionRepositoryFilter")
+    void securityContext_RoundTrips_ThroughSessionRepositoryFilter() throws Exception {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            ShardedMapSessionRepository repository = repository(offHeap);
+            SessionRepositoryFilter<ShardedSession> filter = new SessionRepositoryFilter<>(repository);
+            HttpSessionSecurityContextRepository contexts = new HttpSessionSecurityContextRepository();
+
+            MockHttpServletResponse loginResponse = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest(), loginResponse, (request, response) -> {
+                HttpRequestResponseHolder holder = new HttpRequestResponseHolder((HttpServletRequest) request, (HttpServletResponse) response);
+                contexts.loadContext(holder);
+                SecurityContext context = new SecurityContextImpl(new UsernamePasswordAuthenticationToken(
+                        "user", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+                contexts.saveContext(context, holder.getRequest(), holder.getResponse());
+            });
+            Cookie cookie = loginResponse.getCookie("SESSION");
+            Assertions.assertNotNull(cookie);
+
+            MockHttpServletRequest next = new MockHttpServletRequest();
+            next.setCookies(cookie);
+            SecurityContext[] loaded = new SecurityContext[1];
+            filter.doFilter(next, new MockHttpServletResponse(), (request, response) -> loaded[0] = contexts.loadContext(
+                    new HttpRequestResponseHolder((HttpServletRequest) request, (HttpServletResponse) response)));
+
+            Assertions.assertEquals("user", loaded[0].getAuthentication().getName());
+            Assertions.assertEquals(1, repository.findByIndexNameAndIndexValue(
+                    FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "user").size());
+        }
+    }
+
+    private ShardedMapSessionRepository repository(boolean offHeap) {
+        SessionStoreProperties properties = new SessionStoreProperties();
+        properties.setShards(4);
+        properties.getOffHeap().setEnabled(offHeap);
+        properties.getOffHeap().setSlabSize(DataSize.ofKilobytes(64));
+        properties.getOffHeap().setMaxSize(DataSize.ofMegabytes(1));
+        return new ShardedMapSessionRepository(properties, clock, getClass().getClassLoader());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
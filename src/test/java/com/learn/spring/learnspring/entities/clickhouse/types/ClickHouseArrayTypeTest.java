@@ -0,0 +1,73 @@
+package com.learn.spring.learnspring.entities.clickhouse.types;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import com.learn.spring.learnspring.entities.clickhouse.types.ClickHouseArrayType.Element;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ClickHouseArrayTypeTest {
+    @Test
+    @DisplayName("Primitive and boxed driver arrays decode into primitive-backed lists")
+    void decode_Returns_PrimitiveLists() throws SQLException {
+        List<?> int8 = ClickHouseArrayType.decode(Element.INT8, new byte[]{1, -2, 3});
+        Assertions.assertTrue(int8 instanceof ShortArrayList);
+        Assertions.assertEquals(List.of((short) 1, (short) -2, (short) 3), int8);
+
+        List<?> int16 = ClickHouseArrayType.decode(Element.INT16, new short[]{100, 1000});
+        Assertions.assertTrue(int16 instanceof IntArrayList);
+        Assertions.assertEquals(List.of(100, 1000), int16);
+
+        Assertions.assertEquals(List.of(7, 8), ClickHouseArrayType.decode(Element.INT32, new Object[]{7L, 8L}));
+        Assertions.assertEquals(List.of("a", "b"), ClickHouseArrayType.decode(Element.STRING, new String[]{"a", "b"}));
+    }
+
+    @Test
+    @DisplayName("Nested Array(Array(T)) values decode element by element")
+    void decode_Nested() throws SQLException {
+        List<?> int16Arrays = ClickHouseArrayType.decode(Element.ARRAY_INT16, new Object[]{new short[]{1, 2}, new short[0]});
+        Assertions.assertEquals(List.of(List.of(1, 2), List.of()), int16Arrays);
+        Assertions.assertTrue(int16Arrays.get(0) instanceof IntArrayList);
+
+        List<?> stringArrays = ClickHouseArrayType.decode(Element.ARRAY_STRING, new String[][]{{"a", "b"}, {}});
+        Assertions.assertEquals(List.of(List.of("a", "b"), List.of()), stringArrays);
+    }
+
+    @Test
+    @DisplayName("Encoding produces arrays sized for setObject")
+    void encode_Returns_PrimitiveArrays() {
+        Assertions.assertArrayEquals(new short[]{1, 2},
+                (short[]) ClickHouseArrayType.encode(Element.INT8, Arrays.asList((short) 1, (short) 2)));
+        Assertions.assertArrayEquals(new int[]{100, 1000},
+                (int[]) ClickHouseArrayType.encode(Element.INT16, IntArrayList.wrap(new int[]{100, 1000})));
+        Assertions.assertArrayEquals(new String[]{"x"}, (String[]) ClickHouseArrayType.encode(Element.STRING, List.of("x")));
+
+        Object[] nested = (Object[]) ClickHouseArrayType.encode(Element.ARRAY_INT16, Arrays.asList(List.of(1, 2), null));
+        Assertions.assertArrayEquals(new int[]{1, 2}, (int[]) nested[0]);
+        Assertions.assertArrayEquals(new int[0], (int[]) nested[1]);
+    }
+
+    @Test
+    @DisplayName("deepCopy keeps decoded values and snapshots mutable lists")
+    void deepCopy_Snapshots_MutableLists() {
+        ClickHouseArrayType type = new ClickHouseArrayType();
+        Properties parameters = new Properties();
+        parameters.setProperty(ClickHouseArrayType.ELEMENT, Element.INT16.name());
+        type.setParameterValues(parameters);
+
+        IntArrayList decoded = IntArrayList.wrap(new int[]{1, 2});
+        Assertions.assertSame(decoded, type.deepCopy(decoded));
+
+        List<Integer> mutable = new ArrayList<>(List.of(1, 2));
+        Object snapshot = type.deepCopy(mutable);
+        mutable.add(3);
+        Assertions.assertFalse(type.equals(mutable, snapshot));
+        Assertions.assertTrue(type.equals(decoded, snapshot));
+    }
+}
@@ -0,0 +1,109 @@
+package com.learn.spring.learnspring.entities.clickhouse.types;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import com.learn.spring.learnspring.repository.clickhouse.rowbinary.ClickHouseRowBinaryBuffer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class WideIntegerTest {
+    private static final BigInteger INT128_MAX = BigInteger.ONE.shiftLeft(127).subtract(BigInteger.ONE);
+    private static final BigInteger INT256_MIN = BigInteger.ONE.shiftLeft(255).negate();
+
+    @Test
+    @DisplayName("Parsing, BigInteger and little-endian bytes agree for random and boundary values")
+    void parse_Matches_BigInteger() {
+        Random random = new Random(42);
+        for (int bits : new int[]{128, 256}) {
+            for (int i = 0; i < 1000; i++) {
+                BigInteger expected = new BigInteger(random.nextInt(bits), random);
+                if (random.nextBoolean()) {
+                    expected = expected.negate();
+                }
+                assertRoundTrip(expected, bits);
+            }
+        }
+        assertRoundTrip(INT128_MAX, 128);
+        assertRoundTrip(INT128_MAX.add(BigInteger.ONE).negate(), 128);
+        assertRoundTrip(INT256_MIN, 256);
+        assertRoundTrip(BigInteger.ZERO, 256);
+    }
+
+    @Test
+    @DisplayName("Values outside the column width are rejected")
+    void parse_Rejects_Overflow() {
+        Assertions.assertThrows(ArithmeticException.class, () -> WideInteger.parse(INT128_MAX.add(BigInteger.ONE).toString(), 128));
+        Assertions.assertThrows(ArithmeticException.class, () -> WideInteger.fromBigInteger(INT256_MIN.subtract(BigInteger.ONE), 256));
+        Assertions.assertThrows(NumberFormatException.class, () -> WideInteger.parse("12a", 128));
+        Assertions.assertThrows(NumberFormatException.class, () -> WideInteger.parse("-", 128));
+    }
+
+    @Test
+    @DisplayName("Decimals keep ClickHouse scale and truncate extra digits")
+    void decimalParse_Matches_BigDecimal() {
+        Assertions.assertEquals(new BigDecimal("0.3").setScale(76), WideDecimal.parse("0.3", 76, 256).toBigDecimal());
+        Assertions.assertEquals(new BigDecimal("-12.345"), WideDecimal.parse("-12.34567", 3, 128).toBigDecimal());
+        Assertions.assertEquals(new BigDecimal("100.000"), WideDecimal.parse("1E2", 3, 128).toBigDecimal());
+        Assertions.assertEquals(WideDecimal.fromBigDecimal(new BigDecimal("0.99999999999999"), 38, 128),
+                WideDecimal.parse("0.99999999999999", 38, 128));
+        Assertions.assertThrows(NumberFormatException.class, () -> WideDecimal.parse(".", 3, 128));
+    }
+
+    @Test
+    @DisplayName("RowBinary output is the same as the BigInteger path")
+    void writeWideInteger_Matches_WriteBigInteger() {
+        for (BigInteger value : new BigInteger[]{INT128_MAX, BigInteger.valueOf(-2), BigInteger.ZERO}) {
+            ClickHouseRowBinaryBuffer expected = new ClickHouseRowBinaryBuffer(64);
+            expected.writeBigInteger(value, 32);
+            ClickHouseRowBinaryBuffer actual = new ClickHouseRowBinaryBuffer(64);
+            actual.writeWideInteger(WideInteger.fromBigInteger(value, 128), 32);
+            Assertions.assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        }
+        ClickHouseRowBinaryBuffer narrow = new ClickHouseRowBinaryBuffer(64);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> narrow.writeWideInteger(WideInteger.fromBigInteger(INT256_MIN, 256), 16));
+    }
+
+    @Test
+    @DisplayName("A value wrapped from a BigInteger compares, hashes and serializes like one built from limbs")
+    void fromBigInteger_Matches_LimbValue() throws Exception {
+        for (BigInteger value : new BigInteger[]{INT128_MAX, BigInteger.valueOf(-2), BigInteger.ZERO, INT128_MAX.negate()}) {
+            WideInteger wrapped = WideInteger.fromBigInteger(value, 128);
+            WideInteger parsed = WideInteger.parse(value.toString(), 128);
+            Assertions.assertEquals(parsed.hashCode(), wrapped.hashCode());
+            Assertions.assertEquals(parsed, wrapped);
+            Assertions.assertEquals(0, parsed.compareTo(WideInteger.fromBigInteger(value, 128)));
+            Assertions.assertEquals(value.signum(), WideInteger.fromBigInteger(value, 128).signum());
+            Assertions.assertNotEquals(WideInteger.fromBigInteger(value, 256), wrapped);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(WideInteger.fromBigInteger(value, 128));
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                WideInteger copy = (WideInteger) in.readObject();
+                Assertions.assertEquals(128, copy.bits());
+                Assertions.assertEquals(value, copy.toBigInteger());
+            }
+        }
+    }
+
+    private static void assertRoundTrip(BigInteger expected, int bits) {
+        WideInteger parsed = WideInteger.parse(expected.toString(), bits);
+        Assertions.assertEquals(expected, parsed.toBigInteger());
+        Assertions.assertEquals(expected.toString(), parsed.toString());
+        Assertions.assertEquals(WideInteger.fromBigInteger(expected, bits), parsed);
+
+        ClickHouseRowBinaryBuffer buffer = new ClickHouseRowBinaryBuffer(64);
+        buffer.writeWideInteger(parsed, bits >> 3);
+        Assertions.assertEquals(parsed, WideInteger.fromLittleEndian(buffer.toByteArray(), 0, bits));
+    }
+}
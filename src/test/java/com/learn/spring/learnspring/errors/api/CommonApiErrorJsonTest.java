@@ -0,0 +1,42 @@
+package com.learn.spring.learnspring.errors.api;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * - CommonApiError 생성자가 패키지 범위라서 같은 패키지에 둔다
+ */
+class CommonApiErrorJsonTest {
+
+    @Test
+    @DisplayName("CommonApiError keeps the @JsonFormat timestamp pattern")
+    void timestamp_Uses_JsonFormatPattern() throws Exception {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+        String json = mapper.writeValueAsString(error());
+
+        Assertions.assertEquals("{\"status\":\"BAD_REQUEST\",\"timestamp\":\"02-01-2022 03:04:05\","
+                + "\"message\":\"Malformed JSON request\",\"debugMessage\":\"Unexpected character ('}' (code 125))\","
+                + "\"subErrors\":[{\"object\":\"user\",\"field\":\"age\",\"rejectedValue\":-1,\"message\":\"must be positive\"},"
+                + "{\"object\":\"user\",\"field\":null,\"rejectedValue\":null,\"message\":\"invalid\"}]}", json);
+    }
+
+    private static CommonApiError error() {
+        CommonApiError error = new CommonApiError(HttpStatus.BAD_REQUEST, "Malformed JSON request",
+                new IllegalArgumentException("Unexpected character ('}' (code 125))"));
+        error.setTimestamp(LocalDateTime.of(2022, 1, 2, 15, 4, 5));
+        List<CommonApiSubError> subErrors = Arrays.asList(
+                new CommonApiValidationError("user", "age", -1, "must be positive"),
+                new CommonApiValidationError("user", "invalid"));
+        error.setSubErrors(subErrors);
+        return error;
+    }
+}
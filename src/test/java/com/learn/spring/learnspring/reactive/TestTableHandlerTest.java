@@ -0,0 +1,51 @@
+package com.learn.spring.learnspring.reactive;
+
+import com.learn.spring.learnspring.entities.clickhouse.TestTableEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Flux;
+
+class TestTableHandlerTest {
+    private final ReactiveTestTableRepository repository = Mockito.mock(ReactiveTestTableRepository.class);
+    private final WebTestClient client = WebTestClient
+            .bindToRouterFunction(new ReactiveApiConfig().routes(new TestTableHandler(repository)))
+            .build();
+
+    @Test
+    @DisplayName("Streams rows as NDJSON")
+    void findById_Streams_Ndjson() {
+        Mockito.when(repository.findById(-1)).thenReturn(Flux.just(entity(-1, "a"), entity(-1, "b")));
+
+        client.get().uri("/api/test-table/-1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(TestTableEntity.class).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Rejects ids outside Int8 and limits outside the allowed range")
+    void invalidParameters_Return_BadRequest() {
+        client.get().uri("/api/test-table/128").exchange().expectStatus().isBadRequest();
+        client.get().uri("/api/test-table?limit=0").exchange().expectStatus().isBadRequest();
+        client.get().uri("/api/test-table?limit=" + (TestTableHandler.MAX_LIMIT + 1)).exchange().expectStatus().isBadRequest();
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Home answers like MainController")
+    void home_Returns_Accepted() {
+        client.get().uri("/home").exchange().expectStatus().isAccepted().expectBody(String.class).isEqualTo("ACCEPTED");
+    }
+
+    private static TestTableEntity entity(int id, String value) {
+        TestTableEntity entity = new TestTableEntity();
+        entity.setId(id);
+        entity.setCString(value);
+        return entity;
+    }
+}
@@ -0,0 +1,49 @@
+package com.learn.spring.learnspring.reactive;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.spring.learnspring.entities.clickhouse.TestTableColumn;
+import com.learn.spring.learnspring.entities.clickhouse.TestTableEntity;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TestTableJsonRowMapperTest {
+
+    @Test
+    @DisplayName("Maps a JSONEachRow row with quoted 64-bit integers and decimals")
+    void map_Reads_ClickHouseJsonRepresentation() throws Exception {
+        JsonNode row = new ObjectMapper().readTree("{"
+                + "\"c_int8\":-1,\"c_int16\":2,\"c_int32\":3,\"c_int64\":\"9223372036854775807\","
+                + "\"c_int128\":\"170141183460469231731687303715884105727\",\"c_int256\":\"-5\","
+                + "\"c_float32\":0.5,\"c_float64\":0.25,"
+                + "\"c_decimal32_9\":\"0.999900000\",\"c_decimal64_18\":\"0.1\",\"c_decimal128_38\":\"0.2\",\"c_decimal256_76\":\"0.3\","
+                + "\"c_string\":\"string 1\",\"c_fixedstring\":\"fs\\u0000\\u0000\","
+                + "\"c_date\":\"2022-01-01\",\"c_date32\":\"2022-01-02\","
+                + "\"c_datetime\":\"2022-01-01 01:02:03\",\"c_datetime64\":\"2022-01-01 01:02:03.456\","
+                + "\"c_array_int8\":[1,2,3],\"c_array_int16\":[100,1000],\"c_array_string\":[\"a\",\"b\"]}");
+
+        TestTableEntity entity = TestTableJsonRowMapper.map(row, Arrays.asList(TestTableColumn.values()));
+
+        Assertions.assertEquals(-1, entity.getId());
+        Assertions.assertEquals(Long.MAX_VALUE, entity.getCInt64());
+        Assertions.assertEquals(new BigInteger("170141183460469231731687303715884105727"), entity.getCInt128().toBigInteger());
+        Assertions.assertEquals(BigInteger.valueOf(-5), entity.getCInt256().toBigInteger());
+        Assertions.assertEquals(0.25, entity.getCFloat64());
+        Assertions.assertEquals(new BigDecimal("0.3").setScale(76), entity.getCDecimal25676().toBigDecimal());
+        Assertions.assertEquals(new BigDecimal("0.999900000"), entity.getCDecimal329());
+        Assertions.assertEquals("fs", entity.getCFixedstring());
+        Assertions.assertEquals(LocalDateTime.of(2022, 1, 2, 0, 0), entity.getCDate32());
+        Assertions.assertEquals(LocalDateTime.of(2022, 1, 1, 1, 2, 3), entity.getCDatetime());
+        Assertions.assertEquals(LocalDateTime.of(2022, 1, 1, 1, 2, 3, 456_000_000), entity.getCDatetime64());
+        Assertions.assertEquals(List.of((short) 1, (short) 2, (short) 3), entity.getCArrayInt8());
+        Assertions.assertEquals(List.of(100, 1000), entity.getCArrayInt16());
+        Assertions.assertEquals(List.of("a", "b"), entity.getCArrayString());
+    }
+}
@@ -0,0 +1,67 @@
+package com.learn.spring.learnspring.repository.clickhouse.aggregation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.learn.spring.learnspring.entities.clickhouse.TestTableColumn;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TestTableAggregationTest {
+
+    @Test
+    @DisplayName("Group keys, aggregates and filters compile to one ClickHouse query")
+    void compile_Builds_GroupByQuery() {
+        List<Object> params = new ArrayList<>();
+        String sql = new TestTableAggregation()
+                .where(TestTableColumn.C_INT8, TestTableAggregation.Operator.EQ, -1)
+                .where(TestTableColumn.C_STRING, TestTableAggregation.Operator.IN, List.of("a", "b"))
+                .groupBy(TestTableColumn.C_INT16, TestTableColumn.C_DATE)
+                .count()
+                .sum(TestTableColumn.C_INT32)
+                .avg(TestTableColumn.C_FLOAT64)
+                .quantile(0.99, TestTableColumn.C_DECIMAL64_18)
+                .uniq(TestTableColumn.C_STRING)
+                .limit(100)
+                .compile(params);
+
+        Assertions.assertEquals("SELECT c_int16, toInt32(c_date), count(), toInt64(sum(c_int32)), toFloat64(avg(c_float64)),"
+                + " toFloat64(quantile(0.99)(c_decimal64_18)), uniq(c_string) FROM test_db.test_table"
+                + " WHERE c_int8 = ? AND c_string IN (?, ?)"
+                + " GROUP BY c_int16, toInt32(c_date) ORDER BY c_int16, toInt32(c_date) LIMIT 100", sql);
+        Assertions.assertEquals(List.of(-1, "a", "b"), params);
+    }
+
+    @Test
+    @DisplayName("An arrayJoin column refers to the array element in the same query")
+    void compile_Expands_ArrayJoinColumn() {
+        List<Object> params = new ArrayList<>();
+        String sql = new TestTableAggregation()
+                .arrayJoin(TestTableColumn.C_ARRAY_INT16)
+                .where(TestTableColumn.C_ARRAY_INT16, TestTableAggregation.Operator.GT, 0)
+                .groupBy(TestTableColumn.C_ARRAY_INT16)
+                .max(TestTableColumn.C_INT64)
+                .compile(params);
+
+        Assertions.assertEquals("SELECT c_array_int16_element, toInt64(max(c_int64)) FROM test_db.test_table"
+                + " ARRAY JOIN c_array_int16 AS c_array_int16_element WHERE c_array_int16_element > ?"
+                + " GROUP BY c_array_int16_element ORDER BY c_array_int16_element", sql);
+    }
+
+    @Test
+    @DisplayName("Unsupported keys and aggregates are rejected before any query runs")
+    void compile_Rejects_InvalidColumns() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TestTableAggregation().groupBy(TestTableColumn.C_ARRAY_STRING).count().compile(new ArrayList<>()));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TestTableAggregation().groupBy(TestTableColumn.C_FLOAT64).count().compile(new ArrayList<>()));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TestTableAggregation().sum(TestTableColumn.C_STRING).compile(new ArrayList<>()));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TestTableAggregation().quantile(1.5, TestTableColumn.C_INT32));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TestTableAggregation().where(TestTableColumn.C_INT8, TestTableAggregation.Operator.IN, List.of()));
+    }
+}
@@ -0,0 +1,145 @@
+package com.learn.spring.learnspring.repository.clickhouse.columnar;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import com.learn.spring.learnspring.config.cache.ClickhouseCacheConfig;
+import com.learn.spring.learnspring.entities.clickhouse.TestTableColumn;
+import com.learn.spring.learnspring.entities.clickhouse.TestTableEntity;
+import com.learn.spring.learnspring.repository.clickhouse.TestTableRepository;
+import com.learn.spring.learnspring.service.clickhouse.TestTableIngestionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * # JPA findById와 columnar 조회 비교
+ * - 실행: ./gradlew throughputTest
+ * - c_int8 = -128 행 ROWS건을 직접 적재해서 읽고 끝나면 지운다. 다른 테스트가 남긴 행에 기대지 않는다
+ * - 현재 스레드가 할당한 바이트 수는 com.sun.management.ThreadMXBean으로 잰다
+ * - findById()는 캐시되므로 매 회차 캐시를 비우고 ClickHouse 조회 비용을 잰다
+ * - 적재한 행이 모두 같은 @Id(c_int8)라 JPA는 영속성 컨텍스트에서 첫 엔티티 하나를 ROWS번 돌려준다
+ *   - JPA 결과로는 행 수만 확인하고, 값은 적재한 값에서 계산한 기댓값과 columnar 결과를 비교한다
+ *   - JPA 쪽은 엔티티를 한 번만 만들므로 시간/할당 비교는 JPA에 유리한 쪽으로 치우친다
+ */
+@Tag("throughput")
+@SpringBootTest
+@ActiveProfiles({"dev"})
+class TestTableColumnarReaderTest {
+    private static final int ID = -128;
+    private static final int ROWS = 8_000;
+    private static final int ROUNDS = 20;
+    private static final List<TestTableColumn> COLUMNS = List.of(
+            TestTableColumn.C_INT8, TestTableColumn.C_INT16, TestTableColumn.C_INT32, TestTableColumn.C_INT64,
+            TestTableColumn.C_FLOAT32, TestTableColumn.C_FLOAT64, TestTableColumn.C_ARRAY_INT8, TestTableColumn.C_ARRAY_INT16);
+
+    @Autowired
+    private TestTableRepository testTableRepository;
+    @Autowired
+    private TestTableColumnarReader columnarReader;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private TestTableIngestionService ingestionService;
+    @Autowired
+    @Qualifier("clickhouseDataSource")
+    private DataSource dataSource;
+
+    @BeforeEach
+    void insertFixtureRows() throws SQLException {
+        deleteFixtureRows();
+        for (int i = 0; i < ROWS; i++) {
+            TestTableEntity entity = new TestTableEntity();
+            entity.setId(ID);
+            entity.setCInt16(i & 0x7FFF);
+            entity.setCInt32(i);
+            entity.setCInt64((long) i << 20);
+            entity.setCFloat32(i / 3f);
+            entity.setCFloat64(i / 7d);
+            entity.setCArrayInt8(Arrays.asList((short) 1, (short) 2, (short) 3));
+            entity.setCArrayInt16(Arrays.asList(i & 0x7FFF, 1000));
+            ingestionService.add(entity);
+        }
+        ingestionService.flush();
+    }
+
+    @AfterEach
+    void deleteFixtureRows() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE test_db.test_table DELETE WHERE c_int8 = " + ID + " SETTINGS mutations_sync = 2");
+        }
+    }
+
+    @Test
+    @DisplayName("Columnar scan returns the same rows as JPA with less time and allocation")
+    void columnarScan_Outperforms_Jpa() {
+        long jpaRows = 0;
+        long columnarRows = 0;
+        AtomicLong columnarSum = new AtomicLong();
+
+        // 워밍업
+        testTableRepository.findById(ID);
+        columnarReader.findById(ID, COLUMNS, batch -> { });
+
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            cacheManager.getCache(ClickhouseCacheConfig.TEST_TABLE_BY_ID).clear();
+            jpaRows += testTableRepository.findById(ID).size();
+        }
+        long jpaNanos = System.nanoTime() - start;
+        long jpaAllocated = allocatedBytes() - allocated;
+
+        AtomicLong rows = new AtomicLong();
+        allocated = allocatedBytes();
+        start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            columnarReader.findById(ID, COLUMNS, batch -> {
+                IntColumnVector ints = batch.getInts(TestTableColumn.C_INT32);
+                IntArrayColumnVector arrays = batch.getIntArrays(TestTableColumn.C_ARRAY_INT16);
+                long sum = 0;
+                for (int row = 0; row < batch.size(); row++) {
+                    sum += ints.get(row) + arrays.length(row);
+                }
+                columnarSum.addAndGet(sum);
+                rows.addAndGet(batch.size());
+            });
+        }
+        long columnarNanos = System.nanoTime() - start;
+        long columnarAllocated = allocatedBytes() - allocated;
+        columnarRows = rows.get();
+
+        System.out.printf("JPA: %d rows, %,d ms, %,d bytes allocated%n", jpaRows, jpaNanos / 1_000_000, jpaAllocated);
+        System.out.printf("Columnar: %d rows, %,d ms, %,d bytes allocated%n", columnarRows, columnarNanos / 1_000_000, columnarAllocated);
+        Assertions.assertEquals((long) ROWS * ROUNDS, jpaRows);
+        Assertions.assertEquals(jpaRows, columnarRows);
+        Assertions.assertEquals(expectedSum() * ROUNDS, columnarSum.get());
+        Assertions.assertTrue(columnarAllocated < jpaAllocated);
+    }
+
+    /**
+     * insertFixtureRows()가 적재한 c_int32(i)와 c_array_int16 길이(2)의 합
+     */
+    private static long expectedSum() {
+        return (long) ROWS * (ROWS - 1) / 2 + 2L * ROWS;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
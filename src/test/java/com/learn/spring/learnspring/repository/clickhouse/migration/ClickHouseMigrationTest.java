@@ -0,0 +1,62 @@
+package com.learn.spring.learnspring.repository.clickhouse.migration;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+class ClickHouseMigrationTest {
+    @Test
+    @DisplayName("Statements split on semicolons outside quotes and comments")
+    void split_Ignores_QuotedSemicolons() {
+        List<String> statements = ClickHouseMigration.split(
+                "-- comment; here\nSELECT 'a;b', `c;d` FROM t;\n/* block; */ SELECT 'it''s;';;\n  ");
+
+        Assertions.assertEquals(List.of("SELECT 'a;b', `c;d` FROM t", "SELECT 'it''s;'"), statements);
+    }
+
+    @Test
+    @DisplayName("Placeholders are substituted and undefined ones fail")
+    void statements_Substitutes_Placeholders() {
+        ClickHouseMigration migration = new ClickHouseMigration("V3__ttl.sql", "ALTER TABLE t MODIFY TTL d + toIntervalMonth(${ttl_months});");
+
+        Assertions.assertEquals(List.of("ALTER TABLE t MODIFY TTL d + toIntervalMonth(6)"), migration.statements(Map.of("ttl_months", "6")));
+        Assertions.assertThrows(IllegalStateException.class, () -> migration.statements(Map.of()));
+        Assertions.assertEquals(3, migration.getVersion());
+        Assertions.assertEquals("ttl", migration.getDescription());
+    }
+
+    @Test
+    @DisplayName("Checksum ignores line endings and detects edits")
+    void checksum_Ignores_LineEndings() {
+        long checksum = new ClickHouseMigration("V1__a.sql", "SELECT 1;\nSELECT 2;").getChecksum();
+
+        Assertions.assertEquals(checksum, new ClickHouseMigration("V1__a.sql", "SELECT 1;\r\nSELECT 2;").getChecksum());
+        Assertions.assertNotEquals(checksum, new ClickHouseMigration("V1__a.sql", "SELECT 1;\nSELECT 3;").getChecksum());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ClickHouseMigration("create.sql", "SELECT 1"));
+    }
+
+    @Test
+    @DisplayName("Bundled scripts load in version order with default placeholders")
+    void load_BundledScripts() throws IOException {
+        List<ClickHouseMigration> migrations = ClickHouseMigration.load(new PathMatchingResourcePatternResolver(),
+                ClickHouseMigrator.DEFAULT_LOCATION);
+
+        Assertions.assertEquals(2, migrations.size());
+        Assertions.assertEquals(1, migrations.get(0).getVersion());
+        Assertions.assertEquals(2, migrations.get(1).getVersion());
+        List<String> statements = migrations.get(1).statements(ClickHouseMigrator.DEFAULT_PLACEHOLDERS);
+        Assertions.assertEquals(7, statements.size());
+        Assertions.assertTrue(statements.get(0).contains("PARTITION BY toYYYYMM(c_datetime)"));
+        Assertions.assertFalse(statements.get(0).contains("TTL"));
+        Assertions.assertTrue(statements.get(3).startsWith("SELECT throwIf("));
+        Assertions.assertFalse(statements.get(3).contains("toIntervalMonth"));
+        Assertions.assertTrue(statements.get(4).startsWith("EXCHANGE TABLES"));
+        Assertions.assertTrue(statements.get(6).startsWith("ALTER TABLE test_db.test_table"));
+        Assertions.assertTrue(statements.get(6).contains("toIntervalMonth(120) WHERE c_datetime > toDateTime(0)"));
+    }
+}
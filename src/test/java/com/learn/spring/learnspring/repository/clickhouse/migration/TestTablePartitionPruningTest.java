@@ -0,0 +1,154 @@
+package com.learn.spring.learnspring.repository.clickhouse.migration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * # 기존 test_table 구조와 V2 구조의 granule pruning 비교
+ * - 실행: ./gradlew throughputTest
+ * - 같은 데이터(ROWS건, c_datetime이 약 1년에 걸쳐 분포)를 두 테이블에 넣고 같은 조건으로 조회한다
+ *   - flat: V1과 같은 키(PRIMARY KEY c_int8, 파티션, skip index 없음)
+ *   - partitioned: V2와 같은 파티션, 정렬 키, skip index
+ * - EXPLAIN indexes = 1 의 마지막 "Granules: 읽을 granule/전체 granule"과 조회 시간을 출력한다
+ */
+@Tag("throughput")
+@SpringBootTest
+@ActiveProfiles({"dev"})
+class TestTablePartitionPruningTest {
+    private static final int ROWS = 2_000_000;
+    private static final int ROUNDS = 20;
+    private static final String FLAT = "test_db.pruning_flat";
+    private static final String PARTITIONED = "test_db.pruning_partitioned";
+    private static final String COLUMNS = "c_int8 Int8, c_int32 Int32, c_string String, "
+            + "c_datetime DateTime('Asia/Seoul'), c_datetime64 DateTime64(3, 'Asia/Seoul'), c_array_string Array(String)";
+    private static final Pattern GRANULES = Pattern.compile("Granules: (\\d+)/(\\d+)");
+
+    @Autowired
+    @Qualifier("clickhouseDataSource")
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        execute("DROP TABLE IF EXISTS " + FLAT);
+        execute("DROP TABLE IF EXISTS " + PARTITIONED);
+        execute("CREATE TABLE " + FLAT + " (" + COLUMNS + ") ENGINE = MergeTree() PRIMARY KEY c_int8");
+        execute("CREATE TABLE " + PARTITIONED + " (" + COLUMNS + ", "
+                + "INDEX idx_c_string c_string TYPE bloom_filter(0.01) GRANULARITY 4, "
+                + "INDEX idx_c_array_string c_array_string TYPE bloom_filter(0.01) GRANULARITY 4, "
+                + "INDEX idx_c_datetime64 c_datetime64 TYPE minmax GRANULARITY 1"
+                + ") ENGINE = MergeTree() PARTITION BY toYYYYMM(c_datetime) ORDER BY (c_int8, c_datetime)");
+        // 15초 간격이면 200만 건이 약 347일에 걸친다
+        String rows = "SELECT toInt8(number % 16), toInt32(number), concat('s', toString(number)), "
+                + "toDateTime('2022-01-01 00:00:00', 'Asia/Seoul') + number * 15, "
+                + "toDateTime64('2022-01-01 00:00:00', 3, 'Asia/Seoul') + number * 15, "
+                + "[concat('a', toString(number % 1000))] FROM numbers(" + ROWS + ")";
+        execute("INSERT INTO " + FLAT + " " + rows);
+        execute("INSERT INTO " + PARTITIONED + " " + rows);
+        execute("OPTIMIZE TABLE " + FLAT + " FINAL");
+        execute("OPTIMIZE TABLE " + PARTITIONED + " FINAL");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        execute("DROP TABLE IF EXISTS " + FLAT);
+        execute("DROP TABLE IF EXISTS " + PARTITIONED);
+    }
+
+    @Test
+    @DisplayName("Partitioned layout reads fewer granules for a one-week range")
+    void timeRange_Prunes_Granules() throws SQLException {
+        String where = "c_datetime >= toDateTime('2022-03-01 00:00:00', 'Asia/Seoul') "
+                + "AND c_datetime < toDateTime('2022-03-08 00:00:00', 'Asia/Seoul')";
+        compare("one-week range", where);
+    }
+
+    @Test
+    @DisplayName("Bloom filter index skips granules for point lookups on c_string")
+    void stringLookup_Prunes_Granules() throws SQLException {
+        compare("c_string lookup", "c_string = 's1234567'");
+    }
+
+    @Test
+    @DisplayName("Bloom filter index skips granules for has() on c_array_string within an id")
+    void arrayLookup_Prunes_Granules() throws SQLException {
+        // c_int8 = 3 인 행의 c_array_string은 a3, a11, a19, ... 뿐이라 'a7'은 bloom filter에서 걸러진다
+        compare("c_array_string has()", "c_int8 = 3 AND has(c_array_string, 'a7')");
+    }
+
+    private void compare(String name, String where) throws SQLException {
+        String query = "SELECT count() FROM %s WHERE " + where;
+        long flatCount = count(String.format(query, FLAT));
+        long partitionedCount = count(String.format(query, PARTITIONED));
+        long[] flatGranules = granules(String.format(query, FLAT));
+        long[] partitionedGranules = granules(String.format(query, PARTITIONED));
+        long flatNanos = time(String.format(query, FLAT));
+        long partitionedNanos = time(String.format(query, PARTITIONED));
+
+        System.out.printf("%s%n  flat:        granules %,d/%,d, %,d us/query%n  partitioned: granules %,d/%,d, %,d us/query%n",
+                name, flatGranules[0], flatGranules[1], flatNanos / ROUNDS / 1000,
+                partitionedGranules[0], partitionedGranules[1], partitionedNanos / ROUNDS / 1000);
+        Assertions.assertEquals(flatCount, partitionedCount);
+        Assertions.assertTrue(partitionedGranules[0] < flatGranules[0]);
+    }
+
+    /**
+     * [읽을 granule 수, 전체 granule 수]. 인덱스 단계마다 줄이 나오므로 마지막 줄이 최종 결과
+     */
+    private long[] granules(String query) throws SQLException {
+        long[] granules = null;
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN indexes = 1 " + query)) {
+            while (rs.next()) {
+                Matcher matcher = GRANULES.matcher(rs.getString(1));
+                if (matcher.find()) {
+                    granules = new long[]{Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2))};
+                }
+            }
+        }
+        Assertions.assertNotNull(granules, "EXPLAIN output has no Granules line: " + query);
+        return granules;
+    }
+
+    private long time(String query) throws SQLException {
+        count(query);
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            count(query);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long count(String query) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(query)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
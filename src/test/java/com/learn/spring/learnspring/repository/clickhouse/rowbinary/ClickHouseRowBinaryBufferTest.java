@@ -0,0 +1,76 @@
+package com.learn.spring.learnspring.repository.clickhouse.rowbinary;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ClickHouseRowBinaryBufferTest {
+
+    @Test
+    @DisplayName("Integers are written little-endian")
+    void writeInt32_Writes_LittleEndian() {
+        ClickHouseRowBinaryBuffer buffer = new ClickHouseRowBinaryBuffer(4);
+        buffer.writeInt32(0x01020304);
+        Assertions.assertArrayEquals(new byte[]{4, 3, 2, 1}, buffer.toByteArray());
+    }
+
+    @Test
+    @DisplayName("String length is a LEB128 varint of the UTF-8 byte length")
+    void writeString_Writes_VarIntLengthAndUtf8() {
+        ClickHouseRowBinaryBuffer buffer = new ClickHouseRowBinaryBuffer(4);
+        buffer.writeString("가a");
+        Assertions.assertArrayEquals(new byte[]{4, (byte) 0xEA, (byte) 0xB0, (byte) 0x80, 'a'}, buffer.toByteArray());
+
+        buffer.reset();
+        buffer.writeVarInt(300);
+        Assertions.assertArrayEquals(new byte[]{(byte) 0xAC, 0x02}, buffer.toByteArray());
+    }
+
+    @Test
+    @DisplayName("FixedString is zero padded")
+    void writeFixedString_Pads_WithZero() {
+        ClickHouseRowBinaryBuffer buffer = new ClickHouseRowBinaryBuffer(4);
+        buffer.writeFixedString("f", 2);
+        buffer.writeFixedString("abc", 2);
+        Assertions.assertArrayEquals(new byte[]{'f', 0, 'a', 'b'}, buffer.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Int128 is sign extended two's complement")
+    void writeBigInteger_SignExtends_NegativeValues() {
+        ClickHouseRowBinaryBuffer buffer = new ClickHouseRowBinaryBuffer(16);
+        buffer.writeBigInteger(BigInteger.valueOf(-2), 16);
+        byte[] bytes = buffer.toByteArray();
+        Assertions.assertEquals(16, bytes.length);
+        Assertions.assertEquals((byte) 0xFE, bytes[0]);
+        for (int i = 1; i < 16; i++) {
+            Assertions.assertEquals((byte) 0xFF, bytes[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("Decimal is written as the unscaled integer")
+    void writeDecimal_Writes_UnscaledValue() {
+        ClickHouseRowBinaryBuffer buffer = new ClickHouseRowBinaryBuffer(4);
+        buffer.writeDecimal(new BigDecimal("0.9999"), 9, 4);
+        ClickHouseRowBinaryBuffer expected = new ClickHouseRowBinaryBuffer(4);
+        expected.writeInt32(999_900_000);
+        Assertions.assertArrayEquals(expected.toByteArray(), buffer.toByteArray());
+    }
+
+    @Test
+    @DisplayName("truncate() drops the bytes written after the given size")
+    void truncate_Drops_TrailingBytes() {
+        ClickHouseRowBinaryBuffer buffer = new ClickHouseRowBinaryBuffer(4);
+        buffer.writeInt8(1);
+        int size = buffer.size();
+        buffer.writeInt32(0x01020304);
+        buffer.truncate(size);
+        buffer.writeInt8(2);
+        Assertions.assertArrayEquals(new byte[]{1, 2}, buffer.toByteArray());
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> buffer.truncate(3));
+    }
+}
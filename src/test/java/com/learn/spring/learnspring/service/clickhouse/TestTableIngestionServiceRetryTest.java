@@ -0,0 +1,117 @@
+package com.learn.spring.learnspring.service.clickhouse;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.learn.spring.learnspring.config.cache.TestTableChangedEvent;
+import com.learn.spring.learnspring.entities.clickhouse.TestTableEntity;
+import com.learn.spring.learnspring.repository.clickhouse.rowbinary.ClickHouseRowBinaryBuffer;
+import com.learn.spring.learnspring.repository.clickhouse.rowbinary.TestTableRowBinaryEncoder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.util.StreamUtils;
+
+/**
+ * - ClickHouse 없이 DataSource를 mock으로 바꿔서 전송 실패 처리만 본다
+ */
+class TestTableIngestionServiceRetryTest {
+    private final DataSource dataSource = Mockito.mock(DataSource.class);
+    private final Connection connection = Mockito.mock(Connection.class);
+    private final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+    private final List<byte[]> attempts = new ArrayList<>();
+
+    @Test
+    @DisplayName("A failed batch is kept and sent again before newer rows")
+    void failedBatch_Is_RetriedFirst() throws Exception {
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(ArgumentMatchers.anyString())).thenReturn(statement);
+        Mockito.doAnswer(invocation -> attempts.add(StreamUtils.copyToByteArray(invocation.getArgument(1, InputStream.class))))
+                .when(statement).setObject(ArgumentMatchers.eq(1), ArgumentMatchers.any());
+        Mockito.when(statement.executeUpdate()).thenThrow(new SQLException("connection refused")).thenReturn(1);
+        ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        TestTableIngestionService service = new TestTableIngestionService(dataSource, eventPublisher, 1000, 1000);
+
+        service.add(row(1));
+        Assertions.assertThrows(DataAccessResourceFailureException.class, service::flush);
+        service.add(row(2));
+        service.flush();
+
+        Assertions.assertEquals(3, attempts.size());
+        Assertions.assertArrayEquals(encode(row(1)), attempts.get(0));
+        Assertions.assertArrayEquals(encode(row(1)), attempts.get(1));
+        Assertions.assertArrayEquals(encode(row(2)), attempts.get(2));
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(eventPublisher, Mockito.times(2)).publishEvent(events.capture());
+        Assertions.assertArrayEquals(new int[]{1}, ((TestTableChangedEvent) events.getAllValues().get(0)).getIds());
+        Assertions.assertArrayEquals(new int[]{2}, ((TestTableChangedEvent) events.getAllValues().get(1)).getIds());
+    }
+
+    @Test
+    @DisplayName("A row that fails to encode is rejected without leaving a partial row in the batch")
+    void add_Rejects_RowThatFailsToEncode() throws Exception {
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(ArgumentMatchers.anyString())).thenReturn(statement);
+        Mockito.doAnswer(invocation -> attempts.add(StreamUtils.copyToByteArray(invocation.getArgument(1, InputStream.class))))
+                .when(statement).setObject(ArgumentMatchers.eq(1), ArgumentMatchers.any());
+        Mockito.when(statement.executeUpdate()).thenReturn(1);
+        TestTableIngestionService service = new TestTableIngestionService(dataSource, Mockito.mock(ApplicationEventPublisher.class), 1000, 1000);
+        TestTableEntity overflow = row(2);
+        // Decimal32(9)는 10^9 배 한 값이 Int32를 넘으면 인코딩할 수 없다. 앞의 컬럼은 이미 버퍼에 쓴 뒤다
+        overflow.setCDecimal329(new BigDecimal("10"));
+
+        service.add(row(1));
+        Assertions.assertThrows(ArithmeticException.class, () -> service.add(overflow));
+        service.add(row(3));
+        service.flush();
+
+        Assertions.assertEquals(1, attempts.size());
+        Assertions.assertArrayEquals(encode(row(1), row(3)), attempts.get(0));
+    }
+
+    @Test
+    @DisplayName("add() does not throw when the batch it filled fails to send. The row is kept and sent on the next flush")
+    void add_Keeps_RowWhenBatchSendFails() throws Exception {
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(ArgumentMatchers.anyString())).thenReturn(statement);
+        Mockito.doAnswer(invocation -> attempts.add(StreamUtils.copyToByteArray(invocation.getArgument(1, InputStream.class))))
+                .when(statement).setObject(ArgumentMatchers.eq(1), ArgumentMatchers.any());
+        Mockito.when(statement.executeUpdate()).thenThrow(new SQLException("connection refused")).thenReturn(1);
+        TestTableIngestionService service = new TestTableIngestionService(dataSource, Mockito.mock(ApplicationEventPublisher.class), 1, 1000);
+
+        Assertions.assertDoesNotThrow(() -> service.add(row(1)));
+        service.flush();
+
+        Assertions.assertEquals(2, attempts.size());
+        Assertions.assertArrayEquals(encode(row(1)), attempts.get(0));
+        Assertions.assertArrayEquals(encode(row(1)), attempts.get(1));
+    }
+
+    private static TestTableEntity row(int id) {
+        TestTableEntity entity = new TestTableEntity();
+        entity.setId(id);
+        entity.setCString("row " + id);
+        return entity;
+    }
+
+    private static byte[] encode(TestTableEntity... entities) {
+        ClickHouseRowBinaryBuffer buffer = new ClickHouseRowBinaryBuffer(64);
+        TestTableRowBinaryEncoder encoder = new TestTableRowBinaryEncoder();
+        for (TestTableEntity entity : entities) {
+            encoder.encode(entity, buffer);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,127 @@
+package com.learn.spring.learnspring.service.clickhouse;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.learn.spring.learnspring.entities.clickhouse.TestTableEntity;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideDecimal;
+import com.learn.spring.learnspring.entities.clickhouse.types.WideInteger;
+import com.learn.spring.learnspring.repository.clickhouse.TestTableRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * # RowBinary 적재와 JpaRepository.saveAll() 처리량 비교
+ * - 실행: ./gradlew throughputTest
+ * - c_int8 < 0 인 행만 사용하고 테스트 전에 지운다
+ * - saveAll()은 id마다 merge(SELECT) 후 INSERT 하므로 Int8 범위 안에서 서로 다른 id 128개만 사용한다
+ */
+@Tag("throughput")
+@SpringBootTest
+@ActiveProfiles({"dev"})
+class TestTableIngestionServiceTest {
+    private static final int JPA_ROWS = 128;
+    private static final int INGESTION_ROWS = 1_000_000;
+
+    @Autowired
+    private TestTableIngestionService ingestionService;
+    @Autowired
+    private TestTableRepository testTableRepository;
+    @Autowired
+    @Qualifier("clickhouseDataSource")
+    private DataSource dataSource;
+
+    @BeforeEach
+    void deleteTestRows() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE test_db.test_table DELETE WHERE c_int8 < 0 SETTINGS mutations_sync = 2");
+        }
+    }
+
+    @Test
+    @DisplayName("RowBinary ingestion is faster than JpaRepository.saveAll()")
+    void ingestion_Outperforms_SaveAll() throws SQLException {
+        List<TestTableEntity> jpaRows = new ArrayList<>(JPA_ROWS);
+        for (int i = 0; i < JPA_ROWS; i++) {
+            jpaRows.add(row(i));
+        }
+        long start = System.nanoTime();
+        testTableRepository.saveAll(jpaRows);
+        double jpaRowsPerSecond = JPA_ROWS / secondsSince(start);
+
+        long before = countTestRows();
+        start = System.nanoTime();
+        for (int i = 0; i < INGESTION_ROWS; i++) {
+            ingestionService.add(row(i));
+        }
+        ingestionService.flush();
+        double ingestionRowsPerSecond = INGESTION_ROWS / secondsSince(start);
+
+        System.out.printf("saveAll(): %,.0f rows/s, RowBinary: %,.0f rows/s (x%.1f)%n",
+                jpaRowsPerSecond, ingestionRowsPerSecond, ingestionRowsPerSecond / jpaRowsPerSecond);
+        Assertions.assertEquals(before + INGESTION_ROWS, countTestRows());
+        Assertions.assertTrue(ingestionRowsPerSecond > jpaRowsPerSecond);
+    }
+
+    private static TestTableEntity row(int i) {
+        TestTableEntity entity = new TestTableEntity();
+        entity.setId(-(i % JPA_ROWS) - 1);
+        entity.setCInt16(i & 0x7FFF);
+        entity.setCInt32(i);
+        entity.setCInt64((long) i << 20);
+        entity.setCInt128(WideInteger.parse("170141183460469231731687303715884105727", 128));
+        entity.setCInt256(WideInteger.of(-i, 256));
+        entity.setCFloat32(i / 3f);
+        entity.setCFloat64(i / 7d);
+        entity.setCDecimal329(new BigDecimal("0.9999"));
+        entity.setCDecimal6418(new BigDecimal("0.999999999"));
+        entity.setCDecimal12838(WideDecimal.parse("0.99999999999999", 38, 128));
+        entity.setCDecimal25676(WideDecimal.parse("0.99999999999999999999", 76, 256));
+        entity.setCString("string " + i);
+        entity.setCFixedstring("fs");
+        LocalDateTime now = LocalDateTime.of(2022, 1, 1, 0, 0).plusSeconds(i);
+        entity.setCDate(now);
+        entity.setCDate32(now);
+        entity.setCDatetime(now);
+        entity.setCDatetime64(now);
+        entity.setCArrayInt8(Arrays.asList((short) 1, (short) 2, (short) 3));
+        entity.setCArrayInt16(Arrays.asList(100, 1000, 10000));
+        entity.setCArrayString(Arrays.asList("test", "string", "array"));
+        entity.setCNestedCInt32(Collections.singletonList(i));
+        entity.setCNestedCArrayInt16(Collections.singletonList(Arrays.asList(1, 2)));
+        entity.setCNestedCArrayString(Collections.singletonList(Arrays.asList("a", "b")));
+        entity.setCTuple1("key" + i);
+        entity.setCTuple2(null);
+        return entity;
+    }
+
+    private long countTestRows() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count() FROM test_db.test_table WHERE c_int8 < 0")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static double secondsSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000_000d;
+    }
+}
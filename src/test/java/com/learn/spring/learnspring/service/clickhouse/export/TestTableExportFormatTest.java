@@ -0,0 +1,42 @@
+package com.learn.spring.learnspring.service.clickhouse.export;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TestTableExportFormatTest {
+
+    @Test
+    @DisplayName("JSON strings escape quotes, backslashes and control characters")
+    void writeJsonString_Escapes_SpecialCharacters() throws IOException {
+        StringWriter writer = new StringWriter();
+        TestTableExportFormat.writeJsonString(writer, "a\"b\\c\nd\u0001");
+        Assertions.assertEquals("\"a\\\"b\\\\c\\nd\\u0001\"", writer.toString());
+    }
+
+    @Test
+    @DisplayName("Non-finite floats are written as JSON null")
+    void writeJsonNumber_Writes_NullForNonFinite() throws IOException {
+        StringWriter writer = new StringWriter();
+        for (String value : new String[]{"1.5", "-0.25", "1e-7", "nan", "inf", "-inf", "NaN", "-Infinity"}) {
+            TestTableExportFormat.writeJsonNumber(writer, value);
+            writer.write(',');
+        }
+        Assertions.assertEquals("1.5,-0.25,1e-7,null,null,null,null,null,", writer.toString());
+    }
+
+    @Test
+    @DisplayName("CSV fields are quoted only when needed")
+    void writeCsvField_Quotes_WhenNeeded() throws IOException {
+        StringWriter writer = new StringWriter();
+        TestTableExportFormat.writeCsvField(writer, "plain");
+        writer.write('|');
+        TestTableExportFormat.writeCsvField(writer, "['a','b']");
+        writer.write('|');
+        TestTableExportFormat.writeCsvField(writer, "say \"hi\"");
+        Assertions.assertEquals("plain|\"['a','b']\"|\"say \"\"hi\"\"\"", writer.toString());
+    }
+}